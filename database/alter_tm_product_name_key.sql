@@ -0,0 +1,16 @@
+-- ========================================
+-- TM_PRODUCT 商品名検索キー追加 (既存環境向け)
+-- ========================================
+-- schema_purchase.sql で作成済みの環境に PRODUCT_NAME_KEY を追加する（PostgreSQL 用）。
+-- MySQL の環境は alter_tm_product_name_key_mysql.sql を使用すること。
+-- 既存行のキーはアプリケーション起動時に ProductNameKeyBackfillJob が設定する
+-- （正規化はアプリで行うため SQL では設定しない）。設定されるまでの間、キーが NULL の行は
+-- 小文字にした商品名で検索される（ProductRepository）。
+-- ========================================
+
+ALTER TABLE SAMPLE.TM_PRODUCT ADD COLUMN IF NOT EXISTS PRODUCT_NAME_KEY VARCHAR(400);
+
+COMMENT ON COLUMN SAMPLE.TM_PRODUCT.PRODUCT_NAME_KEY IS '商品名検索キー（NFKC・カタカナ・小文字に正規化、アプリで設定）';
+
+-- 前方一致（LIKE 'キー%'）で範囲走査できるよう varchar_pattern_ops を指定
+CREATE INDEX IF NOT EXISTS IDX_TM_PRODUCT_NAME_KEY ON SAMPLE.TM_PRODUCT(PRODUCT_NAME_KEY varchar_pattern_ops);
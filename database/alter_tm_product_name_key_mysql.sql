@@ -0,0 +1,18 @@
+-- ========================================
+-- TM_PRODUCT 商品名検索キー追加 (既存環境向け・MySQL)
+-- ========================================
+-- pr プロファイル（MySQL、ddl-auto: validate）の環境に PRODUCT_NAME_KEY を追加する。
+-- 列がないと起動時のスキーマ検証に失敗するため、アプリケーションの更新前に実行すること。
+-- 既存行のキーはアプリケーション起動時に ProductNameKeyBackfillJob が設定する
+-- （正規化はアプリで行うため SQL では設定しない）。設定されるまでの間、キーが NULL の行は
+-- 小文字にした商品名で検索される（ProductRepository）。
+-- ========================================
+
+ALTER TABLE SAMPLE.TM_PRODUCT
+    ADD COLUMN PRODUCT_NAME_KEY VARCHAR(400) NULL
+    COMMENT '商品名検索キー（NFKC・カタカナ・小文字に正規化、アプリで設定）'
+    AFTER PRODUCT_NAME;
+
+-- 前方一致（LIKE 'キー%'）は通常の B-tree インデックスで範囲走査できる（varchar_pattern_ops は不要）
+-- キーが NULL の行（一括設定の対象）の検索にも使用する
+CREATE INDEX IDX_TM_PRODUCT_NAME_KEY ON SAMPLE.TM_PRODUCT(PRODUCT_NAME_KEY);
@@ -0,0 +1,45 @@
+-- ========================================
+-- TT_ORDER / TT_ORDER_DETAIL 注文追加 (既存環境向け)
+-- ========================================
+-- schema_purchase.sql で作成済みの環境に注文テーブルを追加する。
+-- 注文はアプリケーション（CheckoutService）がカートから一括で登録する。
+-- ========================================
+
+-- 注文トランザクション
+CREATE TABLE IF NOT EXISTS SAMPLE.TT_ORDER (
+    ORDER_ID VARCHAR(36) PRIMARY KEY,
+    USER_ID VARCHAR(50) NOT NULL,
+    TOTAL_PRICE DECIMAL(14, 2) NOT NULL,
+    ITEM_COUNT INTEGER NOT NULL,
+    ORDERED_AT TIMESTAMP NOT NULL,
+    CREATED_AT TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE SAMPLE.TT_ORDER IS '注文トランザクション';
+COMMENT ON COLUMN SAMPLE.TT_ORDER.ORDER_ID IS '注文ID（PK、UUID）';
+COMMENT ON COLUMN SAMPLE.TT_ORDER.USER_ID IS 'ユーザID';
+COMMENT ON COLUMN SAMPLE.TT_ORDER.TOTAL_PRICE IS '合計金額';
+COMMENT ON COLUMN SAMPLE.TT_ORDER.ITEM_COUNT IS '商品数（数量の合計）';
+COMMENT ON COLUMN SAMPLE.TT_ORDER.ORDERED_AT IS '注文日時';
+COMMENT ON COLUMN SAMPLE.TT_ORDER.CREATED_AT IS '登録日時';
+
+-- 注文明細トランザクション
+CREATE TABLE IF NOT EXISTS SAMPLE.TT_ORDER_DETAIL (
+    ORDER_ID VARCHAR(36) NOT NULL REFERENCES SAMPLE.TT_ORDER(ORDER_ID),
+    PRODUCT_ID VARCHAR(50) NOT NULL,
+    PRODUCT_NAME VARCHAR(200) NOT NULL,
+    PRICE DECIMAL(10, 2) NOT NULL,
+    QUANTITY INTEGER NOT NULL,
+    CREATED_AT TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (ORDER_ID, PRODUCT_ID)
+);
+
+COMMENT ON TABLE SAMPLE.TT_ORDER_DETAIL IS '注文明細トランザクション';
+COMMENT ON COLUMN SAMPLE.TT_ORDER_DETAIL.ORDER_ID IS '注文ID';
+COMMENT ON COLUMN SAMPLE.TT_ORDER_DETAIL.PRODUCT_ID IS '商品ID';
+COMMENT ON COLUMN SAMPLE.TT_ORDER_DETAIL.PRODUCT_NAME IS '商品名（注文時点）';
+COMMENT ON COLUMN SAMPLE.TT_ORDER_DETAIL.PRICE IS '単価（注文時点）';
+COMMENT ON COLUMN SAMPLE.TT_ORDER_DETAIL.QUANTITY IS '数量';
+COMMENT ON COLUMN SAMPLE.TT_ORDER_DETAIL.CREATED_AT IS '登録日時';
+
+CREATE INDEX IF NOT EXISTS IDX_TT_ORDER_USER_ID ON SAMPLE.TT_ORDER(USER_ID);
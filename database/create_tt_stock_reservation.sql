@@ -0,0 +1,25 @@
+-- ========================================
+-- TT_STOCK_RESERVATION 在庫引当追加 (既存環境向け)
+-- ========================================
+-- schema_purchase.sql で作成済みの環境に在庫引当テーブルを追加する。
+-- 引当はアプリケーション（StockReservationEngine）がメモリ上で管理し、一定間隔で反映する。
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS SAMPLE.TT_STOCK_RESERVATION (
+    USER_ID VARCHAR(50) NOT NULL,
+    PRODUCT_ID VARCHAR(50) NOT NULL,
+    QUANTITY INTEGER NOT NULL,
+    EXPIRES_AT TIMESTAMP NOT NULL,
+    CREATED_AT TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (USER_ID, PRODUCT_ID)
+);
+
+COMMENT ON TABLE SAMPLE.TT_STOCK_RESERVATION IS '在庫引当トランザクション（アプリのインメモリ引当を一定間隔で反映）';
+COMMENT ON COLUMN SAMPLE.TT_STOCK_RESERVATION.USER_ID IS 'ユーザID';
+COMMENT ON COLUMN SAMPLE.TT_STOCK_RESERVATION.PRODUCT_ID IS '商品ID';
+COMMENT ON COLUMN SAMPLE.TT_STOCK_RESERVATION.QUANTITY IS '引当数量';
+COMMENT ON COLUMN SAMPLE.TT_STOCK_RESERVATION.EXPIRES_AT IS '有効期限（経過後に引当を解除）';
+COMMENT ON COLUMN SAMPLE.TT_STOCK_RESERVATION.CREATED_AT IS '登録日時';
+
+-- 起動時の有効な引当の読み込み（EXPIRES_AT > 現在時刻）用
+CREATE INDEX IF NOT EXISTS IDX_TT_STOCK_RESERVATION_EXPIRES_AT ON SAMPLE.TT_STOCK_RESERVATION(EXPIRES_AT);
@@ -11,6 +11,9 @@
 CREATE SCHEMA IF NOT EXISTS SAMPLE;
 
 -- 既存テーブルの削除
+DROP TABLE IF EXISTS SAMPLE.TT_ORDER_DETAIL CASCADE;
+DROP TABLE IF EXISTS SAMPLE.TT_ORDER CASCADE;
+DROP TABLE IF EXISTS SAMPLE.TT_STOCK_RESERVATION CASCADE;
 DROP TABLE IF EXISTS SAMPLE.TT_CART CASCADE;
 DROP TABLE IF EXISTS SAMPLE.TM_COMPANY_PRODUCT_AUTH CASCADE;
 DROP TABLE IF EXISTS SAMPLE.TM_PRODUCT CASCADE;
@@ -93,6 +96,7 @@ DROP TABLE IF EXISTS SAMPLE.TM_PRODUCT CASCADE;
 CREATE TABLE SAMPLE.TM_PRODUCT (
     PRODUCT_ID VARCHAR(50) PRIMARY KEY,
     PRODUCT_NAME VARCHAR(200) NOT NULL,
+    PRODUCT_NAME_KEY VARCHAR(400),
     COMPANY_ID VARCHAR(20) NOT NULL,
     PRICE DECIMAL(10, 2) NOT NULL,
     STOCK_QUANTITY INTEGER NOT NULL DEFAULT 0,
@@ -107,6 +111,7 @@ CREATE TABLE SAMPLE.TM_PRODUCT (
 COMMENT ON TABLE SAMPLE.TM_PRODUCT IS '商品マスタ';
 COMMENT ON COLUMN SAMPLE.TM_PRODUCT.PRODUCT_ID IS '商品ID（PK）';
 COMMENT ON COLUMN SAMPLE.TM_PRODUCT.PRODUCT_NAME IS '商品名';
+COMMENT ON COLUMN SAMPLE.TM_PRODUCT.PRODUCT_NAME_KEY IS '商品名検索キー（NFKC・カタカナ・小文字に正規化、アプリで設定）';
 COMMENT ON COLUMN SAMPLE.TM_PRODUCT.COMPANY_ID IS '会社ID';
 COMMENT ON COLUMN SAMPLE.TM_PRODUCT.PRICE IS '価格';
 COMMENT ON COLUMN SAMPLE.TM_PRODUCT.STOCK_QUANTITY IS '在庫数';
@@ -163,11 +168,75 @@ COMMENT ON COLUMN SAMPLE.TT_CART.CREATED_BY IS '登録者';
 COMMENT ON COLUMN SAMPLE.TT_CART.UPDATED_AT IS '更新日時';
 COMMENT ON COLUMN SAMPLE.TT_CART.UPDATED_BY IS '更新者';
 
+-- 在庫引当トランザクション
+DROP TABLE IF EXISTS SAMPLE.TT_STOCK_RESERVATION CASCADE;
+CREATE TABLE SAMPLE.TT_STOCK_RESERVATION (
+    USER_ID VARCHAR(50) NOT NULL,
+    PRODUCT_ID VARCHAR(50) NOT NULL,
+    QUANTITY INTEGER NOT NULL,
+    EXPIRES_AT TIMESTAMP NOT NULL,
+    CREATED_AT TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (USER_ID, PRODUCT_ID)
+);
+
+COMMENT ON TABLE SAMPLE.TT_STOCK_RESERVATION IS '在庫引当トランザクション（アプリのインメモリ引当を一定間隔で反映）';
+COMMENT ON COLUMN SAMPLE.TT_STOCK_RESERVATION.USER_ID IS 'ユーザID';
+COMMENT ON COLUMN SAMPLE.TT_STOCK_RESERVATION.PRODUCT_ID IS '商品ID';
+COMMENT ON COLUMN SAMPLE.TT_STOCK_RESERVATION.QUANTITY IS '引当数量';
+COMMENT ON COLUMN SAMPLE.TT_STOCK_RESERVATION.EXPIRES_AT IS '有効期限（経過後に引当を解除）';
+COMMENT ON COLUMN SAMPLE.TT_STOCK_RESERVATION.CREATED_AT IS '登録日時';
+
+-- 注文トランザクション
+DROP TABLE IF EXISTS SAMPLE.TT_ORDER CASCADE;
+CREATE TABLE SAMPLE.TT_ORDER (
+    ORDER_ID VARCHAR(36) PRIMARY KEY,
+    USER_ID VARCHAR(50) NOT NULL,
+    TOTAL_PRICE DECIMAL(14, 2) NOT NULL,
+    ITEM_COUNT INTEGER NOT NULL,
+    ORDERED_AT TIMESTAMP NOT NULL,
+    CREATED_AT TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE SAMPLE.TT_ORDER IS '注文トランザクション';
+COMMENT ON COLUMN SAMPLE.TT_ORDER.ORDER_ID IS '注文ID（PK、UUID）';
+COMMENT ON COLUMN SAMPLE.TT_ORDER.USER_ID IS 'ユーザID';
+COMMENT ON COLUMN SAMPLE.TT_ORDER.TOTAL_PRICE IS '合計金額';
+COMMENT ON COLUMN SAMPLE.TT_ORDER.ITEM_COUNT IS '商品数（数量の合計）';
+COMMENT ON COLUMN SAMPLE.TT_ORDER.ORDERED_AT IS '注文日時';
+COMMENT ON COLUMN SAMPLE.TT_ORDER.CREATED_AT IS '登録日時';
+
+-- 注文明細トランザクション
+DROP TABLE IF EXISTS SAMPLE.TT_ORDER_DETAIL CASCADE;
+CREATE TABLE SAMPLE.TT_ORDER_DETAIL (
+    ORDER_ID VARCHAR(36) NOT NULL REFERENCES SAMPLE.TT_ORDER(ORDER_ID),
+    PRODUCT_ID VARCHAR(50) NOT NULL,
+    PRODUCT_NAME VARCHAR(200) NOT NULL,
+    PRICE DECIMAL(10, 2) NOT NULL,
+    QUANTITY INTEGER NOT NULL,
+    CREATED_AT TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (ORDER_ID, PRODUCT_ID)
+);
+
+COMMENT ON TABLE SAMPLE.TT_ORDER_DETAIL IS '注文明細トランザクション';
+COMMENT ON COLUMN SAMPLE.TT_ORDER_DETAIL.ORDER_ID IS '注文ID';
+COMMENT ON COLUMN SAMPLE.TT_ORDER_DETAIL.PRODUCT_ID IS '商品ID';
+COMMENT ON COLUMN SAMPLE.TT_ORDER_DETAIL.PRODUCT_NAME IS '商品名（注文時点）';
+COMMENT ON COLUMN SAMPLE.TT_ORDER_DETAIL.PRICE IS '単価（注文時点）';
+COMMENT ON COLUMN SAMPLE.TT_ORDER_DETAIL.QUANTITY IS '数量';
+COMMENT ON COLUMN SAMPLE.TT_ORDER_DETAIL.CREATED_AT IS '登録日時';
+
 -- インデックス作成
 CREATE INDEX IDX_TM_USER_COMPANY_USER_ID ON SAMPLE.TM_USER_COMPANY(USER_ID);
 CREATE INDEX IDX_TM_USER_COMPANY_COMPANY_ID ON SAMPLE.TM_USER_COMPANY(COMPANY_ID);
 CREATE INDEX IDX_TM_PRODUCT_COMPANY_ID ON SAMPLE.TM_PRODUCT(COMPANY_ID);
 CREATE INDEX IDX_TM_PRODUCT_NAME ON SAMPLE.TM_PRODUCT(PRODUCT_NAME);
+-- 前方一致（LIKE 'キー%'）で範囲走査できるよう varchar_pattern_ops を指定
+CREATE INDEX IDX_TM_PRODUCT_NAME_KEY ON SAMPLE.TM_PRODUCT(PRODUCT_NAME_KEY varchar_pattern_ops);
+-- 在庫表の差分同期（UPDATED_AT >= 前回同期時刻）用
+CREATE INDEX IDX_TM_PRODUCT_UPDATED_AT ON SAMPLE.TM_PRODUCT(UPDATED_AT);
 CREATE INDEX IDX_TT_CART_USER_ID ON SAMPLE.TT_CART(USER_ID);
+-- 起動時の有効な引当の読み込み（EXPIRES_AT > 現在時刻）用
+CREATE INDEX IDX_TT_STOCK_RESERVATION_EXPIRES_AT ON SAMPLE.TT_STOCK_RESERVATION(EXPIRES_AT);
+CREATE INDEX IDX_TT_ORDER_USER_ID ON SAMPLE.TT_ORDER(USER_ID);
 CREATE INDEX IDX_TM_COMPANY_PRODUCT_AUTH_COMPANY_ID ON SAMPLE.TM_COMPANY_PRODUCT_AUTH(COMPANY_ID);
 CREATE INDEX IDX_TM_COMPANY_PRODUCT_AUTH_SALES_COMPANY_ID ON SAMPLE.TM_COMPANY_PRODUCT_AUTH(SALES_COMPANY_ID);
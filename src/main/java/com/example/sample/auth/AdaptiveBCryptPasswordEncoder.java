@@ -0,0 +1,140 @@
+package com.example.sample.auth;
+
+import java.time.Duration;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 実行環境に合わせて strength（ストレッチング回数の log2）を決める BCrypt の {@link PasswordEncoder}。
+ * <p>
+ * BCrypt の所要時間は strength を1上げるごとに約2倍になる。{@link #calibrate} で最小の strength の
+ * 所要時間を計測し、目標時間に収まる最大の strength を選ぶ（上限・下限の範囲内）。
+ * <p>
+ * 保存済みハッシュの strength が選んだ値と異なる場合は {@link #upgradeEncoding} が true を返す。
+ * ログイン成功時に Spring Security が {@code UserDetailsPasswordService} 経由で再ハッシュ化した値を保存するため、
+ * ハードウェアの変更に合わせて強化・弱化のいずれも利用者の操作なしに反映される。
+ */
+@Slf4j
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    /** 計測用の平文（ログ・メトリクスには出力しない） */
+    private static final String PROBE_PASSWORD = "calibration-probe";
+    /** 計測の試行回数（JIT・キャッシュの影響を除くため最小値を採用する） */
+    private static final int PROBE_ROUNDS = 3;
+
+    private final int strength;
+    private final BCryptPasswordEncoder delegate;
+
+    /**
+     * @param strength 新規にハッシュ化する際の strength（4～31）
+     */
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+    }
+
+    /**
+     * 実行環境で計測した strength のエンコーダーを生成する。
+     *
+     * @param targetTime 1回のハッシュ化・照合の目標時間
+     * @param minStrength strength の下限（目標時間を超えてもこれより下げない）
+     * @param maxStrength strength の上限
+     * @return エンコーダー
+     */
+    public static AdaptiveBCryptPasswordEncoder calibrated(Duration targetTime, int minStrength, int maxStrength) {
+        return new AdaptiveBCryptPasswordEncoder(calibrate(targetTime, minStrength, maxStrength));
+    }
+
+    /**
+     * 目標時間に収まる最大の strength を計測する。
+     * <p>
+     * 下限の strength の所要時間から倍々で見積もり、見積もった strength で1回実測して超過していれば1つ下げる。
+     *
+     * @param targetTime 1回のハッシュ化・照合の目標時間
+     * @param minStrength strength の下限
+     * @param maxStrength strength の上限
+     * @return strength
+     */
+    public static int calibrate(Duration targetTime, int minStrength, int maxStrength) {
+        if (minStrength > maxStrength) {
+            throw new IllegalArgumentException("strength の下限が上限を超えています: " + minStrength + " > " + maxStrength);
+        }
+        long targetNanos = targetTime.toNanos();
+        long baseNanos = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_ROUNDS; i++) {
+            baseNanos = Math.min(baseNanos, measure(minStrength));
+        }
+        int strength = minStrength;
+        long estimatedNanos = baseNanos;
+        while (strength < maxStrength && estimatedNanos * 2 <= targetNanos) {
+            strength++;
+            estimatedNanos *= 2;
+        }
+        long measuredNanos = strength == minStrength ? baseNanos : measure(strength);
+        if (measuredNanos > targetNanos && strength > minStrength) {
+            strength--;
+            measuredNanos /= 2;
+        }
+        log.info("BCrypt strength を決定: strength={}, 所要時間(見込み)={}ms, 目標={}ms, 範囲={}～{}", strength,
+            Duration.ofNanos(measuredNanos).toMillis(), targetTime.toMillis(), minStrength, maxStrength);
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(PROBE_PASSWORD);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * BCrypt ハッシュから strength を取り出す。
+     *
+     * @param encodedPassword BCrypt ハッシュ（$2a$NN$...）
+     * @return strength（BCrypt ハッシュでない場合は -1）
+     */
+    static int strengthOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+                || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = encodedPassword.charAt(4);
+        char ones = encodedPassword.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    /**
+     * @return 新規にハッシュ化する際の strength
+     */
+    public int strength() {
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * 保存済みハッシュの strength が現在の strength と異なる場合に true を返す。
+     * <p>
+     * {@link BCryptPasswordEncoder#upgradeEncoding} は strength が低い場合のみ true を返すが、
+     * 目標時間を超える（高すぎる）strength も照合のたびに CPU を浪費するため、下げる方向にも再ハッシュ化する。
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int stored = strengthOf(encodedPassword);
+        return stored >= 0 && stored != strength;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.sample.auth;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import com.example.sample.stock.StockTable;
+
+/**
+ * 購入会社 × 販売会社 の購入承認のインメモリ表（ビット行列）。
+ * <p>
+ * 購入会社・販売会社にそれぞれ連番（オーディナル）を割り当て、購入会社ごとに
+ * 販売会社オーディナルのビット列（long 配列）を保持する。商品ID → 販売会社オーディナルは
+ * {@link StockTable} に保持するため、「購入会社が商品を購入できるか」はハッシュ参照2回とビット判定で求まり、
+ * 参照時にロックを取らずオブジェクトも生成しない。
+ * <p>
+ * 各行（ビット列）は変更時に複製して差し替える（承認の変更は稀なため）。行の配列への読み書きは
+ * {@link VarHandle} による volatile アクセスで行う。購入会社・販売会社の追加と行の差し替えは this で排他する。
+ */
+public class AuthorizationMatrix {
+
+    private static final VarHandle ROWS = MethodHandles.arrayElementVarHandle(long[][].class);
+    private static final long[] EMPTY_ROW = new long[0];
+
+    private final Map<String, Integer> companyOrdinals = new ConcurrentHashMap<>();
+    private final Map<String, Integer> sellerOrdinals = new ConcurrentHashMap<>();
+    private final StockTable productSellers = new StockTable();
+    /** 購入会社オーディナル → 販売会社ビット列（拡張時は外側の配列を複製して差し替える） */
+    private volatile long[][] rows = new long[0][];
+
+    /**
+     * 購入会社が商品を購入できるかを判定する。
+     *
+     * @param companyId 購入会社ID
+     * @param productId 商品ID
+     * @return 商品が登録済みで、その販売会社からの購入が承認されている場合 true
+     */
+    public boolean isAuthorized(String companyId, String productId) {
+        int seller = productSellers.get(productId);
+        return seller != StockTable.UNKNOWN && test(companyId, seller);
+    }
+
+    /**
+     * 購入会社が販売会社から購入できるかを判定する。
+     *
+     * @param companyId 購入会社ID
+     * @param sellerId 販売会社ID
+     * @return 承認されている場合 true
+     */
+    public boolean canBuyFrom(String companyId, String sellerId) {
+        Integer seller = sellerOrdinals.get(sellerId);
+        return seller != null && test(companyId, seller);
+    }
+
+    /**
+     * 購入会社が購入できる販売会社の判定を返す（入力候補の絞り込み等、販売会社ごとに繰り返し判定する場合に使用）。
+     * <p>
+     * 呼び出し時点の購入会社の行で判定する（以降の承認の変更は反映しない）。
+     *
+     * @param companyId 購入会社ID
+     * @return 販売会社IDを受け取り、承認されている場合 true を返す判定
+     */
+    public Predicate<String> sellerFilter(String companyId) {
+        Integer company = companyId == null ? null : companyOrdinals.get(companyId);
+        long[][] current = rows;
+        if (company == null || company >= current.length) {
+            return sellerId -> false;
+        }
+        long[] row = (long[]) ROWS.getVolatile(current, (int) company);
+        if (row == null || row.length == 0) {
+            return sellerId -> false;
+        }
+        return sellerId -> {
+            Integer seller = sellerOrdinals.get(sellerId);
+            return seller != null && (seller >>> 6) < row.length && (row[seller >>> 6] & (1L << seller)) != 0;
+        };
+    }
+
+    /**
+     * 購入会社の承認を置き換える。
+     *
+     * @param companyId 購入会社ID
+     * @param sellerIds 購入可能な販売会社IDの集合（空の場合は承認なし）
+     */
+    public synchronized void setSellers(String companyId, Collection<String> sellerIds) {
+        long[] row = EMPTY_ROW;
+        for (String sellerId : sellerIds) {
+            int seller = sellerOrdinal(sellerId);
+            if ((seller >>> 6) >= row.length) {
+                row = Arrays.copyOf(row, (seller >>> 6) + 1);
+            }
+            row[seller >>> 6] |= 1L << seller;
+        }
+        publish(companyOrdinal(companyId), row);
+    }
+
+    /**
+     * 商品の販売会社を登録する。登録済みの場合は置き換える。
+     *
+     * @param productId 商品ID
+     * @param sellerId 販売会社ID
+     */
+    public void putProduct(String productId, String sellerId) {
+        Integer seller = sellerOrdinals.get(sellerId);
+        if (seller == null) {
+            synchronized (this) {
+                seller = sellerOrdinal(sellerId);
+            }
+        }
+        productSellers.set(productId, seller);
+    }
+
+    /**
+     * 商品を削除する（以降は購入不可と判定する）。
+     *
+     * @param productId 商品ID
+     */
+    public void removeProduct(String productId) {
+        if (productSellers.get(productId) != StockTable.UNKNOWN) {
+            productSellers.set(productId, StockTable.UNKNOWN);
+        }
+    }
+
+    /**
+     * @return 購入会社数
+     */
+    public int companyCount() {
+        return companyOrdinals.size();
+    }
+
+    /**
+     * @return 販売会社数
+     */
+    public int sellerCount() {
+        return sellerOrdinals.size();
+    }
+
+    private boolean test(String companyId, int seller) {
+        Integer company = companyId == null ? null : companyOrdinals.get(companyId);
+        if (company == null) {
+            return false;
+        }
+        long[][] current = rows;
+        if (company >= current.length) {
+            return false;
+        }
+        long[] row = (long[]) ROWS.getVolatile(current, (int) company);
+        int word = seller >>> 6;
+        return row != null && word < row.length && (row[word] & (1L << seller)) != 0;
+    }
+
+    /**
+     * 行を差し替える（this で排他して呼び出すこと）。
+     */
+    private void publish(int company, long[] row) {
+        long[][] current = rows;
+        if (company >= current.length) {
+            current = Arrays.copyOf(current, Math.max(company + 1, current.length * 2));
+            ROWS.setVolatile(current, company, row);
+            rows = current;
+        } else {
+            ROWS.setVolatile(current, company, row);
+        }
+    }
+
+    /**
+     * 購入会社のオーディナルを返す。未登録の場合は割り当てる（this で排他して呼び出すこと）。
+     */
+    private int companyOrdinal(String companyId) {
+        Integer ordinal = companyOrdinals.get(companyId);
+        if (ordinal == null) {
+            ordinal = companyOrdinals.size();
+            companyOrdinals.put(companyId, ordinal);
+        }
+        return ordinal;
+    }
+
+    /**
+     * 販売会社のオーディナルを返す。未登録の場合は割り当てる（this で排他して呼び出すこと）。
+     */
+    private int sellerOrdinal(String sellerId) {
+        Integer ordinal = sellerOrdinals.get(sellerId);
+        if (ordinal == null) {
+            ordinal = sellerOrdinals.size();
+            sellerOrdinals.put(sellerId, ordinal);
+        }
+        return ordinal;
+    }
+}
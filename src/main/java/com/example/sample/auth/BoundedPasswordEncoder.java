@@ -0,0 +1,153 @@
+package com.example.sample.auth;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * パスワード照合を専用の固定サイズのスレッドプールで実行する {@link PasswordEncoder}。
+ * <p>
+ * BCrypt の照合は1回あたり数百ミリ秒の CPU を使用するため、ログインが集中すると
+ * リクエスト処理スレッドと CPU を占有し、他の画面の応答が遅くなる。
+ * 照合の同時実行数を CPU コア数程度に制限し、超えた分は上限付きの待ち行列で待たせる。
+ * 待ち行列が満杯の場合は待たずに、待ち時間が上限を超えた場合はその時点で
+ * {@link PasswordVerificationBusyException} を送出する（再試行を促す画面を表示する）。
+ * <p>
+ * ハッシュの生成（{@link #encode}）も照合と同じスレッドプール・待ち行列で実行する。
+ * strength の変更後はログイン成功時に再ハッシュ化（{@link #upgradeEncoding} → {@link #encode}）が
+ * 行われるため、リクエスト処理スレッドで BCrypt を実行しないようにする。
+ * 照合待ちがある間は再ハッシュ化を見送り（{@link #upgradeEncoding} が false を返す）、空いている
+ * 時のログインで行う。
+ * <p>
+ * 以下のメトリクスを登録する。
+ * <ul>
+ * <li>executor.*（name=passwordVerify）: 実行中・待ち行列の件数、待ち時間等</li>
+ * <li>login.verify.rejected: 混雑により照合しなかった件数（tag reason=queue-full|timeout）</li>
+ * <li>login.verify.duration: 照合1回あたりの所要時間（待ち行列での待ち時間を除く）</li>
+ * <li>login.rehash.deferred: 照合待ちがあるため再ハッシュ化を見送った件数</li>
+ * </ul>
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutNanos;
+    private final Counter queueFull;
+    private final Counter timedOut;
+    private final Timer verifyTimer;
+    private final Counter rehashDeferred;
+
+    /**
+     * @param delegate 照合を行うエンコーダー
+     * @param threads 照合の同時実行数
+     * @param queueCapacity 照合待ちの上限
+     * @param timeout 照合の完了を待つ時間の上限（待ち行列での待ち時間を含む）
+     * @param meterRegistry メトリクスの登録先
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration timeout,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutNanos = timeout.toNanos();
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, "password-verify-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.executor = pool;
+        ExecutorServiceMetrics.monitor(meterRegistry, pool, "passwordVerify");
+        this.queueFull = Counter.builder("login.verify.rejected").tag("reason", "queue-full")
+            .description("混雑により照合しなかったログイン試行数").register(meterRegistry);
+        this.timedOut = Counter.builder("login.verify.rejected").tag("reason", "timeout")
+            .description("混雑により照合しなかったログイン試行数").register(meterRegistry);
+        this.verifyTimer = Timer.builder("login.verify.duration")
+            .description("パスワード照合1回あたりの所要時間（待ち時間を除く）").register(meterRegistry);
+        this.rehashDeferred = Counter.builder("login.rehash.deferred")
+            .description("照合待ちがあるため再ハッシュ化を見送った件数").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> verifyTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * 処理を専用のスレッドプールで実行し、完了を待つ。
+     *
+     * @param task 照合またはハッシュの生成
+     * @return 処理の結果
+     * @throws PasswordVerificationBusyException 待ち行列が満杯、または待ち時間が上限を超えた場合
+     */
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            queueFull.increment();
+            log.warn("パスワード照合の待ち行列が満杯のため認証を中止: 実行中={}, 待ち={}",
+                executor.getActiveCount(), executor.getQueue().size());
+            throw new PasswordVerificationBusyException("パスワード照合が混雑しています");
+        }
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 待ち行列に残っている場合は実行しない
+            future.cancel(false);
+            timedOut.increment();
+            log.warn("パスワード照合の待ち時間が上限を超えたため認証を中止");
+            throw new PasswordVerificationBusyException("パスワード照合が混雑しています");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordVerificationBusyException("パスワード照合が中断されました");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("パスワード照合に失敗しました", e.getCause());
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (!delegate.upgradeEncoding(encodedPassword)) {
+            return false;
+        }
+        if (!executor.getQueue().isEmpty()) {
+            // 照合待ちのログインを優先し、再ハッシュ化は次回のログインで行う
+            rehashDeferred.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 照合用のスレッドプールを停止する。
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
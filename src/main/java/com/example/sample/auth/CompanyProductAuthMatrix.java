@@ -0,0 +1,227 @@
+package com.example.sample.auth;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sample.cache.CompanyProductAuthCache;
+import com.example.sample.db.jpa.product.ProductChangedEvent;
+import com.example.sample.db.jpa.product.ProductNameView;
+import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.db.jpa.usercompanyproductauth.CompanyProductAuthChangedEvent;
+import com.example.sample.db.jpa.usercompanyproductauth.CompanyProductAuthId;
+import com.example.sample.db.jpa.usercompanyproductauth.UserCompanyProductAuthRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 購入会社が商品を購入できるかの判定（カート追加時の検証用）。
+ * <p>
+ * 起動完了後にバックグラウンドで TM_COMPANY_PRODUCT_AUTH と TM_PRODUCT を読み込んで
+ * {@link AuthorizationMatrix} を構築し、以降はDBにアクセスせずに判定する。
+ * <ul>
+ * <li>承認マスタの変更イベント（コミット後）で、該当する購入会社の行のみ読み直す</li>
+ * <li>商品の変更イベント（コミット後）で、商品の販売会社を登録・削除する</li>
+ * <li>DBを直接更新した場合に備え、一定間隔で全体を構築し直す</li>
+ * </ul>
+ * 構築が完了していない、または構築に失敗した場合は、購入可能な販売会社（{@link CompanyProductAuthCache}）と
+ * 商品IDでDBを検索して判定する。
+ */
+@Slf4j
+@Component
+public class CompanyProductAuthMatrix {
+
+    private final UserCompanyProductAuthRepository authRepository;
+    private final ProductRepository productRepository;
+    private final CompanyProductAuthCache companyProductAuthCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService builder = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "auth-matrix-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 構築完了後に設定する（未構築の間は null） */
+    private volatile AuthorizationMatrix matrix;
+    /** 構築中に受けた商品変更イベント（構築完了時に適用する。構築中以外は null） */
+    private List<ProductChangedEvent> pendingEvents;
+
+    public CompanyProductAuthMatrix(
+            UserCompanyProductAuthRepository authRepository,
+            ProductRepository productRepository,
+            CompanyProductAuthCache companyProductAuthCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${sample.auth.matrix.refresh-interval:PT30M}") Duration refreshInterval) {
+        this.authRepository = authRepository;
+        this.productRepository = productRepository;
+        this.companyProductAuthCache = companyProductAuthCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * 購入会社が購入できる商品IDを返す。
+     *
+     * @param companyId 購入会社ID
+     * @param productIds 商品IDの集合
+     * @return 購入できる商品IDの集合（存在しない商品、削除済みの商品は含まない）
+     */
+    public Set<String> filterAuthorized(String companyId, Collection<String> productIds) {
+        AuthorizationMatrix current = matrix;
+        if (current == null) {
+            Set<String> salesCompanyIds = companyProductAuthCache.getSalesCompanyIds(companyId);
+            if (salesCompanyIds.isEmpty() || productIds.isEmpty()) {
+                return Set.of();
+            }
+            return new HashSet<>(productRepository.findAvailableProductIds(productIds, salesCompanyIds));
+        }
+        Set<String> authorized = new HashSet<>();
+        for (String productId : productIds) {
+            if (current.isAuthorized(companyId, productId)) {
+                authorized.add(productId);
+            }
+        }
+        return authorized;
+    }
+
+    /**
+     * 購入会社が購入できる販売会社の判定を返す。DBにはアクセスしない。
+     *
+     * @param companyId 購入会社ID
+     * @return 販売会社IDの判定（購入承認表の構築前は空）
+     */
+    public Optional<Predicate<String>> sellerFilter(String companyId) {
+        AuthorizationMatrix current = matrix;
+        return current == null ? Optional.empty() : Optional.of(current.sellerFilter(companyId));
+    }
+
+    /**
+     * 起動完了後に構築を開始し、以降は一定間隔で構築し直す。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        builder.scheduleWithFixedDelay(this::build, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 承認マスタ変更イベントを受けて、該当する購入会社の行を読み直す。
+     * <p>
+     * 構築と同じスレッドで実行するため、構築中に受けた場合は構築完了後に読み直す。
+     *
+     * @param event 承認マスタ変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyProductAuthChanged(CompanyProductAuthChangedEvent event) {
+        builder.execute(() -> reloadCompany(event.companyId()));
+    }
+
+    /**
+     * 商品変更イベントを反映する。
+     *
+     * @param event 商品変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        AuthorizationMatrix current;
+        synchronized (this) {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+            current = matrix;
+        }
+        if (current != null) {
+            apply(current, event);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    private void build() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            pendingEvents = new ArrayList<>();
+        }
+        try {
+            AuthorizationMatrix built = new AuthorizationMatrix();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                // 購入会社ID順のため、購入会社が変わるたびに行を登録する
+                try (Stream<CompanyProductAuthId> authorizations = authRepository.streamAllAuthorizations()) {
+                    List<String> sellerIds = new ArrayList<>();
+                    String[] companyId = { null };
+                    authorizations.forEach(a -> {
+                        if (!a.getCompanyId().equals(companyId[0])) {
+                            if (companyId[0] != null) {
+                                built.setSellers(companyId[0], sellerIds);
+                            }
+                            companyId[0] = a.getCompanyId();
+                            sellerIds.clear();
+                        }
+                        sellerIds.add(a.getSalesCompanyId());
+                    });
+                    if (companyId[0] != null) {
+                        built.setSellers(companyId[0], sellerIds);
+                    }
+                }
+                try (Stream<ProductNameView> products = productRepository.streamAllProductNames()) {
+                    products.forEach(p -> built.putProduct(p.productId(), p.companyId()));
+                }
+            });
+            synchronized (this) {
+                pendingEvents.forEach(event -> apply(built, event));
+                pendingEvents = null;
+                matrix = built;
+            }
+            log.info("購入承認表構築完了: 購入会社数={}, 販売会社数={}, 所要時間={}ms",
+                built.companyCount(), built.sellerCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingEvents = null;
+            }
+            log.warn("購入承認表の構築に失敗しました（前回の構築結果、または DB 検索で判定します）", e);
+        }
+    }
+
+    private void reloadCompany(String companyId) {
+        AuthorizationMatrix current = matrix;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.setSellers(companyId, authRepository.findSalesCompanyIds(companyId));
+            log.debug("承認マスタ変更により購入承認表を更新: companyId={}", companyId);
+        } catch (RuntimeException e) {
+            log.warn("購入承認表の更新に失敗しました（次回の構築で反映します）: companyId={}", companyId, e);
+        }
+    }
+
+    private static void apply(AuthorizationMatrix target, ProductChangedEvent event) {
+        if (event.deleted() || event.companyId() == null) {
+            target.removeProduct(event.productId());
+        } else {
+            target.putProduct(event.productId(), event.companyId());
+        }
+    }
+}
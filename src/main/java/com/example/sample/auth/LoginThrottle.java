@@ -0,0 +1,132 @@
+package com.example.sample.auth;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ログイン失敗回数によるログイン試行の制限。
+ * <p>
+ * ユーザIDごと・接続元IPアドレスごとに、直近 {@code window} の認証失敗回数を {@link SlidingWindowCounter} で数え、
+ * いずれかが閾値以上の場合はパスワードを照合せずに拒否する（{@link LoginThrottleFilter}）。
+ * パスワードリスト攻撃等で BCrypt の照合に CPU を消費し続けることを防ぐ。
+ * 拒否した試行は失敗回数に含めないため、攻撃が続いても制限は最後の失敗から時間窓の経過で解除される。
+ * <p>
+ * ログインに成功した場合は、そのユーザIDの失敗回数を破棄する（IPアドレスの失敗回数は破棄しない）。
+ * <p>
+ * 以下のメトリクスを登録する。
+ * <ul>
+ * <li>login.throttle.rejected: 制限により拒否した試行数（tag scope=user|ip）</li>
+ * <li>login.throttle.tracked: 失敗回数を保持しているキー数（tag scope=user|ip）</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxFailuresPerUser;
+    private final int maxFailuresPerIp;
+    private final SlidingWindowCounter userFailures;
+    private final SlidingWindowCounter ipFailures;
+    private final Counter userRejected;
+    private final Counter ipRejected;
+
+    public LoginThrottle(
+            MeterRegistry meterRegistry,
+            @Value("${sample.auth.login-throttle.enabled:true}") boolean enabled,
+            @Value("${sample.auth.login-throttle.window:PT15M}") Duration window,
+            @Value("${sample.auth.login-throttle.max-failures-per-user:5}") int maxFailuresPerUser,
+            @Value("${sample.auth.login-throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+            @Value("${sample.auth.login-throttle.maximum-size:100000}") int maximumSize,
+            @Value("${sample.auth.login-throttle.stripes:16}") int stripes) {
+        this.enabled = enabled;
+        this.window = window;
+        this.maxFailuresPerUser = maxFailuresPerUser;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.userFailures = new SlidingWindowCounter(window, maximumSize, stripes);
+        this.ipFailures = new SlidingWindowCounter(window, maximumSize, stripes);
+        this.userRejected = Counter.builder("login.throttle.rejected").tag("scope", "user")
+            .description("ログイン失敗回数の制限により拒否した試行数").register(meterRegistry);
+        this.ipRejected = Counter.builder("login.throttle.rejected").tag("scope", "ip")
+            .description("ログイン失敗回数の制限により拒否した試行数").register(meterRegistry);
+        Gauge.builder("login.throttle.tracked", userFailures, SlidingWindowCounter::size).tag("scope", "user")
+            .description("ログイン失敗回数を保持しているキー数").register(meterRegistry);
+        Gauge.builder("login.throttle.tracked", ipFailures, SlidingWindowCounter::size).tag("scope", "ip")
+            .description("ログイン失敗回数を保持しているキー数").register(meterRegistry);
+    }
+
+    /**
+     * ログイン試行を許可するか判定する。拒否する場合は拒否件数を記録する。
+     *
+     * @param username ユーザID（未入力の場合は null）
+     * @param remoteAddr 接続元IPアドレス
+     * @return 許可する場合は true
+     */
+    public boolean tryAcquire(String username, String remoteAddr) {
+        if (!enabled) {
+            return true;
+        }
+        if (ipFailures.count(remoteAddr) >= maxFailuresPerIp) {
+            ipRejected.increment();
+            log.debug("ログイン失敗回数の上限によりIPアドレスからの試行を拒否: IP={}", remoteAddr);
+            return false;
+        }
+        if (username != null && userFailures.count(username) >= maxFailuresPerUser) {
+            userRejected.increment();
+            log.debug("ログイン失敗回数の上限によりユーザの試行を拒否: User={}", username);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 認証失敗を記録する。
+     *
+     * @param username ユーザID（未入力の場合は null）
+     * @param remoteAddr 接続元IPアドレス
+     */
+    public void recordFailure(String username, String remoteAddr) {
+        if (!enabled) {
+            return;
+        }
+        int ipCount = ipFailures.increment(remoteAddr);
+        int userCount = username != null ? userFailures.increment(username) : 0;
+        if (ipCount == maxFailuresPerIp || userCount == maxFailuresPerUser) {
+            log.warn("ログイン失敗回数が上限に達したため制限を開始: IP={}({}回), User={}({}回), 時間窓={}",
+                remoteAddr, ipCount, username, userCount, window);
+        }
+    }
+
+    /**
+     * 認証成功を記録する（ユーザIDの失敗回数を破棄する）。
+     *
+     * @param username ユーザID
+     */
+    public void recordSuccess(String username) {
+        if (enabled) {
+            userFailures.reset(username);
+        }
+    }
+
+    /**
+     * 現在の制限状況を取得する。
+     *
+     * @return 制限状況
+     */
+    public LoginThrottleReport report() {
+        return new LoginThrottleReport(enabled, window, maxFailuresPerUser, maxFailuresPerIp,
+            userFailures.size(), ipFailures.size(),
+            (long) userRejected.count(), (long) ipRejected.count(),
+            userFailures.evictionCount() + ipFailures.evictionCount(),
+            userFailures.entriesAtLeast(maxFailuresPerUser, LoginThrottleReport.MAX_REPORTED_KEYS),
+            ipFailures.entriesAtLeast(maxFailuresPerIp, LoginThrottleReport.MAX_REPORTED_KEYS));
+    }
+}
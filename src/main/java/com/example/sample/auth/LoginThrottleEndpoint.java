@@ -0,0 +1,30 @@
+package com.example.sample.auth;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * ログイン試行の制限状況の確認用 Actuator エンドポイント（/actuator/loginthrottle）。
+ * <p>
+ * 制限中のユーザID・IPアドレスを含むため、管理者（ROLE_ADMIN）のみ参照できる（SecurityConfig で /actuator/** を制限）。
+ */
+@Component
+@Endpoint(id = "loginthrottle")
+@RequiredArgsConstructor
+public class LoginThrottleEndpoint {
+
+    private final LoginThrottle loginThrottle;
+
+    /**
+     * 現在の制限状況を取得する。
+     *
+     * @return 制限状況
+     */
+    @ReadOperation
+    public LoginThrottleReport report() {
+        return loginThrottle.report();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.sample.auth;
+
+import java.io.IOException;
+
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * ログイン処理（POST /login）の前段で、{@link LoginThrottle} により制限中の試行を拒否するフィルター。
+ * <p>
+ * ユーザ検索・パスワード照合より前に判定するため、拒否した試行は BCrypt の CPU を消費しない。
+ * 拒否した場合はログイン画面へリダイレクトし、時間をおいて再試行するよう表示する。
+ * Spring Security のフィルタチェーンにのみ登録する（Bean として登録すると全リクエストに適用されるため）。
+ */
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private final LoginThrottle loginThrottle;
+    private final RequestMatcher loginRequestMatcher;
+    private final String usernameParameter;
+    private final String rejectedUrl;
+
+    /**
+     * @param loginThrottle ログイン試行の制限
+     * @param loginRequestMatcher ログイン処理のリクエスト
+     * @param usernameParameter ユーザIDのパラメータ名
+     * @param rejectedUrl 拒否時のリダイレクト先（コンテキストパスからの相対）
+     */
+    public LoginThrottleFilter(LoginThrottle loginThrottle, RequestMatcher loginRequestMatcher,
+            String usernameParameter, String rejectedUrl) {
+        this.loginThrottle = loginThrottle;
+        this.loginRequestMatcher = loginRequestMatcher;
+        this.usernameParameter = usernameParameter;
+        this.rejectedUrl = rejectedUrl;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !loginRequestMatcher.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!loginThrottle.tryAcquire(request.getParameter(usernameParameter), request.getRemoteAddr())) {
+            response.sendRedirect(request.getContextPath() + rejectedUrl);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.sample.auth;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * ログイン試行の制限状況。
+ *
+ * @param enabled 制限が有効か
+ * @param window 失敗回数を数える時間窓
+ * @param maxFailuresPerUser ユーザIDごとの失敗回数の上限
+ * @param maxFailuresPerIp IPアドレスごとの失敗回数の上限
+ * @param trackedUsers 失敗回数を保持しているユーザID数
+ * @param trackedIps 失敗回数を保持しているIPアドレス数
+ * @param rejectedByUser ユーザIDの制限により拒否した試行数（起動後の累計）
+ * @param rejectedByIp IPアドレスの制限により拒否した試行数（起動後の累計）
+ * @param evicted 件数上限により追い出したキー数（起動後の累計。多い場合は件数上限の見直しを検討する）
+ * @param blockedUsers 制限中のユーザIDと失敗回数（先頭 {@link #MAX_REPORTED_KEYS} 件まで）
+ * @param blockedIps 制限中のIPアドレスと失敗回数（先頭 {@link #MAX_REPORTED_KEYS} 件まで）
+ */
+public record LoginThrottleReport(boolean enabled, Duration window, int maxFailuresPerUser, int maxFailuresPerIp,
+        int trackedUsers, int trackedIps, long rejectedByUser, long rejectedByIp, long evicted,
+        Map<String, Integer> blockedUsers, Map<String, Integer> blockedIps) {
+
+    /** 結果に含めるキーの上限 */
+    public static final int MAX_REPORTED_KEYS = 100;
+}
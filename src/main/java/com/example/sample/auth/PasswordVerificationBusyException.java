@@ -0,0 +1,21 @@
+package com.example.sample.auth;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * パスワード照合の混雑により認証を実行できなかったことを示す例外。
+ * <p>
+ * 照合待ちの上限を超えた、または待ち時間が上限を超えた場合に {@link BoundedPasswordEncoder} が送出する。
+ * 認証失敗ハンドラーは、認証情報の誤りとは区別して再試行を促す画面を表示する。
+ */
+public class PasswordVerificationBusyException extends AuthenticationServiceException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message エラーメッセージ
+     */
+    public PasswordVerificationBusyException(String message) {
+        super(message);
+    }
+}
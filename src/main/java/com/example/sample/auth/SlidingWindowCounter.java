@@ -0,0 +1,223 @@
+package com.example.sample.auth;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * キー（ユーザID・IPアドレス等）ごとの、直近一定時間の発生回数のカウンター。
+ * <p>
+ * 時間窓を {@link #BUCKETS} 個の区間に分けて区間ごとに回数を保持し、現在時刻から時間窓以内の区間の合計を返す
+ * （区間の幅の誤差で、時間窓が連続的に移動する）。
+ * <ul>
+ * <li>キーのハッシュ値で {@code stripes} 個の区画に分け、区画ごとに排他制御する（異なる区画のキーは並行して更新できる）</li>
+ * <li>区画ごとの件数が上限を超えた場合は、最も古くアクセスされたキーを追い出す（攻撃で大量のキーを使われても一定のメモリに収まる）</li>
+ * <li>時間窓より前に最後に更新されたキーは、参照時・更新時に破棄する</li>
+ * </ul>
+ */
+public class SlidingWindowCounter {
+
+    /** 時間窓の区間数 */
+    static final int BUCKETS = 8;
+
+    private final long bucketNanos;
+    private final int maximumSizePerStripe;
+    private final LongSupplier clock;
+    private final Stripe[] stripes;
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param window 時間窓
+     * @param maximumSize 保持するキー数の上限（区画数で等分する）
+     * @param stripes 区画数（2のべき乗に切り上げる）
+     */
+    public SlidingWindowCounter(Duration window, int maximumSize, int stripes) {
+        this(window, maximumSize, stripes, System::nanoTime);
+    }
+
+    SlidingWindowCounter(Duration window, int maximumSize, int stripes, LongSupplier clock) {
+        if (maximumSize <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("maximumSize, stripes must be positive: " + maximumSize + ", " + stripes);
+        }
+        int stripeCount = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.bucketNanos = Math.max(1, window.toNanos() / BUCKETS);
+        this.maximumSizePerStripe = Math.max(1, (maximumSize + stripeCount - 1) / stripeCount);
+        this.clock = clock;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * 発生を1回記録する。
+     *
+     * @param key キー
+     * @return 記録後の時間窓内の回数
+     */
+    public int increment(String key) {
+        long bucket = currentBucket();
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.expireEldest(bucket);
+            Window window = stripe.map.get(key);
+            if (window == null || window.isExpired(bucket)) {
+                window = new Window();
+                stripe.map.put(key, window);
+            }
+            return window.increment(bucket);
+        }
+    }
+
+    /**
+     * 時間窓内の回数を取得する。
+     *
+     * @param key キー
+     * @return 回数（記録がない場合は0）
+     */
+    public int count(String key) {
+        long bucket = currentBucket();
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Window window = stripe.map.get(key);
+            if (window == null) {
+                return 0;
+            }
+            if (window.isExpired(bucket)) {
+                stripe.map.remove(key);
+                return 0;
+            }
+            return window.count(bucket);
+        }
+    }
+
+    /**
+     * キーの記録を破棄する。
+     *
+     * @param key キー
+     */
+    public void reset(String key) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.map.remove(key);
+        }
+    }
+
+    /**
+     * 時間窓内の回数が閾値以上のキーを取得する（時間窓を過ぎたキーはこの時点で破棄する）。
+     *
+     * @param threshold 閾値
+     * @param limit 取得件数の上限
+     * @return キー → 回数
+     */
+    public Map<String, Integer> entriesAtLeast(int threshold, int limit) {
+        long bucket = currentBucket();
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Map.Entry<String, Window>> it = stripe.map.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<String, Window> e = it.next();
+                    if (e.getValue().isExpired(bucket)) {
+                        it.remove();
+                        continue;
+                    }
+                    int count = e.getValue().count(bucket);
+                    if (count >= threshold && result.size() < limit) {
+                        result.put(e.getKey(), count);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /** @return 保持しているキー数（時間窓を過ぎた未回収分を含む） */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.map.size();
+            }
+        }
+        return size;
+    }
+
+    /** @return 件数上限による追い出し件数 */
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    private long currentBucket() {
+        return Math.floorDiv(clock.getAsLong(), bucketNanos);
+    }
+
+    private Stripe stripeOf(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    /**
+     * 区画。アクセス順の {@link LinkedHashMap} を保持する。
+     */
+    private final class Stripe {
+        final LinkedHashMap<String, Window> map = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+                if (size() > maximumSizePerStripe) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        /** 最も古くアクセスされたキーが時間窓を過ぎていれば破棄する（更新のたびに少しずつ回収する） */
+        void expireEldest(long bucket) {
+            Iterator<Window> it = map.values().iterator();
+            if (it.hasNext() && it.next().isExpired(bucket)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * キーごとの区間別の回数。
+     */
+    private static final class Window {
+        final int[] counts = new int[BUCKETS];
+        final long[] buckets = new long[BUCKETS];
+        long lastBucket;
+
+        int increment(long bucket) {
+            int slot = (int) Math.floorMod(bucket, (long) BUCKETS);
+            if (buckets[slot] != bucket) {
+                buckets[slot] = bucket;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+            lastBucket = bucket;
+            return count(bucket);
+        }
+
+        int count(long bucket) {
+            int sum = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (bucket - buckets[i] < BUCKETS && counts[i] > 0) {
+                    sum += counts[i];
+                }
+            }
+            return sum;
+        }
+
+        boolean isExpired(long bucket) {
+            return bucket - lastBucket >= BUCKETS;
+        }
+    }
+}
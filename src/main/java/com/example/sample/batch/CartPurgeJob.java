@@ -0,0 +1,196 @@
+package com.example.sample.batch;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sample.cart.CartChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TT_CART の削除済み・放置行の定期削除ジョブ。
+ * <p>
+ * 論理削除（DEL_FLG = TRUE）された行と、保持期間より長く更新されていない行を、
+ * 主キー順に一定件数ずつ物理削除する。1チャンクごとにコミットし、チャンク間で一定時間待機する。
+ * 1回の実行が最大実行時間を超えた場合は中断し、次回は中断した位置から再開する。
+ * <p>
+ * 対象行は FOR UPDATE SKIP LOCKED で取得するため、カート追加中の行は待たずに読み飛ばす（次回以降に削除する）。
+ * 削除時にも条件を再確認するため、取得後に追加し直された行は削除しない。
+ * 削除したユーザには {@link CartChangedEvent} を発行する。
+ * <p>
+ * 以下のメトリクスを登録する。
+ * <ul>
+ * <li>cart.purge.rows: 削除した行数</li>
+ * <li>cart.purge.run: 1回の実行の所要時間（tag completed=true|false: 最後まで処理したか）</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sample.batch.cart-purge.enabled", havingValue = "true", matchIfMissing = true)
+public class CartPurgeJob {
+
+    private static final String SELECT_TARGETS =
+        "SELECT USER_ID, PRODUCT_ID FROM SAMPLE.TT_CART " +
+        "WHERE (DEL_FLG = TRUE OR UPDATED_AT < ?) AND (USER_ID, PRODUCT_ID) > (?, ?) " +
+        "ORDER BY USER_ID, PRODUCT_ID LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String DELETE_TARGET =
+        "DELETE FROM SAMPLE.TT_CART " +
+        "WHERE USER_ID = ? AND PRODUCT_ID = ? AND (DEL_FLG = TRUE OR UPDATED_AT < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration interval;
+    private final int batchSize;
+    private final Duration pause;
+    private final Duration maxRunTime;
+    private final Duration retention;
+    private final Counter purgedRows;
+    private final Timer completedRuns;
+    private final Timer interruptedRuns;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cart-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 前回中断した位置（ユーザID、商品ID）。最後まで処理した場合は先頭に戻す */
+    private String[] resumeAfter = { "", "" };
+
+    public CartPurgeJob(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${sample.batch.cart-purge.interval:PT1H}") Duration interval,
+            @Value("${sample.batch.cart-purge.batch-size:500}") int batchSize,
+            @Value("${sample.batch.cart-purge.pause:PT0.1S}") Duration pause,
+            @Value("${sample.batch.cart-purge.max-run-time:PT5M}") Duration maxRunTime,
+            @Value("${sample.batch.cart-purge.retention:P90D}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.maxRunTime = maxRunTime;
+        this.retention = retention;
+        this.purgedRows = Counter.builder("cart.purge.rows")
+            .description("削除したカート行数").register(meterRegistry);
+        this.completedRuns = Timer.builder("cart.purge.run").tag("completed", "true")
+            .description("カート削除ジョブの所要時間").register(meterRegistry);
+        this.interruptedRuns = Timer.builder("cart.purge.run").tag("completed", "false")
+            .description("カート削除ジョブの所要時間").register(meterRegistry);
+    }
+
+    /**
+     * 起動完了後に定期実行を開始する。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        executor.scheduleWithFixedDelay(this::runQuietly, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 削除対象の行をチャンク単位で削除する。
+     *
+     * @return 削除件数
+     */
+    public synchronized long run() {
+        long start = System.nanoTime();
+        long deadline = start + maxRunTime.toNanos();
+        Timestamp staleBefore = new Timestamp(System.currentTimeMillis() - retention.toMillis());
+        long deleted = 0;
+        boolean completed = false;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                String[] after = resumeAfter;
+                ChunkResult chunk = transaction.execute(status -> processChunk(after, staleBefore));
+                if (chunk == null || chunk.lastKey() == null) {
+                    resumeAfter = new String[] { "", "" };
+                    completed = true;
+                    break;
+                }
+                deleted += chunk.deleted();
+                purgedRows.increment(chunk.deleted());
+                resumeAfter = chunk.lastKey();
+                chunk.userIds().forEach(userId -> eventPublisher.publishEvent(new CartChangedEvent(userId)));
+                if (System.nanoTime() - deadline >= 0) {
+                    break;
+                }
+                Thread.sleep(pause.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            (completed ? completedRuns : interruptedRuns).record(elapsed, TimeUnit.NANOSECONDS);
+            if (deleted > 0 || !completed) {
+                log.info("カート削除完了: 件数={}, 所要時間={}ms, 中断={}", deleted, elapsed / 1_000_000, !completed);
+            }
+        }
+        return deleted;
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.warn("カートの削除に失敗しました（次回再実行します）", e);
+        }
+    }
+
+    /**
+     * 指定キーより後ろの1チャンクを削除する。
+     */
+    private ChunkResult processChunk(String[] after, Timestamp staleBefore) {
+        List<String[]> targets = jdbcTemplate.query(SELECT_TARGETS,
+            (rs, rowNum) -> new String[] { rs.getString(1), rs.getString(2) },
+            staleBefore, after[0], after[1], batchSize);
+        if (targets.isEmpty()) {
+            return new ChunkResult(null, 0, Set.of());
+        }
+        List<Object[]> args = targets.stream()
+            .map(t -> new Object[] { t[0], t[1], staleBefore })
+            .toList();
+        int deleted = 0;
+        Set<String> userIds = new LinkedHashSet<>();
+        int[] counts = jdbcTemplate.batchUpdate(DELETE_TARGET, args);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                deleted += Math.max(counts[i], 1);
+                userIds.add(targets.get(i)[0]);
+            }
+        }
+        return new ChunkResult(targets.get(targets.size() - 1), deleted, userIds);
+    }
+
+    private record ChunkResult(String[] lastKey, int deleted, Set<String> userIds) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.sample.batch;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sample.util.ProductNameNormalizer;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TM_PRODUCT.PRODUCT_NAME_KEY の一括設定ジョブ。
+ * <p>
+ * 列追加前から存在する商品や、SQLで直接登録された商品は検索キーが未設定（NULL）のため、
+ * 起動完了後にバックグラウンドで商品ID順に一定件数ずつ読み込み、キーを設定する。
+ * 1チャンクごとにコミットするため、長時間のロックや巨大なトランザクションにはならない。
+ * <p>
+ * 未設定の行のみを対象とするため、設定済みの環境では検索1回で終了する。
+ * 読み込み後に商品名が変更された行は更新しない（JPA経由の変更時はエンティティでキーが設定される）。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sample.batch.product-name-key-backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductNameKeyBackfillJob {
+
+    private static final String SELECT_TARGETS =
+        "SELECT PRODUCT_ID, PRODUCT_NAME FROM SAMPLE.TM_PRODUCT " +
+        "WHERE PRODUCT_NAME_KEY IS NULL AND PRODUCT_ID > ? " +
+        "ORDER BY PRODUCT_ID LIMIT ?";
+
+    private static final String UPDATE_KEY =
+        "UPDATE SAMPLE.TM_PRODUCT SET PRODUCT_NAME_KEY = ? " +
+        "WHERE PRODUCT_ID = ? AND PRODUCT_NAME = ? AND PRODUCT_NAME_KEY IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "product-name-key-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProductNameKeyBackfillJob(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${sample.batch.product-name-key-backfill.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 起動完了後にジョブを開始する。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        executor.execute(() -> {
+            try {
+                run();
+            } catch (RuntimeException e) {
+                log.warn("商品名検索キーの一括設定に失敗しました（次回起動時に未設定分から再開します）", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 検索キーが未設定の商品をチャンク単位で更新する。
+     *
+     * @return 更新件数
+     */
+    public long run() {
+        long start = System.nanoTime();
+        long updated = 0;
+        String lastProductId = "";
+        while (!Thread.currentThread().isInterrupted()) {
+            String after = lastProductId;
+            ChunkResult chunk = transaction.execute(status -> processChunk(after));
+            if (chunk == null || chunk.lastProductId() == null) {
+                break;
+            }
+            updated += chunk.updated();
+            lastProductId = chunk.lastProductId();
+        }
+        if (updated > 0) {
+            log.info("商品名検索キー一括設定完了: 件数={}, 所要時間={}ms", updated, (System.nanoTime() - start) / 1_000_000);
+        }
+        return updated;
+    }
+
+    /**
+     * 指定商品IDより後ろの1チャンクを更新する。
+     */
+    private ChunkResult processChunk(String afterProductId) {
+        List<String[]> targets = jdbcTemplate.query(SELECT_TARGETS,
+            (rs, rowNum) -> new String[] { rs.getString(1), rs.getString(2) },
+            afterProductId, chunkSize);
+        if (targets.isEmpty()) {
+            return new ChunkResult(null, 0);
+        }
+        List<Object[]> args = targets.stream()
+            .map(t -> new Object[] { ProductNameNormalizer.normalize(t[1]), t[0], t[1] })
+            .toList();
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(UPDATE_KEY, args)) {
+            updated += Math.max(count, 0);
+        }
+        return new ChunkResult(targets.get(targets.size() - 1)[0], updated);
+    }
+
+    private record ChunkResult(String lastProductId, int updated) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.sample.cache;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.sample.cart.CartChangedEvent;
+import com.example.sample.cart.CartWriter;
+import com.example.sample.db.jpa.cart.CartRepository;
+import com.example.sample.db.jpa.product.ProductChangedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ユーザ → カート内の商品数（数量の合計） のキャッシュ。
+ * <p>
+ * ヘッダーに表示するため全画面で参照される。画面ごとにカートを集計しないよう保持する。
+ * <ul>
+ * <li>カート変更時（コミット後）に該当ユーザのエントリを破棄する</li>
+ * <li>商品の削除時は、その商品をカートに持つユーザを特定できないため全エントリを破棄する</li>
+ * <li>DBを直接更新した場合に備え、有効期限でも破棄する</li>
+ * </ul>
+ * 数量の合計のみを保持し、在庫数は保持しない（明細の在庫は CartSummaryService が在庫表から取得する）。
+ * そのため在庫数の変更ではエントリを破棄しない。
+ */
+@Slf4j
+@Component
+public class CartItemCountCache {
+
+    /** メトリクス上のキャッシュ名 */
+    public static final String CACHE_NAME = "cartItemCount";
+
+    private final CartRepository cartRepository;
+    private final CartWriter cartWriter;
+    private final LruCache<String, Integer> cache;
+
+    public CartItemCountCache(
+            CartRepository cartRepository,
+            CartWriter cartWriter,
+            MeterRegistry meterRegistry,
+            @Value("${sample.cache.cart-item-count.maximum-size:10000}") int maximumSize,
+            @Value("${sample.cache.cart-item-count.ttl:PT5M}") Duration ttl) {
+        this.cartRepository = cartRepository;
+        this.cartWriter = cartWriter;
+        this.cache = new LruCache<>(CACHE_NAME, maximumSize, ttl);
+        LruCacheMetrics.monitor(meterRegistry, cache);
+    }
+
+    /**
+     * カート内の商品数を取得する。
+     *
+     * @param userId ユーザID
+     * @return 数量の合計
+     */
+    public int getItemCount(String userId) {
+        if (userId == null) {
+            return 0;
+        }
+        return cache.get(userId, id -> {
+            // 未反映の追加を含めて集計する
+            cartWriter.flush(id);
+            return Math.toIntExact(cartRepository.sumQuantityByUserId(id));
+        });
+    }
+
+    /**
+     * 指定ユーザのエントリを破棄する。
+     *
+     * @param userId ユーザID
+     */
+    public void invalidate(String userId) {
+        cache.invalidate(userId);
+    }
+
+    /**
+     * カート変更イベントを受けてエントリを破棄する。
+     *
+     * @param event カート変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartChanged(CartChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    /**
+     * 商品の削除時に全エントリを破棄する。
+     *
+     * @param event 商品変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.deleted()) {
+            log.debug("商品削除によりカート商品数キャッシュを破棄: productId={}", event.productId());
+            cache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.sample.cache;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.sample.db.jpa.usercompanyproductauth.CompanyProductAuthChangedEvent;
+import com.example.sample.db.jpa.usercompanyproductauth.UserCompanyProductAuthRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 購入会社 → 購入可能な販売会社ID集合 のキャッシュ。
+ * <p>
+ * TM_COMPANY_PRODUCT_AUTH はほとんど変更されないため、会社単位で不変の Set を保持し、
+ * 商品検索のたびに承認マスタをサブクエリで評価することを避ける。
+ * <ul>
+ * <li>件数上限を超えた場合は LRU で追い出す</li>
+ * <li>承認エンティティの変更時（コミット後）に該当会社のエントリを破棄する</li>
+ * <li>DBを直接更新した場合に備え、有効期限でも破棄する</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class CompanyProductAuthCache {
+
+    /** メトリクス上のキャッシュ名 */
+    public static final String CACHE_NAME = "companyProductAuth";
+
+    private final UserCompanyProductAuthRepository authRepository;
+    private final LruCache<String, Set<String>> cache;
+
+    public CompanyProductAuthCache(
+            UserCompanyProductAuthRepository authRepository,
+            MeterRegistry meterRegistry,
+            @Value("${sample.cache.company-product-auth.maximum-size:10000}") int maximumSize,
+            @Value("${sample.cache.company-product-auth.ttl:PT30M}") Duration ttl) {
+        this.authRepository = authRepository;
+        this.cache = new LruCache<>(CACHE_NAME, maximumSize, ttl);
+        LruCacheMetrics.monitor(meterRegistry, cache);
+    }
+
+    /**
+     * 購入会社が購入可能な販売会社IDの集合を取得する。
+     *
+     * @param companyId 購入会社ID
+     * @return 販売会社IDの不変集合（承認がない場合は空集合）
+     */
+    public Set<String> getSalesCompanyIds(String companyId) {
+        if (companyId == null) {
+            return Set.of();
+        }
+        return cache.get(companyId, id -> Set.copyOf(authRepository.findSalesCompanyIds(id)));
+    }
+
+    /**
+     * 指定会社のエントリを破棄する。
+     *
+     * @param companyId 購入会社ID
+     */
+    public void invalidate(String companyId) {
+        cache.invalidate(companyId);
+    }
+
+    /**
+     * 全エントリを破棄する（承認マスタを一括更新した場合に使用）。
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 承認マスタ変更イベントを受けてエントリを破棄する。
+     * <p>
+     * コミット前に破棄すると、並行する検索が旧データを再キャッシュする可能性があるため、
+     * コミット後に実行する。トランザクション外の変更は即時に処理する。
+     *
+     * @param event 承認マスタ変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyProductAuthChanged(CompanyProductAuthChangedEvent event) {
+        log.debug("承認マスタ変更によりキャッシュ破棄: companyId={}", event.companyId());
+        invalidate(event.companyId());
+    }
+}
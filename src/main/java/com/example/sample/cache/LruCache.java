@@ -0,0 +1,225 @@
+package com.example.sample.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * 件数上限・有効期限付きの LRU キャッシュ。
+ * <p>
+ * アクセス順の {@link LinkedHashMap} を排他制御して保持し、上限を超えた場合は
+ * 最も古くアクセスされたエントリを追い出す。ロード処理はロック外で実行するため、
+ * 遅いDBアクセス中に他キーの参照をブロックしない。
+ * <p>
+ * ヒット/ミス/追い出し件数は {@link LruCacheMetrics} から Actuator に公開する。
+ *
+ * @param <K> キーの型
+ * @param <V> 値の型（不変オブジェクトを推奨）
+ */
+public class LruCache<K, V> {
+
+    private final String name;
+    private final int maximumSize;
+    /** 有効期限（ナノ秒）。0以下は無期限 */
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder putCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadTimeNanos = new LongAdder();
+
+    /**
+     * キャッシュを生成する。
+     *
+     * @param name キャッシュ名（メトリクスのタグに使用）
+     * @param maximumSize 最大エントリ数
+     * @param ttl 有効期限（null またはゼロ以下の場合は無期限）
+     */
+    public LruCache(String name, int maximumSize, Duration ttl) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.ttlNanos = (ttl == null || ttl.isNegative()) ? 0L : ttl.toNanos();
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maximumSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * キャッシュ済みの値を取得する。
+     *
+     * @param key キー
+     * @return 値（未登録または期限切れの場合は null）
+     */
+    public V getIfPresent(K key) {
+        long now = System.nanoTime();
+        synchronized (map) {
+            Entry<V> entry = map.get(key);
+            if (entry != null && entry.isExpired(now)) {
+                map.remove(key);
+                evictionCount.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                missCount.increment();
+                return null;
+            }
+            hitCount.increment();
+            return entry.value;
+        }
+    }
+
+    /**
+     * キャッシュ済みの値を取得し、存在しない場合はロードして登録する。
+     * <p>
+     * ロードはロック外で実行する。同一キーの同時ロードは抑止しない
+     * （抑止する場合は loader 内で {@link SingleFlight} を使用する）。
+     *
+     * @param key キー
+     * @param loader ロード処理（null を返した場合はキャッシュしない）
+     * @return 値
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.nanoTime();
+        V loaded = loader.apply(key);
+        loadTimeNanos.add(System.nanoTime() - start);
+        loadCount.increment();
+        if (loaded != null) {
+            put(key, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * 値を登録する。
+     *
+     * @param key キー
+     * @param value 値
+     */
+    public void put(K key, V value) {
+        long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : Long.MAX_VALUE;
+        synchronized (map) {
+            map.put(key, new Entry<>(value, expiresAt));
+        }
+        putCount.increment();
+    }
+
+    /**
+     * 指定キーのエントリを破棄する。
+     *
+     * @param key キー
+     */
+    public void invalidate(K key) {
+        synchronized (map) {
+            map.remove(key);
+        }
+    }
+
+    /**
+     * 条件に一致するエントリを破棄する。
+     *
+     * @param predicate 破棄条件（キー、値）
+     * @return 破棄した件数
+     */
+    public int invalidateIf(BiPredicate<? super K, ? super V> predicate) {
+        int removed = 0;
+        synchronized (map) {
+            Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Entry<V>> e = it.next();
+                if (predicate.test(e.getKey(), e.getValue().value)) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 全エントリを破棄する。
+     */
+    public void invalidateAll() {
+        synchronized (map) {
+            map.clear();
+        }
+    }
+
+    /** @return キャッシュ名 */
+    public String getName() {
+        return name;
+    }
+
+    /** @return 最大エントリ数 */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /** @return 現在のエントリ数（期限切れ未回収分を含む） */
+    public long size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    /** @return ヒット件数 */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /** @return ミス件数 */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /** @return 登録件数 */
+    public long putCount() {
+        return putCount.sum();
+    }
+
+    /** @return 追い出し件数（件数超過・期限切れ） */
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    /** @return ロード件数 */
+    public long loadCount() {
+        return loadCount.sum();
+    }
+
+    /** @return ロード合計時間（ナノ秒） */
+    public long loadTimeNanos() {
+        return loadTimeNanos.sum();
+    }
+
+    /**
+     * キャッシュエントリ（値と有効期限）。
+     */
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0 && expiresAt != Long.MAX_VALUE;
+        }
+    }
+}
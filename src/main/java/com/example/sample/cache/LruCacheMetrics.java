@@ -0,0 +1,75 @@
+package com.example.sample.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * {@link LruCache} の統計情報を Micrometer に公開するバインダー。
+ * <p>
+ * 標準の cache.gets / cache.puts / cache.evictions / cache.size に加え、
+ * ロード件数・時間を cache.load.duration として登録する。
+ * Actuator の /actuator/metrics から参照可能。
+ */
+public class LruCacheMetrics extends CacheMeterBinder<LruCache<?, ?>> {
+
+    /**
+     * キャッシュをレジストリに登録する。
+     *
+     * @param registry メーターレジストリ
+     * @param cache 対象キャッシュ
+     */
+    public static void monitor(MeterRegistry registry, LruCache<?, ?> cache) {
+        new LruCacheMetrics(cache).bindTo(registry);
+    }
+
+    private LruCacheMetrics(LruCache<?, ?> cache) {
+        super(cache, cache.getName(), Tags.empty());
+    }
+
+    @Override
+    protected Long size() {
+        LruCache<?, ?> cache = getCache();
+        return cache == null ? null : cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        LruCache<?, ?> cache = getCache();
+        return cache == null ? 0L : cache.hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        LruCache<?, ?> cache = getCache();
+        return cache == null ? null : cache.missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        LruCache<?, ?> cache = getCache();
+        return cache == null ? null : cache.evictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        LruCache<?, ?> cache = getCache();
+        return cache == null ? 0L : cache.putCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        LruCache<?, ?> cache = getCache();
+        if (cache == null) {
+            return;
+        }
+        FunctionTimer.builder("cache.load.duration", cache,
+                LruCache::loadCount, LruCache::loadTimeNanos, TimeUnit.NANOSECONDS)
+            .tags(getTagsWithCacheName())
+            .description("キャッシュミス時のロード時間")
+            .register(registry);
+    }
+}
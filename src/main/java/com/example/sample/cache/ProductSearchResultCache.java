@@ -0,0 +1,127 @@
+package com.example.sample.cache;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.sample.db.jpa.product.ProductChangedEvent;
+import com.example.sample.db.jpa.usercompanyproductauth.CompanyProductAuthChangedEvent;
+import com.example.sample.search.KeysetPageRequest;
+import com.example.sample.search.ProductNameCondition;
+import com.example.sample.service.VA0101Service.ProductSearchPageDto;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * VA0101 商品検索結果のキャッシュ。
+ * <p>
+ * 同じ会社で同じ検索（「ペン」「ノート」、条件なし等）が短時間に繰り返されるため、
+ * (購入会社, 商品名の条件, ページ) 単位で検索結果を保持する。正規化後の検索語で保持するため、
+ * 全角・半角やひらがな・カタカナの違いは同じエントリとなる。
+ * <ul>
+ * <li>件数上限を超えた場合は LRU で追い出す</li>
+ * <li>商品の変更時（コミット後）に、その販売会社の商品を含みうるエントリを破棄する</li>
+ * <li>承認マスタの変更時（コミット後）に、その購入会社のエントリを破棄する</li>
+ * <li>DBの直接更新や、コミットと並行して検索した結果の登録に備え、有効期限でも破棄する。
+ *     価格・在庫が古いまま表示される時間の上限は有効期限となる</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ProductSearchResultCache {
+
+    /** メトリクス上のキャッシュ名 */
+    public static final String CACHE_NAME = "productSearchResult";
+
+    private final LruCache<Key, Entry> cache;
+    private final SingleFlight<Key, Entry> flights = new SingleFlight<>();
+    private final Duration loadTimeout;
+
+    public ProductSearchResultCache(
+            MeterRegistry meterRegistry,
+            @Value("${sample.cache.product-search.maximum-size:5000}") int maximumSize,
+            @Value("${sample.cache.product-search.ttl:PT30S}") Duration ttl,
+            @Value("${sample.cache.product-search.load-timeout:PT10S}") Duration loadTimeout) {
+        this.cache = new LruCache<>(CACHE_NAME, maximumSize, ttl);
+        this.loadTimeout = loadTimeout;
+        LruCacheMetrics.monitor(meterRegistry, cache);
+        FunctionCounter.builder("cache.load.coalesced", flights, SingleFlight::coalescedCount)
+            .tag("cache", CACHE_NAME)
+            .description("実行中の検索に合流し、検索を省略した件数")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 検索結果を取得し、存在しない場合は検索して登録する。
+     * <p>
+     * 同じキーの検索が実行中の場合は新たに検索せず、その結果を待って共有する（始業時など、
+     * 同じ会社の多数のセッションが同時に同じ検索を行った場合でもDB検索は1回となる）。
+     * 待機が上限を超えた場合は {@link SingleFlightTimeoutException}、検索が失敗した場合は
+     * 待機中の全呼び出しに同じ例外を返す。
+     *
+     * @param companyId 購入会社ID
+     * @param nameCondition 商品名の条件（null は条件なし）
+     * @param page ページ指定
+     * @param salesCompanyIds 検索対象の販売会社ID（破棄条件の判定に使用）
+     * @param loader 検索処理
+     * @return 検索結果ページ（呼び出し側で変更しないこと）
+     */
+    public ProductSearchPageDto get(String companyId, ProductNameCondition nameCondition, KeysetPageRequest page,
+            Set<String> salesCompanyIds, Supplier<ProductSearchPageDto> loader) {
+        Key key = new Key(companyId, nameCondition, page);
+        return cache.get(key, k -> flights.execute(k, loadTimeout, () -> new Entry(salesCompanyIds, loader.get())))
+            .page();
+    }
+
+    /**
+     * 全エントリを破棄する（商品マスタを一括更新した場合に使用）。
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 商品変更イベントを受けて、その商品の販売会社を検索対象とするエントリ、
+     * またはその商品を含むエントリを破棄する。
+     *
+     * @param event 商品変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        int removed = cache.invalidateIf((key, entry) ->
+            entry.salesCompanyIds().contains(event.companyId()) || entry.contains(event.productId()));
+        log.debug("商品変更により検索結果キャッシュ破棄: productId={}, 件数={}", event.productId(), removed);
+    }
+
+    /**
+     * 承認マスタ変更イベントを受けて、その購入会社のエントリを破棄する。
+     *
+     * @param event 承認マスタ変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyProductAuthChanged(CompanyProductAuthChangedEvent event) {
+        int removed = cache.invalidateIf((key, entry) -> key.companyId().equals(event.companyId()));
+        log.debug("承認マスタ変更により検索結果キャッシュ破棄: companyId={}, 件数={}", event.companyId(), removed);
+    }
+
+    /**
+     * キャッシュキー。
+     */
+    private record Key(String companyId, ProductNameCondition nameCondition, KeysetPageRequest page) {
+    }
+
+    /**
+     * キャッシュエントリ（検索対象の販売会社と検索結果）。
+     */
+    private record Entry(Set<String> salesCompanyIds, ProductSearchPageDto page) {
+        boolean contains(String productId) {
+            return page.getProducts().stream().anyMatch(p -> p.getProductId().equals(productId));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.sample.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 同一キーの同時ロードを1回に集約する（シングルフライト）。
+ * <p>
+ * 最初の呼び出し（リーダー）がロードを実行し、実行中に同じキーで呼び出したスレッドは
+ * その結果を待って共有する。ロードが例外で終了した場合は、待機中の全スレッドに同じ例外を返す。
+ * ロード完了後はキーを解放するため、結果の保持は行わない（{@link LruCache} と併用する）。
+ * <p>
+ * 呼び出しごとに待機時間の上限を指定する。リーダーの上限はそのロードに合流できる期限となり、
+ * 後続は自身の上限とロードの期限の短い方まで待つ。超えた場合は {@link SingleFlightTimeoutException} とする。
+ * 期限を過ぎて実行中のロードには後続を合流させず、新たにロードを開始する。
+ *
+ * @param <K> キーの型
+ * @param <V> 値の型
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * 値をロードする。同じキーのロードが実行中であれば、その結果を待つ。
+     *
+     * @param key キー
+     * @param timeout 待機時間の上限（リーダーとなった場合は後続が合流できる期限。ロード自体は中断しない）
+     * @param loader ロード処理
+     * @return ロード結果
+     * @throws SingleFlightTimeoutException 待機時間の上限を超えた場合
+     */
+    public V execute(K key, Duration timeout, Supplier<? extends V> loader) {
+        long now = System.nanoTime();
+        long timeoutNanos = timeout.toNanos();
+        Flight<V> flight = new Flight<>(now + timeoutNanos);
+        while (true) {
+            Flight<V> existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, loader);
+            }
+            long remaining = Math.min(timeoutNanos, existing.deadline - now);
+            if (remaining > 0) {
+                coalescedCount.increment();
+                return await(key, existing, remaining);
+            }
+            // 上限を超えて実行中のロードは見限り、置き換えてリーダーとなる
+            if (flights.replace(key, existing, flight)) {
+                return lead(key, flight, loader);
+            }
+        }
+    }
+
+    /**
+     * @return 実行中のロードの件数
+     */
+    public int inFlightCount() {
+        return flights.size();
+    }
+
+    /**
+     * @return 実行中のロードに合流した件数（ロードを省略できた件数）
+     */
+    public long coalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<? extends V> loader) {
+        try {
+            V value = loader.get();
+            flight.future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private V await(K key, Flight<V> flight, long remainingNanos) {
+        try {
+            return flight.future.get(remainingNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new SingleFlightTimeoutException("Timed out waiting for in-flight load: " + key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SingleFlightTimeoutException("Interrupted while waiting for in-flight load: " + key, e);
+        } catch (ExecutionException e) {
+            // リーダーで発生した例外をそのまま伝播する（例外ハンドラでの型判定を維持するため）
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 実行中のロード。
+     */
+    private static final class Flight<V> {
+        /** 後続が合流できる期限（System.nanoTime 基準） */
+        private final long deadline;
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        Flight(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+}
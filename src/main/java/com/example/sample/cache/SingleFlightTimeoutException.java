@@ -0,0 +1,19 @@
+package com.example.sample.cache;
+
+/**
+ * {@link SingleFlight} で実行中のロードの完了待ちが上限を超えた場合の例外。
+ */
+public class SingleFlightTimeoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 例外を生成する。
+     *
+     * @param message エラーメッセージ
+     * @param cause 原因例外
+     */
+    public SingleFlightTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
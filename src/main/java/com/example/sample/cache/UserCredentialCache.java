@@ -0,0 +1,94 @@
+package com.example.sample.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.sample.db.jpa.user.UserChangedEvent;
+import com.example.sample.db.jpa.user.UserCredentialView;
+import com.example.sample.db.jpa.user.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ユーザID → 認証情報（{@link UserCredentialView}） のキャッシュ。
+ * <p>
+ * ログインのたびに TM_USER を検索しないよう、不変のスナップショットを保持する。
+ * ロック・削除済みのユーザもそのまま保持し、判定は呼び出し側で行う。存在しないユーザは保持しない。
+ * <ul>
+ * <li>件数上限を超えた場合は LRU で追い出す</li>
+ * <li>ユーザエンティティの変更時（コミット後）に該当ユーザのエントリを破棄する</li>
+ * <li>DBを直接更新した場合に備え、有効期限でも破棄する</li>
+ * </ul>
+ * 破棄と並行して実行中だったロードの結果は登録しない（変更前の値を読んでいる可能性があるため）。
+ */
+@Slf4j
+@Component
+public class UserCredentialCache {
+
+    /** メトリクス上のキャッシュ名 */
+    public static final String CACHE_NAME = "userCredential";
+
+    private final UserRepository userRepository;
+    private final LruCache<String, UserCredentialView> cache;
+    /** 破棄の回数（ロード開始時と登録時で異なる場合は登録しない） */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserCredentialCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${sample.cache.user-credential.maximum-size:10000}") int maximumSize,
+            @Value("${sample.cache.user-credential.ttl:PT5M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = new LruCache<>(CACHE_NAME, maximumSize, ttl);
+        LruCacheMetrics.monitor(meterRegistry, cache);
+    }
+
+    /**
+     * ユーザの認証情報を取得する。
+     *
+     * @param userId ユーザID
+     * @return 認証情報（ユーザが存在しない場合は空）
+     */
+    public Optional<UserCredentialView> get(String userId) {
+        UserCredentialView cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = invalidations.get();
+        Optional<UserCredentialView> loaded = userRepository.findCredentialByUserId(userId);
+        if (loaded.isPresent() && invalidations.get() == generation) {
+            cache.put(userId, loaded.get());
+        }
+        return loaded;
+    }
+
+    /**
+     * 指定ユーザのエントリを破棄する。
+     *
+     * @param userId ユーザID
+     */
+    public void invalidate(String userId) {
+        invalidations.incrementAndGet();
+        cache.invalidate(userId);
+    }
+
+    /**
+     * ユーザ変更イベントを受けてエントリを破棄する。
+     * <p>
+     * コミット前に破棄すると、並行するログインが旧データを再キャッシュする可能性があるため、
+     * コミット後に実行する。トランザクション外の変更は即時に処理する。
+     *
+     * @param event ユーザ変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        log.debug("ユーザ変更によりキャッシュ破棄: userId={}", event.userId());
+        invalidate(event.userId());
+    }
+}
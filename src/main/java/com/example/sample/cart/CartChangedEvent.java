@@ -0,0 +1,46 @@
+package com.example.sample.cart;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * カート変更イベント。{@link CartWriter} の実装がカートへの追加時に発行する。
+ * <p>
+ * トランザクション内で発行した場合はコミット後に処理すること（@TransactionalEventListener）。
+ *
+ * @param userId ユーザID
+ * @param addedProductIds 追加によりカートに新たに入った商品ID
+ *     （既にカートにあった商品の数量の加算は含まない。追加以外の変更の場合は空）
+ */
+public record CartChangedEvent(String userId, Set<String> addedProductIds) {
+
+    /**
+     * 追加以外の変更（削除、注文確定等）のイベントを生成する。
+     *
+     * @param userId ユーザID
+     */
+    public CartChangedEvent(String userId) {
+        this(userId, Set.of());
+    }
+
+    /**
+     * DB への追加の反映結果からイベントを生成する。
+     * <p>
+     * 反映後の数量が追加した数量と等しい商品（追加前はカートになかった、または論理削除されていた商品）のみを
+     * 新たに入った商品とする。同じ商品の再追加で併せて追加された商品の集計が重複しないようにするため。
+     *
+     * @param userId ユーザID
+     * @param quantities 商品ID → 追加した数量
+     * @param cartQuantities 商品ID → 反映後の数量（{@code CartRepository#upsertIncrement} の戻り値）
+     * @return カート変更イベント
+     */
+    public static CartChangedEvent added(String userId, Map<String, Integer> quantities,
+            Map<String, Integer> cartQuantities) {
+        Set<String> newlyAdded = quantities.entrySet().stream()
+            .filter(e -> e.getValue().equals(cartQuantities.get(e.getKey())))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toUnmodifiableSet());
+        return new CartChangedEvent(userId, newlyAdded);
+    }
+}
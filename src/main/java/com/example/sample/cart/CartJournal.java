@@ -0,0 +1,264 @@
+package com.example.sample.cart;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * カート追加の追記専用ジャーナル（{@link WriteBehindCartWriter} が使用する）。
+ * <p>
+ * DB に未反映の追加をローカルファイルに記録し、プロセスが異常終了しても再起動時に復元できるようにする。
+ * 1行1レコードのタブ区切りで、追記ごとに fsync する。
+ * <ul>
+ * <li>A 連番 ユーザID 商品ID 数量: カート追加（1回の追加の商品は同じ連番）</li>
+ * <li>C 連番: 連番の A レコードの終端（C がない追加は書き込み途中のため復元しない）</li>
+ * <li>F 連番 ユーザID: 指定ユーザの連番以下の追加を DB に反映済み</li>
+ * </ul>
+ * ファイルはセグメント（cart-journal-連番.log）に分け、全件反映時に {@link #seal()} で切り替えて、
+ * 反映完了後に {@link #delete} で削除する。
+ * <p>
+ * DB への反映のコミット後、F レコードの記録前に異常終了した場合は、復元時に同じ追加を再度反映する。
+ * <p>
+ * 反映の失敗が続き破棄した追加は {@link #deadLetter} で別ファイル（cart-dead-letter.log）に記録する。
+ * 復元の対象外のため、原因を取り除いた後に必要に応じて手動で反映すること。
+ * スレッドセーフではないため、呼び出し側で排他すること。
+ */
+@Slf4j
+public class CartJournal implements Closeable {
+
+    private static final String PREFIX = "cart-journal-";
+    private static final String SUFFIX = ".log";
+    private static final String DEAD_LETTER = "cart-dead-letter.log";
+
+    /**
+     * 復元した未反映の追加。
+     *
+     * @param seq 連番
+     * @param userId ユーザID
+     * @param productId 商品ID
+     * @param quantity 数量
+     */
+    public record Entry(long seq, String userId, String productId, int quantity) {
+    }
+
+    private final Path directory;
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private long segmentNumber;
+    private long lastSeq;
+    private Path currentSegment;
+    private FileChannel channel;
+
+    /**
+     * @param directory ジャーナルのディレクトリ（存在しない場合は作成する）
+     */
+    public CartJournal(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 既存のセグメントを読み込み、未反映の追加を記録順に返す。書き込み用の新しいセグメントを開く。
+     * <p>
+     * 既存のセグメントは封印済みとして扱い、次に全件を反映した後に削除される。
+     *
+     * @return 未反映の追加
+     * @throws IOException 読み込み、またはセグメントの作成に失敗した場合
+     */
+    public List<Entry> recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files
+                .filter(p -> p.getFileName().toString().startsWith(PREFIX) && p.getFileName().toString().endsWith(SUFFIX))
+                .sorted()
+                .toList();
+        }
+        List<Entry> entries = new ArrayList<>();
+        Set<Long> completedSeqs = new HashSet<>();
+        Map<String, Long> flushedSeqByUser = new HashMap<>();
+        for (Path segment : segments) {
+            read(segment, entries, completedSeqs, flushedSeqByUser);
+            segmentNumber = Math.max(segmentNumber, segmentNumberOf(segment));
+            sealedSegments.add(segment);
+        }
+        for (Entry entry : entries) {
+            lastSeq = Math.max(lastSeq, entry.seq());
+        }
+        lastSeq = Math.max(lastSeq, flushedSeqByUser.values().stream().mapToLong(Long::longValue).max().orElse(0));
+        openNextSegment();
+        return entries.stream()
+            .filter(e -> completedSeqs.contains(e.seq()))
+            .filter(e -> e.seq() > flushedSeqByUser.getOrDefault(e.userId(), 0L))
+            .toList();
+    }
+
+    /**
+     * カート追加を記録する（fsync 後に戻る）。
+     *
+     * @param userId ユーザID
+     * @param quantities 商品ID → 数量
+     * @return 割り当てた連番
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public long append(String userId, Map<String, Integer> quantities) throws IOException {
+        long seq = lastSeq + 1;
+        StringBuilder sb = new StringBuilder();
+        quantities.forEach((productId, quantity) -> sb.append("A\t").append(seq).append('\t').append(userId)
+            .append('\t').append(productId).append('\t').append(quantity).append('\n'));
+        sb.append("C\t").append(seq).append('\n');
+        write(sb);
+        lastSeq = seq;
+        return seq;
+    }
+
+    /**
+     * 指定ユーザの連番以下の追加を反映済みとして記録する。
+     *
+     * @param userId ユーザID
+     * @param seq 反映済みの連番
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public void markFlushed(String userId, long seq) throws IOException {
+        write(new StringBuilder("F\t").append(seq).append('\t').append(userId).append('\n'));
+    }
+
+    /**
+     * @return 最後に割り当てた連番
+     */
+    public long lastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * 書き込み中のセグメントを封印し、新しいセグメントに切り替える。
+     *
+     * @return 封印済みで未削除のセグメント（今回封印した分を含む）
+     * @throws IOException セグメントの作成に失敗した場合
+     */
+    public List<Path> seal() throws IOException {
+        channel.close();
+        sealedSegments.add(currentSegment);
+        openNextSegment();
+        return List.copyOf(sealedSegments);
+    }
+
+    /**
+     * 反映済みのセグメントを削除する。
+     *
+     * @param segments {@link #seal()} が返したセグメント
+     */
+    public void delete(List<Path> segments) {
+        for (Path segment : segments) {
+            try {
+                Files.deleteIfExists(segment);
+                sealedSegments.remove(segment);
+            } catch (IOException e) {
+                log.warn("カートジャーナルの削除に失敗しました: {}", segment, e);
+            }
+        }
+    }
+
+    /**
+     * 破棄する追加を記録する（fsync 後に戻る）。
+     * <p>
+     * 1行1商品のタブ区切り（記録日時 ユーザID 商品ID 数量）で追記する。
+     *
+     * @param userId ユーザID
+     * @param quantities 商品ID → 数量
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public void deadLetter(String userId, Map<String, Integer> quantities) throws IOException {
+        String now = LocalDateTime.now().toString();
+        StringBuilder sb = new StringBuilder();
+        quantities.forEach((productId, quantity) -> sb.append(now).append('\t').append(userId)
+            .append('\t').append(productId).append('\t').append(quantity).append('\n'));
+        try (FileChannel deadLetter = FileChannel.open(directory.resolve(DEAD_LETTER),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(sb.toString());
+            while (buffer.hasRemaining()) {
+                deadLetter.write(buffer);
+            }
+            deadLetter.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void write(CharSequence records) throws IOException {
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(records.toString());
+        long start = channel.size();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // 書き込み途中の行に次のレコードが続かないよう切り詰める
+            try {
+                channel.truncate(start);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        currentSegment = directory.resolve(String.format("%s%012d%s", PREFIX, segmentNumber, SUFFIX));
+        channel = FileChannel.open(currentSegment,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void read(Path segment, List<Entry> entries, Set<Long> completedSeqs,
+            Map<String, Long> flushedSeqByUser) throws IOException {
+        // 書き込み途中で終了した末尾は不正なバイト列の場合があるため、置換文字で読み込む
+        for (String line : new String(Files.readAllBytes(segment), StandardCharsets.UTF_8).split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            try {
+                if (fields.length == 5 && fields[0].equals("A")) {
+                    entries.add(new Entry(Long.parseLong(fields[1]), fields[2], fields[3], Integer.parseInt(fields[4])));
+                } else if (fields.length == 2 && fields[0].equals("C")) {
+                    completedSeqs.add(Long.parseLong(fields[1]));
+                } else if (fields.length == 3 && fields[0].equals("F")) {
+                    flushedSeqByUser.merge(fields[2], Long.parseLong(fields[1]), Math::max);
+                } else {
+                    log.warn("カートジャーナルの不正な行を読み飛ばします: {}: {}", segment, line);
+                }
+            } catch (NumberFormatException e) {
+                log.warn("カートジャーナルの不正な行を読み飛ばします: {}: {}", segment, line);
+            }
+        }
+    }
+
+    private static long segmentNumberOf(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.sample.cart;
+
+import java.util.Map;
+
+/**
+ * カートへの書き込み。
+ * <p>
+ * 実装は {@code sample.cart.write-mode} で切り替える。
+ * <ul>
+ * <li>direct（既定）: {@link DirectCartWriter} 追加のたびに DB に反映する</li>
+ * <li>write-behind: {@link WriteBehindCartWriter} メモリ上でまとめて一定間隔で DB に反映する</li>
+ * </ul>
+ * ユーザのカートを DB から読み込む処理は、自身の追加が反映されているよう
+ * 事前に {@link #flush(String)} を呼び出すこと。
+ */
+public interface CartWriter {
+
+    /**
+     * カートに商品を追加する。カートに存在する商品は数量を加算する。
+     *
+     * @param userId ユーザID
+     * @param quantities 商品ID → 追加する数量（空でないこと）
+     */
+    void add(String userId, Map<String, Integer> quantities);
+
+    /**
+     * 指定ユーザの未反映の追加を DB に反映する。
+     *
+     * @param userId ユーザID
+     */
+    void flush(String userId);
+}
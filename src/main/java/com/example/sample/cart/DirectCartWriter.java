@@ -0,0 +1,42 @@
+package com.example.sample.cart;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.sample.db.jpa.cart.CartRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 追加のたびに {@link CartRepository#upsertIncrement} で DB に反映するカート書き込み（既定）。
+ * <p>
+ * 追加時に {@link CartChangedEvent} を発行する（リスナーにはコミット後に通知される）。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sample.cart.write-mode", havingValue = "direct", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DirectCartWriter implements CartWriter {
+
+    private final CartRepository cartRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public void add(String userId, Map<String, Integer> quantities) {
+        Map<String, Integer> cartQuantities = cartRepository.upsertIncrement(userId, quantities, LocalDateTime.now());
+        log.debug("カート追加後の数量: {}", cartQuantities);
+        eventPublisher.publishEvent(CartChangedEvent.added(userId, quantities, cartQuantities));
+    }
+
+    @Override
+    public void flush(String userId) {
+        // 追加時に反映済み
+    }
+}
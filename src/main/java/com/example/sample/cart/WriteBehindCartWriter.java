@@ -0,0 +1,359 @@
+package com.example.sample.cart;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sample.db.jpa.cart.CartId;
+import com.example.sample.db.jpa.cart.CartRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * カートへの追加をメモリ上でまとめ、一定間隔または一定件数で DB に反映するカート書き込み。
+ * <p>
+ * 追加は {@link CartJournal} に記録（fsync）してから、{@link CartId} 単位で数量を合算して保持する。
+ * 同じユーザ・商品への追加が反映前に繰り返された場合は1行の加算にまとめる。
+ * 反映は {@link CartRepository#upsertIncrement} をユーザ単位のトランザクションで実行する（一部のユーザの失敗が
+ * 他のユーザの反映を妨げない）。反映に失敗したユーザの追加は保持し直し、次回の反映で再実行する。
+ * 連続して {@code max-attempts} 回失敗したユーザの追加は破棄し、{@link CartJournal#deadLetter} に記録する。
+ * <p>
+ * 未反映の行数が {@code max-buffered} に達した場合は、追加を受け付けたスレッドで全件を反映してから受け付ける。
+ * 反映後も上限を超えている場合（DB 障害等）は、その追加をバッファに積まずに直接 DB に反映する（失敗時は例外を返す）。
+ * {@link CartChangedEvent} は追加の受け付け時（カート内の商品数の表示等のため、追加した商品は含めない）と、
+ * DB への反映時（新たにカートに入った商品を含める。リスナーにはコミット後に通知される）に発行する。
+ * <p>
+ * 起動時にジャーナルから未反映の追加を復元する。ジャーナルはインスタンスごとのローカルファイルのため、
+ * 複数インスタンスで運用する場合は同じユーザのリクエストを同じインスタンスに振り分けること。
+ * <p>
+ * 以下のメトリクスを登録する。
+ * <ul>
+ * <li>cart.buffer.flush: 反映の所要時間（scope=all: 定期・件数超過、scope=user: 読み込み前のユーザ単位）</li>
+ * <li>cart.buffer.depth: 未反映の行数（ユーザ・商品の組）</li>
+ * <li>cart.buffer.additions / cart.buffer.rows.written: 受け付けた追加の行数 / DB に反映した行数</li>
+ * <li>cart.buffer.coalescing.ratio: 受け付けた追加の行数 ÷ DB に反映した行数</li>
+ * <li>cart.buffer.dropped: 反映の失敗が続いたため破棄した行数</li>
+ * <li>cart.buffer.bypassed: 未反映の行数が上限を超えていたため直接 DB に反映した追加の数</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sample.cart.write-mode", havingValue = "write-behind")
+public class WriteBehindCartWriter implements CartWriter {
+
+    private final CartRepository cartRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final Duration flushInterval;
+    private final int maxBuffered;
+    private final int maxAttempts;
+    private final CartJournal journal;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cart-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** DB への反映を直列化する（ユーザ単位の反映が実行中の全件反映を追い越さないようにする） */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    /** 未反映の追加（this で排他する） */
+    private Map<CartId, Integer> pending = new LinkedHashMap<>();
+    /** ユーザID → 全件反映での連続失敗回数（flushLock で排他する） */
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer allFlushTimer;
+    private final Timer userFlushTimer;
+    private final Counter additions;
+    private final Counter rowsWritten;
+    private final Counter rowsDropped;
+    private final Counter bypassed;
+
+    public WriteBehindCartWriter(
+            CartRepository cartRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${sample.cart.write-behind.flush-interval:PT1S}") Duration flushInterval,
+            @Value("${sample.cart.write-behind.max-buffered:1000}") int maxBuffered,
+            @Value("${sample.cart.write-behind.max-attempts:10}") int maxAttempts,
+            @Value("${sample.cart.write-behind.journal-dir:cart-journal}") Path journalDir) throws IOException {
+        this.cartRepository = cartRepository;
+        this.eventPublisher = eventPublisher;
+        // 読み込み側の読み取り専用トランザクションから呼び出されても反映できるよう、別トランザクションで実行する
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.flushInterval = flushInterval;
+        this.maxBuffered = maxBuffered;
+        this.maxAttempts = maxAttempts;
+        this.meterRegistry = meterRegistry;
+        this.journal = new CartJournal(journalDir);
+
+        List<CartJournal.Entry> recovered = journal.recover();
+        recovered.forEach(e -> pending.merge(new CartId(e.userId(), e.productId()), e.quantity(), Integer::sum));
+        if (!recovered.isEmpty()) {
+            log.info("カートジャーナルから未反映の追加を復元しました: 件数={}, 行数={}", recovered.size(), pending.size());
+        }
+
+        this.allFlushTimer = Timer.builder("cart.buffer.flush").tag("scope", "all")
+            .description("カート追加の DB への反映時間").register(meterRegistry);
+        this.userFlushTimer = Timer.builder("cart.buffer.flush").tag("scope", "user")
+            .description("カート追加の DB への反映時間").register(meterRegistry);
+        this.additions = Counter.builder("cart.buffer.additions")
+            .description("受け付けたカート追加の行数").register(meterRegistry);
+        this.rowsWritten = Counter.builder("cart.buffer.rows.written")
+            .description("DB に反映したカートの行数").register(meterRegistry);
+        this.rowsDropped = Counter.builder("cart.buffer.dropped")
+            .description("反映の失敗が続いたため破棄したカートの行数").register(meterRegistry);
+        this.bypassed = Counter.builder("cart.buffer.bypassed")
+            .description("未反映の行数が上限を超えていたため直接 DB に反映したカート追加の数").register(meterRegistry);
+    }
+
+    /**
+     * 未反映の行数等のゲージを登録する。
+     */
+    @PostConstruct
+    public void registerGauges() {
+        Gauge.builder("cart.buffer.depth", this, WriteBehindCartWriter::depth)
+            .description("未反映のカートの行数").register(meterRegistry);
+        Gauge.builder("cart.buffer.coalescing.ratio", this,
+                w -> w.rowsWritten.count() == 0 ? Double.NaN : w.additions.count() / w.rowsWritten.count())
+            .description("受け付けた追加の行数 ÷ DB に反映した行数").register(meterRegistry);
+    }
+
+    @Override
+    public void add(String userId, Map<String, Integer> quantities) {
+        if (depth() >= maxBuffered) {
+            // 上限に達した場合は受け付けたスレッドで反映し、追加の受け付けを反映の速度に合わせる
+            flushAll();
+            if (depth() >= maxBuffered) {
+                bypassed.increment();
+                transaction.executeWithoutResult(status -> write(userId, quantities, LocalDateTime.now()));
+                return;
+            }
+        }
+        synchronized (this) {
+            try {
+                journal.append(userId, quantities);
+            } catch (IOException e) {
+                throw new UncheckedIOException("カートジャーナルへの記録に失敗しました", e);
+            }
+            quantities.forEach((productId, quantity) -> pending.merge(new CartId(userId, productId), quantity, Integer::sum));
+        }
+        additions.increment(quantities.size());
+        eventPublisher.publishEvent(new CartChangedEvent(userId));
+    }
+
+    @Override
+    public void flush(String userId) {
+        flushLock.lock();
+        try {
+            Map<String, Integer> quantities = new LinkedHashMap<>();
+            long seq;
+            synchronized (this) {
+                for (Iterator<Map.Entry<CartId, Integer>> it = pending.entrySet().iterator(); it.hasNext();) {
+                    Map.Entry<CartId, Integer> entry = it.next();
+                    if (entry.getKey().getUserId().equals(userId)) {
+                        quantities.put(entry.getKey().getProductId(), entry.getValue());
+                        it.remove();
+                    }
+                }
+                seq = journal.lastSeq();
+            }
+            if (quantities.isEmpty()) {
+                return;
+            }
+            userFlushTimer.record(() -> {
+                try {
+                    transaction.executeWithoutResult(status -> write(userId, quantities, LocalDateTime.now()));
+                } catch (RuntimeException e) {
+                    restore(Map.of(userId, quantities));
+                    throw e;
+                }
+            });
+            rowsWritten.increment(quantities.size());
+            failedAttempts.remove(userId);
+            synchronized (this) {
+                try {
+                    journal.markFlushed(userId, seq);
+                } catch (IOException e) {
+                    // DB には反映済みのため保持し直さない（異常終了時は復元で再度反映される）
+                    log.error("カートジャーナルへの反映済みの記録に失敗しました: userId={}", userId, e);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 未反映の追加をすべて DB に反映する。
+     * <p>
+     * ユーザごとに別トランザクションで反映し、失敗したユーザの追加は保持し直す（例外は返さない）。
+     *
+     * @return 反映した行数
+     */
+    public int flushAll() {
+        flushLock.lock();
+        try {
+            Map<CartId, Integer> snapshot;
+            List<Path> sealed;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                try {
+                    sealed = journal.seal();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("カートジャーナルの切り替えに失敗しました", e);
+                }
+                snapshot = pending;
+                pending = new LinkedHashMap<>();
+            }
+            Map<String, Map<String, Integer>> byUser = new LinkedHashMap<>();
+            snapshot.forEach((id, quantity) ->
+                byUser.computeIfAbsent(id.getUserId(), k -> new LinkedHashMap<>()).put(id.getProductId(), quantity));
+            Map<String, Map<String, Integer>> failed = new LinkedHashMap<>();
+            int written = allFlushTimer.record(() -> {
+                int rows = 0;
+                LocalDateTime now = LocalDateTime.now();
+                for (Map.Entry<String, Map<String, Integer>> entry : byUser.entrySet()) {
+                    String userId = entry.getKey();
+                    try {
+                        transaction.executeWithoutResult(status -> write(userId, entry.getValue(), now));
+                        rows += entry.getValue().size();
+                        failedAttempts.remove(userId);
+                    } catch (RuntimeException e) {
+                        onWriteFailure(userId, entry.getValue(), e, failed);
+                    }
+                }
+                return rows;
+            });
+            rowsWritten.increment(written);
+            synchronized (this) {
+                restore(failed);
+                try {
+                    // 保持し直した追加を書き込み中のセグメントに記録し直してから、封印済みのセグメントを削除する
+                    for (Map.Entry<String, Map<String, Integer>> entry : failed.entrySet()) {
+                        journal.append(entry.getKey(), entry.getValue());
+                    }
+                    journal.delete(sealed);
+                } catch (IOException e) {
+                    // 封印済みのセグメントを残す（異常終了時は反映済みの追加も再度反映される）
+                    log.error("カートジャーナルへの未反映の追加の記録に失敗しました: ユーザ数={}", failed.size(), e);
+                }
+            }
+            if (failed.isEmpty()) {
+                log.debug("カート追加を反映しました: ユーザ数={}, 行数={}", byUser.size(), written);
+            } else {
+                log.warn("カート追加の一部を反映できませんでした（次回再実行します）: 反映ユーザ数={}, 失敗ユーザ数={}, 反映行数={}",
+                    byUser.size() - failed.size(), failed.size(), written);
+            }
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return 未反映の行数
+     */
+    public synchronized int depth() {
+        return pending.size();
+    }
+
+    /**
+     * 起動完了後に定期的な反映を開始する（復元した追加は最初の反映で書き込む）。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        executor.scheduleWithFixedDelay(this::flushAllQuietly, 0, flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 全件反映で失敗したユーザの追加を、再実行用に集めるか、失敗が続いている場合は破棄する。
+     */
+    private void onWriteFailure(String userId, Map<String, Integer> quantities, RuntimeException e,
+            Map<String, Map<String, Integer>> failed) {
+        int attempts = failedAttempts.merge(userId, 1, Integer::sum);
+        if (attempts < maxAttempts) {
+            log.debug("カート追加の反映に失敗しました: userId={}, 連続失敗回数={}", userId, attempts, e);
+            failed.put(userId, quantities);
+            return;
+        }
+        try {
+            synchronized (this) {
+                journal.deadLetter(userId, quantities);
+            }
+        } catch (IOException ioe) {
+            log.error("反映できないカート追加の記録に失敗しました（保持し直します）: userId={}", userId, ioe);
+            failed.put(userId, quantities);
+            return;
+        }
+        failedAttempts.remove(userId);
+        rowsDropped.increment(quantities.size());
+        log.error("カート追加の反映に{}回続けて失敗したため破棄しました: userId={}, 追加={}", attempts, userId, quantities, e);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        flushAllQuietly();
+        synchronized (this) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.warn("カートジャーナルのクローズに失敗しました", e);
+            }
+        }
+    }
+
+    private void flushAllQuietly() {
+        try {
+            flushAll();
+        } catch (RuntimeException e) {
+            log.warn("カート追加の反映に失敗しました（次回再実行します）: 未反映行数={}", depth(), e);
+        }
+    }
+
+    private void write(String userId, Map<String, Integer> quantities, LocalDateTime now) {
+        Map<String, Integer> cartQuantities = cartRepository.upsertIncrement(userId, quantities, now);
+        eventPublisher.publishEvent(CartChangedEvent.added(userId, quantities, cartQuantities));
+    }
+
+    /**
+     * 反映に失敗した追加を保持し直す（反映中に受け付けた追加と合算する）。
+     */
+    private synchronized void restore(Map<String, Map<String, Integer>> byUser) {
+        byUser.forEach((userId, quantities) ->
+            quantities.forEach((productId, quantity) -> pending.merge(new CartId(userId, productId), quantity, Integer::sum)));
+    }
+}
@@ -6,6 +6,8 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
 import org.springframework.stereotype.Component;
 
+import com.example.sample.auth.LoginThrottle;
+import com.example.sample.auth.PasswordVerificationBusyException;
 import com.example.sample.token.ActivateTokenInterceptor;
 import com.example.sample.token.TokenHelper;
 
@@ -20,12 +22,22 @@ import lombok.extern.slf4j.Slf4j;
  * セキュリティ向上のため、認証失敗の詳細（ユーザー不存在、パスワード不一致など）を
  * 攻撃者に伝えず、統一的なエラーメッセージを表示する。
  * また、ログイン失敗時に新しいトークンを生成してリダイレクト先で利用可能にする。
+ * <p>
+ * パスワード照合の混雑（{@link PasswordVerificationBusyException}）の場合は認証情報の誤りではないため、
+ * 再試行を促すメッセージを表示する。
+ * それ以外の失敗は {@link LoginThrottle} に記録し、失敗が続くユーザID・IPアドレスからの試行を制限する。
  */
 @Slf4j
 @Component
 public class CustomAuthenticationFailureHandler extends SimpleUrlAuthenticationFailureHandler {
 
-    public CustomAuthenticationFailureHandler() {
+    /** 混雑時のリダイレクト先 */
+    private static final String BUSY_URL = "/vz0101?busy";
+
+    private final LoginThrottle loginThrottle;
+
+    public CustomAuthenticationFailureHandler(LoginThrottle loginThrottle) {
+        this.loginThrottle = loginThrottle;
         // 失敗時のリダイレクト先を設定
         setDefaultFailureUrl("/vz0101?error");
     }
@@ -46,6 +58,13 @@ public class CustomAuthenticationFailureHandler extends SimpleUrlAuthenticationF
         String newToken = TokenHelper.createTokenInfo(request, ActivateTokenInterceptor.TOKEN_KEY);
         log.debug("ログイン失敗時の新トークン生成: {}", newToken);
         
+        if (exception instanceof PasswordVerificationBusyException
+                || exception.getCause() instanceof PasswordVerificationBusyException) {
+            getRedirectStrategy().sendRedirect(request, response, BUSY_URL);
+            return;
+        }
+        loginThrottle.recordFailure(request.getParameter("username"), request.getRemoteAddr());
+        
         // セキュリティ上、詳細情報を隠蔽した統一メッセージでリダイレクト
         // ユーザー名の存在チェックやパスワード不一致の区別をさせない
         super.onAuthenticationFailure(request, response, exception);
@@ -0,0 +1,43 @@
+package com.example.sample.config;
+
+import java.io.IOException;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
+import org.springframework.stereotype.Component;
+
+import com.example.sample.auth.LoginThrottle;
+import com.example.sample.controller.vz0102.VZ0102Controller;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * カスタム認証成功ハンドラー。
+ * <p>
+ * {@link LoginThrottle} のユーザIDの失敗回数を破棄し、メニュー画面へリダイレクトする。
+ */
+@Component
+public class CustomAuthenticationSuccessHandler implements AuthenticationSuccessHandler {
+
+    private final LoginThrottle loginThrottle;
+    private final SimpleUrlAuthenticationSuccessHandler redirect;
+
+    public CustomAuthenticationSuccessHandler(LoginThrottle loginThrottle) {
+        this.loginThrottle = loginThrottle;
+        this.redirect = new SimpleUrlAuthenticationSuccessHandler(VZ0102Controller.PATH);
+        // ログイン前に要求された画面ではなく常にメニュー画面へ遷移する
+        this.redirect.setAlwaysUseDefaultTargetUrl(true);
+    }
+
+    @Override
+    public void onAuthenticationSuccess(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Authentication authentication) throws IOException, ServletException {
+        loginThrottle.recordSuccess(authentication.getName());
+        redirect.onAuthenticationSuccess(request, response, authentication);
+    }
+}
@@ -1,23 +1,33 @@
 package com.example.sample.config;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.firewall.HttpFirewall;
 import org.springframework.security.web.firewall.StrictHttpFirewall;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
 
+import com.example.sample.auth.AdaptiveBCryptPasswordEncoder;
+import com.example.sample.auth.BoundedPasswordEncoder;
+import com.example.sample.auth.LoginThrottle;
+import com.example.sample.auth.LoginThrottleFilter;
 import com.example.sample.controller.vz0101.VZ0101Controller;
-import com.example.sample.controller.vz0102.VZ0102Controller;
 import com.example.sample.controller.vz0103.VZ0103Controller;
 import com.example.sample.controller.vz9901.VZ9901Controller;
 import com.example.sample.controller.vz9902.VZ9902Controller;
 import com.example.sample.service.LoginService;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -32,18 +42,49 @@ public class SecurityConfig {
 
         private final LoginService loginService;
         private final CustomAuthenticationFailureHandler failureHandler;
+        private final CustomAuthenticationSuccessHandler successHandler;
+        private final LoginThrottle loginThrottle;
 
         /**
-         * BCryptPasswordEncoderをDIコンテナに登録する。
+         * BCrypt の PasswordEncoder をDIコンテナに登録する。
          * <p>
          * Spring Securityの認証処理で自動的に使用される。
-         * strength=12でセキュリティ強度を高めている（デフォルトは10）。
+         * strength は固定値の指定がなければ起動時に計測し、照合1回が目標時間に収まる最大の値を選ぶ
+         * （{@link AdaptiveBCryptPasswordEncoder}）。保存済みハッシュの strength が異なる場合は
+         * ログイン成功時に再生成して TM_USER に保存する（{@link LoginService#updatePassword}）。
+         * ログイン集中時に他の画面の処理を妨げないよう、照合・再生成は {@link BoundedPasswordEncoder} で
+         * 同時実行数を制限したスレッドプールで実行する。
+         * <p>
+         * 選んだ strength をメトリクス login.password.bcrypt.cost として登録する。
          * 
-         * @return BCryptPasswordEncoderインスタンス
+         * @param meterRegistry メトリクスの登録先
+         * @param strength BCrypt の strength（0以下の場合は起動時に計測）
+         * @param targetTime 照合1回の目標時間（計測時）
+         * @param minStrength strength の下限（計測時）
+         * @param maxStrength strength の上限（計測時）
+         * @param threads 照合の同時実行数（0以下の場合は CPU コア数）
+         * @param queueCapacity 照合待ちの上限
+         * @param timeout 照合の完了を待つ時間の上限
+         * @return PasswordEncoderインスタンス
          */
         @Bean
-        public PasswordEncoder passwordEncoder() {
-                return new BCryptPasswordEncoder(12);
+        public PasswordEncoder passwordEncoder(
+                        MeterRegistry meterRegistry,
+                        @Value("${sample.auth.password-hash.strength:0}") int strength,
+                        @Value("${sample.auth.password-hash.target-time:PT0.3S}") Duration targetTime,
+                        @Value("${sample.auth.password-hash.min-strength:10}") int minStrength,
+                        @Value("${sample.auth.password-hash.max-strength:14}") int maxStrength,
+                        @Value("${sample.auth.password-verify.threads:0}") int threads,
+                        @Value("${sample.auth.password-verify.queue-capacity:100}") int queueCapacity,
+                        @Value("${sample.auth.password-verify.timeout:PT5S}") Duration timeout) {
+                AdaptiveBCryptPasswordEncoder bcrypt = strength > 0
+                        ? new AdaptiveBCryptPasswordEncoder(strength)
+                        : AdaptiveBCryptPasswordEncoder.calibrated(targetTime, minStrength, maxStrength);
+                Gauge.builder("login.password.bcrypt.cost", bcrypt, AdaptiveBCryptPasswordEncoder::strength)
+                        .description("新規にハッシュ化する際の BCrypt の strength")
+                        .register(meterRegistry);
+                int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+                return new BoundedPasswordEncoder(bcrypt, poolSize, queueCapacity, timeout, meterRegistry);
         }
 
         /**
@@ -77,6 +118,8 @@ public class SecurityConfig {
                         .requestMatchers("/fragments/**").permitAll()
                         // 静的リソース
                         .requestMatchers("/css/**", "/js/**", "/images/**").permitAll()
+                        // 運用監視（Actuator）: ログイン制限中のユーザID・IPアドレス等を含むため管理者のみ
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // その他は認証必須
                         .anyRequest().authenticated())
 
@@ -85,8 +128,13 @@ public class SecurityConfig {
                         .loginPage(VZ0101Controller.PATH)
                         .loginProcessingUrl("/login")
                         .failureHandler(failureHandler) // 統一エラーメッセージのためカスタムハンドラー使用
-                        .defaultSuccessUrl(VZ0102Controller.PATH, true)
+                        .successHandler(successHandler) // メニュー画面へ遷移（失敗回数の破棄のためカスタムハンドラー使用）
                         .permitAll())
+                // 認証失敗が続くユーザID・IPアドレスからのログインは、パスワード照合の前に拒否する
+                .addFilterBefore(new LoginThrottleFilter(loginThrottle,
+                                PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, "/login"),
+                                "username", VZ0101Controller.PATH + "?throttled"),
+                        UsernamePasswordAuthenticationFilter.class)
                 // 未認証ユーザーのアクセスはログイン画面へリダイレクト
                 .exceptionHandling(exception -> exception
                         .authenticationEntryPoint((request, response, authException) ->
@@ -1,14 +1,43 @@
 package com.example.sample.controller.va0101;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.context.MessageSource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.sample.exception.ServiceException;
+import com.example.sample.export.ProductExportFormat;
+import com.example.sample.search.KeysetPageRequest;
+import com.example.sample.service.CartSummaryService;
+import com.example.sample.service.CheckoutService;
+import com.example.sample.service.CheckoutService.CheckoutResultDto;
+import com.example.sample.service.CartSummaryService.CartSummaryDto;
+import com.example.sample.service.VA0101CartImportService;
+import com.example.sample.service.VA0101CartImportService.CartImportResultDto;
+import com.example.sample.service.VA0101ExportService;
+import com.example.sample.service.VA0101Service;
+import com.example.sample.service.VA0101Service.ProductSearchPageDto;
 import com.example.sample.token.ActivateToken;
 
+import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -29,6 +58,15 @@ public class VA0101Controller {
     public static final String REDIRECT = "redirect:" + PATH;
     /** フォーム名定数（ModelAttributeとHTMLで統一） */
     public static final String FORM = "va0101Form";
+    /** ログインユーザーの所属会社IDを保持するセッション属性名 */
+    private static final String SESSION_COMPANY_ID = PATH + ".companyId";
+    
+    private final VA0101Service va0101Service;
+    private final VA0101ExportService va0101ExportService;
+    private final CartSummaryService cartSummaryService;
+    private final VA0101CartImportService va0101CartImportService;
+    private final CheckoutService checkoutService;
+    private final MessageSource messageSource;
 
     /**
      * VA0101 商品検索画面 初期表示
@@ -39,7 +77,9 @@ public class VA0101Controller {
      */
     @GetMapping
     @ActivateToken(type = ActivateToken.TokenType.CREATE)
-    public String init(@ModelAttribute(FORM) VA0101Form form) {
+    public String init(@ModelAttribute(FORM) VA0101Form form, HttpSession session) {
+        // 入力候補（DBにアクセスしない）で使用するため、表示時に所属会社を解決しておく
+        resolveCompanyId(session);
         return VIEW;
     }
 
@@ -52,9 +92,42 @@ public class VA0101Controller {
      */
     @PostMapping("/search")
     @ActivateToken(type = ActivateToken.TokenType.VALIDATE)
-    public String search(VA0101Form form, Model model) {
-        model.addAttribute("message", "検索処理は未実装です");
-        return VIEW;
+    public String search(@ModelAttribute(FORM) VA0101Form form, Model model, HttpSession session) {
+        return showPage(form, model, session, KeysetPageRequest.first(VA0101Service.PAGE_SIZE));
+    }
+
+    /**
+     * VA0101 商品検索画面 次ページ表示
+     * 表示中ページの末尾の商品IDより後ろを表示する
+     *
+     * @param form 商品検索 Form（Spring が自動的に Model に追加）
+     * @param model ビューへ渡すモデル
+     * @return 表示するテンプレート名
+     */
+    @PostMapping("/next")
+    @ActivateToken(type = ActivateToken.TokenType.VALIDATE)
+    public String next(@ModelAttribute(FORM) VA0101Form form, Model model, HttpSession session) {
+        KeysetPageRequest page = form.getNextCursor() == null
+            ? KeysetPageRequest.first(VA0101Service.PAGE_SIZE)
+            : KeysetPageRequest.after(form.getNextCursor(), VA0101Service.PAGE_SIZE);
+        return showPage(form, model, session, page);
+    }
+
+    /**
+     * VA0101 商品検索画面 前ページ表示
+     * 表示中ページの先頭の商品IDより前を表示する
+     *
+     * @param form 商品検索 Form（Spring が自動的に Model に追加）
+     * @param model ビューへ渡すモデル
+     * @return 表示するテンプレート名
+     */
+    @PostMapping("/prev")
+    @ActivateToken(type = ActivateToken.TokenType.VALIDATE)
+    public String prev(@ModelAttribute(FORM) VA0101Form form, Model model, HttpSession session) {
+        KeysetPageRequest page = form.getPrevCursor() == null
+            ? KeysetPageRequest.first(VA0101Service.PAGE_SIZE)
+            : KeysetPageRequest.before(form.getPrevCursor(), VA0101Service.PAGE_SIZE);
+        return showPage(form, model, session, page);
     }
 
     /**
@@ -82,4 +155,193 @@ public class VA0101Controller {
         model.addAttribute("message", "カート追加処理は未実装です");
         return VIEW;
     }
+
+    /**
+     * VA0101 商品検索画面 エクスポート処理
+     * 購入可能な商品を CSV または JSON でダウンロードする。
+     * <p>
+     * 検索結果を保持せず、DBから読み込んだ行をそのままレスポンスへ書き出す。
+     *
+     * @param format 出力形式（csv / json）
+     * @param productName 商品名（省略可）
+     * @param prefixMatch 前方一致の場合 true（省略時は部分一致）
+     * @return ストリーミングレスポンス
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(name = "format", defaultValue = "csv") String format,
+            @RequestParam(name = "productName", required = false) String productName,
+            @RequestParam(name = "prefixMatch", defaultValue = "false") boolean prefixMatch,
+            HttpSession session) {
+        ProductExportFormat exportFormat = ProductExportFormat.fromParameter(format);
+        if (exportFormat == null) {
+            String message = messageSource.getMessage("E_VA0101_001", null, null);
+            throw new ServiceException("E_VA0101_001", message);
+        }
+        
+        // 認証情報はレスポンス書き込みスレッドに引き継がれないため、ここで所属会社を解決する
+        String companyId = resolveCompanyId(session);
+        
+        StreamingResponseBody body = out ->
+            va0101ExportService.exportProducts(companyId, productName, prefixMatch, exportFormat, out);
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_TYPE, exportFormat.getContentType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("products." + exportFormat.getExtension())
+                .build()
+                .toString())
+            .body(body);
+    }
+
+    /**
+     * VA0101 商品検索画面 商品名入力候補
+     * 商品名の入力中に、入力で始まる購入可能な商品の商品名を返す。
+     * <p>
+     * 画面遷移を伴わないためトークン検証の対象外。DBにはアクセスしない
+     * （所属会社は画面表示時にセッションに保持したものを使用し、未保持の場合は候補なし）。
+     *
+     * @param q 入力中の商品名
+     * @return 商品名のリスト（JSON配列）
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggest(@RequestParam(name = "q", defaultValue = "") String q,
+            HttpSession session) {
+        String companyId = (String) session.getAttribute(SESSION_COMPANY_ID);
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(va0101Service.suggestProductNames(companyId, q));
+    }
+
+    /**
+     * VA0101 商品検索画面 併せて追加された商品
+     * 商品と一緒にカートに追加されることの多い、購入可能な商品の商品IDを返す。
+     * <p>
+     * 画面遷移を伴わないためトークン検証の対象外。事前に集計した表のみを参照する。
+     *
+     * @param productId 商品ID
+     * @return 商品IDのリスト（JSON配列）
+     */
+    @GetMapping("/alsoAdded")
+    public ResponseEntity<List<String>> alsoAdded(@RequestParam(name = "productId") String productId,
+            HttpSession session) {
+        String companyId = resolveCompanyId(session);
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(va0101Service.findAlsoAddedProductIds(companyId, productId));
+    }
+
+    /**
+     * VA0101 商品検索画面 商品説明取得
+     * 検索結果の「説明」ボタン押下時に商品説明のみを取得する。
+     *
+     * @param productId 商品ID
+     * @return 商品説明（テキスト）。存在しない、または購入不可の商品の場合は 404
+     */
+    @GetMapping("/description")
+    public ResponseEntity<String> description(@RequestParam(name = "productId") String productId,
+            HttpSession session) {
+        String companyId = resolveCompanyId(session);
+        
+        String description = va0101Service.getProductDescription(companyId, productId);
+        if (description == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+            .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+            .body(description);
+    }
+
+    /**
+     * VA0101 商品検索画面 カート集計取得
+     * ログインユーザーのカートの明細・商品数・合計金額を返す。
+     *
+     * @return カート集計（JSON）
+     */
+    @GetMapping("/cart")
+    public ResponseEntity<CartSummaryDto> cart() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(cartSummaryService.getSummary(auth.getName()));
+    }
+
+    /**
+     * VA0101 商品検索画面 カート一括取込
+     * 「商品ID,数量」形式の CSV をアップロードし、購入可能な商品をカートに追加する。
+     * <p>
+     * ファイルは1行ずつ読み込み、全体をメモリに載せない。
+     * 二重送信・再送で同じ行を重複して追加しないよう、画面のトークン（_token）を検証する。
+     * 次の送信に使用するトークンはレスポンスヘッダー X-Token で返す。
+     *
+     * @param file CSV ファイル（UTF-8）
+     * @return 受け付けた行数・受け付けなかった行と理由（JSON）
+     */
+    @PostMapping("/cart/import")
+    @ActivateToken(type = ActivateToken.TokenType.VALIDATE)
+    public ResponseEntity<CartImportResultDto> importCart(@RequestParam(name = "file") MultipartFile file,
+            HttpSession session) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String companyId = resolveCompanyId(session);
+        
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(va0101CartImportService.importCsv(auth.getName(), companyId, in));
+        } catch (IOException e) {
+            String message = messageSource.getMessage("E_VA0101_003", null, null);
+            throw new ServiceException("E_VA0101_003", message, e);
+        }
+    }
+
+    /**
+     * VA0101 商品検索画面 注文確定
+     * ログインユーザーのカートの内容で注文を確定する。
+     * 二重送信を防ぐため、画面のトークン（_token）を検証する（次のトークンはレスポンスヘッダー X-Token）。
+     *
+     * @return 注文確定結果（JSON）。在庫が不足する商品がある場合は 409 と不足する明細
+     */
+    @PostMapping("/checkout")
+    @ActivateToken(type = ActivateToken.TokenType.VALIDATE)
+    public ResponseEntity<CheckoutResultDto> checkout() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        
+        CheckoutResultDto result = checkoutService.checkout(auth.getName());
+        return ResponseEntity.status(result.isOrdered() ? HttpStatus.OK : HttpStatus.CONFLICT)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(result);
+    }
+
+    /**
+     * 指定ページを検索し、結果とカーソルを画面に設定する。
+     */
+    private String showPage(VA0101Form form, Model model, HttpSession session, KeysetPageRequest page) {
+        String companyId = resolveCompanyId(session);
+        
+        ProductSearchPageDto result = va0101Service.searchProducts(companyId, form.getProductName(), form.isPrefixMatch(), page);
+        form.setNextCursor(result.getNextCursor());
+        form.setPrevCursor(result.getPrevCursor());
+        model.addAttribute("products", result.getProducts());
+        return VIEW;
+    }
+
+    /**
+     * ログインユーザーの所属会社IDを取得する。
+     * <p>
+     * 所属会社はログイン中に変わらないため、初回のみDBから取得してセッションに保持する。
+     * 検索がキャッシュヒットした場合にDBへアクセスしないようにするため。
+     */
+    private String resolveCompanyId(HttpSession session) {
+        String companyId = (String) session.getAttribute(SESSION_COMPANY_ID);
+        if (companyId == null) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            companyId = va0101Service.findCompanyId(auth.getName());
+            if (companyId != null) {
+                session.setAttribute(SESSION_COMPANY_ID, companyId);
+            }
+        }
+        return companyId;
+    }
 }
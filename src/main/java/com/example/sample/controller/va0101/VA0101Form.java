@@ -16,8 +16,23 @@ public class VA0101Form {
      */
     private String productName;
     
+    /**
+     * 商品名を前方一致で検索する場合 true（検索条件、未選択の場合は部分一致）
+     */
+    private boolean prefixMatch;
+    
     /**
      * 商品コード（検索条件）
      */
     private String productCode;
+    
+    /**
+     * 次ページのカーソル（表示中ページの末尾の商品ID）
+     */
+    private String nextCursor;
+    
+    /**
+     * 前ページのカーソル（表示中ページの先頭の商品ID）
+     */
+    private String prevCursor;
 }
@@ -0,0 +1,22 @@
+package com.example.sample.db.jpa.cart;
+
+import java.math.BigDecimal;
+
+/**
+ * カート明細の表示に必要な列のみを持つビュー（TT_CART と TM_PRODUCT の結合）。
+ * <p>
+ * JPQL のコンストラクタ式で直接生成するため、カート・商品のエンティティを生成しない。
+ *
+ * @param productId 商品ID
+ * @param productName 商品名
+ * @param price 価格
+ * @param quantity 数量
+ * @param stockQuantity 在庫数（TM_PRODUCT の値）
+ */
+public record CartLineView(
+        String productId,
+        String productName,
+        BigDecimal price,
+        Integer quantity,
+        Integer stockQuantity) {
+}
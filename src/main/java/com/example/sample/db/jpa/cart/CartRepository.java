@@ -2,15 +2,22 @@ package com.example.sample.db.jpa.cart;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * カートマスタ用 JPA Repository。
  */
 @Repository
-public interface CartRepository extends JpaRepository<CartEntity, CartId> {
+public interface CartRepository extends JpaRepository<CartEntity, CartId>, CartRepositoryCustom {
     
     /**
      * ユーザIDでカート内商品を検索する。
@@ -28,4 +35,53 @@ public interface CartRepository extends JpaRepository<CartEntity, CartId> {
      * @return カートエンティティ
      */
     Optional<CartEntity> findByUserIdAndProductId(String userId, String productId);
+    
+    /**
+     * カート明細を商品と結合して取得する（1クエリ）。
+     * <p>
+     * 論理削除されたカート行・商品は含めない。
+     *
+     * @param userId ユーザID
+     * @return カート明細ビューのリスト（追加順）
+     */
+    @Query("SELECT new com.example.sample.db.jpa.cart.CartLineView(" +
+           "c.productId, p.productName, p.price, c.quantity, p.stockQuantity) " +
+           "FROM CartEntity c JOIN ProductEntity p ON p.productId = c.productId " +
+           "WHERE c.userId = :userId AND c.delFlg = false AND p.delFlg = false " +
+           "ORDER BY c.createdAt, c.productId")
+    List<CartLineView> findLinesByUserId(@Param("userId") String userId);
+    
+    /**
+     * カート内の商品の数量の合計を取得する。
+     * <p>
+     * {@link #findLinesByUserId} と同じ条件で集計する。
+     *
+     * @param userId ユーザID
+     * @return 数量の合計（カートが空の場合は0）
+     */
+    @Query("SELECT COALESCE(SUM(c.quantity), 0) " +
+           "FROM CartEntity c JOIN ProductEntity p ON p.productId = c.productId " +
+           "WHERE c.userId = :userId AND c.delFlg = false AND p.delFlg = false")
+    long sumQuantityByUserId(@Param("userId") String userId);
+    
+    /**
+     * カート内の商品IDを取得する（論理削除された行は含めない）。
+     *
+     * @param userId ユーザID
+     * @return 商品IDのリスト
+     */
+    @Query("SELECT c.productId FROM CartEntity c WHERE c.userId = :userId AND c.delFlg = false")
+    List<String> findProductIdsByUserId(@Param("userId") String userId);
+    
+    /**
+     * 全ユーザのカート内の商品をストリームで取得する（併せて追加された商品の集計用）。
+     * <p>
+     * 呼び出し側でトランザクションを開始し、ストリームをクローズすること。
+     *
+     * @return カートの主キー（ユーザID・商品ID）のストリーム（ユーザID順）
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.sample.db.jpa.cart.CartId(c.userId, c.productId) " +
+           "FROM CartEntity c WHERE c.delFlg = false ORDER BY c.userId")
+    Stream<CartId> streamAllCartIds();
 }
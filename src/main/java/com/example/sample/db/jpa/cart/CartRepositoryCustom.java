@@ -0,0 +1,23 @@
+package com.example.sample.db.jpa.cart;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * カートの一括更新（JDBC）。{@link CartRepository} から利用する。
+ */
+public interface CartRepositoryCustom {
+
+    /**
+     * カートに商品を追加する。カートに存在する商品は数量を加算する。
+     * <p>
+     * 登録と加算を1文で DB 上で行うため、同じ商品を並行して追加しても加算が失われず、
+     * 主キー違反にもならない。論理削除された行は数量を置き換えて有効に戻す。
+     *
+     * @param userId ユーザID
+     * @param quantities 商品ID → 追加する数量（空でないこと）
+     * @param now 登録・更新日時
+     * @return 商品ID → 追加後の数量
+     */
+    Map<String, Integer> upsertIncrement(String userId, Map<String, Integer> quantities, LocalDateTime now);
+}
@@ -0,0 +1,103 @@
+package com.example.sample.db.jpa.cart;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link CartRepositoryCustom} の JDBC 実装。
+ * <p>
+ * 同一トランザクション内で JPA と同じ接続を使用する。
+ * 永続化コンテキストを経由しないため、呼び出し前後に同じ行を JPA で読み書きしないこと。
+ * <ul>
+ * <li>PostgreSQL: INSERT ... ON CONFLICT DO UPDATE ... RETURNING（1文で追加後の数量を取得）</li>
+ * <li>MySQL: INSERT ... ON DUPLICATE KEY UPDATE の後、更新した行を読み直す
+ *     （トランザクション内では更新で行ロックを取得済みのため、他のトランザクションの加算は混ざらない）</li>
+ * </ul>
+ * いずれも商品数分の行を1文の複数行 INSERT で送信する。
+ */
+@RequiredArgsConstructor
+public class CartRepositoryImpl implements CartRepositoryCustom {
+
+    private static final String INSERT =
+        "INSERT INTO SAMPLE.TT_CART (USER_ID, PRODUCT_ID, QUANTITY, DEL_FLG, CREATED_AT, UPDATED_AT) VALUES ";
+
+    private static final String VALUES_ROW = "(?, ?, ?, FALSE, ?, ?)";
+
+    private static final String POSTGRESQL_UPSERT =
+        " ON CONFLICT (USER_ID, PRODUCT_ID) DO UPDATE SET " +
+        "QUANTITY = CASE WHEN TT_CART.DEL_FLG THEN EXCLUDED.QUANTITY ELSE TT_CART.QUANTITY + EXCLUDED.QUANTITY END, " +
+        "DEL_FLG = FALSE, UPDATED_AT = EXCLUDED.UPDATED_AT " +
+        "RETURNING PRODUCT_ID, QUANTITY";
+
+    private static final String MYSQL_UPSERT =
+        " AS NEW ON DUPLICATE KEY UPDATE " +
+        "QUANTITY = CASE WHEN TT_CART.DEL_FLG THEN NEW.QUANTITY ELSE TT_CART.QUANTITY + NEW.QUANTITY END, " +
+        "DEL_FLG = FALSE, UPDATED_AT = NEW.UPDATED_AT";
+
+    private static final String MYSQL_SELECT_QUANTITIES =
+        "SELECT PRODUCT_ID, QUANTITY FROM SAMPLE.TT_CART WHERE USER_ID = ? AND PRODUCT_ID IN ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** 接続先が PostgreSQL か（初回の実行時に判定する） */
+    private volatile Boolean postgreSql;
+
+    @Override
+    public Map<String, Integer> upsertIncrement(String userId, Map<String, Integer> quantities, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object> args = new ArrayList<>(quantities.size() * 5);
+        // 並行する追加どうしがデッドロックしないよう、行ロックを商品ID順に取得する
+        new TreeMap<>(quantities).forEach((productId, quantity) -> {
+            args.add(userId);
+            args.add(productId);
+            args.add(quantity);
+            args.add(timestamp);
+            args.add(timestamp);
+        });
+        String insert = INSERT + String.join(", ", Collections.nCopies(quantities.size(), VALUES_ROW));
+
+        Map<String, Integer> result = new HashMap<>();
+        if (isPostgreSql()) {
+            jdbcTemplate.query(insert + POSTGRESQL_UPSERT,
+                rs -> {
+                    result.put(rs.getString(1), rs.getInt(2));
+                },
+                args.toArray());
+            return result;
+        }
+        jdbcTemplate.update(insert + MYSQL_UPSERT, args.toArray());
+        List<Object> selectArgs = new ArrayList<>(quantities.size() + 1);
+        selectArgs.add(userId);
+        selectArgs.addAll(quantities.keySet());
+        String placeholders = String.join(", ", Collections.nCopies(quantities.size(), "?"));
+        jdbcTemplate.query(MYSQL_SELECT_QUANTITIES + "(" + placeholders + ")",
+            rs -> {
+                result.put(rs.getString(1), rs.getInt(2));
+            },
+            selectArgs.toArray());
+        return result;
+    }
+
+    private boolean isPostgreSql() {
+        Boolean current = postgreSql;
+        if (current == null) {
+            String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            current = product != null && product.toLowerCase(Locale.ROOT).contains("postgresql");
+            postgreSql = current;
+        }
+        return current;
+    }
+}
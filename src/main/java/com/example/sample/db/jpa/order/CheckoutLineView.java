@@ -0,0 +1,27 @@
+package com.example.sample.db.jpa.order;
+
+import java.math.BigDecimal;
+
+/**
+ * 注文確定時のカート明細（ロック済みの TT_CART と TM_PRODUCT の行）。
+ *
+ * @param productId 商品ID
+ * @param quantity カートの数量
+ * @param productName 商品名（商品が存在しない、または削除済みの場合は null）
+ * @param price 価格（商品が存在しない、または削除済みの場合は null）
+ * @param stockQuantity 在庫数（商品が存在しない、または削除済みの場合は null）
+ */
+public record CheckoutLineView(
+        String productId,
+        int quantity,
+        String productName,
+        BigDecimal price,
+        Integer stockQuantity) {
+
+    /**
+     * @return 在庫が数量に足りる場合 true
+     */
+    public boolean inStock() {
+        return stockQuantity != null && stockQuantity >= quantity;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.sample.db.jpa.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * 注文エンティティ（JPA用）。
+ * <p>
+ * テーブル: TT_ORDER（明細は TT_ORDER_DETAIL。注文確定時に {@link OrderRepositoryCustom} で一括登録する）
+ */
+@Entity
+@Table(name = "TT_ORDER", schema = "SAMPLE")
+public class OrderEntity {
+
+    @Id
+    @Column(name = "ORDER_ID", nullable = false, length = 36)
+    private String orderId;
+
+    @Column(name = "USER_ID", nullable = false, length = 50)
+    private String userId;
+
+    @Column(name = "TOTAL_PRICE", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalPrice;
+
+    @Column(name = "ITEM_COUNT", nullable = false)
+    private Integer itemCount;
+
+    @Column(name = "ORDERED_AT", nullable = false)
+    private LocalDateTime orderedAt;
+
+    public OrderEntity() {
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(BigDecimal totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public Integer getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(Integer itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public LocalDateTime getOrderedAt() {
+        return orderedAt;
+    }
+
+    public void setOrderedAt(LocalDateTime orderedAt) {
+        this.orderedAt = orderedAt;
+    }
+}
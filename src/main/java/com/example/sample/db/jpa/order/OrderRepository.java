@@ -0,0 +1,11 @@
+package com.example.sample.db.jpa.order;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 注文用 JPA Repository。
+ */
+@Repository
+public interface OrderRepository extends JpaRepository<OrderEntity, String>, OrderRepositoryCustom {
+}
@@ -0,0 +1,50 @@
+package com.example.sample.db.jpa.order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 注文確定の一括更新（JDBC）。{@link OrderRepository} から利用する。
+ * <p>
+ * いずれも同一トランザクション内で {@link #lockCheckoutLines} の後に呼び出すこと。
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * ユーザのカート行と対象商品の行をロックして取得する。
+     * <p>
+     * カート行、商品行の順に、それぞれ主キー順でロックする
+     * （同じ商品を並行して注文してもデッドロックしない）。
+     *
+     * @param userId ユーザID
+     * @return カート明細（商品ID順。カートが空の場合は空）
+     */
+    List<CheckoutLineView> lockCheckoutLines(String userId);
+
+    /**
+     * カートの数量分、商品の在庫数を減らす（在庫が足りる行のみ）。
+     *
+     * @param userId ユーザID
+     * @param now 更新日時
+     * @return 更新した商品数
+     */
+    int decrementStock(String userId, LocalDateTime now);
+
+    /**
+     * カートの内容から注文と注文明細を登録する。
+     *
+     * @param orderId 注文ID
+     * @param userId ユーザID
+     * @param now 注文日時
+     * @return 登録した明細数
+     */
+    int insertOrder(String orderId, String userId, LocalDateTime now);
+
+    /**
+     * ユーザのカート行を削除する（論理削除済みの行を含む）。
+     *
+     * @param userId ユーザID
+     * @return 削除件数
+     */
+    int deleteCart(String userId);
+}
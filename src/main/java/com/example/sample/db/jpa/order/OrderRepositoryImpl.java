@@ -0,0 +1,107 @@
+package com.example.sample.db.jpa.order;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link OrderRepositoryCustom} の JDBC 実装。
+ * <p>
+ * 同一トランザクション内で JPA と同じ接続を使用する。
+ * カート・商品の行を1件ずつ読み書きせず、ユーザのカート全体を対象とする UPDATE、INSERT ... SELECT、
+ * DELETE をそれぞれ1文で実行する。PostgreSQL・MySQL で共通の構文のみを使用する。
+ */
+@RequiredArgsConstructor
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    /** カートの有効な行（商品IDの副問い合わせ用） */
+    private static final String CART_PRODUCT_IDS =
+        "SELECT c.PRODUCT_ID FROM SAMPLE.TT_CART c WHERE c.USER_ID = ? AND c.DEL_FLG = FALSE";
+
+    private static final String LOCK_CART =
+        "SELECT PRODUCT_ID, QUANTITY FROM SAMPLE.TT_CART " +
+        "WHERE USER_ID = ? AND DEL_FLG = FALSE ORDER BY PRODUCT_ID FOR UPDATE";
+
+    private static final String LOCK_PRODUCTS =
+        "SELECT PRODUCT_ID, PRODUCT_NAME, PRICE, STOCK_QUANTITY FROM SAMPLE.TM_PRODUCT " +
+        "WHERE DEL_FLG = FALSE AND PRODUCT_ID IN (" + CART_PRODUCT_IDS + ") ORDER BY PRODUCT_ID FOR UPDATE";
+
+    /** 商品行に対応するカートの数量（相関副問い合わせ） */
+    private static final String CART_QUANTITY =
+        "(SELECT c.QUANTITY FROM SAMPLE.TT_CART c " +
+        "WHERE c.USER_ID = ? AND c.PRODUCT_ID = p.PRODUCT_ID AND c.DEL_FLG = FALSE)";
+
+    private static final String DECREMENT_STOCK =
+        "UPDATE SAMPLE.TM_PRODUCT p SET STOCK_QUANTITY = p.STOCK_QUANTITY - " + CART_QUANTITY + ", UPDATED_AT = ? " +
+        "WHERE p.PRODUCT_ID IN (" + CART_PRODUCT_IDS + ") AND p.DEL_FLG = FALSE " +
+        "AND p.STOCK_QUANTITY >= " + CART_QUANTITY;
+
+    private static final String CART_JOIN_PRODUCT =
+        "FROM SAMPLE.TT_CART c JOIN SAMPLE.TM_PRODUCT p ON p.PRODUCT_ID = c.PRODUCT_ID " +
+        "WHERE c.USER_ID = ? AND c.DEL_FLG = FALSE AND p.DEL_FLG = FALSE";
+
+    private static final String INSERT_ORDER =
+        "INSERT INTO SAMPLE.TT_ORDER (ORDER_ID, USER_ID, TOTAL_PRICE, ITEM_COUNT, ORDERED_AT) " +
+        "SELECT ?, ?, SUM(p.PRICE * c.QUANTITY), SUM(c.QUANTITY), ? " + CART_JOIN_PRODUCT;
+
+    private static final String INSERT_ORDER_DETAIL =
+        "INSERT INTO SAMPLE.TT_ORDER_DETAIL (ORDER_ID, PRODUCT_ID, PRODUCT_NAME, PRICE, QUANTITY) " +
+        "SELECT ?, c.PRODUCT_ID, p.PRODUCT_NAME, p.PRICE, c.QUANTITY " + CART_JOIN_PRODUCT;
+
+    private static final String DELETE_CART =
+        "DELETE FROM SAMPLE.TT_CART WHERE USER_ID = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<CheckoutLineView> lockCheckoutLines(String userId) {
+        Map<String, Integer> quantities = new HashMap<>();
+        List<String> productIds = new ArrayList<>();
+        jdbcTemplate.query(LOCK_CART, rs -> {
+            productIds.add(rs.getString(1));
+            quantities.put(rs.getString(1), rs.getInt(2));
+        }, userId);
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, CheckoutLineView> products = new HashMap<>();
+        jdbcTemplate.query(LOCK_PRODUCTS, rs -> {
+            String productId = rs.getString(1);
+            BigDecimal price = rs.getBigDecimal(3);
+            products.put(productId,
+                new CheckoutLineView(productId, quantities.get(productId), rs.getString(2), price, rs.getInt(4)));
+        }, userId);
+
+        List<CheckoutLineView> lines = new ArrayList<>(productIds.size());
+        for (String productId : productIds) {
+            CheckoutLineView line = products.get(productId);
+            lines.add(line != null ? line : new CheckoutLineView(productId, quantities.get(productId), null, null, null));
+        }
+        return lines;
+    }
+
+    @Override
+    public int decrementStock(String userId, LocalDateTime now) {
+        return jdbcTemplate.update(DECREMENT_STOCK, userId, Timestamp.valueOf(now), userId, userId);
+    }
+
+    @Override
+    public int insertOrder(String orderId, String userId, LocalDateTime now) {
+        jdbcTemplate.update(INSERT_ORDER, orderId, userId, Timestamp.valueOf(now), userId);
+        return jdbcTemplate.update(INSERT_ORDER_DETAIL, orderId, userId);
+    }
+
+    @Override
+    public int deleteCart(String userId) {
+        return jdbcTemplate.update(DELETE_CART, userId);
+    }
+}
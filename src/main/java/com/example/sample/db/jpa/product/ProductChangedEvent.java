@@ -0,0 +1,17 @@
+package com.example.sample.db.jpa.product;
+
+/**
+ * 商品マスタ（TM_PRODUCT）の変更イベント。
+ * <p>
+ * {@link ProductEntityListener} がエンティティの登録・更新・削除時に発行する。
+ * 変更後の値を保持するため、受信側はDBを再参照せずにインメモリ索引等を更新できる。
+ *
+ * @param productId 商品ID
+ * @param productName 変更後の商品名
+ * @param companyId 変更後の販売会社ID
+ * @param stockQuantity 変更後の在庫数
+ * @param deleted 物理削除または論理削除された場合 true
+ */
+public record ProductChangedEvent(String productId, String productName, String companyId, Integer stockQuantity,
+        boolean deleted) {
+}
@@ -3,9 +3,14 @@ package com.example.sample.db.jpa.product;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.example.sample.util.ProductNameNormalizer;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -21,6 +26,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@EntityListeners(ProductEntityListener.class)
 public class ProductEntity {
     
     @Id
@@ -30,6 +36,10 @@ public class ProductEntity {
     @Column(name = "PRODUCT_NAME", nullable = false, length = 200)
     private String productName;
     
+    /** 検索用の正規化済み商品名（{@link ProductNameNormalizer}、登録・更新時に自動設定） */
+    @Column(name = "PRODUCT_NAME_KEY", length = 400)
+    private String productNameKey;
+    
     @Column(name = "COMPANY_ID", nullable = false, length = 20)
     private String companyId;
     
@@ -50,4 +60,19 @@ public class ProductEntity {
     
     @Column(name = "UPDATED_AT", nullable = false)
     private LocalDateTime updatedAt;
+    
+    /**
+     * 登録・更新前に検索キーを商品名から再生成し、更新日時を設定する。
+     * <p>
+     * 在庫表は更新日時で差分を同期するため、更新日時は必ず変更時刻とする。
+     */
+    @PrePersist
+    @PreUpdate
+    void beforeSave() {
+        this.productNameKey = ProductNameNormalizer.normalize(productName);
+        this.updatedAt = LocalDateTime.now();
+        if (createdAt == null) {
+            this.createdAt = updatedAt;
+        }
+    }
 }
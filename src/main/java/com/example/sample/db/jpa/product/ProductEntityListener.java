@@ -0,0 +1,46 @@
+package com.example.sample.db.jpa.product;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 商品エンティティの変更を検知する JPA エンティティリスナー。
+ * <p>
+ * 変更時に {@link ProductChangedEvent} を発行し、商品名索引やキャッシュの更新に利用する。
+ * Hibernate は Spring の Bean コンテナ経由で本リスナーを生成する。
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 登録・更新後にイベントを発行する。
+     *
+     * @param entity 変更されたエンティティ
+     */
+    @PostPersist
+    @PostUpdate
+    public void onSave(ProductEntity entity) {
+        eventPublisher.publishEvent(new ProductChangedEvent(
+            entity.getProductId(), entity.getProductName(), entity.getCompanyId(), entity.getStockQuantity(),
+            Boolean.TRUE.equals(entity.getDelFlg())));
+    }
+
+    /**
+     * 削除後にイベントを発行する。
+     *
+     * @param entity 削除されたエンティティ
+     */
+    @PostRemove
+    public void onRemove(ProductEntity entity) {
+        eventPublisher.publishEvent(new ProductChangedEvent(
+            entity.getProductId(), entity.getProductName(), entity.getCompanyId(), entity.getStockQuantity(), true));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.sample.db.jpa.product;
+
+/**
+ * 商品名索引の構築用に商品マスタから取得する最小限の列。
+ *
+ * @param productId 商品ID
+ * @param productName 商品名
+ * @param companyId 販売会社ID
+ */
+public record ProductNameView(String productId, String productName, String companyId) {
+}
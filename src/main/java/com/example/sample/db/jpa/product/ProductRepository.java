@@ -1,35 +1,188 @@
 package com.example.sample.db.jpa.product;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * 商品マスタ用 JPA Repository。
+ * <p>
+ * 商品名の条件は正規化済みの PRODUCT_NAME_KEY と比較する。キーが未設定（NULL）の商品
+ * （ProductNameKeyBackfillJob による設定前の既存行、SQL で直接登録した行）は、検索から漏れないよう
+ * 小文字にした PRODUCT_NAME と比較する（全角・半角、ひらがな・カタカナの違いは区別される）。
  */
 @Repository
 public interface ProductRepository extends JpaRepository<ProductEntity, String> {
     
     /**
-     * ユーザの所属会社が購入可能な商品を検索する。
+     * 指定した販売会社の商品を、指定商品IDより後ろから商品ID昇順で取得する（キーセットページング）。
+     * <p>
+     * 購入可能な販売会社IDは {@code CompanyProductAuthCache} で解決済みのものを渡す。
+     * 主キーの範囲条件で読み始めるため、OFFSET と異なり後ろのページでも読み飛ばしが発生しない。
      *
-     * @param companyId ユーザの所属会社ID
-     * @param productName 商品名（部分一致、null可）
-     * @return 商品エンティティのリスト
+     * @param salesCompanyIds 販売会社IDの集合（空の場合は呼び出さないこと）
+     * @param namePattern 正規化済み商品名の LIKE パターン（{@code ProductNameCondition#likePattern()}、null可。
+     *        検索キーが未設定の商品は小文字にした商品名と比較する）
+     * @param afterProductId 基準の商品ID（null の場合は先頭から）
+     * @param limit 取得件数
+     * @return 商品一覧ビューのリスト（商品ID昇順）
      */
+    @Query("SELECT new com.example.sample.db.jpa.product.ProductSummaryView(" +
+           "p.productId, p.productName, p.companyId, p.price, p.stockQuantity) " +
+           "FROM ProductEntity p " +
+           "WHERE p.delFlg = false " +
+           "AND p.companyId IN :salesCompanyIds " +
+           "AND (:namePattern IS NULL OR p.productNameKey LIKE :namePattern ESCAPE '!' " +
+           "  OR p.productNameKey IS NULL AND LOWER(p.productName) LIKE :namePattern ESCAPE '!') " +
+           "AND (:afterProductId IS NULL OR p.productId > :afterProductId) " +
+           "ORDER BY p.productId")
+    List<ProductSummaryView> findPageAfterBySalesCompanyIds(
+        @Param("salesCompanyIds") Collection<String> salesCompanyIds,
+        @Param("namePattern") String namePattern,
+        @Param("afterProductId") String afterProductId,
+        Limit limit
+    );
+    
+    /**
+     * 指定した販売会社の商品を、指定商品IDより前から商品ID降順で取得する（前ページ用）。
+     *
+     * @param salesCompanyIds 販売会社IDの集合（空の場合は呼び出さないこと）
+     * @param namePattern 正規化済み商品名の LIKE パターン（{@code ProductNameCondition#likePattern()}、null可。
+     *        検索キーが未設定の商品は小文字にした商品名と比較する）
+     * @param beforeProductId 基準の商品ID
+     * @param limit 取得件数
+     * @return 商品一覧ビューのリスト（商品ID降順）
+     */
+    @Query("SELECT new com.example.sample.db.jpa.product.ProductSummaryView(" +
+           "p.productId, p.productName, p.companyId, p.price, p.stockQuantity) " +
+           "FROM ProductEntity p " +
+           "WHERE p.delFlg = false " +
+           "AND p.companyId IN :salesCompanyIds " +
+           "AND (:namePattern IS NULL OR p.productNameKey LIKE :namePattern ESCAPE '!' " +
+           "  OR p.productNameKey IS NULL AND LOWER(p.productName) LIKE :namePattern ESCAPE '!') " +
+           "AND p.productId < :beforeProductId " +
+           "ORDER BY p.productId DESC")
+    List<ProductSummaryView> findPageBeforeBySalesCompanyIds(
+        @Param("salesCompanyIds") Collection<String> salesCompanyIds,
+        @Param("namePattern") String namePattern,
+        @Param("beforeProductId") String beforeProductId,
+        Limit limit
+    );
+    
+    /**
+     * 指定した販売会社の商品をストリームで取得する（エクスポート用）。
+     * <p>
+     * フェッチサイズ単位でカーソルから読み進めるため、全件を一度にメモリへ載せない。
+     * 呼び出し側でトランザクションを開始し、読み終えたエンティティを永続化コンテキストから
+     * 切り離した上でストリームをクローズすること。
+     *
+     * @param salesCompanyIds 販売会社IDの集合（空の場合は呼び出さないこと）
+     * @param namePattern 正規化済み商品名の LIKE パターン（{@code ProductNameCondition#likePattern()}、null可。
+     *        検索キーが未設定の商品は小文字にした商品名と比較する）
+     * @return 商品エンティティのストリーム（商品ID順）
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
     @Query("SELECT p FROM ProductEntity p " +
            "WHERE p.delFlg = false " +
-           "AND p.companyId IN (" +
-           "  SELECT ucpa.salesCompanyId FROM UserCompanyProductAuthEntity ucpa " +
-           "  WHERE ucpa.companyId = :companyId AND ucpa.delFlg = false" +
-           ") " +
-           "AND (:productName IS NULL OR p.productName LIKE %:productName%) " +
+           "AND p.companyId IN :salesCompanyIds " +
+           "AND (:namePattern IS NULL OR p.productNameKey LIKE :namePattern ESCAPE '!' " +
+           "  OR p.productNameKey IS NULL AND LOWER(p.productName) LIKE :namePattern ESCAPE '!') " +
            "ORDER BY p.productId")
-    List<ProductEntity> findAvailableProducts(
-        @Param("companyId") String companyId,
-        @Param("productName") String productName
+    Stream<ProductEntity> streamBySalesCompanyIds(
+        @Param("salesCompanyIds") Collection<String> salesCompanyIds,
+        @Param("namePattern") String namePattern
     );
+    
+    /**
+     * 商品IDを指定して有効な商品の一覧表示用の列を取得する。
+     *
+     * @param productIds 商品IDの集合
+     * @return 商品一覧ビューのリスト（商品ID順）
+     */
+    @Query("SELECT new com.example.sample.db.jpa.product.ProductSummaryView(" +
+           "p.productId, p.productName, p.companyId, p.price, p.stockQuantity) " +
+           "FROM ProductEntity p " +
+           "WHERE p.delFlg = false AND p.productId IN :productIds " +
+           "ORDER BY p.productId")
+    List<ProductSummaryView> findSummariesByProductIds(@Param("productIds") Collection<String> productIds);
+    
+    /**
+     * 指定した商品IDのうち、有効かつ指定した販売会社の商品の商品IDのみを取得する（カート一括取込の検証用）。
+     *
+     * @param productIds 商品IDの集合
+     * @param salesCompanyIds 購入可能な販売会社IDの集合（空の場合は呼び出さないこと）
+     * @return 購入可能な商品IDのリスト
+     */
+    @Query("SELECT p.productId FROM ProductEntity p " +
+           "WHERE p.delFlg = false AND p.productId IN :productIds " +
+           "AND p.companyId IN :salesCompanyIds")
+    List<String> findAvailableProductIds(
+        @Param("productIds") Collection<String> productIds,
+        @Param("salesCompanyIds") Collection<String> salesCompanyIds
+    );
+
+    /**
+     * 商品説明を取得する（詳細表示時のみ使用）。
+     *
+     * @param productId 商品ID
+     * @param salesCompanyIds 購入可能な販売会社IDの集合（空の場合は呼び出さないこと）
+     * @return 商品説明（商品が存在しない、または購入不可の場合は空）
+     */
+    @Query("SELECT COALESCE(p.description, '') FROM ProductEntity p " +
+           "WHERE p.delFlg = false AND p.productId = :productId " +
+           "AND p.companyId IN :salesCompanyIds")
+    Optional<String> findDescription(
+        @Param("productId") String productId,
+        @Param("salesCompanyIds") Collection<String> salesCompanyIds
+    );
+    
+    /**
+     * 在庫数のみを取得する（在庫表の読み込み完了前の引当で使用）。
+     *
+     * @param productId 商品ID
+     * @return 在庫数（商品が存在しない場合は空）
+     */
+    @Query("SELECT p.stockQuantity FROM ProductEntity p " +
+           "WHERE p.delFlg = false AND p.productId = :productId")
+    Optional<Integer> findStockQuantity(@Param("productId") String productId);
+    
+    /**
+     * 商品名索引の構築用に有効な全商品の商品名をストリームで取得する。
+     * <p>
+     * 呼び出し側でトランザクションを開始し、ストリームをクローズすること。
+     *
+     * @return 商品名ビューのストリーム
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.sample.db.jpa.product.ProductNameView(p.productId, p.productName, p.companyId) " +
+           "FROM ProductEntity p WHERE p.delFlg = false ORDER BY p.productId")
+    Stream<ProductNameView> streamAllProductNames();
+    
+    /**
+     * 指定日時以降に更新された商品の在庫数をストリームで取得する（在庫表の同期用）。
+     * <p>
+     * 論理削除された商品も含む。呼び出し側でトランザクションを開始し、ストリームをクローズすること。
+     *
+     * @param updatedSince 基準の更新日時（この日時を含む）
+     * @return 在庫ビューのストリーム（更新日時順）
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.sample.db.jpa.product.ProductStockView(p.productId, p.stockQuantity, p.updatedAt) " +
+           "FROM ProductEntity p WHERE p.updatedAt >= :updatedSince ORDER BY p.updatedAt")
+    Stream<ProductStockView> streamStocksUpdatedSince(@Param("updatedSince") LocalDateTime updatedSince);
 }
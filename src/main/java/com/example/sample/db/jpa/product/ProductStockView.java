@@ -0,0 +1,13 @@
+package com.example.sample.db.jpa.product;
+
+import java.time.LocalDateTime;
+
+/**
+ * 在庫表の同期用に商品マスタから取得する列。
+ *
+ * @param productId 商品ID
+ * @param stockQuantity 在庫数
+ * @param updatedAt 更新日時
+ */
+public record ProductStockView(String productId, Integer stockQuantity, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,24 @@
+package com.example.sample.db.jpa.product;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品検索結果の一覧表示に必要な列のみを持つビュー。
+ * <p>
+ * JPQL のコンストラクタ式で直接生成するため、エンティティの生成・永続化コンテキストへの登録
+ * （スナップショット保持、ダーティチェック）が発生しない。
+ * 商品説明（TEXT）や登録・更新日時は取得しない。
+ *
+ * @param productId 商品ID
+ * @param productName 商品名
+ * @param companyId 販売会社ID
+ * @param price 価格
+ * @param stockQuantity 在庫数
+ */
+public record ProductSummaryView(
+        String productId,
+        String productName,
+        String companyId,
+        BigDecimal price,
+        Integer stockQuantity) {
+}
@@ -0,0 +1,11 @@
+package com.example.sample.db.jpa.user;
+
+/**
+ * ユーザマスタ（TM_USER）の変更イベント。
+ * <p>
+ * {@link UserEntityListener} がエンティティの登録・更新・削除時に発行する。
+ *
+ * @param userId 変更されたユーザのユーザID
+ */
+public record UserChangedEvent(String userId) {
+}
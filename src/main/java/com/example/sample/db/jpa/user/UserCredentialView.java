@@ -0,0 +1,16 @@
+package com.example.sample.db.jpa.user;
+
+/**
+ * 認証に使用するユーザマスタの列（不変のスナップショット）。
+ * <p>
+ * {@link UserRepositoryCustom#findCredentialByUserId} で取得する。
+ *
+ * @param userId ユーザID
+ * @param password パスワードハッシュ
+ * @param role ロール
+ * @param accountLocked アカウントがロックされている場合 true
+ * @param delFlg 削除済みの場合 true
+ */
+public record UserCredentialView(String userId, String password, String role, boolean accountLocked,
+        boolean delFlg) {
+}
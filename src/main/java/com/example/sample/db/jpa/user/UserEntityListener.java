@@ -0,0 +1,35 @@
+package com.example.sample.db.jpa.user;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * ユーザエンティティの変更を検知する JPA エンティティリスナー。
+ * <p>
+ * 変更時に {@link UserChangedEvent} を発行し、認証情報キャッシュの破棄に利用する。
+ * 更新された列は区別しない（ロック・削除・パスワード・ロール以外の更新でも発行する）。
+ * Hibernate は Spring の Bean コンテナ経由で本リスナーを生成する。
+ */
+@Component
+@RequiredArgsConstructor
+public class UserEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 登録・更新・削除後にイベントを発行する。
+     *
+     * @param entity 変更されたエンティティ
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(UserEntity entity) {
+        eventPublisher.publishEvent(new UserChangedEvent(entity.getUserId()));
+    }
+}
@@ -7,9 +7,11 @@ import org.springframework.stereotype.Repository;
 
 /**
  * ユーザーマスタ用 JPA Repository。
+ * <p>
+ * ログイン時の認証情報の検索は {@link UserRepositoryCustom#findCredentialByUserId}（JDBC）を使用する。
  */
 @Repository
-public interface UserRepository extends JpaRepository<UserEntity, String> {
+public interface UserRepository extends JpaRepository<UserEntity, String>, UserRepositoryCustom {
     
     /**
      * ユーザIDで検索する。
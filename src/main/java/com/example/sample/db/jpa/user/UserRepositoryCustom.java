@@ -0,0 +1,19 @@
+package com.example.sample.db.jpa.user;
+
+import java.util.Optional;
+
+/**
+ * 認証情報の検索（JDBC）。{@link UserRepository} から利用する。
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * ユーザIDで認証に使用する列のみを検索する。
+     * <p>
+     * エンティティを生成せず、永続化コンテキスト・トランザクションを必要としない。
+     *
+     * @param userId ユーザID
+     * @return 認証情報（ユーザが存在しない場合は空）
+     */
+    Optional<UserCredentialView> findCredentialByUserId(String userId);
+}
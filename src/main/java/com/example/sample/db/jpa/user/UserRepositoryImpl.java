@@ -0,0 +1,33 @@
+package com.example.sample.db.jpa.user;
+
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link UserRepositoryCustom} の JDBC 実装。
+ * <p>
+ * ログインのたびに（認証情報キャッシュにない場合）実行するため、必要な5列のみを1文で取得し、
+ * 結果セットから直接 {@link UserCredentialView} を生成する。
+ * JPA のエンティティ（管理対象・スナップショット）や MyBatis の結果マッピングを経由しない。
+ */
+@RequiredArgsConstructor
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private static final String SELECT_CREDENTIAL =
+        "SELECT USER_ID, PASSWORD, ROLE, ACCOUNT_LOCKED, DEL_FLG FROM SAMPLE.TM_USER WHERE USER_ID = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<UserCredentialView> findCredentialByUserId(String userId) {
+        return jdbcTemplate.query(SELECT_CREDENTIAL,
+            rs -> rs.next()
+                ? Optional.of(new UserCredentialView(rs.getString(1), rs.getString(2), rs.getString(3),
+                    rs.getBoolean(4), rs.getBoolean(5)))
+                : Optional.<UserCredentialView>empty(),
+            userId);
+    }
+}
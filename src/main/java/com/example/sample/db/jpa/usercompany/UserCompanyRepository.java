@@ -1,6 +1,10 @@
 package com.example.sample.db.jpa.usercompany;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -8,4 +12,15 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface UserCompanyRepository extends JpaRepository<UserCompanyEntity, UserCompanyId> {
+    
+    /**
+     * ユーザの所属会社IDを取得する。
+     *
+     * @param userId ユーザID
+     * @return 所属会社IDのリスト（会社ID順）
+     */
+    @Query("SELECT uc.companyId FROM UserCompanyEntity uc " +
+           "WHERE uc.userId = :userId AND uc.delFlg = false " +
+           "ORDER BY uc.companyId")
+    List<String> findCompanyIds(@Param("userId") String userId);
 }
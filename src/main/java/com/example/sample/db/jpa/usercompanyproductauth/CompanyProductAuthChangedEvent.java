@@ -0,0 +1,12 @@
+package com.example.sample.db.jpa.usercompanyproductauth;
+
+/**
+ * 会社別購入可能商品承認マスタ（TM_COMPANY_PRODUCT_AUTH）の変更イベント。
+ * <p>
+ * {@link CompanyProductAuthEntityListener} がエンティティの登録・更新・削除時に発行する。
+ *
+ * @param companyId 変更された承認の購入会社ID
+ * @param salesCompanyId 変更された承認の販売会社ID
+ */
+public record CompanyProductAuthChangedEvent(String companyId, String salesCompanyId) {
+}
@@ -0,0 +1,36 @@
+package com.example.sample.db.jpa.usercompanyproductauth;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 会社別購入可能商品承認エンティティの変更を検知する JPA エンティティリスナー。
+ * <p>
+ * 変更時に {@link CompanyProductAuthChangedEvent} を発行し、
+ * 承認情報を保持するキャッシュの無効化に利用する。
+ * Hibernate は Spring の Bean コンテナ経由で本リスナーを生成する。
+ */
+@Component
+@RequiredArgsConstructor
+public class CompanyProductAuthEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 登録・更新・削除後にイベントを発行する。
+     *
+     * @param entity 変更されたエンティティ
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(UserCompanyProductAuthEntity entity) {
+        eventPublisher.publishEvent(
+            new CompanyProductAuthChangedEvent(entity.getCompanyId(), entity.getSalesCompanyId()));
+    }
+}
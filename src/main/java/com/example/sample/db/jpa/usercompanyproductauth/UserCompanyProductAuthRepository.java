@@ -1,11 +1,43 @@
 package com.example.sample.db.jpa.usercompanyproductauth;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * ユーザ所属会社別購入可能商品承認用 JPA Repository。
  */
 @Repository
 public interface UserCompanyProductAuthRepository extends JpaRepository<UserCompanyProductAuthEntity, CompanyProductAuthId> {
+    
+    /**
+     * 購入会社が購入可能な販売会社IDを取得する。
+     *
+     * @param companyId 購入会社ID
+     * @return 販売会社IDのリスト
+     */
+    @Query("SELECT ucpa.salesCompanyId FROM UserCompanyProductAuthEntity ucpa " +
+           "WHERE ucpa.companyId = :companyId AND ucpa.delFlg = false")
+    List<String> findSalesCompanyIds(@Param("companyId") String companyId);
+    
+    /**
+     * 有効な全承認をストリームで取得する（承認表の構築用）。
+     * <p>
+     * 呼び出し側でトランザクションを開始し、ストリームをクローズすること。
+     *
+     * @return 承認の主キー（購入会社ID・販売会社ID）のストリーム（購入会社ID順）
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.sample.db.jpa.usercompanyproductauth.CompanyProductAuthId(" +
+           "ucpa.companyId, ucpa.salesCompanyId) " +
+           "FROM UserCompanyProductAuthEntity ucpa WHERE ucpa.delFlg = false ORDER BY ucpa.companyId")
+    Stream<CompanyProductAuthId> streamAllAuthorizations();
 }
@@ -0,0 +1,50 @@
+package com.example.sample.export;
+
+import java.util.Locale;
+
+/**
+ * 商品エクスポートの出力形式。
+ */
+public enum ProductExportFormat {
+
+    /** CSV（UTF-8 BOM付き、Excel で文字化けしないように BOM を付与） */
+    CSV("text/csv; charset=UTF-8", "csv"),
+    /** JSON 配列 */
+    JSON("application/json", "json");
+
+    private final String contentType;
+    private final String extension;
+
+    ProductExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * リクエストパラメータから出力形式を解決する。
+     *
+     * @param value パラメータ値（csv / json、大文字小文字は区別しない）
+     * @return 出力形式（該当しない場合は null）
+     */
+    public static ProductExportFormat fromParameter(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (ProductExportFormat format : values()) {
+            if (format.extension.equals(value.toLowerCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /** @return Content-Type */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /** @return ファイル拡張子 */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.sample.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.example.sample.db.jpa.product.ProductEntity;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * 商品を1件ずつ出力ストリームへ書き出すライター。
+ * <p>
+ * 行をメモリに溜めずにバッファ経由で直接書き出すため、件数によらずメモリ使用量は一定となる。
+ * 呼び出し順は {@link #writeHeader()} → {@link #write(ProductEntity)}（繰り返し） → {@link #finish()}。
+ * 出力ストリームのクローズは呼び出し側で行う。
+ */
+public class ProductExportWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String CSV_HEADER = "商品ID,商品名,販売会社ID,価格,在庫数,説明";
+
+    private final ProductExportFormat format;
+    private final Writer writer;
+    private final JsonGenerator json;
+    private long count;
+
+    /**
+     * ライターを生成する。
+     *
+     * @param format 出力形式
+     * @param out 出力先
+     * @throws IOException 出力に失敗した場合
+     */
+    public ProductExportWriter(ProductExportFormat format, OutputStream out) throws IOException {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.json = format == ProductExportFormat.JSON
+            ? JSON_FACTORY.createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            : null;
+    }
+
+    /**
+     * ヘッダ（CSV の見出し行、JSON の配列開始）を書き出す。
+     *
+     * @throws IOException 出力に失敗した場合
+     */
+    public void writeHeader() throws IOException {
+        if (json != null) {
+            json.writeStartArray();
+        } else {
+            writer.write('\uFEFF');
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        }
+    }
+
+    /**
+     * 商品を1件書き出す。
+     *
+     * @param product 商品エンティティ
+     * @throws IOException 出力に失敗した場合
+     */
+    public void write(ProductEntity product) throws IOException {
+        if (json != null) {
+            json.writeStartObject();
+            json.writeStringField("productId", product.getProductId());
+            json.writeStringField("productName", product.getProductName());
+            json.writeStringField("companyId", product.getCompanyId());
+            json.writeFieldName("price");
+            if (product.getPrice() == null) {
+                json.writeNull();
+            } else {
+                json.writeNumber(product.getPrice());
+            }
+            json.writeFieldName("stockQuantity");
+            if (product.getStockQuantity() == null) {
+                json.writeNull();
+            } else {
+                json.writeNumber(product.getStockQuantity());
+            }
+            json.writeStringField("description", product.getDescription());
+            json.writeEndObject();
+        } else {
+            writeCsvField(product.getProductId());
+            writer.write(',');
+            writeCsvField(product.getProductName());
+            writer.write(',');
+            writeCsvField(product.getCompanyId());
+            writer.write(',');
+            writeCsvField(product.getPrice() == null ? null : product.getPrice().toPlainString());
+            writer.write(',');
+            writeCsvField(product.getStockQuantity() == null ? null : product.getStockQuantity().toString());
+            writer.write(',');
+            writeCsvField(product.getDescription());
+            writer.write("\r\n");
+        }
+        count++;
+    }
+
+    /**
+     * フッタ（JSON の配列終了）を書き出し、バッファをフラッシュする。
+     *
+     * @throws IOException 出力に失敗した場合
+     */
+    public void finish() throws IOException {
+        if (json != null) {
+            json.writeEndArray();
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    /** @return 書き出した件数 */
+    public long getCount() {
+        return count;
+    }
+
+    /** @return 出力形式 */
+    public ProductExportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * CSV の1項目を書き出す（カンマ・改行・ダブルクォートを含む場合はクォートする）。
+     */
+    private void writeCsvField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
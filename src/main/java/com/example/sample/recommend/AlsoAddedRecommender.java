@@ -0,0 +1,156 @@
+package com.example.sample.recommend;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sample.cart.CartChangedEvent;
+import com.example.sample.db.jpa.cart.CartId;
+import com.example.sample.db.jpa.cart.CartRepository;
+import com.example.sample.db.jpa.product.ProductChangedEvent;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 「この商品と一緒にカートに追加された商品」の算出。
+ * <p>
+ * 起動完了後にバックグラウンドで TT_CART の全行から {@link CoOccurrenceTable} を構築し、
+ * 以降はカート追加のイベント（コミット後）ごとに、追加した商品とそのユーザのカート内の商品の組を数える。
+ * 集計はすべて専用のスレッドで行うため、カート追加の処理時間は増えない。
+ * 商品の削除イベントを受けた場合は表から除く。
+ * <p>
+ * 構築が完了するまで、または構築に失敗した場合は空のリストを返す。
+ */
+@Slf4j
+@Component
+public class AlsoAddedRecommender {
+
+    private final CartRepository cartRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int topK;
+    private final int maxBasketSize;
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "also-added-updater");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 構築完了後に設定する（未構築の間は null。更新は updater のスレッドでのみ行う） */
+    private volatile CoOccurrenceTable table;
+
+    public AlsoAddedRecommender(
+            CartRepository cartRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${sample.recommend.also-added.top-k:10}") int topK,
+            @Value("${sample.recommend.also-added.max-basket-size:100}") int maxBasketSize) {
+        this.cartRepository = cartRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.topK = topK;
+        this.maxBasketSize = maxBasketSize;
+    }
+
+    /**
+     * 商品と一緒にカートに追加された回数の多い商品を返す。
+     *
+     * @param productId 商品ID
+     * @return 商品IDのリスト（回数の多い順、最大で上位件数）
+     */
+    public List<String> alsoAdded(String productId) {
+        CoOccurrenceTable current = table;
+        return current == null || productId == null ? List.of() : current.alsoAdded(productId);
+    }
+
+    /**
+     * 起動完了後に構築を開始する。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        updater.execute(this::build);
+    }
+
+    /**
+     * カートへの追加を集計する。
+     * <p>
+     * 構築と同じスレッドで実行するため、構築中に受けた場合は構築完了後に集計する。
+     * 一括取込等で多数の商品を一度に追加した場合は集計しない。
+     *
+     * @param event カート変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartChanged(CartChangedEvent event) {
+        int added = event.addedProductIds().size();
+        if (added > 0 && added <= maxBasketSize) {
+            updater.execute(() -> record(event));
+        }
+    }
+
+    /**
+     * 削除された商品を表から除く。
+     *
+     * @param event 商品変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.deleted()) {
+            updater.execute(() -> {
+                CoOccurrenceTable current = table;
+                if (current != null) {
+                    current.removeProduct(event.productId());
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        updater.shutdownNow();
+    }
+
+    private void build() {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            CoOccurrenceTable built = readOnlyTransaction.execute(status -> {
+                try (Stream<CartId> rows = cartRepository.streamAllCartIds()) {
+                    return CoOccurrenceTable.build(rows.iterator(), topK, maxBasketSize, pool);
+                }
+            });
+            table = built;
+            log.info("併せて追加された商品の表構築完了: 商品数={}, 所要時間={}ms",
+                built.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("併せて追加された商品の表の構築に失敗しました（推薦なしで動作します）", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void record(CartChangedEvent event) {
+        CoOccurrenceTable current = table;
+        if (current == null) {
+            return;
+        }
+        try {
+            // イベントは DB への反映のコミット後に受けるため、カートには追加した商品が含まれる
+            List<String> cartProductIds = cartRepository.findProductIdsByUserId(event.userId());
+            if (cartProductIds.size() > maxBasketSize) {
+                return;
+            }
+            current.record(event.addedProductIds(), cartProductIds);
+        } catch (RuntimeException e) {
+            log.warn("カート追加の集計に失敗しました: userId={}", event.userId(), e);
+        }
+    }
+}
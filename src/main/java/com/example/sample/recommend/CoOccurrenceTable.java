@@ -0,0 +1,345 @@
+package com.example.sample.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.example.sample.db.jpa.cart.CartId;
+import com.example.sample.stock.StockTable;
+
+/**
+ * 商品の共起（同じカートに追加された回数）の表。
+ * <p>
+ * 商品に連番（オーディナル）を割り当て、商品ごとに共起した商品のオーディナルと回数を int 配列で保持する。
+ * 保持する件数は商品ごとに上位件数の2倍までとし、超えた場合は回数の最も少ない商品と置き換える
+ * （置き換えた商品の回数は元の回数 + 1 とする。Space-Saving 法）。そのため商品数が増えても
+ * 1商品あたりのメモリ使用量は一定となる。
+ * <p>
+ * 回数の多い上位の商品IDは変更のたびに算出して不変のリストとして公開するため、
+ * {@link #alsoAdded(String)} は参照のみで完了する。
+ * 更新（{@link #record}、{@link #removeProduct}）は単一のスレッドから呼び出すこと。
+ */
+public class CoOccurrenceTable {
+
+    private final int topK;
+    private final int capacity;
+    private final StockTable ordinals = new StockTable();
+    private final List<String> productIds = new ArrayList<>();
+    private final List<Neighbors> neighbors = new ArrayList<>();
+    private final Map<String, List<String>> published = new ConcurrentHashMap<>();
+
+    /**
+     * @param topK 公開する上位件数
+     */
+    public CoOccurrenceTable(int topK) {
+        this.topK = topK;
+        this.capacity = topK * 2;
+    }
+
+    /**
+     * カートの内容から表を構築する。
+     * <p>
+     * 商品ごとに、その商品を含むカートだけを走査して共起回数を数える。商品の範囲を分割して
+     * fork/join で並列に集計するため、集計結果を統合する必要がない。
+     *
+     * @param rows カートの行（ユーザID順）
+     * @param topK 公開する上位件数
+     * @param maxBasketSize 集計対象とするカートの商品数の上限（超えるカートは一括取込等とみなして除外する）
+     * @param pool 集計に使用するスレッドプール
+     * @return 構築した表
+     */
+    public static CoOccurrenceTable build(Iterator<CartId> rows, int topK, int maxBasketSize, ForkJoinPool pool) {
+        CoOccurrenceTable table = new CoOccurrenceTable(topK);
+
+        // ユーザごとのカート（商品オーディナルの配列）
+        List<int[]> baskets = new ArrayList<>();
+        String userId = null;
+        int[] basket = new int[16];
+        int size = 0;
+        while (rows.hasNext()) {
+            CartId row = rows.next();
+            if (!row.getUserId().equals(userId)) {
+                if (size > 1 && size <= maxBasketSize) {
+                    baskets.add(Arrays.copyOf(basket, size));
+                }
+                userId = row.getUserId();
+                size = 0;
+            }
+            if (size == basket.length) {
+                basket = Arrays.copyOf(basket, size * 2);
+            }
+            basket[size++] = table.ordinal(row.getProductId());
+        }
+        if (size > 1 && size <= maxBasketSize) {
+            baskets.add(Arrays.copyOf(basket, size));
+        }
+
+        // 商品 → その商品を含むカート
+        int products = table.productIds.size();
+        int[] postingSizes = new int[products];
+        for (int[] b : baskets) {
+            for (int p : b) {
+                postingSizes[p]++;
+            }
+        }
+        int[][] postings = new int[products][];
+        for (int p = 0; p < products; p++) {
+            postings[p] = new int[postingSizes[p]];
+            postingSizes[p] = 0;
+        }
+        for (int i = 0; i < baskets.size(); i++) {
+            for (int p : baskets.get(i)) {
+                postings[p][postingSizes[p]++] = i;
+            }
+        }
+
+        Neighbors[] built = new Neighbors[products];
+        int threshold = Math.max(256, products / (pool.getParallelism() * 8));
+        pool.invoke(new CountTask(baskets, postings, built, table.capacity, 0, products, threshold));
+        for (int p = 0; p < products; p++) {
+            table.neighbors.set(p, built[p]);
+            table.publish(p);
+        }
+        return table;
+    }
+
+    /**
+     * カートへの追加を記録する。
+     * <p>
+     * 追加により新たにできた組（新たに入った商品 × カート内の他の商品）のみを数える。
+     * 既にカートにあった商品を渡すと、構築時（カートごとに組を1回数える）より多く数えるため渡さないこと。
+     *
+     * @param addedProductIds 追加によりカートに新たに入った商品ID（カート変更イベントの addedProductIds）
+     * @param cartProductIds 追加後のカート内の商品ID（追加した商品を含んでいてもよい）
+     */
+    public void record(Collection<String> addedProductIds, Collection<String> cartProductIds) {
+        Set<String> all = new HashSet<>(cartProductIds);
+        all.addAll(addedProductIds);
+        Set<Integer> changed = new HashSet<>();
+        for (String added : addedProductIds) {
+            int a = ordinal(added);
+            for (String other : all) {
+                if (other.equals(added)) {
+                    continue;
+                }
+                int b = ordinal(other);
+                increment(a, b);
+                changed.add(a);
+                // 追加した商品同士は相手側のループで数える
+                if (!addedProductIds.contains(other)) {
+                    increment(b, a);
+                    changed.add(b);
+                }
+            }
+        }
+        changed.forEach(this::publish);
+    }
+
+    /**
+     * 商品を削除する（以降は他の商品の上位にも含めない）。
+     *
+     * @param productId 商品ID
+     */
+    public void removeProduct(String productId) {
+        int p = ordinals.get(productId);
+        if (p == StockTable.UNKNOWN) {
+            return;
+        }
+        ordinals.set(productId, StockTable.UNKNOWN);
+        productIds.set(p, null);
+        neighbors.set(p, null);
+        published.remove(productId);
+        // 削除は稀なため、全商品を走査して削除した商品を含む上位を算出し直す
+        for (int q = 0; q < neighbors.size(); q++) {
+            Neighbors n = neighbors.get(q);
+            if (n != null && n.contains(p)) {
+                publish(q);
+            }
+        }
+    }
+
+    /**
+     * 商品と併せて追加された回数の多い商品を返す。
+     *
+     * @param productId 商品ID
+     * @return 商品IDのリスト（回数の多い順、最大で上位件数。共起がない場合は空）
+     */
+    public List<String> alsoAdded(String productId) {
+        return published.getOrDefault(productId, List.of());
+    }
+
+    /**
+     * @return 登録済みの商品数
+     */
+    public int size() {
+        return published.size();
+    }
+
+    private int ordinal(String productId) {
+        int p = ordinals.get(productId);
+        if (p == StockTable.UNKNOWN) {
+            p = productIds.size();
+            productIds.add(productId);
+            neighbors.add(null);
+            ordinals.set(productId, p);
+        }
+        return p;
+    }
+
+    private void increment(int a, int b) {
+        Neighbors n = neighbors.get(a);
+        if (n == null) {
+            n = new Neighbors(new int[capacity], new int[capacity], 0);
+            neighbors.set(a, n);
+        }
+        n.increment(b);
+    }
+
+    /**
+     * 商品の上位を算出して公開する。削除済みの商品は除く。
+     */
+    private void publish(int p) {
+        String productId = productIds.get(p);
+        Neighbors n = neighbors.get(p);
+        if (productId == null || n == null) {
+            return;
+        }
+        Integer[] order = new Integer[n.size];
+        for (int i = 0; i < n.size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> -n.counts[i])
+            .thenComparing(i -> productIds.get(n.ids[i]), Comparator.nullsLast(Comparator.naturalOrder())));
+        List<String> top = new ArrayList<>(topK);
+        for (int i = 0; i < order.length && top.size() < topK; i++) {
+            String neighbor = productIds.get(n.ids[order[i]]);
+            if (neighbor != null) {
+                top.add(neighbor);
+            }
+        }
+        published.put(productId, List.copyOf(top));
+    }
+
+    /**
+     * 1商品の共起した商品（オーディナル）と回数。
+     */
+    private static final class Neighbors {
+
+        private final int[] ids;
+        private final int[] counts;
+        private int size;
+
+        private Neighbors(int[] ids, int[] counts, int size) {
+            this.ids = ids;
+            this.counts = counts;
+            this.size = size;
+        }
+
+        private boolean contains(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void increment(int id) {
+            int min = 0;
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    counts[i]++;
+                    return;
+                }
+                if (counts[i] < counts[min]) {
+                    min = i;
+                }
+            }
+            if (size < ids.length) {
+                ids[size] = id;
+                counts[size++] = 1;
+            } else {
+                ids[min] = id;
+                counts[min]++;
+            }
+        }
+    }
+
+    /**
+     * 商品オーディナルの範囲の共起回数を数える fork/join タスク。
+     */
+    private static final class CountTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<int[]> baskets;
+        private final int[][] postings;
+        private final transient Neighbors[] result;
+        private final int capacity;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        private CountTask(List<int[]> baskets, int[][] postings, Neighbors[] result, int capacity,
+                int from, int to, int threshold) {
+            this.baskets = baskets;
+            this.postings = postings;
+            this.result = result;
+            this.capacity = capacity;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CountTask(baskets, postings, result, capacity, from, mid, threshold),
+                    new CountTask(baskets, postings, result, capacity, mid, to, threshold));
+                return;
+            }
+            int[] counts = new int[postings.length];
+            int[] touched = new int[postings.length];
+            for (int p = from; p < to; p++) {
+                int touchedSize = 0;
+                for (int b : postings[p]) {
+                    for (int q : baskets.get(b)) {
+                        if (q != p && counts[q]++ == 0) {
+                            touched[touchedSize++] = q;
+                        }
+                    }
+                }
+                if (touchedSize == 0) {
+                    continue;
+                }
+                // 回数の多い順（同数はオーディナル順）に上位を残す
+                long[] keys = new long[touchedSize];
+                for (int i = 0; i < touchedSize; i++) {
+                    int q = touched[i];
+                    keys[i] = ((long) counts[q] << 32) | (Integer.MAX_VALUE - q);
+                    counts[q] = 0;
+                }
+                Arrays.sort(keys);
+                int kept = Math.min(capacity, touchedSize);
+                int[] ids = new int[capacity];
+                int[] keptCounts = new int[capacity];
+                for (int i = 0; i < kept; i++) {
+                    long key = keys[touchedSize - 1 - i];
+                    ids[i] = Integer.MAX_VALUE - (int) key;
+                    keptCounts[i] = (int) (key >>> 32);
+                }
+                result[p] = new Neighbors(ids, keptCounts, kept);
+            }
+        }
+    }
+}
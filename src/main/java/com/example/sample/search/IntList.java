@@ -0,0 +1,45 @@
+package com.example.sample.search;
+
+import java.util.Arrays;
+
+/**
+ * int のみを保持する可変長リスト（ボクシングなしのポスティングリスト用）。
+ */
+final class IntList {
+
+    private int[] data;
+    private int size;
+
+    IntList(int initialCapacity) {
+        this.data = new int[Math.max(1, initialCapacity)];
+    }
+
+    void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size + (size >> 1) + 1);
+        }
+        data[size++] = value;
+    }
+
+    int get(int index) {
+        return data[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int last() {
+        return data[size - 1];
+    }
+
+    void trimToSize() {
+        if (data.length != size) {
+            data = Arrays.copyOf(data, Math.max(1, size));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.sample.search;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.db.jpa.product.ProductSummaryView;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JPQL の LIKE 検索による商品検索エンジン。
+ * <p>
+ * 部分一致は前方ワイルドカードのため商品名キーのインデックスは使用されず、TM_PRODUCT の全件走査となる。
+ * 前方一致は IDX_TM_PRODUCT_NAME_KEY の範囲走査となる。索引のメモリを確保できない環境向け。
+ */
+@Component
+@ConditionalOnProperty(name = "sample.search.engine", havingValue = "jpql")
+@RequiredArgsConstructor
+public class JpqlProductSearchEngine implements ProductSearchEngine {
+
+    private final ProductRepository productRepository;
+
+    @Override
+    public List<ProductSummaryView> search(Set<String> salesCompanyIds, ProductNameCondition nameCondition, KeysetPageRequest page) {
+        Limit limit = Limit.of(page.fetchSize());
+        String namePattern = ProductNameCondition.likePatternOf(nameCondition);
+        if (page.backward()) {
+            return productRepository.findPageBeforeBySalesCompanyIds(salesCompanyIds, namePattern, page.cursor(), limit);
+        }
+        return productRepository.findPageAfterBySalesCompanyIds(salesCompanyIds, namePattern, page.cursor(), limit);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.sample.search;
+
+/**
+ * 商品ID順のキーセット（シーク）方式のページ指定。
+ * <p>
+ * OFFSET を使わず「直前ページの端の商品ID より後（前）」を条件に読み進めるため、
+ * 何ページ目であっても1リクエストあたりの読み込み件数は {@code size + 1} 件で一定となる。
+ * 1件多く読むのは次のページの有無を判定するため。
+ *
+ * @param cursor 基準の商品ID（先頭ページの場合は null）
+ * @param backward true の場合は cursor より前のページ（商品ID降順に読む）
+ * @param size 1ページの件数
+ */
+public record KeysetPageRequest(String cursor, boolean backward, int size) {
+
+    public KeysetPageRequest {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        if (backward && cursor == null) {
+            throw new IllegalArgumentException("cursor is required for backward paging");
+        }
+    }
+
+    /**
+     * 先頭ページ。
+     */
+    public static KeysetPageRequest first(int size) {
+        return new KeysetPageRequest(null, false, size);
+    }
+
+    /**
+     * 指定した商品IDより後のページ。
+     */
+    public static KeysetPageRequest after(String cursor, int size) {
+        return new KeysetPageRequest(cursor, false, size);
+    }
+
+    /**
+     * 指定した商品IDより前のページ。
+     */
+    public static KeysetPageRequest before(String cursor, int size) {
+        return new KeysetPageRequest(cursor, true, size);
+    }
+
+    /**
+     * @return 読み込む件数（次ページ判定用に1件多い）
+     */
+    public int fetchSize() {
+        return size + 1;
+    }
+}
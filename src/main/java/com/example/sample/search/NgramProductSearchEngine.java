@@ -0,0 +1,150 @@
+package com.example.sample.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sample.db.jpa.product.ProductChangedEvent;
+import com.example.sample.db.jpa.product.ProductNameView;
+import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.db.jpa.product.ProductSummaryView;
+import com.example.sample.util.ProductNameNormalizer;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 商品名の n-gram 索引による商品検索エンジン（既定）。
+ * <p>
+ * 起動完了後にバックグラウンドで全商品名を読み込んで {@link ProductNameIndex} を構築し、
+ * 以降は商品エンティティの変更イベント（コミット後）で差分更新する。
+ * 商品名は {@link ProductNameNormalizer} で正規化して登録する（PRODUCT_NAME_KEY と同じ値）。
+ * 索引でページ分の商品IDを選び（候補全件の並べ替えは行わない）、その商品IDだけを主キー検索で取得する。
+ * <p>
+ * 以下の場合は {@link JpqlProductSearchEngine} にフォールバックする。
+ * <ul>
+ * <li>商品名の指定がない</li>
+ * <li>索引の構築が完了していない、または構築に失敗した</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sample.search.engine", havingValue = "ngram", matchIfMissing = true)
+public class NgramProductSearchEngine implements ProductSearchEngine {
+
+    private final ProductRepository productRepository;
+    private final ProductSearchEngine fallback;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "product-index-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 構築完了後に設定する（未構築の間は null） */
+    private volatile ProductNameIndex index;
+    /** 構築中に受けた変更イベント（構築完了時に適用する） */
+    private List<ProductChangedEvent> pendingEvents = new ArrayList<>();
+
+    public NgramProductSearchEngine(
+            ProductRepository productRepository,
+            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.fallback = new JpqlProductSearchEngine(productRepository);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public List<ProductSummaryView> search(Set<String> salesCompanyIds, ProductNameCondition nameCondition, KeysetPageRequest page) {
+        ProductNameIndex current = index;
+        if (nameCondition == null || current == null) {
+            return fallback.search(salesCompanyIds, nameCondition, page);
+        }
+        // 索引でページ分の商品IDだけを選び、主キーで取得する
+        List<String> pageIds = current.search(nameCondition.key(), nameCondition.prefix(), salesCompanyIds, page);
+        if (pageIds.isEmpty()) {
+            return List.of();
+        }
+        List<ProductSummaryView> products = new ArrayList<>(productRepository.findSummariesByProductIds(pageIds));
+        if (page.backward()) {
+            Collections.reverse(products);
+        }
+        return products;
+    }
+
+    /**
+     * 起動完了後に索引の構築を開始する。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        builder.execute(this::buildIndex);
+    }
+
+    /**
+     * 商品変更イベントを索引に反映する。
+     *
+     * @param event 商品変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (this) {
+            if (index == null) {
+                if (pendingEvents != null) {
+                    pendingEvents.add(event);
+                }
+                return;
+            }
+        }
+        apply(index, event);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    private void buildIndex() {
+        long start = System.nanoTime();
+        try {
+            ProductNameIndex built = new ProductNameIndex();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ProductNameView> products = productRepository.streamAllProductNames()) {
+                    products.forEach(p -> built.put(p.productId(), ProductNameNormalizer.normalize(p.productName()), p.companyId()));
+                }
+            });
+            synchronized (this) {
+                pendingEvents.forEach(event -> apply(built, event));
+                pendingEvents = null;
+                index = built;
+            }
+            log.info("商品名索引構築完了: 商品数={}, n-gram数={}, 所要時間={}ms",
+                built.size(), built.gramCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingEvents = null;
+            }
+            log.warn("商品名索引の構築に失敗したためLIKE検索で動作します", e);
+        }
+    }
+
+    private static void apply(ProductNameIndex target, ProductChangedEvent event) {
+        if (event.deleted() || event.productName() == null) {
+            target.remove(event.productId());
+        } else {
+            target.put(event.productId(), ProductNameNormalizer.normalize(event.productName()), event.companyId());
+        }
+    }
+}
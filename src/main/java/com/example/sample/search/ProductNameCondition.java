@@ -0,0 +1,74 @@
+package com.example.sample.search;
+
+import com.example.sample.util.ProductNameNormalizer;
+
+/**
+ * 商品名の検索条件。
+ * <p>
+ * 検索語は {@link ProductNameNormalizer} で正規化し、TM_PRODUCT.PRODUCT_NAME_KEY と比較する。
+ * 前方一致の場合は LIKE 'キー%' となり、IDX_TM_PRODUCT_NAME_KEY の範囲走査で検索できる。
+ * LIKE のワイルドカード（%, _）は検索語に含まれていても文字として扱う。
+ *
+ * @param key 正規化済みの検索語（空でないこと）
+ * @param prefix 前方一致の場合 true（false の場合は部分一致）
+ */
+public record ProductNameCondition(String key, boolean prefix) {
+
+    /** LIKE のエスケープ文字（JPQL の ESCAPE 句と一致させること） */
+    public static final char LIKE_ESCAPE = '!';
+
+    /**
+     * 画面で入力された商品名から検索条件を作成する。
+     *
+     * @param productName 商品名（前後の空白は除去する）
+     * @param prefix 前方一致の場合 true
+     * @return 検索条件（商品名が未入力の場合は null）
+     */
+    public static ProductNameCondition of(String productName, boolean prefix) {
+        if (productName == null || productName.isBlank()) {
+            return null;
+        }
+        String key = ProductNameNormalizer.normalize(productName.trim());
+        return key.isEmpty() ? null : new ProductNameCondition(key, prefix);
+    }
+
+    /**
+     * 正規化済みの商品名が条件に一致するか判定する。
+     *
+     * @param nameKey 正規化済みの商品名
+     * @return 一致する場合 true
+     */
+    public boolean matches(String nameKey) {
+        return nameKey != null && (prefix ? nameKey.startsWith(key) : nameKey.contains(key));
+    }
+
+    /**
+     * LIKE のパターンを返す（エスケープ文字は {@link #LIKE_ESCAPE}）。
+     *
+     * @return LIKE パターン
+     */
+    public String likePattern() {
+        StringBuilder pattern = new StringBuilder(key.length() + 4);
+        if (!prefix) {
+            pattern.append('%');
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    /**
+     * LIKE のパターンを返す。
+     *
+     * @param condition 検索条件（null可）
+     * @return LIKE パターン（条件なしの場合は null）
+     */
+    public static String likePatternOf(ProductNameCondition condition) {
+        return condition == null ? null : condition.likePattern();
+    }
+}
@@ -0,0 +1,392 @@
+package com.example.sample.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品名の bigram/trigram 転置索引。
+ * <p>
+ * 商品ごとに連番（オーディナル）を割り当て、n-gram ごとにオーディナルの int 配列
+ * （ポスティングリスト）を保持する。検索時は検索語の n-gram のうち最も短いポスティングリストを
+ * 候補とし、{@link String#contains}（前方一致の場合は {@link String#startsWith}）で最終確認するため、
+ * 結果は LIKE '%検索語%'（LIKE '検索語%'）と一致する。
+ * 商品名・検索語の正規化は呼び出し側で行う。
+ * <ul>
+ * <li>検索語が1文字: 全商品名を走査</li>
+ * <li>検索語が2文字: bigram</li>
+ * <li>検索語が3文字以上: trigram</li>
+ * </ul>
+ * n-gram は UTF-16 の char 単位で生成する。日本語（サロゲートペアを含む）も
+ * 最終確認が文字列比較のため結果は変わらない。
+ * <p>
+ * ページ単位の検索（{@link #search(String, boolean, Set, KeysetPageRequest)}）は、商品ID順の走査と
+ * ポスティングリストの走査のうち、確認する商品数が少ないと見込まれる方で行う。
+ * <ul>
+ * <li>商品ID順: 基準の商品IDの次から商品ID順に確認し、ページ分（{@code size + 1} 件）一致した時点で終える。
+ * 一致する商品が多い（ヒット率が高い）検索語向け</li>
+ * <li>ポスティングリスト: 候補をすべて確認し、基準の商品IDより後の先頭 {@code size + 1} 件だけを保持する。
+ * 一致する商品が少ない検索語向け</li>
+ * </ul>
+ * 商品ID順の走査は候補数を確認しても埋まらない場合、ポスティングリストの走査に切り替える
+ * （確認する商品数は最大でも候補数の2倍）。
+ * <p>
+ * 更新時は旧オーディナルを無効化して末尾に追加する（ポスティングリストは常に昇順）。
+ * 無効化した件数が有効件数の1/4を超えたら再構築して詰める。
+ * 参照は読み取りロック、更新は書き込みロックで排他する。
+ */
+public class ProductNameIndex {
+
+    private static final int BIGRAM = 2;
+    private static final int TRIGRAM = 3;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private String[] productIds = new String[INITIAL_CAPACITY];
+    private String[] productNames = new String[INITIAL_CAPACITY];
+    private String[] salesCompanyIds = new String[INITIAL_CAPACITY];
+    private final BitSet live = new BitSet();
+    /** 割り当て済みオーディナル数（無効化分を含む） */
+    private int ordinalCount;
+    private int liveCount;
+
+    /** 商品ID → オーディナル（商品ID順） */
+    private final TreeMap<String, Integer> ordinalByProductId = new TreeMap<>();
+    private Map<Long, IntList> postings = new HashMap<>();
+    /** 検索で確認した商品数（累計） */
+    private final LongAdder examined = new LongAdder();
+
+    /**
+     * 商品を登録する。登録済みの場合は置き換える。
+     *
+     * @param productId 商品ID
+     * @param productName 商品名
+     * @param salesCompanyId 販売会社ID
+     */
+    public void put(String productId, String productName, String salesCompanyId) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinalByProductId.get(productId);
+            if (existing != null) {
+                int ordinal = existing;
+                if (Objects.equals(productNames[ordinal], productName)
+                        && Objects.equals(salesCompanyIds[ordinal], salesCompanyId)) {
+                    return;
+                }
+                invalidate(ordinal);
+            }
+            append(productId, productName, salesCompanyId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 商品を削除する。
+     *
+     * @param productId 商品ID
+     */
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinalByProductId.remove(productId);
+            if (existing != null) {
+                invalidate(existing);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 商品名に検索語を含む商品を検索する。
+     *
+     * @param query 検索語（空でないこと）
+     * @param allowedSalesCompanyIds 対象とする販売会社ID
+     * @return 一致した商品IDのリスト（登録順）
+     */
+    public List<String> search(String query, Set<String> allowedSalesCompanyIds) {
+        return search(query, false, allowedSalesCompanyIds);
+    }
+
+    /**
+     * 商品名が検索語を含む、または検索語で始まる商品を検索する。
+     *
+     * @param query 検索語（空でないこと）
+     * @param prefix 前方一致の場合 true
+     * @param allowedSalesCompanyIds 対象とする販売会社ID
+     * @return 一致した商品IDのリスト（登録順）
+     */
+    public List<String> search(String query, boolean prefix, Set<String> allowedSalesCompanyIds) {
+        List<String> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (query.length() < BIGRAM) {
+                for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                    collect(ordinal, query, prefix, allowedSalesCompanyIds, result);
+                }
+                return result;
+            }
+            IntList candidates = shortestPosting(query);
+            if (candidates == null) {
+                return result;
+            }
+            for (int i = 0; i < candidates.size(); i++) {
+                int ordinal = candidates.get(i);
+                if (live.get(ordinal)) {
+                    collect(ordinal, query, prefix, allowedSalesCompanyIds, result);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 商品名が検索語を含む、または検索語で始まる商品のうち、指定したページ分を商品ID順に返す。
+     *
+     * @param query 検索語（空でないこと）
+     * @param prefix 前方一致の場合 true
+     * @param allowedSalesCompanyIds 対象とする販売会社ID
+     * @param page ページ指定
+     * @return 一致した商品IDのリスト（最大 {@link KeysetPageRequest#fetchSize()} 件。
+     *         後方のページの場合は商品ID降順）
+     */
+    public List<String> search(String query, boolean prefix, Set<String> allowedSalesCompanyIds, KeysetPageRequest page) {
+        int limit = page.fetchSize();
+        lock.readLock().lock();
+        try {
+            IntList candidates = null;
+            if (query.length() >= BIGRAM) {
+                candidates = shortestPosting(query);
+                if (candidates == null) {
+                    return List.of();
+                }
+            }
+            int candidateCount = candidates == null ? liveCount : candidates.size();
+            // 商品ID順に走査した場合の確認件数の見込み（ページ件数 ÷ 候補の割合）が候補数以下なら商品ID順に走査する
+            if (candidates == null || (long) limit * liveCount <= (long) candidateCount * candidateCount) {
+                List<String> result = scanInKeyOrder(query, prefix, allowedSalesCompanyIds, page, limit, candidateCount);
+                if (result != null) {
+                    return result;
+                }
+            }
+            return scanPosting(candidates, query, prefix, allowedSalesCompanyIds, page, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 有効な商品数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return n-gram の種類数
+     */
+    public int gramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 検索で確認した商品数（起動後の累計）
+     */
+    long examinedCount() {
+        return examined.sum();
+    }
+
+    /**
+     * 基準の商品IDの次から商品ID順に確認し、ページ分一致した時点で終える。
+     *
+     * @return 一致した商品ID（確認件数が上限に達してもページが埋まらない場合は null）
+     */
+    private List<String> scanInKeyOrder(String query, boolean prefix, Set<String> allowed, KeysetPageRequest page,
+            int limit, int maxExamined) {
+        String cursor = page.cursor();
+        NavigableMap<String, Integer> range = cursor == null ? ordinalByProductId
+            : page.backward() ? ordinalByProductId.headMap(cursor, false).descendingMap()
+            : ordinalByProductId.tailMap(cursor, false);
+        List<String> result = new ArrayList<>(limit);
+        int count = 0;
+        for (int ordinal : range.values()) {
+            if (count == maxExamined) {
+                examined.add(count);
+                return null;
+            }
+            count++;
+            collect(ordinal, query, prefix, allowed, result);
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        examined.add(count);
+        return result;
+    }
+
+    /**
+     * ポスティングリストの候補（null の場合は全商品）をすべて確認し、基準の商品IDより後の先頭ページ分を保持する。
+     *
+     * @return 一致した商品ID（ページの順）
+     */
+    private List<String> scanPosting(IntList candidates, String query, boolean prefix, Set<String> allowed,
+            KeysetPageRequest page, int limit) {
+        Comparator<String> order = page.backward() ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        String cursor = page.cursor();
+        // ページの末尾（順序が最も後）を先頭に置き、より前の商品IDが見つかったら入れ替える
+        PriorityQueue<String> top = new PriorityQueue<>(limit + 1, order.reversed());
+        List<String> matched = new ArrayList<>(1);
+        int count = candidates == null ? ordinalCount : candidates.size();
+        for (int i = 0; i < count; i++) {
+            int ordinal = candidates == null ? i : candidates.get(i);
+            if (!live.get(ordinal)) {
+                continue;
+            }
+            String productId = productIds[ordinal];
+            if (cursor != null && order.compare(productId, cursor) <= 0
+                    || top.size() == limit && order.compare(productId, top.peek()) >= 0) {
+                continue;
+            }
+            collect(ordinal, query, prefix, allowed, matched);
+            if (!matched.isEmpty()) {
+                top.add(productId);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+                matched.clear();
+            }
+        }
+        examined.add(count);
+        List<String> result = new ArrayList<>(top);
+        result.sort(order);
+        return result;
+    }
+
+    private void collect(int ordinal, String query, boolean prefix, Set<String> allowed, List<String> result) {
+        String name = productNames[ordinal];
+        if (allowed.contains(salesCompanyIds[ordinal]) && (prefix ? name.startsWith(query) : name.contains(query))) {
+            result.add(productIds[ordinal]);
+        }
+    }
+
+    /**
+     * 検索語の n-gram のうち最も短いポスティングリストを返す。
+     *
+     * @return ポスティングリスト（いずれかの n-gram が未登録なら一致なしのため null）
+     */
+    private IntList shortestPosting(String query) {
+        int gram = Math.min(query.length(), TRIGRAM);
+        IntList shortest = null;
+        for (int i = 0; i + gram <= query.length(); i++) {
+            IntList list = postings.get(gramKey(query, i, gram));
+            if (list == null) {
+                return null;
+            }
+            if (shortest == null || list.size() < shortest.size()) {
+                shortest = list;
+            }
+        }
+        return shortest;
+    }
+
+    private void append(String productId, String productName, String salesCompanyId) {
+        if (ordinalCount == productIds.length) {
+            int newCapacity = ordinalCount * 2;
+            productIds = Arrays.copyOf(productIds, newCapacity);
+            productNames = Arrays.copyOf(productNames, newCapacity);
+            salesCompanyIds = Arrays.copyOf(salesCompanyIds, newCapacity);
+        }
+        int ordinal = ordinalCount++;
+        productIds[ordinal] = productId;
+        productNames[ordinal] = productName;
+        salesCompanyIds[ordinal] = salesCompanyId;
+        live.set(ordinal);
+        liveCount++;
+        ordinalByProductId.put(productId, ordinal);
+        addPostings(ordinal, productName, BIGRAM);
+        addPostings(ordinal, productName, TRIGRAM);
+    }
+
+    private void addPostings(int ordinal, String name, int gram) {
+        for (int i = 0; i + gram <= name.length(); i++) {
+            IntList list = postings.computeIfAbsent(gramKey(name, i, gram), k -> new IntList(4));
+            // 同一商品名内で同じ n-gram が繰り返される場合は1件のみ登録
+            if (list.isEmpty() || list.last() != ordinal) {
+                list.add(ordinal);
+            }
+        }
+    }
+
+    private void invalidate(int ordinal) {
+        live.clear(ordinal);
+        liveCount--;
+        productNames[ordinal] = null;
+    }
+
+    /**
+     * 無効化済みオーディナルが一定割合を超えたら、有効な商品だけで索引を再構築する。
+     */
+    private void compactIfNeeded() {
+        int dead = ordinalCount - liveCount;
+        if (dead < INITIAL_CAPACITY || dead * 4 < liveCount) {
+            return;
+        }
+        String[] ids = productIds;
+        String[] names = productNames;
+        String[] sellers = salesCompanyIds;
+        int count = ordinalCount;
+        int capacity = Math.max(INITIAL_CAPACITY, liveCount * 2);
+        productIds = new String[capacity];
+        productNames = new String[capacity];
+        salesCompanyIds = new String[capacity];
+        live.clear();
+        ordinalCount = 0;
+        liveCount = 0;
+        ordinalByProductId.clear();
+        postings = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            if (names[i] != null) {
+                append(ids[i], names[i], sellers[i]);
+            }
+        }
+        postings.values().forEach(IntList::trimToSize);
+    }
+
+    /**
+     * n-gram を long のキーに変換する（上位16bitに長さ、下位48bitに最大3文字）。
+     */
+    private static long gramKey(String s, int from, int length) {
+        long key = 0;
+        for (int i = 0; i < length; i++) {
+            key = (key << 16) | s.charAt(from + i);
+        }
+        return ((long) length << 48) | key;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.sample.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.example.sample.db.jpa.product.ProductNameView;
+import com.example.sample.util.ProductNameNormalizer;
+
+/**
+ * 商品名候補の前方一致検索用の不変索引。
+ * <p>
+ * 正規化済み商品名（{@link ProductNameNormalizer}）の昇順に並べた配列を保持し、
+ * 二分探索で前方一致の範囲の先頭を求めて順に走査する。購入可能な販売会社の商品が少ない場合に
+ * 前方一致の範囲全体を走査しないよう、確認する件数に上限を設ける。
+ * 生成後は変更しないため、参照時にロックは不要。商品の変更は {@link #withChanges} で
+ * 変更を反映した新しい索引を作成して差し替える（既存の配列との併合のため件数に比例する時間で済む）。
+ */
+public final class ProductNamePrefixIndex {
+
+    /** 商品なしの索引 */
+    public static final ProductNamePrefixIndex EMPTY = new ProductNamePrefixIndex(0);
+
+    private static final Comparator<Row> ORDER =
+        Comparator.comparing(Row::key).thenComparing(Row::name).thenComparing(Row::productId);
+
+    /** 正規化済み商品名（昇順） */
+    private final String[] keys;
+    /** 表示用の商品名 */
+    private final String[] names;
+    /** 販売会社ID */
+    private final String[] salesCompanyIds;
+    /** 商品ID */
+    private final String[] productIds;
+
+    private ProductNamePrefixIndex(int size) {
+        this.keys = new String[size];
+        this.names = new String[size];
+        this.salesCompanyIds = new String[size];
+        this.productIds = new String[size];
+    }
+
+    /**
+     * 商品の一覧から索引を作成する。
+     *
+     * @param products 商品（商品名が null のものは除外する）
+     * @return 索引
+     */
+    public static ProductNamePrefixIndex of(Collection<ProductNameView> products) {
+        return EMPTY.withChanges(products, Set.of());
+    }
+
+    /**
+     * 商品の追加・変更・削除を反映した新しい索引を作成する（この索引は変更しない）。
+     *
+     * @param upserts 追加・変更された商品（商品名が null のものは削除として扱う）
+     * @param removedProductIds 削除された商品ID
+     * @return 新しい索引
+     */
+    public ProductNamePrefixIndex withChanges(Collection<ProductNameView> upserts, Set<String> removedProductIds) {
+        Map<String, ProductNameView> changed = new HashMap<>();
+        upserts.forEach(p -> changed.put(p.productId(), p));
+        Row[] added = changed.values().stream()
+            .filter(p -> p.productName() != null && !removedProductIds.contains(p.productId()))
+            .map(p -> new Row(ProductNameNormalizer.normalize(p.productName()), p.productName(),
+                p.companyId(), p.productId()))
+            .sorted(ORDER)
+            .toArray(Row[]::new);
+
+        ProductNamePrefixIndex merged = new ProductNamePrefixIndex(keys.length + added.length);
+        int size = 0;
+        int a = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (changed.containsKey(productIds[i]) || removedProductIds.contains(productIds[i])) {
+                continue;
+            }
+            while (a < added.length && compare(added[a], i) < 0) {
+                size = merged.set(size, added[a++]);
+            }
+            merged.keys[size] = keys[i];
+            merged.names[size] = names[i];
+            merged.salesCompanyIds[size] = salesCompanyIds[i];
+            merged.productIds[size++] = productIds[i];
+        }
+        while (a < added.length) {
+            size = merged.set(size, added[a++]);
+        }
+        return size == merged.keys.length ? merged : merged.truncate(size);
+    }
+
+    /**
+     * 正規化済み商品名が指定キーで始まる商品名を、正規化済み商品名の昇順で返す。
+     *
+     * @param prefixKey 正規化済みの入力（空でないこと）
+     * @param allowedSalesCompanyIds 販売会社IDを受け取り、対象とする場合 true を返す判定
+     * @param limit 最大件数
+     * @param maxExamined 確認する商品数の上限（達した場合はそれまでに見つかった商品名を返す）
+     * @return 商品名のリスト（重複なし）
+     */
+    public List<String> suggest(String prefixKey, Predicate<String> allowedSalesCompanyIds, int limit, int maxExamined) {
+        Set<String> result = new LinkedHashSet<>();
+        int from = Arrays.binarySearch(keys, prefixKey);
+        if (from < 0) {
+            from = -from - 1;
+        } else {
+            // 同じキーが複数ある場合は先頭まで戻る
+            while (from > 0 && keys[from - 1].equals(prefixKey)) {
+                from--;
+            }
+        }
+        int to = (int) Math.min(keys.length, (long) from + maxExamined);
+        for (int i = from; i < to && result.size() < limit && keys[i].startsWith(prefixKey); i++) {
+            if (allowedSalesCompanyIds.test(salesCompanyIds[i])) {
+                result.add(names[i]);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * @return 登録されている商品数
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * 追加する行と既存の行を {@link #ORDER} の順で比較する。
+     */
+    private int compare(Row row, int i) {
+        int c = row.key().compareTo(keys[i]);
+        if (c == 0) {
+            c = row.name().compareTo(names[i]);
+        }
+        return c != 0 ? c : row.productId().compareTo(productIds[i]);
+    }
+
+    private int set(int i, Row row) {
+        keys[i] = row.key();
+        // 直前と同じ商品名は1つのインスタンスを共有する
+        names[i] = i > 0 && row.name().equals(names[i - 1]) ? names[i - 1] : row.name();
+        salesCompanyIds[i] = row.salesCompanyId();
+        productIds[i] = row.productId();
+        return i + 1;
+    }
+
+    private ProductNamePrefixIndex truncate(int size) {
+        ProductNamePrefixIndex truncated = new ProductNamePrefixIndex(size);
+        System.arraycopy(keys, 0, truncated.keys, 0, size);
+        System.arraycopy(names, 0, truncated.names, 0, size);
+        System.arraycopy(salesCompanyIds, 0, truncated.salesCompanyIds, 0, size);
+        System.arraycopy(productIds, 0, truncated.productIds, 0, size);
+        return truncated;
+    }
+
+    private record Row(String key, String name, String salesCompanyId, String productId) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.sample.search;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sample.db.jpa.product.ProductChangedEvent;
+import com.example.sample.db.jpa.product.ProductNameView;
+import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.util.ProductNameNormalizer;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * VA0101 商品名入力候補の提供。
+ * <p>
+ * 起動完了後にバックグラウンドで全商品名を読み込み、{@link ProductNamePrefixIndex} を作成する。
+ * 候補の検索は作成済みの索引のみを参照し、DBにはアクセスしない。
+ * <p>
+ * 商品の変更イベント（コミット後）は一定時間まとめてから、変更を反映した新しい索引を作成して
+ * 差し替える（コピーオンライト）。作成の間も検索は直前の索引で継続する。
+ * 索引の作成が完了するまでは候補なしを返す。読み込みに失敗した場合は一定間隔で再試行する
+ * （候補の検索はDBを参照しないため、再試行しないと再起動まで候補が表示されない）。
+ */
+@Slf4j
+@Component
+public class ProductNameSuggester {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration rebuildDelay;
+    private final int maxExamined;
+    private final Duration loadRetryInterval;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "product-suggest-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile ProductNamePrefixIndex index = ProductNamePrefixIndex.EMPTY;
+    /** 未反映の変更（商品ID → 商品、削除は null）。this で排他する */
+    private Map<String, ProductNameView> pendingChanges = new HashMap<>();
+    /** 全商品の読み込みが完了したか（this で排他する） */
+    private boolean loaded;
+
+    public ProductNameSuggester(
+            ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${sample.search.suggest.rebuild-delay:PT1S}") Duration rebuildDelay,
+            @Value("${sample.search.suggest.max-examined:2000}") int maxExamined,
+            @Value("${sample.search.suggest.load-retry-interval:PT30S}") Duration loadRetryInterval) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildDelay = rebuildDelay;
+        this.maxExamined = maxExamined;
+        this.loadRetryInterval = loadRetryInterval;
+    }
+
+    /**
+     * 入力で始まる商品名を返す。
+     *
+     * @param input 入力（正規化前）
+     * @param salesCompanyIds 販売会社IDを受け取り、購入可能な場合 true を返す判定
+     * @param limit 最大件数
+     * @return 商品名のリスト（入力が空、または索引の作成前は空）
+     */
+    public List<String> suggest(String input, Predicate<String> salesCompanyIds, int limit) {
+        if (input == null || input.isBlank()) {
+            return List.of();
+        }
+        return index.suggest(ProductNameNormalizer.normalize(input.strip()), salesCompanyIds, limit, maxExamined);
+    }
+
+    /**
+     * 起動完了後に索引の作成を開始する。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        executor.execute(this::load);
+    }
+
+    /**
+     * 商品変更イベントを未反映の変更に追加し、索引の作り直しを予約する。
+     *
+     * @param event 商品変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductNameView product = event.deleted() || event.productName() == null
+            ? null
+            : new ProductNameView(event.productId(), event.productName(), event.companyId());
+        boolean schedule;
+        synchronized (this) {
+            // 同じ商品の変更が続いた場合は最後の状態のみ反映する
+            schedule = pendingChanges.isEmpty() && loaded;
+            pendingChanges.put(event.productId(), product);
+        }
+        if (schedule) {
+            executor.schedule(this::rebuild, rebuildDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return 全商品の読み込みが完了したか
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 全商品を読み込んで索引を作成する（executor のスレッドでのみ実行する）。失敗した場合は再試行を予約する。
+     */
+    private void load() {
+        long start = System.nanoTime();
+        try {
+            List<ProductNameView> products = new ArrayList<>();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ProductNameView> stream = productRepository.streamAllProductNames()) {
+                    stream.forEach(products::add);
+                }
+            });
+            index = ProductNamePrefixIndex.of(products);
+            // 読み込み中に受けた変更を反映する
+            synchronized (this) {
+                loaded = true;
+            }
+            rebuild();
+            log.info("商品名候補索引作成完了: 商品数={}, 所要時間={}ms",
+                index.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("商品名候補索引の作成に失敗したため{}後に再試行します（作成まで入力候補は表示されません）",
+                loadRetryInterval, e);
+            if (!executor.isShutdown()) {
+                executor.schedule(this::load, loadRetryInterval.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * 未反映の変更を反映した索引を作成して差し替える（executor のスレッドでのみ実行する）。
+     */
+    private void rebuild() {
+        Map<String, ProductNameView> changes;
+        synchronized (this) {
+            if (pendingChanges.isEmpty()) {
+                return;
+            }
+            changes = pendingChanges;
+            pendingChanges = new HashMap<>();
+        }
+        Set<String> removed = new HashSet<>();
+        List<ProductNameView> upserts = new ArrayList<>();
+        changes.forEach((productId, product) -> {
+            if (product == null) {
+                removed.add(productId);
+            } else {
+                upserts.add(product);
+            }
+        });
+        index = index.withChanges(upserts, removed);
+    }
+}
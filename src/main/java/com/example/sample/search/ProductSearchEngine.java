@@ -0,0 +1,33 @@
+package com.example.sample.search;
+
+import java.util.List;
+import java.util.Set;
+
+import com.example.sample.db.jpa.product.ProductSummaryView;
+
+/**
+ * VA0101 商品検索の検索エンジン。
+ * <p>
+ * 実装は {@code sample.search.engine} で切り替える。
+ * <ul>
+ * <li>ngram（既定）: {@link NgramProductSearchEngine} インメモリ n-gram 索引</li>
+ * <li>jpql: {@link JpqlProductSearchEngine} LIKE による部分一致検索</li>
+ * </ul>
+ * いずれの実装も正規化済み商品名（PRODUCT_NAME_KEY）に対する
+ * {@link ProductNameCondition#likePattern()} の LIKE と同じ結果を返すこと。
+ */
+public interface ProductSearchEngine {
+
+    /**
+     * 指定した販売会社の商品を商品名の条件で検索し、1ページ分を返す。
+     * <p>
+     * 前方向のページは商品ID昇順、後方向のページは商品ID降順（読み進める順）で
+     * 最大 {@link KeysetPageRequest#fetchSize()} 件を返す。
+     *
+     * @param salesCompanyIds 販売会社IDの集合（空でないこと）
+     * @param nameCondition 商品名の条件（null の場合は条件なし）
+     * @param page ページ指定
+     * @return 商品一覧ビューのリスト
+     */
+    List<ProductSummaryView> search(Set<String> salesCompanyIds, ProductNameCondition nameCondition, KeysetPageRequest page);
+}
@@ -0,0 +1,148 @@
+package com.example.sample.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.sample.cache.CartItemCountCache;
+import com.example.sample.cart.CartWriter;
+import com.example.sample.db.jpa.cart.CartLineView;
+import com.example.sample.db.jpa.cart.CartRepository;
+import com.example.sample.stock.ProductStockTable;
+import com.example.sample.stock.StockTable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * カートの集計 Service。
+ * <p>
+ * 金額は最小通貨単位（価格の小数部2桁を整数にした値）の long で計算し、明細ごとに
+ * {@link BigDecimal} を生成しない。TM_PRODUCT.PRICE は DECIMAL(10, 2) のため、
+ * 価格 × 数量の合計は long の範囲に収まる。
+ * <p>
+ * 明細の在庫数は {@link ProductStockTable} の値を優先し、在庫表に未登録（読み込み前など）の
+ * 場合のみ結合した TM_PRODUCT の値を使用する。{@link CartItemCountCache} は数量の合計のみを
+ * 保持し在庫に依存しないため、在庫の変更では破棄しない。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartSummaryService {
+
+    /** TM_PRODUCT.PRICE の小数部の桁数 */
+    public static final int PRICE_SCALE = 2;
+
+    private final CartRepository cartRepository;
+    private final CartWriter cartWriter;
+    private final CartItemCountCache cartItemCountCache;
+    private final ProductStockTable productStockTable;
+
+    /**
+     * カート明細 DTO（Service 内部クラス）。
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CartLineDto {
+        /** 商品ID */
+        private String productId;
+        /** 商品名 */
+        private String productName;
+        /** 数量 */
+        private int quantity;
+        /** 単価（最小通貨単位） */
+        private long unitPriceMinor;
+        /** 小計（最小通貨単位） */
+        private long subtotalMinor;
+        /** 在庫数（不明の場合は null） */
+        private Integer stockQuantity;
+        /** 在庫数が数量以上か */
+        private boolean available;
+    }
+
+    /**
+     * カート集計 DTO（Service 内部クラス）。
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CartSummaryDto {
+        /** カート明細（追加順） */
+        private List<CartLineDto> lines;
+        /** 商品数（数量の合計） */
+        private int itemCount;
+        /** 合計金額（最小通貨単位） */
+        private long totalPriceMinor;
+
+        /**
+         * @return 合計金額（表示用）
+         */
+        public BigDecimal getTotalPrice() {
+            return BigDecimal.valueOf(totalPriceMinor, PRICE_SCALE);
+        }
+    }
+
+    /**
+     * カートの明細・商品数・合計金額を取得する。
+     * <p>
+     * カートと商品を結合した1クエリで取得し、商品ごとの追加検索は行わない。
+     *
+     * @param userId ユーザID
+     * @return カート集計DTO
+     */
+    @Transactional(readOnly = true)
+    public CartSummaryDto getSummary(String userId) {
+        // 未反映の追加を含めて集計する
+        cartWriter.flush(userId);
+
+        List<CartLineView> views = cartRepository.findLinesByUserId(userId);
+        List<CartLineDto> lines = new ArrayList<>(views.size());
+        int itemCount = 0;
+        long totalMinor = 0;
+        for (CartLineView view : views) {
+            long unitMinor = toMinor(view.price());
+            long subtotalMinor = Math.multiplyExact(unitMinor, view.quantity());
+            Integer stock = currentStock(view);
+            lines.add(new CartLineDto(view.productId(), view.productName(), view.quantity(), unitMinor, subtotalMinor,
+                stock, stock != null && stock >= view.quantity()));
+            itemCount += view.quantity();
+            totalMinor = Math.addExact(totalMinor, subtotalMinor);
+        }
+        log.debug("カート集計: userId={}, 明細数={}, 商品数={}, 合計={}", userId, lines.size(), itemCount, totalMinor);
+        return new CartSummaryDto(lines, itemCount, totalMinor);
+    }
+
+    /**
+     * カート内の商品数（ヘッダー表示用）を取得する。
+     * <p>
+     * {@link CartItemCountCache} から返すため、通常はDBにアクセスしない。
+     *
+     * @param userId ユーザID
+     * @return 数量の合計
+     */
+    public int getItemCount(String userId) {
+        return cartItemCountCache.getItemCount(userId);
+    }
+
+    /**
+     * 明細の商品の現在の在庫数を取得する（在庫表に未登録の場合は TM_PRODUCT の値）。
+     */
+    private Integer currentStock(CartLineView view) {
+        int stock = productStockTable.getStock(view.productId());
+        return stock == StockTable.UNKNOWN ? view.stockQuantity() : Integer.valueOf(stock);
+    }
+
+    /**
+     * 価格を最小通貨単位に変換する。
+     */
+    private static long toMinor(BigDecimal price) {
+        return price.movePointRight(PRICE_SCALE).longValueExact();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.sample.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sample.cart.CartChangedEvent;
+import com.example.sample.cart.CartWriter;
+import com.example.sample.db.jpa.order.CheckoutLineView;
+import com.example.sample.db.jpa.order.OrderRepository;
+import com.example.sample.exception.ServiceException;
+import com.example.sample.stock.ProductStockTable;
+import com.example.sample.stock.StockReservationEngine;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 注文確定 Service。
+ * <p>
+ * ユーザのカート全体を1トランザクションで注文に変換する。カート行と商品行を主キー順にロックした上で
+ * 在庫を確認し、在庫の減算（条件付き UPDATE）、注文・明細の登録（INSERT ... SELECT）、カートの削除を
+ * それぞれ1文で実行する。いずれかの商品の在庫が不足する場合は何も更新せず、不足する明細を返す。
+ * <p>
+ * 商品行のロックはトランザクション終了まで保持されるが、同じ商品を注文する他のユーザの待ち時間は
+ * 上記の数文の実行時間のみとなる。
+ * 確定後、在庫表（{@link ProductStockTable}）を減算し、カート追加時の在庫引当を解除する。
+ */
+@Slf4j
+@Service
+public class CheckoutService {
+
+    private final OrderRepository orderRepository;
+    private final CartWriter cartWriter;
+    private final ProductStockTable productStockTable;
+    private final StockReservationEngine stockReservationEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MessageSource messageSource;
+    private final TransactionTemplate transaction;
+
+    public CheckoutService(
+            OrderRepository orderRepository,
+            CartWriter cartWriter,
+            ProductStockTable productStockTable,
+            StockReservationEngine stockReservationEngine,
+            ApplicationEventPublisher eventPublisher,
+            MessageSource messageSource,
+            PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.cartWriter = cartWriter;
+        this.productStockTable = productStockTable;
+        this.stockReservationEngine = stockReservationEngine;
+        this.eventPublisher = eventPublisher;
+        this.messageSource = messageSource;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 注文確定結果 DTO（Service 内部クラス）。
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CheckoutResultDto {
+        /** 注文ID（在庫不足で確定できなかった場合は null） */
+        private String orderId;
+        /** 商品数（数量の合計） */
+        private int itemCount;
+        /** 合計金額 */
+        private BigDecimal totalPrice;
+        /** 在庫が不足する明細（確定した場合は空） */
+        private List<ShortageDto> shortages;
+
+        /**
+         * @return 注文を確定した場合 true
+         */
+        public boolean isOrdered() {
+            return orderId != null;
+        }
+    }
+
+    /**
+     * 在庫が不足する明細 DTO（Service 内部クラス）。
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ShortageDto {
+        /** 商品ID */
+        private String productId;
+        /** 商品名（商品が存在しない、または削除済みの場合は null） */
+        private String productName;
+        /** カートの数量 */
+        private int quantity;
+        /** 在庫数（商品が存在しない、または削除済みの場合は0） */
+        private int stockQuantity;
+    }
+
+    /**
+     * カートの内容で注文を確定する。
+     *
+     * @param userId ユーザID
+     * @return 注文確定結果（在庫が不足する場合は不足する明細）
+     * @throws ServiceException カートが空の場合
+     */
+    public CheckoutResultDto checkout(String userId) {
+        log.debug("checkout() 呼出: userId={}", userId);
+        long start = System.nanoTime();
+
+        // 未反映のカート追加を反映してから確定する
+        cartWriter.flush(userId);
+
+        Outcome outcome = transaction.execute(status -> {
+            List<CheckoutLineView> locked = orderRepository.lockCheckoutLines(userId);
+            if (locked.isEmpty() || locked.stream().anyMatch(l -> !l.inStock())) {
+                status.setRollbackOnly();
+                return new Outcome(null, locked);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            int updated = orderRepository.decrementStock(userId, now);
+            if (updated != locked.size()) {
+                // 行をロック済みのため通常は発生しない
+                throw new IllegalStateException("在庫の減算件数が明細数と一致しません: " + updated + " / " + locked.size());
+            }
+            String orderId = UUID.randomUUID().toString();
+            orderRepository.insertOrder(orderId, userId, now);
+            orderRepository.deleteCart(userId);
+            return new Outcome(orderId, locked);
+        });
+
+        List<CheckoutLineView> lines = outcome.lines();
+        if (lines.isEmpty()) {
+            String message = messageSource.getMessage("E_VA0101_004", null, null);
+            throw new ServiceException("E_VA0101_004", message);
+        }
+        int itemCount = lines.stream().mapToInt(CheckoutLineView::quantity).sum();
+        if (outcome.orderId() == null) {
+            List<ShortageDto> shortages = lines.stream()
+                .filter(l -> !l.inStock())
+                .map(l -> new ShortageDto(l.productId(), l.productName(), l.quantity(),
+                    l.stockQuantity() == null ? 0 : l.stockQuantity()))
+                .toList();
+            log.info("注文確定不可（在庫不足）: userId={}, 不足明細={}", userId, shortages.size());
+            return new CheckoutResultDto(null, itemCount, null, shortages);
+        }
+
+        // 在庫表を先に減らしてから引当を解除する（引当可能数が一時的にも増えないように）
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (CheckoutLineView l : lines) {
+            productStockTable.addStock(l.productId(), -l.quantity());
+            stockReservationEngine.release(userId, l.productId());
+            totalPrice = totalPrice.add(l.price().multiply(BigDecimal.valueOf(l.quantity())));
+        }
+        eventPublisher.publishEvent(new CartChangedEvent(userId));
+
+        log.info("注文確定完了: userId={}, orderId={}, 明細={}, 所要時間={}ms", userId, outcome.orderId(), lines.size(),
+            (System.nanoTime() - start) / 1_000_000);
+        return new CheckoutResultDto(outcome.orderId(), itemCount, totalPrice, List.of());
+    }
+
+    /**
+     * トランザクションの結果。
+     *
+     * @param orderId 注文ID（確定しなかった場合は null）
+     * @param lines ロックした時点のカート明細
+     */
+    private record Outcome(String orderId, List<CheckoutLineView> lines) {
+    }
+}
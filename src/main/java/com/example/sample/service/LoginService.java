@@ -7,13 +7,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.example.sample.db.jpa.user.UserEntity;
-import com.example.sample.db.jpa.user.UserRepository;
+import com.example.sample.cache.UserCredentialCache;
+import com.example.sample.db.jpa.user.UserCredentialView;
 
 import lombok.RequiredArgsConstructor;
 
@@ -21,14 +21,19 @@ import lombok.RequiredArgsConstructor;
  * ログイン関連の認証用ロジックを提供する Service。
  * <p>
  * Spring Security の `UserDetailsService` を実装し、認証フローに統合する。
- * JPA (UserRepository) を使用してユーザー情報を取得する。
+ * ユーザー情報は {@link UserCredentialCache} から取得する（キャッシュにない場合のみ DB を検索する）。
+ * ロック・削除時はコミット後にキャッシュが破棄されるため、次の認証試行から拒否される。
+ * <p>
+ * `UserDetailsPasswordService` も実装し、保存済みハッシュの strength が現在の設定と異なる場合に
+ * ログイン成功時に再生成したハッシュを {@link PasswordUpgradeService} で保存する。
  */
 @Service
 @RequiredArgsConstructor
-public class LoginService implements UserDetailsService {
+public class LoginService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Logger log = LoggerFactory.getLogger(LoginService.class);
-    private final UserRepository userRepository;
+    private final UserCredentialCache userCredentialCache;
+    private final PasswordUpgradeService passwordUpgradeService;
 
     /**
      * Spring Security 用のユーザー情報読み込み。
@@ -38,7 +43,6 @@ public class LoginService implements UserDetailsService {
      * @throws UsernameNotFoundException ユーザー未登録時
      */
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         log.debug("認証試行: username={}", username);
         
@@ -46,35 +50,55 @@ public class LoginService implements UserDetailsService {
             throw new UsernameNotFoundException("ユーザーIDが指定されていません");
         }
 
-        UserEntity user = userRepository.findByUserId(username)
+        UserCredentialView user = userCredentialCache.get(username)
             .orElseThrow(() -> {
                 log.warn("ユーザーが見つかりません: {}", username);
                 return new UsernameNotFoundException("ユーザーが見つかりません: " + username);
             });
 
         log.debug("ユーザー取得成功: userId={}, delFlg={}, locked={}", 
-            user.getUserId(), user.getDelFlg(), user.getAccountLocked());
+            user.userId(), user.delFlg(), user.accountLocked());
 
         // アカウントが削除済みまたはロックされている場合
-        if (user.getDelFlg() != null && user.getDelFlg()) {
+        if (user.delFlg()) {
             log.warn("アカウントが削除済み: {}", username);
             throw new UsernameNotFoundException("アカウントが削除されています: " + username);
         }
-        if (user.getAccountLocked() != null && user.getAccountLocked()) {
+        if (user.accountLocked()) {
             log.warn("アカウントがロック: {}", username);
             throw new UsernameNotFoundException("アカウントがロックされています: " + username);
         }
 
-        String role = user.getRole() == null ? "ROLE_USER" : user.getRole();
+        String role = user.role() == null ? "ROLE_USER" : user.role();
         List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(role));
 
         log.debug("UserDetails作成: username={}, role={}, passwordLength={}", 
-            user.getUserId(), role, user.getPassword() != null ? user.getPassword().length() : 0);
+            user.userId(), role, user.password() != null ? user.password().length() : 0);
 
         // Spring Security標準のUserオブジェクトを返す
-        return User.withUsername(user.getUserId())
-                .password(user.getPassword())
+        return User.withUsername(user.userId())
+                .password(user.password())
                 .authorities(authorities)
                 .build();
     }
+
+    /**
+     * ログイン成功後、再生成したパスワードハッシュを保存する。
+     * <p>
+     * 保存に失敗してもログインは継続する（次回のログインで再度試行する）。
+     *
+     * @param user 照合に使用したユーザー情報（保存済みのハッシュを保持）
+     * @param newPassword 再生成したハッシュ
+     * @return 新しいハッシュを設定した `UserDetails`
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        try {
+            passwordUpgradeService.upgrade(user.getUsername(), user.getPassword(), newPassword);
+        } catch (RuntimeException e) {
+            log.warn("パスワードハッシュの再生成に失敗: username={}", user.getUsername(), e);
+            return user;
+        }
+        return User.withUserDetails(user).password(newPassword).build();
+    }
 }
@@ -0,0 +1,50 @@
+package com.example.sample.service;
+
+import java.time.LocalDateTime;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.sample.db.jpa.user.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ログイン成功時のパスワードハッシュ再生成（TM_USER.PASSWORD の更新）を行う Service。
+ * <p>
+ * BCrypt の strength を変更した場合に、保存済みハッシュを利用者の操作なしに新しい strength へ移行する。
+ * 照合に使用したハッシュから DB の値が変わっている場合（照合中のパスワード変更等）は更新しない。
+ * 更新はユーザエンティティ経由で行うため、コミット後に認証情報キャッシュが破棄される。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PasswordUpgradeService {
+
+    private final UserRepository userRepository;
+
+    /**
+     * パスワードハッシュを置き換える。
+     *
+     * @param userId ユーザID
+     * @param currentHash 照合に使用したハッシュ
+     * @param newHash 新しいハッシュ
+     * @return 更新した場合は true
+     */
+    @Transactional
+    public boolean upgrade(String userId, String currentHash, String newHash) {
+        return userRepository.findByUserId(userId)
+            .filter(user -> user.getPassword().equals(currentHash))
+            .map(user -> {
+                user.setPassword(newHash);
+                user.setUpdatedAt(LocalDateTime.now());
+                log.info("パスワードハッシュを再生成: userId={}", userId);
+                return true;
+            })
+            .orElseGet(() -> {
+                log.debug("照合後にパスワードが変更されたため再生成を省略: userId={}", userId);
+                return false;
+            });
+    }
+}
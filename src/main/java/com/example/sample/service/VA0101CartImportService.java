@@ -0,0 +1,234 @@
+package com.example.sample.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Service;
+
+import com.example.sample.auth.CompanyProductAuthMatrix;
+import com.example.sample.cart.CartWriter;
+import com.example.sample.exception.ServiceException;
+import com.example.sample.stock.StockReservationEngine;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * VA0101 カート一括取込 Service。
+ * <p>
+ * 「商品ID,数量」形式の CSV（UTF-8、数量省略時は1、先頭行の見出しは読み飛ばす）を1行ずつ読み込み、
+ * 一定行数（チャンク）ごとに検証してカートに追加する。ファイル全体をメモリに載せないため、
+ * 行数によらずヒープ使用量は一定となる。
+ * <p>
+ * チャンクごとに購入可能な商品IDを {@link CompanyProductAuthMatrix} でまとめて判定し、各行はその集合で検証する
+ * （購入承認表の構築前は1クエリで取得する）。
+ * 在庫は行ごとに {@link StockReservationEngine} で引き当て、受け付けた行は商品ごとに合算して
+ * {@link CartWriter} で1回に追加する。
+ * <p>
+ * 追加はチャンクごとに行うため、途中で失敗した場合もそれまでのチャンクはカートに追加されたままとなる。
+ */
+@Slf4j
+@Service
+public class VA0101CartImportService {
+
+    /** 1行あたりの数量の上限 */
+    public static final int MAX_QUANTITY = 9999;
+
+    private final StockReservationEngine stockReservationEngine;
+    private final CartWriter cartWriter;
+    private final CompanyProductAuthMatrix companyProductAuthMatrix;
+    private final MessageSource messageSource;
+    private final int chunkSize;
+    private final int maxRejectedLines;
+
+    public VA0101CartImportService(
+            StockReservationEngine stockReservationEngine,
+            CartWriter cartWriter,
+            CompanyProductAuthMatrix companyProductAuthMatrix,
+            MessageSource messageSource,
+            @Value("${sample.cart.import.chunk-size:1000}") int chunkSize,
+            @Value("${sample.cart.import.max-rejected-lines:100}") int maxRejectedLines) {
+        this.stockReservationEngine = stockReservationEngine;
+        this.cartWriter = cartWriter;
+        this.companyProductAuthMatrix = companyProductAuthMatrix;
+        this.messageSource = messageSource;
+        this.chunkSize = chunkSize;
+        this.maxRejectedLines = maxRejectedLines;
+    }
+
+    /**
+     * 取込結果 DTO（Service 内部クラス）。
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CartImportResultDto {
+        /** 受け付けた行数 */
+        private long acceptedLines;
+        /** 受け付けなかった行数 */
+        private long rejectedLines;
+        /** 追加した数量の合計 */
+        private long acceptedQuantity;
+        /** 受け付けなかった行（先頭から最大 sample.cart.import.max-rejected-lines 件） */
+        private List<RejectedLineDto> rejected;
+    }
+
+    /**
+     * 受け付けなかった行 DTO（Service 内部クラス）。
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RejectedLineDto {
+        /** 行番号（1始まり） */
+        private long lineNumber;
+        /** 商品ID（読み取れなかった場合は null） */
+        private String productId;
+        /** 理由 */
+        private String reason;
+    }
+
+    /**
+     * CSV を読み込み、カートに追加する。
+     *
+     * @param userId ユーザID
+     * @param companyId ユーザの所属会社ID
+     * @param in CSV の入力ストリーム（クローズは呼び出し側で行う）
+     * @return 取込結果
+     * @throws IOException 読み込みに失敗した場合
+     */
+    public CartImportResultDto importCsv(String userId, String companyId, InputStream in) throws IOException {
+        log.debug("importCsv() 呼出: userId={}, companyId={}", userId, companyId);
+        long start = System.nanoTime();
+
+        // 起動直後で在庫引当を受け付けられない場合は、一部の行だけ取り込まないよう読み込む前に中断する
+        if (!stockReservationEngine.isLoaded()) {
+            log.warn("在庫引当の読み込み前のためカート一括取込不可: userId={}", userId);
+            throw new ServiceException("E0004", messageSource.getMessage("E0004", null, null));
+        }
+
+        CartImportResultDto result = new CartImportResultDto(0, 0, 0, new ArrayList<>());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<ImportLine> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] columns = line.split(",", -1);
+            String productId = unquote(columns[0]);
+            Integer quantity = columns.length > 1 ? parseQuantity(unquote(columns[1])) : Integer.valueOf(1);
+            if (lineNumber == 1 && quantity == null) {
+                // 見出し行
+                continue;
+            }
+            if (productId.isEmpty() || columns.length > 2) {
+                reject(result, lineNumber, productId.isEmpty() ? null : productId, "W_VA0101_001");
+            } else if (quantity == null) {
+                reject(result, lineNumber, productId, "W_VA0101_002");
+            } else {
+                chunk.add(new ImportLine(lineNumber, productId, quantity));
+                if (chunk.size() >= chunkSize) {
+                    processChunk(userId, companyId, chunk, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(userId, companyId, chunk, result);
+        }
+
+        log.info("カート一括取込完了: userId={}, 受付={}, 不可={}, 数量={}, 所要時間={}ms", userId,
+            result.getAcceptedLines(), result.getRejectedLines(), result.getAcceptedQuantity(),
+            (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * 1チャンクを検証し、受け付けた行をカートに追加する。
+     */
+    private void processChunk(String userId, String companyId, List<ImportLine> chunk, CartImportResultDto result) {
+        Set<String> productIds = new HashSet<>();
+        chunk.forEach(l -> productIds.add(l.productId()));
+        Set<String> available = companyProductAuthMatrix.filterAuthorized(companyId, productIds);
+
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (ImportLine l : chunk) {
+            if (!available.contains(l.productId())) {
+                reject(result, l.lineNumber(), l.productId(), "W_VA0101_003");
+            } else if (!stockReservationEngine.reserve(userId, Map.of(l.productId(), l.quantity()))) {
+                reject(result, l.lineNumber(), l.productId(), "E_VA0101_002");
+            } else {
+                quantities.merge(l.productId(), l.quantity(), Integer::sum);
+                result.setAcceptedLines(result.getAcceptedLines() + 1);
+                result.setAcceptedQuantity(result.getAcceptedQuantity() + l.quantity());
+            }
+        }
+        if (quantities.isEmpty()) {
+            return;
+        }
+        try {
+            cartWriter.add(userId, quantities);
+        } catch (RuntimeException e) {
+            stockReservationEngine.unreserve(userId, quantities);
+            throw e;
+        }
+    }
+
+    private void reject(CartImportResultDto result, long lineNumber, String productId, String code) {
+        result.setRejectedLines(result.getRejectedLines() + 1);
+        if (result.getRejected().size() < maxRejectedLines) {
+            result.getRejected().add(new RejectedLineDto(lineNumber, productId, messageSource.getMessage(code, null, null)));
+        }
+    }
+
+    /**
+     * 数量を解析する。
+     *
+     * @return 数量（1～{@link #MAX_QUANTITY} の整数でない場合は null）
+     */
+    private static Integer parseQuantity(String value) {
+        if (value.isEmpty() || value.length() > 4) {
+            return null;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return null;
+            }
+        }
+        int quantity = Integer.parseInt(value);
+        return quantity >= 1 && quantity <= MAX_QUANTITY ? quantity : null;
+    }
+
+    /**
+     * 前後の空白と、値を囲む二重引用符を除く。
+     */
+    private static String unquote(String value) {
+        String trimmed = value.strip();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1).strip();
+        }
+        return trimmed;
+    }
+
+    private record ImportLine(long lineNumber, String productId, int quantity) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.sample.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.sample.cache.CompanyProductAuthCache;
+import com.example.sample.db.jpa.product.ProductEntity;
+import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.export.ProductExportFormat;
+import com.example.sample.export.ProductExportWriter;
+import com.example.sample.search.ProductNameCondition;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * VA0101 購入可能商品エクスポート Service。
+ * <p>
+ * 商品をカーソルで読み進めながら1件ずつ出力し、書き出したエンティティは
+ * 永続化コンテキストから切り離す。件数が数百万件でもヒープ使用量は一定となる。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VA0101ExportService {
+
+    private final ProductRepository productRepository;
+    private final CompanyProductAuthCache companyProductAuthCache;
+    private final EntityManager entityManager;
+
+    /**
+     * ユーザの所属会社が購入可能な商品を出力ストリームへ書き出す。
+     *
+     * @param companyId ユーザの所属会社ID
+     * @param productName 商品名（空文字の場合は条件なし）
+     * @param prefixMatch 前方一致の場合 true（false の場合は部分一致）
+     * @param format 出力形式
+     * @param out 出力先（クローズは呼び出し側で行う）
+     * @return 出力件数
+     * @throws IOException 出力に失敗した場合（クライアント切断を含む）
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(String companyId, String productName, boolean prefixMatch, ProductExportFormat format,
+            OutputStream out) throws IOException {
+        log.debug("exportProducts() 呼出: companyId={}, productName={}, format={}", companyId, productName, format);
+        long start = System.nanoTime();
+
+        // 商品名を PRODUCT_NAME_KEY と同じ規則で正規化（空文字は条件なし）
+        String namePattern = ProductNameCondition.likePatternOf(ProductNameCondition.of(productName, prefixMatch));
+
+        ProductExportWriter writer = new ProductExportWriter(format, out);
+        writer.writeHeader();
+        Set<String> salesCompanyIds = companyProductAuthCache.getSalesCompanyIds(companyId);
+        if (!salesCompanyIds.isEmpty()) {
+            try (Stream<ProductEntity> products = productRepository.streamBySalesCompanyIds(salesCompanyIds, namePattern)) {
+                Iterator<ProductEntity> it = products.iterator();
+                while (it.hasNext()) {
+                    ProductEntity product = it.next();
+                    writer.write(product);
+                    // 読み終えたエンティティを保持し続けないよう切り離す
+                    entityManager.detach(product);
+                }
+            }
+        }
+        writer.finish();
+
+        log.info("商品エクスポート完了: companyId={}, 件数={}, 所要時間={}ms",
+            companyId, writer.getCount(), (System.nanoTime() - start) / 1_000_000);
+        return writer.getCount();
+    }
+}
@@ -1,18 +1,34 @@
 package com.example.sample.service;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.example.sample.db.jpa.cart.CartEntity;
-import com.example.sample.db.jpa.cart.CartRepository;
-import com.example.sample.db.jpa.product.ProductEntity;
+import com.example.sample.auth.CompanyProductAuthMatrix;
+import com.example.sample.cache.CompanyProductAuthCache;
+import com.example.sample.cache.ProductSearchResultCache;
+import com.example.sample.cache.SingleFlightTimeoutException;
+import com.example.sample.cart.CartWriter;
 import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.db.jpa.product.ProductSummaryView;
+import com.example.sample.db.jpa.usercompany.UserCompanyRepository;
 import com.example.sample.exception.ServiceException;
+import com.example.sample.recommend.AlsoAddedRecommender;
+import com.example.sample.search.KeysetPageRequest;
+import com.example.sample.search.ProductNameCondition;
+import com.example.sample.search.ProductNameSuggester;
+import com.example.sample.search.ProductSearchEngine;
+import com.example.sample.stock.ProductStockTable;
+import com.example.sample.stock.StockReservationEngine;
+import com.example.sample.stock.StockReservationUnavailableException;
+import com.example.sample.stock.StockTable;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -28,8 +44,23 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class VA0101Service {
     
+    /** 検索結果の1ページあたりの件数 */
+    public static final int PAGE_SIZE = 50;
+    
+    /** 商品名入力候補の最大件数 */
+    public static final int SUGGEST_LIMIT = 10;
+    
+    private final ProductSearchEngine productSearchEngine;
+    private final ProductNameSuggester productNameSuggester;
+    private final ProductStockTable productStockTable;
+    private final StockReservationEngine stockReservationEngine;
     private final ProductRepository productRepository;
-    private final CartRepository cartRepository;
+    private final CartWriter cartWriter;
+    private final UserCompanyRepository userCompanyRepository;
+    private final CompanyProductAuthCache companyProductAuthCache;
+    private final CompanyProductAuthMatrix companyProductAuthMatrix;
+    private final ProductSearchResultCache productSearchResultCache;
+    private final AlsoAddedRecommender alsoAddedRecommender;
     private final MessageSource messageSource;
     
     /**
@@ -49,90 +80,266 @@ public class VA0101Service {
         private BigDecimal price;
         /** 在庫数 */
         private Integer stockQuantity;
-        /** 商品説明 */
-        private String description;
     }
     
     /**
-     * ユーザの所属会社が購入可能な商品を検索する。
+     * 商品検索結果ページ DTO（Service 内部クラス）。
+     * <p>
+     * 前後のページは商品IDをカーソルとして指定する（キーセットページング）。
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductSearchPageDto {
+        /** 商品検索結果（商品ID順） */
+        private List<ProductSearchResultDto> products;
+        /** 次ページのカーソル（次ページがない場合はnull） */
+        private String nextCursor;
+        /** 前ページのカーソル（前ページがない場合はnull） */
+        private String prevCursor;
+    }
+    
+    /**
+     * ユーザの所属会社IDを取得する。
      *
-     * @param companyId ユーザの所属会社ID
-     * @param productName 商品名（部分一致、空文字の場合はnull扱い）
-     * @return 商品検索結果DTOのリスト
+     * @param userId ユーザID
+     * @return 所属会社ID（所属がない場合はnull）
      */
     @Transactional(readOnly = true)
-    public List<ProductSearchResultDto> searchProducts(String companyId, String productName) {
-        log.debug("searchProducts() 呼出: companyId={}, productName={}", 
-            companyId, productName);
+    public String findCompanyId(String userId) {
+        List<String> companyIds = userCompanyRepository.findCompanyIds(userId);
+        return companyIds.isEmpty() ? null : companyIds.get(0);
+    }
+    
+    /**
+     * ユーザの所属会社が購入可能な商品を検索し、1ページ分を返す。
+     * <p>
+     * 検索結果は {@link ProductSearchResultCache} に保持する。キャッシュヒット時にDB接続を
+     * 取得しないよう、本メソッドではトランザクションを開始しない（検索クエリは個別に実行する）。
+     *
+     * @param companyId ユーザの所属会社ID
+     * @param productName 商品名（空文字の場合は条件なし）
+     * @param prefixMatch 前方一致の場合 true（false の場合は部分一致）
+     * @param page ページ指定（商品IDのカーソルと方向）
+     * @return 商品検索結果ページDTO
+     * @throws ServiceException 同時に実行中の同一検索の完了待ちがタイムアウトした場合
+     */
+    public ProductSearchPageDto searchProducts(String companyId, String productName, boolean prefixMatch,
+            KeysetPageRequest page) {
+        log.debug("searchProducts() 呼出: companyId={}, productName={}, prefixMatch={}, page={}", 
+            companyId, productName, prefixMatch, page);
         
-        // 空文字をnullに変換
-        String pName = (productName != null && !productName.trim().isEmpty()) ? productName.trim() : null;
+        // 商品名を PRODUCT_NAME_KEY と同じ規則で正規化（空文字は条件なし）
+        ProductNameCondition nameCondition = ProductNameCondition.of(productName, prefixMatch);
         
-        // 商品検索
-        List<ProductEntity> products = productRepository.findAvailableProducts(companyId, pName);
+        // 購入可能な販売会社をキャッシュから取得（承認がなければ検索不要）
+        Set<String> salesCompanyIds = companyProductAuthCache.getSalesCompanyIds(companyId);
+        if (salesCompanyIds.isEmpty()) {
+            log.debug("購入可能な販売会社なし: companyId={}", companyId);
+            return new ProductSearchPageDto(List.of(), null, null);
+        }
+        
+        try {
+            ProductSearchPageDto result = productSearchResultCache.get(companyId, nameCondition, page, salesCompanyIds,
+                () -> loadPage(salesCompanyIds, nameCondition, page));
+            return withCurrentStock(result);
+        } catch (SingleFlightTimeoutException e) {
+            log.warn("実行中の同一検索の完了待ちがタイムアウト: companyId={}, nameCondition={}", companyId, nameCondition);
+            String message = messageSource.getMessage("E0004", null, null);
+            throw new ServiceException("E0004", message, e);
+        }
+    }
+    
+    /**
+     * 入力中の商品名で始まる、購入可能な商品の商品名を返す（入力候補）。
+     * <p>
+     * インメモリの索引のみを参照し、DBにはアクセスしない（購入可能な販売会社も購入承認表から判定する）。
+     * 購入承認表の構築前は候補なしを返す。
+     *
+     * @param companyId ユーザの所属会社ID（不明な場合は null）
+     * @param input 入力中の商品名
+     * @return 商品名のリスト（最大 {@link #SUGGEST_LIMIT} 件）
+     */
+    public List<String> suggestProductNames(String companyId, String input) {
+        if (companyId == null) {
+            return List.of();
+        }
+        return companyProductAuthMatrix.sellerFilter(companyId)
+            .map(sellers -> productNameSuggester.suggest(input, sellers, SUGGEST_LIMIT))
+            .orElse(List.of());
+    }
+    
+    /**
+     * 商品と一緒にカートに追加されることの多い、購入可能な商品の商品IDを返す。
+     * <p>
+     * 事前に集計した表と購入承認表のみを参照し、DBにはアクセスしない（購入承認表の構築前を除く）。
+     *
+     * @param companyId ユーザの所属会社ID
+     * @param productId 商品ID
+     * @return 商品IDのリスト（一緒に追加された回数の多い順）
+     */
+    public List<String> findAlsoAddedProductIds(String companyId, String productId) {
+        List<String> productIds = alsoAddedRecommender.alsoAdded(productId);
+        if (productIds.isEmpty()) {
+            return productIds;
+        }
+        Set<String> authorized = companyProductAuthMatrix.filterAuthorized(companyId, productIds);
+        return productIds.stream().filter(authorized::contains).toList();
+    }
+    
+    /**
+     * 検索結果の在庫数を在庫表の最新値に置き換えたページを返す。
+     * <p>
+     * 検索結果はキャッシュで共有されるため書き換えず、値が変わった商品のみ複製して置き換える
+     * （変わった商品がない場合はキャッシュのページをそのまま返す）。
+     * 在庫表に未登録の商品は検索時の DB の値のまま表示する。
+     */
+    private ProductSearchPageDto withCurrentStock(ProductSearchPageDto page) {
+        List<ProductSearchResultDto> products = page.getProducts();
+        List<ProductSearchResultDto> current = null;
+        for (int i = 0; i < products.size(); i++) {
+            ProductSearchResultDto product = products.get(i);
+            int stock = productStockTable.getStock(product.getProductId());
+            if (stock == StockTable.UNKNOWN || Integer.valueOf(stock).equals(product.getStockQuantity())) {
+                continue;
+            }
+            if (current == null) {
+                current = new ArrayList<>(products);
+            }
+            current.set(i, new ProductSearchResultDto(product.getProductId(), product.getProductName(),
+                product.getCompanyId(), product.getPrice(), stock));
+        }
+        if (current == null) {
+            return page;
+        }
+        return new ProductSearchPageDto(current, page.getNextCursor(), page.getPrevCursor());
+    }
+    
+    /**
+     * 検索エンジンで1ページ分を検索し、前後のカーソルを決める。
+     */
+    private ProductSearchPageDto loadPage(Set<String> salesCompanyIds, ProductNameCondition nameCondition,
+            KeysetPageRequest page) {
+        // 商品検索（次ページ判定のため1件多く取得される）
+        List<ProductSummaryView> products = new ArrayList<>(
+            productSearchEngine.search(salesCompanyIds, nameCondition, page));
+        boolean hasMore = products.size() > page.size();
+        if (hasMore) {
+            products.remove(products.size() - 1);
+        }
+        if (page.backward()) {
+            products = products.reversed();
+        }
         log.debug("検索結果: {} 件", products.size());
         
+        // 読み進めた方向の先にまだ商品があるか、来た方向に戻れるかでカーソルを決める
+        String nextCursor = null;
+        String prevCursor = null;
+        if (!products.isEmpty()) {
+            String first = products.get(0).productId();
+            String last = products.get(products.size() - 1).productId();
+            if (page.backward()) {
+                nextCursor = last;
+                prevCursor = hasMore ? first : null;
+            } else {
+                nextCursor = hasMore ? last : null;
+                prevCursor = page.cursor() != null ? first : null;
+            }
+        }
+        
         // DTOに変換
-        return products.stream()
-            .map(this::convertToDto)
-            .toList();
+        return new ProductSearchPageDto(
+            products.stream().map(this::convertToDto).toList(),
+            nextCursor,
+            prevCursor);
+    }
+    
+    /**
+     * 商品説明を取得する。
+     * <p>
+     * 商品説明は TEXT 列のため検索結果には含めず、詳細表示を求められた時点で取得する。
+     *
+     * @param companyId ユーザの所属会社ID
+     * @param productId 商品ID
+     * @return 商品説明（商品が存在しない、または購入不可の場合は null）
+     */
+    @Transactional(readOnly = true)
+    public String getProductDescription(String companyId, String productId) {
+        Set<String> salesCompanyIds = companyProductAuthCache.getSalesCompanyIds(companyId);
+        if (salesCompanyIds.isEmpty() || productId == null) {
+            return null;
+        }
+        return productRepository.findDescription(productId, salesCompanyIds).orElse(null);
     }
     
     /**
      * 商品をカートに追加する。
+     * <p>
+     * カートにない商品は追加し、ある商品は数量を加算する。
+     * DB への反映方法は {@link CartWriter} の実装（{@code sample.cart.write-mode}）による。
+     * 追加する数量は {@link StockReservationEngine} で在庫を引き当てる。
+     * 購入できない商品（承認のない販売会社の商品、存在しない商品）が含まれる場合は追加しない。
      *
      * @param userId ユーザID
+     * @param companyId ユーザの所属会社ID
      * @param productIds 商品IDの配列
-     * @throws ServiceException 商品が見つからない場合
+     * @throws ServiceException 商品が見つからない場合、購入できない商品が含まれる場合、在庫が不足する場合
      */
-    @Transactional
-    public void addToCart(String userId, String[] productIds) {
-        log.debug("addToCart() 呼出: userId={}, productIds={}", userId, productIds);
+    public void addToCart(String userId, String companyId, String[] productIds) {
+        log.debug("addToCart() 呼出: userId={}, companyId={}, productIds={}", userId, companyId, productIds);
         
         if (productIds == null || productIds.length == 0) {
             String message = messageSource.getMessage("E0202", null, null);
             throw new ServiceException("E0202", message);
         }
         
+        // 同じ商品が複数指定された場合は指定回数分を加算する
+        Map<String, Integer> quantities = new LinkedHashMap<>();
         for (String productId : productIds) {
-            // 既にカートに存在するか確認
-            var existingCart = cartRepository.findByUserIdAndProductId(userId, productId);
-            
-            if (existingCart.isPresent()) {
-                // 既存の場合は数量を+1
-                CartEntity cart = existingCart.get();
-                cart.setQuantity(cart.getQuantity() + 1);
-                cart.setUpdatedAt(LocalDateTime.now());
-                cartRepository.save(cart);
-                log.debug("カート更新: productId={}, quantity={}", productId, cart.getQuantity());
-            } else {
-                // 新規追加
-                CartEntity cart = new CartEntity();
-                cart.setUserId(userId);
-                cart.setProductId(productId);
-                cart.setQuantity(1);
-                cart.setDelFlg(false);
-                cart.setCreatedAt(LocalDateTime.now());
-                cart.setUpdatedAt(LocalDateTime.now());
-                cartRepository.save(cart);
-                log.debug("カート追加: productId={}", productId);
-            }
+            quantities.merge(productId, 1, Integer::sum);
+        }
+        
+        // 購入承認表で検証する（引当の前に行い、購入できない商品の在庫を引き当てない）
+        Set<String> authorized = companyProductAuthMatrix.filterAuthorized(companyId, quantities.keySet());
+        if (authorized.size() < quantities.size()) {
+            log.info("購入できない商品を含むためカート追加不可: userId={}, companyId={}", userId, companyId);
+            String message = messageSource.getMessage("E_VA0101_005", null, null);
+            throw new ServiceException("E_VA0101_005", message);
+        }
+        
+        // 在庫を引き当ててから追加する（いずれかの商品が不足する場合は追加しない）
+        boolean reserved;
+        try {
+            reserved = stockReservationEngine.reserve(userId, quantities);
+        } catch (StockReservationUnavailableException e) {
+            log.warn("在庫引当の読み込み前のためカート追加不可: userId={}", userId);
+            String message = messageSource.getMessage("E0004", null, null);
+            throw new ServiceException("E0004", message, e);
+        }
+        if (!reserved) {
+            String message = messageSource.getMessage("E_VA0101_002", null, null);
+            throw new ServiceException("E_VA0101_002", message);
+        }
+        try {
+            cartWriter.add(userId, quantities);
+        } catch (RuntimeException e) {
+            stockReservationEngine.unreserve(userId, quantities);
+            throw e;
         }
         
         log.info("カート追加完了: userId={}, 追加件数={}", userId, productIds.length);
     }
     
     /**
-     * ProductEntity を DTO に変換する。
+     * 商品一覧ビューを DTO に変換する。
      */
-    private ProductSearchResultDto convertToDto(ProductEntity product) {
+    private ProductSearchResultDto convertToDto(ProductSummaryView product) {
         return new ProductSearchResultDto(
-            product.getProductId(),
-            product.getProductName(),
-            product.getCompanyId(),
-            product.getPrice(),
-            product.getStockQuantity(),
-            product.getDescription()
+            product.productId(),
+            product.productName(),
+            product.companyId(),
+            product.price(),
+            product.stockQuantity()
         );
     }
 }
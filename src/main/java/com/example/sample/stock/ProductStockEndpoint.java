@@ -0,0 +1,30 @@
+package com.example.sample.stock;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 在庫表の整合性確認用 Actuator エンドポイント（/actuator/productstock）。
+ * <p>
+ * 全商品を DB と比較するため、負荷の低い時間帯に実行すること。
+ */
+@Component
+@Endpoint(id = "productstock")
+@RequiredArgsConstructor
+public class ProductStockEndpoint {
+
+    private final ProductStockTable productStockTable;
+
+    /**
+     * 在庫表と TM_PRODUCT の在庫数を比較する。
+     *
+     * @return 比較結果
+     */
+    @ReadOperation
+    public StockConsistencyReport check() {
+        return productStockTable.checkConsistency();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.sample.stock;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sample.db.jpa.product.ProductChangedEvent;
+import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.db.jpa.product.ProductStockView;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 商品の在庫数のインメモリ表（{@link StockTable}）と TM_PRODUCT との同期。
+ * <p>
+ * 起動完了後に全商品の在庫数を読み込み、以降は一定間隔で UPDATED_AT が前回同期以降の行のみを
+ * 読み込んで反映する（コミットが遅れた行を取りこぼさないよう、前回同期時刻より少し前から読む）。
+ * アプリケーション内での変更は商品変更イベント（コミット後）で即時に反映する。
+ * <p>
+ * 同期と変更イベントが交差した場合は一時的に古い値となることがあるが、次回の同期で DB の値に揃う。
+ * 読み込み完了前や未登録の商品は {@link StockTable#UNKNOWN} を返すため、呼び出し側で DB の値を使用すること。
+ */
+@Slf4j
+@Component
+public class ProductStockTable {
+
+    /** 初回同期の基準日時（全件） */
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration refreshInterval;
+    private final Duration refreshOverlap;
+    private final StockTable table = new StockTable();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "product-stock-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 同期済みの最大更新日時（executor のスレッドのみ参照する） */
+    private LocalDateTime watermark = EPOCH;
+    private volatile boolean loaded;
+
+    public ProductStockTable(
+            ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${sample.stock.refresh-interval:PT5S}") Duration refreshInterval,
+            @Value("${sample.stock.refresh-overlap:PT10S}") Duration refreshOverlap) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.refreshInterval = refreshInterval;
+        this.refreshOverlap = refreshOverlap;
+    }
+
+    /**
+     * 在庫数を取得する（ロック・オブジェクト生成なし）。
+     *
+     * @param productId 商品ID
+     * @return 在庫数（読み込み前、または未登録の場合は {@link StockTable#UNKNOWN}）
+     */
+    public int getStock(String productId) {
+        return table.get(productId);
+    }
+
+    /**
+     * 在庫数に加算する（アプリケーション内で在庫を増減した場合に使用）。
+     *
+     * @param productId 商品ID
+     * @param delta 加算する値（減算は負の値）
+     * @return 加算後の在庫数（未登録の場合は {@link StockTable#UNKNOWN}）
+     */
+    public int addStock(String productId, int delta) {
+        return table.addAndGet(productId, delta);
+    }
+
+    /**
+     * @return 全商品の読み込みが完了している場合 true
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return 登録されている商品数
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * 起動完了後に全件を読み込み、以降の差分同期を開始する。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        executor.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 商品変更イベントの在庫数を反映する。
+     *
+     * @param event 商品変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.stockQuantity() != null) {
+            table.set(event.productId(), event.stockQuantity());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 前回同期以降に更新された行を読み込んで反映する。
+     *
+     * @return 反映した件数
+     */
+    public int refresh() {
+        long start = System.nanoTime();
+        LocalDateTime since = watermark == EPOCH ? EPOCH : watermark.minus(refreshOverlap);
+        int[] count = new int[1];
+        LocalDateTime[] max = { watermark };
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ProductStockView> stocks = productRepository.streamStocksUpdatedSince(since)) {
+                stocks.forEach(s -> {
+                    if (s.stockQuantity() != null) {
+                        table.set(s.productId(), s.stockQuantity());
+                    }
+                    if (s.updatedAt() != null && s.updatedAt().isAfter(max[0])) {
+                        max[0] = s.updatedAt();
+                    }
+                    count[0]++;
+                });
+            }
+        });
+        watermark = max[0];
+        if (!loaded) {
+            loaded = true;
+            log.info("在庫表読み込み完了: 商品数={}, 所要時間={}ms", table.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+        return count[0];
+    }
+
+    /**
+     * 在庫表と TM_PRODUCT の在庫数を全件比較する（運用時の確認用）。
+     *
+     * @return 比較結果
+     */
+    public StockConsistencyReport checkConsistency() {
+        List<String> mismatched = new ArrayList<>();
+        int[] checked = new int[1];
+        int[] mismatchCount = new int[1];
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ProductStockView> stocks = productRepository.streamStocksUpdatedSince(EPOCH)) {
+                stocks.forEach(s -> {
+                    checked[0]++;
+                    int expected = s.stockQuantity() == null ? StockTable.UNKNOWN : s.stockQuantity();
+                    if (table.get(s.productId()) != expected) {
+                        mismatchCount[0]++;
+                        if (mismatched.size() < StockConsistencyReport.MAX_REPORTED_IDS) {
+                            mismatched.add(s.productId());
+                        }
+                    }
+                });
+            }
+        });
+        StockConsistencyReport report = new StockConsistencyReport(checked[0], mismatchCount[0], mismatched);
+        if (report.mismatched() > 0) {
+            log.warn("在庫表とDBの在庫数が一致しません: {}", report);
+        }
+        return report;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("在庫表の同期に失敗しました（次回の同期で再試行します）", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.sample.stock;
+
+import java.util.List;
+
+/**
+ * 在庫表と TM_PRODUCT の在庫数の比較結果。
+ *
+ * @param checked 比較した商品数
+ * @param mismatched 在庫数が一致しない商品数
+ * @param mismatchedProductIds 一致しない商品ID（先頭 {@link #MAX_REPORTED_IDS} 件まで）
+ */
+public record StockConsistencyReport(int checked, int mismatched, List<String> mismatchedProductIds) {
+
+    /** 結果に含める商品IDの上限 */
+    public static final int MAX_REPORTED_IDS = 100;
+}
@@ -0,0 +1,261 @@
+package com.example.sample.stock;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sample.db.jpa.cart.CartId;
+import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.stock.StockReservations.Reservation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * カート追加時の在庫引当。
+ * <p>
+ * 引当は {@link StockReservations} でメモリ上で行い（在庫数は {@link ProductStockTable} から取得）、
+ * 一定間隔で TT_STOCK_RESERVATION にまとめて反映する（変更された予約のみ、DELETE と INSERT のバッチ）。
+ * 有効期限を過ぎた予約は同じ間隔で解除する。
+ * <p>
+ * DB の有効な予約は、全 Bean の生成後（Web サーバがリクエストを受け付ける前）に同期的に読み込む。
+ * 読み込みが完了するまでは引当を受け付けず {@link StockReservationUnavailableException} を返す
+ * （読み込む前の引当は DB の予約を数えないため、在庫を超えて引き当てる恐れがある）。
+ * 読み込みに失敗した場合は反映と同じ間隔で再試行する。
+ * <p>
+ * 引当の判定はインスタンス内のメモリで行うため、単一インスタンスでの運用を前提とする。
+ * <p>
+ * 以下のメトリクスを登録する。
+ * <ul>
+ * <li>stock.reservations: 予約数（ユーザ・商品の組）</li>
+ * <li>stock.reservation.rejected: 在庫不足で引き当てられなかった回数</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class StockReservationEngine implements SmartInitializingSingleton {
+
+    private static final String SELECT_ACTIVE =
+        "SELECT USER_ID, PRODUCT_ID, QUANTITY, EXPIRES_AT FROM SAMPLE.TT_STOCK_RESERVATION WHERE EXPIRES_AT > ?";
+    private static final String DELETE =
+        "DELETE FROM SAMPLE.TT_STOCK_RESERVATION WHERE USER_ID = ? AND PRODUCT_ID = ?";
+    private static final String INSERT =
+        "INSERT INTO SAMPLE.TT_STOCK_RESERVATION (USER_ID, PRODUCT_ID, QUANTITY, EXPIRES_AT) VALUES (?, ?, ?, ?)";
+
+    private final ProductStockTable productStockTable;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final Duration ttl;
+    private final Duration flushInterval;
+    private final StockReservations reservations = new StockReservations();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stock-reservation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter rejected;
+    /** DB の予約を読み込み済みか */
+    private volatile boolean loaded;
+
+    public StockReservationEngine(
+            ProductStockTable productStockTable,
+            ProductRepository productRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${sample.stock.reservation.ttl:PT30M}") Duration ttl,
+            @Value("${sample.stock.reservation.flush-interval:PT1S}") Duration flushInterval) {
+        this.productStockTable = productStockTable;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.flushInterval = flushInterval;
+        Gauge.builder("stock.reservations", reservations, StockReservations::size)
+            .description("在庫引当の予約数").register(meterRegistry);
+        this.rejected = Counter.builder("stock.reservation.rejected")
+            .description("在庫不足で引き当てられなかった回数").register(meterRegistry);
+    }
+
+    /**
+     * 商品ごとの数量を引き当てる。いずれかの商品の在庫が不足する場合は何も引き当てない。
+     *
+     * @param userId ユーザID
+     * @param quantities 商品ID → 数量
+     * @return 引き当てた場合 true
+     * @throws StockReservationUnavailableException DB の予約の読み込みが完了していない場合
+     */
+    public boolean reserve(String userId, Map<String, Integer> quantities) {
+        if (!loaded) {
+            throw new StockReservationUnavailableException("在庫引当の読み込みが完了していません");
+        }
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        List<Map.Entry<String, Integer>> reserved = new ArrayList<>(quantities.size());
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            String productId = entry.getKey();
+            int stock = stockOf(productId);
+            if (!reservations.reserve(userId, productId, entry.getValue(), stock, expiresAt)) {
+                reserved.forEach(r -> reservations.unreserve(userId, r.getKey(), r.getValue()));
+                rejected.increment();
+                log.debug("在庫不足: userId={}, productId={}, 数量={}, 在庫数={}, 引当済み={}",
+                    userId, productId, entry.getValue(), stock, reservations.reserved(productId));
+                return false;
+            }
+            reserved.add(entry);
+        }
+        return true;
+    }
+
+    /**
+     * {@link #reserve} で引き当てた数量を取り消す（カートへの追加に失敗した場合に使用）。
+     *
+     * @param userId ユーザID
+     * @param quantities 商品ID → 数量
+     */
+    public void unreserve(String userId, Map<String, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> reservations.unreserve(userId, productId, quantity));
+    }
+
+    /**
+     * 予約を解除する（カートから商品を削除した場合に使用）。
+     *
+     * @param userId ユーザID
+     * @param productId 商品ID
+     */
+    public void release(String userId, String productId) {
+        reservations.release(userId, productId);
+    }
+
+    /**
+     * 引当可能な数量を取得する。
+     *
+     * @param productId 商品ID
+     * @return 在庫数 − 引当済み数量
+     */
+    public int getAvailable(String productId) {
+        return stockOf(productId) - reservations.reserved(productId);
+    }
+
+    /**
+     * 全 Bean の生成後、リクエストの受け付け前に有効な予約を読み込む。
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        loadQuietly();
+    }
+
+    /**
+     * 起動完了後に定期的な反映と期限切れの解除を開始する（予約の読み込みに失敗していた場合は再試行する）。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        executor.scheduleWithFixedDelay(() -> {
+            if (!loaded) {
+                loadQuietly();
+            }
+            flushQuietly();
+        }, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return DB の予約を読み込み済みで、引当を受け付けられる場合 true
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        flushQuietly();
+    }
+
+    /**
+     * 期限切れの予約を解除し、前回以降に変更された予約を DB に反映する。
+     *
+     * @return 反映した予約数
+     */
+    public int flush() {
+        int expired = reservations.expire(System.currentTimeMillis());
+        Map<CartId, Reservation> changes = reservations.drainDirty();
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> deletes = new ArrayList<>(changes.size());
+        List<Object[]> inserts = new ArrayList<>(changes.size());
+        changes.forEach((key, r) -> {
+            deletes.add(new Object[] { key.getUserId(), key.getProductId() });
+            if (r != null) {
+                inserts.add(new Object[] { key.getUserId(), key.getProductId(), r.quantity(), new Timestamp(r.expiresAt()) });
+            }
+        });
+        try {
+            transaction.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(DELETE, deletes);
+                jdbcTemplate.batchUpdate(INSERT, inserts);
+            });
+        } catch (RuntimeException e) {
+            reservations.markDirty(changes.keySet());
+            throw e;
+        }
+        log.debug("在庫引当を反映しました: 変更={}, 期限切れ={}", changes.size(), expired);
+        return changes.size();
+    }
+
+    /**
+     * 有効な予約を読み込む。読み込みの途中で失敗した場合に一部だけ登録されないよう、全件を取得してから登録する。
+     */
+    void loadQuietly() {
+        List<SavedReservation> saved;
+        try {
+            saved = jdbcTemplate.query(SELECT_ACTIVE, (rs, rowNum) -> new SavedReservation(rs.getString(1),
+                rs.getString(2), rs.getInt(3), rs.getTimestamp(4).getTime()), new Timestamp(System.currentTimeMillis()));
+        } catch (RuntimeException e) {
+            log.warn("在庫引当の読み込みに失敗しました（読み込むまで引当を受け付けません）", e);
+            return;
+        }
+        saved.forEach(r -> reservations.restore(r.userId(), r.productId(), r.quantity(), r.expiresAt()));
+        loaded = true;
+        log.info("在庫引当を読み込みました: 件数={}", saved.size());
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("在庫引当の反映に失敗しました（次回再実行します）", e);
+        }
+    }
+
+    private record SavedReservation(String userId, String productId, int quantity, long expiresAt) {
+    }
+
+    /**
+     * 在庫数を取得する（在庫表の読み込み前はDBから取得する）。
+     */
+    private int stockOf(String productId) {
+        int stock = productStockTable.getStock(productId);
+        if (stock != StockTable.UNKNOWN) {
+            return stock;
+        }
+        return productRepository.findStockQuantity(productId).orElse(0);
+    }
+}
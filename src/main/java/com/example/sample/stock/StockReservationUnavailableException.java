@@ -0,0 +1,18 @@
+package com.example.sample.stock;
+
+/**
+ * DB の在庫引当の読み込みが完了しておらず、{@link StockReservationEngine} が引当を受け付けられない場合の例外。
+ */
+public class StockReservationUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 例外を生成する。
+     *
+     * @param message エラーメッセージ
+     */
+    public StockReservationUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.sample.stock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.sample.db.jpa.cart.CartId;
+
+/**
+ * 在庫の引当（ユーザ・商品ごとの予約数量）のインメモリ表。
+ * <p>
+ * 商品ごとの引当数量の合計を {@link StockTable} に保持し、引当は CAS で
+ * 「引当済み + 数量 ≦ 在庫数」の場合のみ加算する。ロックを取らないため、同じ商品への引当が
+ * 集中しても待ち合わせは CAS の再試行のみとなる。
+ * ユーザ・商品ごとの予約は {@link ConcurrentHashMap} に保持し、解除・期限切れ時に合計から減算する。
+ * <p>
+ * 合計への加算を先に行い、予約の登録はその後に行う。そのため合計は一時的に予約の和を上回ることがあるが、
+ * 下回ることはない（在庫数を超えて引き当てることはない）。
+ * 変更した予約のキーは DB への反映用に記録する（{@link #drainDirty()}）。
+ */
+public class StockReservations {
+
+    /**
+     * ユーザ・商品ごとの予約。
+     *
+     * @param quantity 予約数量
+     * @param expiresAt 有効期限（エポックミリ秒）
+     */
+    public record Reservation(int quantity, long expiresAt) {
+    }
+
+    private final StockTable reservedByProduct = new StockTable();
+    private final Map<CartId, Reservation> reservations = new ConcurrentHashMap<>();
+    private final Set<CartId> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 在庫を引き当てる。ユーザの既存の予約に加算し、有効期限を延長する。
+     *
+     * @param userId ユーザID
+     * @param productId 商品ID
+     * @param quantity 数量（1以上）
+     * @param stock 在庫数
+     * @param expiresAt 有効期限（エポックミリ秒）
+     * @return 引き当てた場合 true（在庫が不足する場合は false）
+     */
+    public boolean reserve(String userId, String productId, int quantity, int stock, long expiresAt) {
+        while (true) {
+            int current = reservedByProduct.get(productId);
+            int reserved = current == StockTable.UNKNOWN ? 0 : current;
+            if (reserved + (long) quantity > stock) {
+                return false;
+            }
+            if (reservedByProduct.compareAndSet(productId, current, reserved + quantity)) {
+                break;
+            }
+        }
+        CartId key = new CartId(userId, productId);
+        reservations.merge(key, new Reservation(quantity, expiresAt),
+            (old, added) -> new Reservation(old.quantity() + added.quantity(), added.expiresAt()));
+        dirty.add(key);
+        return true;
+    }
+
+    /**
+     * DB から読み込んだ予約を登録する（在庫数の確認、変更の記録は行わない）。
+     * <p>
+     * 同じユーザ・商品の予約が既にある場合は登録しない（メモリ上の予約が新しいため、二重に数えない）。
+     *
+     * @param userId ユーザID
+     * @param productId 商品ID
+     * @param quantity 数量
+     * @param expiresAt 有効期限（エポックミリ秒）
+     * @return 登録した場合 true
+     */
+    public boolean restore(String userId, String productId, int quantity, long expiresAt) {
+        // 合計が予約の和を下回らないよう、合計への加算を先に行う
+        while (true) {
+            int current = reservedByProduct.get(productId);
+            int reserved = current == StockTable.UNKNOWN ? 0 : current;
+            if (reservedByProduct.compareAndSet(productId, current, reserved + quantity)) {
+                break;
+            }
+        }
+        if (reservations.putIfAbsent(new CartId(userId, productId), new Reservation(quantity, expiresAt)) != null) {
+            reservedByProduct.addAndGet(productId, -quantity);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 予約数量を減らす（0になった場合は予約を解除する）。
+     *
+     * @param userId ユーザID
+     * @param productId 商品ID
+     * @param quantity 減らす数量
+     * @return 実際に減らした数量
+     */
+    public int unreserve(String userId, String productId, int quantity) {
+        CartId key = new CartId(userId, productId);
+        int[] taken = new int[1];
+        reservations.computeIfPresent(key, (k, r) -> {
+            taken[0] = Math.min(quantity, r.quantity());
+            int remaining = r.quantity() - taken[0];
+            return remaining > 0 ? new Reservation(remaining, r.expiresAt()) : null;
+        });
+        if (taken[0] > 0) {
+            reservedByProduct.addAndGet(productId, -taken[0]);
+            dirty.add(key);
+        }
+        return taken[0];
+    }
+
+    /**
+     * 予約を解除する。
+     *
+     * @param userId ユーザID
+     * @param productId 商品ID
+     * @return 解除した数量（予約がない場合は0）
+     */
+    public int release(String userId, String productId) {
+        CartId key = new CartId(userId, productId);
+        Reservation removed = reservations.remove(key);
+        if (removed == null) {
+            return 0;
+        }
+        reservedByProduct.addAndGet(productId, -removed.quantity());
+        dirty.add(key);
+        return removed.quantity();
+    }
+
+    /**
+     * 有効期限を過ぎた予約を解除する。
+     *
+     * @param now 現在時刻（エポックミリ秒）
+     * @return 解除した予約数
+     */
+    public int expire(long now) {
+        int expired = 0;
+        for (Map.Entry<CartId, Reservation> entry : reservations.entrySet()) {
+            Reservation r = entry.getValue();
+            // 判定後に加算・延長された予約は解除しない
+            if (r.expiresAt() <= now && reservations.remove(entry.getKey(), r)) {
+                reservedByProduct.addAndGet(entry.getKey().getProductId(), -r.quantity());
+                dirty.add(entry.getKey());
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @param productId 商品ID
+     * @return 商品の引当済み数量の合計
+     */
+    public int reserved(String productId) {
+        int reserved = reservedByProduct.get(productId);
+        return reserved == StockTable.UNKNOWN ? 0 : reserved;
+    }
+
+    /**
+     * @param userId ユーザID
+     * @param productId 商品ID
+     * @return 予約（ない場合は null）
+     */
+    public Reservation get(String userId, String productId) {
+        return reservations.get(new CartId(userId, productId));
+    }
+
+    /**
+     * @return 予約数（ユーザ・商品の組）
+     */
+    public int size() {
+        return reservations.size();
+    }
+
+    /**
+     * 前回以降に変更された予約を取り出す。
+     *
+     * @return キー → 現在の予約（解除された場合は null）
+     */
+    public Map<CartId, Reservation> drainDirty() {
+        List<CartId> keys = new ArrayList<>(dirty);
+        Map<CartId, Reservation> changes = new HashMap<>(keys.size() * 2);
+        for (CartId key : keys) {
+            // 取り出し後の変更は次回に反映されるよう、値の読み込みより先に除く
+            dirty.remove(key);
+            changes.put(key, reservations.get(key));
+        }
+        return changes;
+    }
+
+    /**
+     * DB への反映に失敗したキーを変更済みに戻す。
+     *
+     * @param keys {@link #drainDirty()} が返したキー
+     */
+    public void markDirty(Set<CartId> keys) {
+        dirty.addAll(keys);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.sample.stock;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 商品ID → 在庫数 のインメモリ表。
+ * <p>
+ * 商品ごとに連番（オーディナル）を割り当て、在庫数を int 配列に保持する。
+ * 配列は一定件数ごとのチャンクに分け、商品の追加で容量が不足した場合もチャンクを追加するのみで
+ * 既存の値は移動しない。値の読み書きは {@link VarHandle} による volatile アクセスと
+ * CAS で行うため、参照・更新ともロックを取らず、参照時にオブジェクトを生成しない。
+ * 新しい商品IDへのオーディナルの割り当てのみ排他する。
+ */
+public class StockTable {
+
+    /** 在庫数が未登録であることを示す値 */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    /** チャンクの配列（追加時は外側の配列のみ複製して差し替える） */
+    private volatile int[][] chunks = new int[0][];
+    /** 割り当て済みオーディナル数（this で排他する） */
+    private int ordinalCount;
+
+    /**
+     * 在庫数を取得する。
+     *
+     * @param productId 商品ID
+     * @return 在庫数（未登録の場合は {@link #UNKNOWN}）
+     */
+    public int get(String productId) {
+        Integer ordinal = ordinals.get(productId);
+        if (ordinal == null) {
+            return UNKNOWN;
+        }
+        int i = ordinal;
+        return (int) INT_ARRAY.getVolatile(chunks[i >>> CHUNK_BITS], i & CHUNK_MASK);
+    }
+
+    /**
+     * 在庫数を設定する。
+     *
+     * @param productId 商品ID
+     * @param quantity 在庫数
+     */
+    public void set(String productId, int quantity) {
+        int i = ordinal(productId);
+        INT_ARRAY.setVolatile(chunks[i >>> CHUNK_BITS], i & CHUNK_MASK, quantity);
+    }
+
+    /**
+     * 在庫数に加算し、加算後の値を返す。
+     *
+     * @param productId 商品ID（登録済みであること）
+     * @param delta 加算する値（減算は負の値）
+     * @return 加算後の在庫数（未登録の場合は加算せず {@link #UNKNOWN}）
+     */
+    public int addAndGet(String productId, int delta) {
+        Integer ordinal = ordinals.get(productId);
+        if (ordinal == null) {
+            return UNKNOWN;
+        }
+        int i = ordinal;
+        int[] chunk = chunks[i >>> CHUNK_BITS];
+        int offset = i & CHUNK_MASK;
+        while (true) {
+            int current = (int) INT_ARRAY.getVolatile(chunk, offset);
+            if (current == UNKNOWN) {
+                return UNKNOWN;
+            }
+            if (INT_ARRAY.compareAndSet(chunk, offset, current, current + delta)) {
+                return current + delta;
+            }
+        }
+    }
+
+    /**
+     * 在庫数が期待値と一致する場合のみ更新する。
+     *
+     * @param productId 商品ID
+     * @param expected 期待する現在の在庫数
+     * @param quantity 更新後の在庫数
+     * @return 更新した場合 true
+     */
+    public boolean compareAndSet(String productId, int expected, int quantity) {
+        int i = ordinal(productId);
+        return INT_ARRAY.compareAndSet(chunks[i >>> CHUNK_BITS], i & CHUNK_MASK, expected, quantity);
+    }
+
+    /**
+     * @return 登録されている商品数
+     */
+    public int size() {
+        return ordinals.size();
+    }
+
+    /**
+     * 商品IDのオーディナルを返す。未登録の場合は割り当て、在庫数を {@link #UNKNOWN} で初期化する。
+     */
+    private int ordinal(String productId) {
+        Integer ordinal = ordinals.get(productId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (this) {
+            ordinal = ordinals.get(productId);
+            if (ordinal != null) {
+                return ordinal;
+            }
+            int i = ordinalCount++;
+            int chunkIndex = i >>> CHUNK_BITS;
+            if (chunkIndex == chunks.length) {
+                int[] chunk = new int[CHUNK_SIZE];
+                Arrays.fill(chunk, UNKNOWN);
+                int[][] grown = Arrays.copyOf(chunks, chunkIndex + 1);
+                grown[chunkIndex] = chunk;
+                chunks = grown;
+            }
+            // チャンクを公開した後に商品IDを登録する（参照側は商品IDが見えればチャンクも見える）
+            ordinals.put(productId, i);
+            return i;
+        }
+    }
+}
@@ -15,6 +15,8 @@ import lombok.extern.slf4j.Slf4j;
  * <p>
  * CREATE: トークンを生成しセッションに保持。<br>
  * VALIDATE: トークンを検証し、不正な場合はInvalidTokenExceptionをスロー。
+ * 検証後に再生成したトークンはレスポンスヘッダー {@link #TOKEN_HEADER} にも設定する
+ * （画面を再表示しない JSON の処理で、次の送信に使用する）。
  */
 @Slf4j
 public class ActivateTokenInterceptor implements HandlerInterceptor {
@@ -22,6 +24,9 @@ public class ActivateTokenInterceptor implements HandlerInterceptor {
     /** セッションに格納するトークンのキー名（リクエストパラメータ名と統一） */
     public static final String TOKEN_KEY = "_token";
 
+    /** 再生成したトークンを返すレスポンスヘッダー名 */
+    public static final String TOKEN_HEADER = "X-Token";
+
     @Override
     public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) throws Exception {
         if (handler instanceof HandlerMethod hm) {
@@ -54,6 +59,7 @@ public class ActivateTokenInterceptor implements HandlerInterceptor {
                 
                 // 検証成功後、自動的に新しいトークンを生成
                 String newToken = createToken(request);
+                response.setHeader(TOKEN_HEADER, newToken);
                 log.debug("トークン再生成: {}", newToken);
             }
         }
@@ -1,18 +1,25 @@
 package com.example.sample.util;
 
+import java.time.Duration;
+
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import com.example.sample.auth.AdaptiveBCryptPasswordEncoder;
+
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * BCryptパスワードハッシュ生成ツール。
  * <p>
  * コマンドラインから平文パスワードを受け取り、
- * BCryptアルゴリズム（strength=12）でハッシュ化して返す。
+ * BCryptアルゴリズムでハッシュ化して返す。
+ * strength を省略した場合は、アプリケーションの既定値（照合1回 0.3秒以内、10～14）と同じ条件で
+ * 実行環境で計測して決める。異なる strength で生成しても、ログイン成功時にアプリケーションの strength で再生成される。
  * <p>
  * 実行例：
  * <pre>
  * java com.example.sample.util.PasswordHashGenerator myPassword123
+ * java com.example.sample.util.PasswordHashGenerator myPassword123 12
  * </pre>
  * 
  * @see BCryptPasswordEncoder
@@ -27,7 +34,7 @@ public class PasswordHashGenerator {
      * BCryptハッシュを生成して表示。
      * SQL UPDATE文も合わせて出力する。
      * 
-     * @param args コマンドライン引数（args[0]に平文パスワード）
+     * @param args コマンドライン引数（args[0]に平文パスワード、args[1]に strength（省略可））
      */
     public static void main(String[] args) {
         if (args.length == 0 || args[0] == null || args[0].isBlank()) {
@@ -36,11 +43,14 @@ public class PasswordHashGenerator {
         }
 
         String plainPassword = args[0];
-        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
+        int strength = args.length > 1
+            ? Integer.parseInt(args[1])
+            : AdaptiveBCryptPasswordEncoder.calibrate(Duration.ofMillis(300), 10, 14);
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
         String hashedPassword = encoder.encode(plainPassword);
 
         log.info("{}", "=".repeat(60));
-        log.info("BCrypt Password Hash Generator (strength=12)");
+        log.info("BCrypt Password Hash Generator (strength={})", strength);
         log.info("{}", "=".repeat(60));
         log.info("Plain text: [hidden] (引数で受領)");
         log.info("Hashed:     {}", hashedPassword);
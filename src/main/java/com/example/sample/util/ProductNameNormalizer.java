@@ -0,0 +1,50 @@
+package com.example.sample.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * 商品名の検索キー正規化ユーティリティ。
+ * <p>
+ * 商品名と検索語の両方に同じ正規化を適用し、表記ゆれを吸収して比較する。
+ * <ol>
+ * <li>NFKC 正規化（全角英数字・記号 → 半角、半角カナ → 全角カナ、濁点の結合 等）</li>
+ * <li>ひらがな → カタカナ</li>
+ * <li>英字の小文字化</li>
+ * </ol>
+ * 正規化結果は TM_PRODUCT.PRODUCT_NAME_KEY に保持する。
+ * 正規化規則を変更した場合は既存行のキーを再生成すること。
+ */
+public final class ProductNameNormalizer {
+
+    /** ひらがな「ぁ」 */
+    private static final char HIRAGANA_FIRST = 'ぁ';
+    /** ひらがな「ゖ」 */
+    private static final char HIRAGANA_LAST = 'ゖ';
+    /** ひらがな → カタカナ のコードポイント差 */
+    private static final int KATAKANA_OFFSET = 0x60;
+
+    private ProductNameNormalizer() {
+    }
+
+    /**
+     * 商品名（または検索語）を検索キーに正規化する。
+     *
+     * @param value 商品名
+     * @return 検索キー（null の場合は null）
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String nfkc = Normalizer.normalize(value, Normalizer.Form.NFKC);
+        char[] chars = nfkc.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            if (c >= HIRAGANA_FIRST && c <= HIRAGANA_LAST) {
+                chars[i] = (char) (c + KATAKANA_OFFSET);
+            }
+        }
+        return new String(chars).toLowerCase(Locale.ROOT);
+    }
+}
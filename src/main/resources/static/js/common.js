@@ -138,6 +138,64 @@ function updateButtonState() {
   });
 }
 
+// 共通機能: テキストの遅延読み込み
+// data-lazy-text-url属性を持つボタンの押下時にURLからテキストを取得し、ボタンと置き換えて表示
+function loadLazyText(button) {
+  var url = button.getAttribute('data-lazy-text-url');
+  if (!url) return;
+  button.disabled = true;
+  fetch(url, { credentials: 'same-origin' })
+    .then(function(response) {
+      if (!response.ok) throw new Error(response.status);
+      return response.text();
+    })
+    .then(function(text) {
+      var span = document.createElement('span');
+      span.textContent = text;
+      button.replaceWith(span);
+    })
+    .catch(function() {
+      button.disabled = false;
+    });
+}
+
+// 共通機能: 入力候補
+// data-suggest-url属性を持つ入力欄の入力中に、URLから候補（JSON配列）を取得してdatalistに設定
+function attachSuggest(input) {
+  var url = input.getAttribute('data-suggest-url');
+  var list = input.list;
+  if (!url || !list) return;
+  var timer = null;
+  var latest = null;
+  input.addEventListener('input', function() {
+    clearTimeout(timer);
+    var q = input.value.trim();
+    if (!q) {
+      list.replaceChildren();
+      return;
+    }
+    // 入力が続く間は問い合わせない
+    timer = setTimeout(function() {
+      latest = q;
+      fetch(url + '?q=' + encodeURIComponent(q), { credentials: 'same-origin' })
+        .then(function(response) {
+          if (!response.ok) throw new Error(response.status);
+          return response.json();
+        })
+        .then(function(names) {
+          // 後から入力した内容の結果だけを反映
+          if (q !== latest) return;
+          list.replaceChildren.apply(list, names.map(function(name) {
+            var option = document.createElement('option');
+            option.value = name;
+            return option;
+          }));
+        })
+        .catch(function() {});
+    }, 150);
+  });
+}
+
 // DOMContentLoaded後の初期化
 document.addEventListener('DOMContentLoaded', function() {
   // チェックボックス変更時にボタン状態更新
@@ -148,6 +206,12 @@ document.addEventListener('DOMContentLoaded', function() {
       cb.addEventListener('change', updateButtonState);
     });
   });
+  // 遅延読み込みボタン
+  document.querySelectorAll('[data-lazy-text-url]').forEach(function(btn) {
+    btn.addEventListener('click', function() { loadLazyText(btn); });
+  });
+  // 入力候補
+  document.querySelectorAll('[data-suggest-url]').forEach(attachSuggest);
   // 初期表示時のボタン状態設定
   updateButtonState();
 });
@@ -0,0 +1,39 @@
+package com.example.sample.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * AdaptiveBCryptPasswordEncoder の単体テスト。
+ */
+class AdaptiveBCryptPasswordEncoderTest {
+
+    @Test
+    void upgradeEncoding_strengthが異なるハッシュは上げる方向にも下げる方向にも再生成する() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding("{noop}secret")).isFalse();
+    }
+
+    @Test
+    void matches_異なるstrengthのハッシュも照合できる() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+        assertThat(encoder.matches("secret", new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(encoder.matches("wrong", new BCryptPasswordEncoder(4).encode("secret"))).isFalse();
+    }
+
+    @Test
+    void calibrate_上限と下限の範囲で選ぶ() {
+        assertThat(AdaptiveBCryptPasswordEncoder.calibrate(Duration.ofNanos(1), 4, 6)).isEqualTo(4);
+        assertThat(AdaptiveBCryptPasswordEncoder.calibrate(Duration.ofMinutes(1), 4, 6)).isEqualTo(6);
+        assertThat(AdaptiveBCryptPasswordEncoder.strengthOf("$2a$12$abcdefghijklmnopqrstuv")).isEqualTo(12);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.sample.auth;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 購入承認表の性能計測ツール（テスト用）。
+ * <p>
+ * 購入会社 × 販売会社 の承認を {@link AuthorizationMatrix} と
+ * Map&lt;String, Set&lt;String&gt;&gt;（購入会社 → 販売会社IDの集合）に登録し、
+ * 商品ごとの購入可否判定の1秒あたりの回数と、構築時間・ヒープ使用量を出力する。
+ * <p>
+ * 実行例：
+ * <pre>
+ * java com.example.sample.auth.AuthorizationMatrixBenchmark 10000 10000 100 100000
+ * </pre>
+ */
+@Slf4j
+public class AuthorizationMatrixBenchmark {
+
+    private static final long DURATION_MILLIS = 3000;
+
+    /**
+     * メインメソッド。
+     *
+     * @param args コマンドライン引数（購入会社数、販売会社数、購入会社あたりの承認数、商品数。
+     *             省略時は10000, 10000, 100, 100000）
+     */
+    public static void main(String[] args) {
+        int companies = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int sellers = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int authsPerCompany = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int products = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] companyIds = new String[companies];
+        String[] productIds = new String[products];
+        String[] productSellers = new String[products];
+        List<List<String>> authorizations = new ArrayList<>(companies);
+        for (int c = 0; c < companies; c++) {
+            companyIds[c] = String.format("C%06d", c);
+            List<String> sellerIds = new ArrayList<>(authsPerCompany);
+            for (int a = 0; a < authsPerCompany; a++) {
+                sellerIds.add(String.format("S%06d", random.nextInt(sellers)));
+            }
+            authorizations.add(sellerIds);
+        }
+        for (int p = 0; p < products; p++) {
+            productIds[p] = String.format("P%08d", p);
+            productSellers[p] = String.format("S%06d", random.nextInt(sellers));
+        }
+
+        for (int round = 0; round < 2; round++) {
+            long heap = usedHeap();
+            long start = System.nanoTime();
+            AuthorizationMatrix matrix = new AuthorizationMatrix();
+            for (int c = 0; c < companies; c++) {
+                matrix.setSellers(companyIds[c], authorizations.get(c));
+            }
+            for (int p = 0; p < products; p++) {
+                matrix.putProduct(productIds[p], productSellers[p]);
+            }
+            log.info("AuthorizationMatrix: 構築={}ms, ヒープ={}MB", (System.nanoTime() - start) / 1_000_000,
+                (usedHeap() - heap) / 1024 / 1024);
+            run("AuthorizationMatrix", companyIds, productIds, matrix::isAuthorized);
+
+            heap = usedHeap();
+            start = System.nanoTime();
+            Map<String, Set<String>> sets = new HashMap<>();
+            Map<String, String> sellerByProduct = new HashMap<>();
+            for (int c = 0; c < companies; c++) {
+                sets.put(companyIds[c], new HashSet<>(authorizations.get(c)));
+            }
+            for (int p = 0; p < products; p++) {
+                sellerByProduct.put(productIds[p], productSellers[p]);
+            }
+            log.info("Map<String, Set<String>>: 構築={}ms, ヒープ={}MB", (System.nanoTime() - start) / 1_000_000,
+                (usedHeap() - heap) / 1024 / 1024);
+            run("Map<String, Set<String>>", companyIds, productIds, (companyId, productId) -> {
+                Set<String> sellerIds = sets.get(companyId);
+                String sellerId = sellerByProduct.get(productId);
+                return sellerIds != null && sellerId != null && sellerIds.contains(sellerId);
+            });
+        }
+    }
+
+    private static void run(String name, String[] companyIds, String[] productIds, Check check) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        long n = 0;
+        long authorized = 0;
+        while ((n & 0xFFF) != 0 || System.currentTimeMillis() < deadline) {
+            if (check.isAuthorized(companyIds[random.nextInt(companyIds.length)],
+                    productIds[random.nextInt(productIds.length)])) {
+                authorized++;
+            }
+            n++;
+        }
+        log.info("{}: 判定={}万回/秒（購入可={}%）", name, n * 1000 / DURATION_MILLIS / 10_000, authorized * 100 / n);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean isAuthorized(String companyId, String productId);
+    }
+}
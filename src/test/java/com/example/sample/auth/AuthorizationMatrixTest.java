@@ -0,0 +1,92 @@
+package com.example.sample.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * AuthorizationMatrix の単体テスト。
+ */
+class AuthorizationMatrixTest {
+
+    private final AuthorizationMatrix matrix = new AuthorizationMatrix();
+
+    @Test
+    void isAuthorized_承認のある販売会社の商品のみ購入できる() {
+        matrix.setSellers("C001", Set.of("S001", "S002"));
+        matrix.setSellers("C002", Set.of("S003"));
+        matrix.putProduct("P001", "S001");
+        matrix.putProduct("P003", "S003");
+
+        assertThat(matrix.isAuthorized("C001", "P001")).isTrue();
+        assertThat(matrix.isAuthorized("C001", "P003")).isFalse();
+        assertThat(matrix.isAuthorized("C002", "P003")).isTrue();
+        // 未登録の購入会社・商品、購入会社の指定なし
+        assertThat(matrix.isAuthorized("C999", "P001")).isFalse();
+        assertThat(matrix.isAuthorized("C001", "P999")).isFalse();
+        assertThat(matrix.isAuthorized(null, "P001")).isFalse();
+        assertThat(matrix.canBuyFrom("C001", "S002")).isTrue();
+        assertThat(matrix.canBuyFrom("C001", "S999")).isFalse();
+    }
+
+    @Test
+    void sellerFilter_承認のある販売会社のみ許可する() {
+        matrix.setSellers("C001", Set.of("S001", "S002"));
+        matrix.setSellers("C002", Set.of());
+
+        Predicate<String> c001 = matrix.sellerFilter("C001");
+        assertThat(c001.test("S001")).isTrue();
+        assertThat(c001.test("S002")).isTrue();
+        assertThat(c001.test("S999")).isFalse();
+        assertThat(matrix.sellerFilter("C002").test("S001")).isFalse();
+        assertThat(matrix.sellerFilter("C999").test("S001")).isFalse();
+        assertThat(matrix.sellerFilter(null).test("S001")).isFalse();
+    }
+
+    @Test
+    void setSellers_承認を置き換え商品の変更も反映する() {
+        matrix.setSellers("C001", Set.of("S001"));
+        matrix.putProduct("P001", "S001");
+        matrix.putProduct("P002", "S002");
+
+        matrix.setSellers("C001", Set.of("S002"));
+        assertThat(matrix.isAuthorized("C001", "P001")).isFalse();
+        assertThat(matrix.isAuthorized("C001", "P002")).isTrue();
+
+        // 販売会社の変更、削除
+        matrix.putProduct("P001", "S002");
+        assertThat(matrix.isAuthorized("C001", "P001")).isTrue();
+        matrix.removeProduct("P001");
+        assertThat(matrix.isAuthorized("C001", "P001")).isFalse();
+
+        matrix.setSellers("C001", Set.of());
+        assertThat(matrix.isAuthorized("C001", "P002")).isFalse();
+    }
+
+    @Test
+    void setSellers_ワード境界を超える販売会社数と購入会社数でも判定できる() {
+        List<String> sellers = new ArrayList<>();
+        for (int s = 0; s < 200; s++) {
+            sellers.add("S" + s);
+            matrix.putProduct("P" + s, "S" + s);
+        }
+        for (int c = 0; c < 100; c++) {
+            // 購入会社 c は c の倍数番目の販売会社からのみ購入できる
+            int company = c + 1;
+            matrix.setSellers("C" + c, sellers.stream().filter(id -> Integer.parseInt(id.substring(1)) % company == 0).toList());
+        }
+
+        assertThat(matrix.companyCount()).isEqualTo(100);
+        assertThat(matrix.sellerCount()).isEqualTo(200);
+        for (int c = 0; c < 100; c++) {
+            for (int s = 0; s < 200; s++) {
+                assertThat(matrix.isAuthorized("C" + c, "P" + s)).isEqualTo(s % (c + 1) == 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.sample.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * BoundedPasswordEncoder の単体テスト。
+ */
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private PasswordEncoder delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(PasswordEncoder.class);
+        when(delegate.matches(any(), anyString())).thenAnswer(inv -> {
+            if ("slow".contentEquals(inv.<CharSequence>getArgument(0))) {
+                started.countDown();
+                release.await();
+            }
+            return "secret".contentEquals(inv.<CharSequence>getArgument(0));
+        });
+        when(delegate.encode(any())).thenAnswer(inv -> "{hash}" + Thread.currentThread().getName());
+        when(delegate.upgradeEncoding(anyString())).thenReturn(true);
+        meterRegistry = new SimpleMeterRegistry();
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofMillis(500), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void matches_専用スレッドで照合した結果を返す() {
+        assertThat(encoder.matches("secret", "{hash}")).isTrue();
+        assertThat(encoder.matches("wrong", "{hash}")).isFalse();
+    }
+
+    @Test
+    void matches_待ち行列が満杯の場合は待たずに混雑とする() throws Exception {
+        fillQueue();
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> encoder.matches("secret", "{hash}"))
+            .isInstanceOf(PasswordVerificationBusyException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(100);
+        assertThat(meterRegistry.get("login.verify.rejected").tag("reason", "queue-full").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void matches_待ち時間が上限を超えた場合は混雑とする() throws Exception {
+        CompletableFuture.runAsync(() -> encoder.matches("slow", "{hash}"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> encoder.matches("secret", "{hash}"))
+            .isInstanceOf(PasswordVerificationBusyException.class);
+        // 実行中の照合の呼び出し元も待ち時間の上限を超える
+        assertThat(meterRegistry.get("login.verify.rejected").tag("reason", "timeout").counter().count())
+            .isPositive();
+    }
+
+    @Test
+    void encode_照合と同じ専用スレッドで実行する() {
+        assertThat(encoder.encode("secret")).startsWith("{hash}password-verify-");
+    }
+
+    @Test
+    void encode_待ち行列が満杯の場合は混雑とする() throws Exception {
+        fillQueue();
+
+        assertThatThrownBy(() -> encoder.encode("secret"))
+            .isInstanceOf(PasswordVerificationBusyException.class);
+    }
+
+    @Test
+    void upgradeEncoding_照合待ちがある間は再ハッシュ化を見送る() throws Exception {
+        assertThat(encoder.upgradeEncoding("{hash}")).isTrue();
+
+        fillQueue();
+
+        assertThat(encoder.upgradeEncoding("{hash}")).isFalse();
+        assertThat(meterRegistry.get("login.rehash.deferred").counter().count()).isEqualTo(1);
+    }
+
+    /**
+     * 実行中1件、待ち1件で待ち行列を満杯にする。
+     */
+    private void fillQueue() throws InterruptedException {
+        CompletableFuture.runAsync(() -> encoder.matches("slow", "{hash}"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture.runAsync(() -> encoder.matches("secret", "{hash}"));
+        while (meterRegistry.get("executor.queued").tag("name", "passwordVerify").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.sample.auth;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ログイン集中時の画面応答時間の計測ツール（テスト用）。
+ * <p>
+ * Tomcat のリクエスト処理スレッドを模したスレッドプールで、多数のログイン（BCrypt の照合）を同時に受け付けながら、
+ * メニュー・検索を模した画面リクエスト（一定時間 CPU を使用する処理）を一定間隔で発行し、
+ * 画面リクエストの応答時間の p50 / p99 を出力する。
+ * 照合をリクエスト処理スレッドで直接行う場合と、{@link BoundedPasswordEncoder} で行う場合を比較する。
+ * <p>
+ * 実行例：
+ * <pre>
+ * java com.example.sample.auth.LoginStormBenchmark 500 12 200
+ * </pre>
+ */
+@Slf4j
+public class LoginStormBenchmark {
+
+    /** 画面リクエスト1件あたりの CPU 使用時間 */
+    private static final long PAGE_WORK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    /** 画面リクエストの発行間隔 */
+    private static final long PAGE_INTERVAL_MILLIS = 20;
+
+    /**
+     * メインメソッド。
+     *
+     * @param args コマンドライン引数（同時ログイン数、BCrypt の strength、リクエスト処理スレッド数。
+     *             省略時は500, 12, 200）
+     */
+    public static void main(String[] args) throws Exception {
+        int logins = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int strength = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int cores = Runtime.getRuntime().availableProcessors();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        String hash = bcrypt.encode("password");
+
+        run("ログインなし", null, hash, 0, workers);
+        run("リクエスト処理スレッドで照合", bcrypt, hash, logins, workers);
+        try (BoundedPasswordEncoder bounded = new BoundedPasswordEncoder(bcrypt, cores, logins, Duration.ofMinutes(10),
+                new SimpleMeterRegistry())) {
+            run("BoundedPasswordEncoder(" + cores + "スレッド)で照合", bounded, hash, logins, workers);
+        }
+    }
+
+    private static void run(String name, PasswordEncoder encoder, String hash, int logins, int workers)
+            throws Exception {
+        ExecutorService tomcat = Executors.newFixedThreadPool(workers);
+        long start = System.nanoTime();
+        List<Future<?>> loginFutures = new ArrayList<>();
+        AtomicInteger rejected = new AtomicInteger();
+        for (int i = 0; i < logins; i++) {
+            loginFutures.add(tomcat.submit(() -> {
+                try {
+                    encoder.matches("password", hash);
+                } catch (PasswordVerificationBusyException e) {
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+
+        // ログインが完了するまで（ログインなしの場合は一定時間）画面リクエストを発行する
+        List<Future<Long>> pages = new ArrayList<>();
+        long minimumEnd = start + TimeUnit.SECONDS.toNanos(3);
+        while (System.nanoTime() < minimumEnd || loginFutures.stream().anyMatch(f -> !f.isDone())) {
+            long submitted = System.nanoTime();
+            pages.add(tomcat.submit(() -> {
+                long workStart = System.nanoTime();
+                long sink = 0;
+                while (System.nanoTime() - workStart < PAGE_WORK_NANOS) {
+                    sink += workStart % 7;
+                }
+                return sink >= 0 ? System.nanoTime() - submitted : 0L;
+            }));
+            Thread.sleep(PAGE_INTERVAL_MILLIS);
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] latencies = new long[pages.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = pages.get(i).get();
+        }
+        tomcat.shutdown();
+        tomcat.awaitTermination(1, TimeUnit.MINUTES);
+        Arrays.sort(latencies);
+        log.info("{}: ログイン={}件（混雑={}件）, 所要時間={}ms, 画面 {}件: p50={}ms, p99={}ms", name, logins, rejected.get(),
+            TimeUnit.NANOSECONDS.toMillis(elapsed), latencies.length,
+            TimeUnit.NANOSECONDS.toMillis(latencies[latencies.length / 2]),
+            TimeUnit.NANOSECONDS.toMillis(latencies[(int) (latencies.length * 0.99)]));
+    }
+}
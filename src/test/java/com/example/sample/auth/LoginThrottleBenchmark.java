@@ -0,0 +1,83 @@
+package com.example.sample.auth;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * パスワードリスト攻撃を模したログイン試行の CPU 使用時間の計測ツール（テスト用）。
+ * <p>
+ * 少数のIPアドレスから多数のユーザIDに対して誤ったパスワードでログインを試行し、
+ * {@link LoginThrottle} の有無で BCrypt の照合回数と CPU 使用時間を比較する。
+ * <p>
+ * 実行例：
+ * <pre>
+ * java com.example.sample.auth.LoginThrottleBenchmark 2000 10 8
+ * </pre>
+ */
+@Slf4j
+public class LoginThrottleBenchmark {
+
+    /**
+     * メインメソッド。
+     *
+     * @param args コマンドライン引数（試行数、攻撃元IPアドレス数、並行数。省略時は2000, 10, 8）
+     */
+    public static void main(String[] args) throws Exception {
+        int attempts = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int ips = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(10);
+        String hash = bcrypt.encode("correct-password");
+
+        run("制限なし", new LoginThrottle(new SimpleMeterRegistry(), false, Duration.ofMinutes(15), 5, 50, 100_000, 16),
+            bcrypt, hash, attempts, ips, threads);
+        run("制限あり", new LoginThrottle(new SimpleMeterRegistry(), true, Duration.ofMinutes(15), 5, 50, 100_000, 16),
+            bcrypt, hash, attempts, ips, threads);
+    }
+
+    private static void run(String name, LoginThrottle throttle, BCryptPasswordEncoder bcrypt, String hash,
+            int attempts, int ips, int threads) throws Exception {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger verified = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        long start = System.nanoTime();
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            String username = "user" + (i % 500);
+            String remoteAddr = "192.0.2." + (i % ips);
+            futures.add(pool.submit(() -> {
+                long cpuStart = mx.getCurrentThreadCpuTime();
+                if (!throttle.tryAcquire(username, remoteAddr)) {
+                    rejected.incrementAndGet();
+                } else if (!bcrypt.matches("wrong-password", hash)) {
+                    verified.incrementAndGet();
+                    throttle.recordFailure(username, remoteAddr);
+                }
+                return mx.getCurrentThreadCpuTime() - cpuStart;
+            }));
+        }
+        long cpuNanos = 0;
+        for (Future<Long> future : futures) {
+            cpuNanos += future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        log.info("{}: 試行={}件, 照合={}件, 拒否={}件, 所要時間={}ms, CPU使用時間={}ms", name, attempts, verified.get(),
+            rejected.get(), TimeUnit.NANOSECONDS.toMillis(elapsed), TimeUnit.NANOSECONDS.toMillis(cpuNanos));
+    }
+}
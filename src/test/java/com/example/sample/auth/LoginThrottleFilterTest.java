@@ -0,0 +1,81 @@
+package com.example.sample.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * LoginThrottleFilter の単体テスト。
+ */
+class LoginThrottleFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginThrottle loginThrottle;
+    private LoginThrottleFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginThrottle = new LoginThrottle(meterRegistry, true, Duration.ofMinutes(15), 3, 10, 1000, 4);
+        filter = new LoginThrottleFilter(loginThrottle,
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, "/login"), "username",
+            "/vz0101?throttled");
+    }
+
+    @Test
+    void ユーザIDの失敗回数が上限に達した場合は認証処理に進まない() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(login("user01", "10.0.0.1").getRedirectedUrl()).isNull();
+            loginThrottle.recordFailure("user01", "10.0.0.1");
+        }
+
+        assertThat(login("user01", "10.0.0.2").getRedirectedUrl()).isEqualTo("/vz0101?throttled");
+        // 他のユーザは制限しない
+        assertThat(login("user02", "10.0.0.1").getRedirectedUrl()).isNull();
+        assertThat(meterRegistry.get("login.throttle.rejected").tag("scope", "user").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void IPアドレスの失敗回数が上限に達した場合は全ユーザを拒否する() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            loginThrottle.recordFailure("user" + i, "10.0.0.1");
+        }
+
+        assertThat(login("user99", "10.0.0.1").getRedirectedUrl()).isEqualTo("/vz0101?throttled");
+        assertThat(loginThrottle.report().blockedIps()).containsOnlyKeys("10.0.0.1");
+    }
+
+    @Test
+    void ログイン成功でユーザIDの失敗回数を破棄する() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.recordFailure("user01", "10.0.0.1");
+        }
+        loginThrottle.recordSuccess("user01");
+
+        assertThat(login("user01", "10.0.0.1").getRedirectedUrl()).isNull();
+    }
+
+    private MockHttpServletResponse login(String username, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setParameter("username", username);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        if (response.getRedirectedUrl() == null) {
+            assertThat(chain.getRequest()).isSameAs(request);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.sample.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * SlidingWindowCounter の単体テスト。
+ */
+class SlidingWindowCounterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void count_時間窓を過ぎた回数は数えない() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(8), 100, 4, now::get);
+
+        counter.increment("user01");
+        advanceMinutes(4);
+        counter.increment("user01");
+        assertThat(counter.increment("user01")).isEqualTo(3);
+
+        // 1回目から8分経過
+        advanceMinutes(4);
+        assertThat(counter.count("user01")).isEqualTo(2);
+        // 最後の記録から8分経過
+        advanceMinutes(4);
+        assertThat(counter.count("user01")).isZero();
+        assertThat(counter.size()).isZero();
+    }
+
+    @Test
+    void reset_記録を破棄する() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(8), 100, 4, now::get);
+        counter.increment("user01");
+        counter.increment("user02");
+
+        counter.reset("user01");
+
+        assertThat(counter.count("user01")).isZero();
+        assertThat(counter.count("user02")).isEqualTo(1);
+    }
+
+    @Test
+    void increment_件数上限を超えた場合は古いキーを追い出す() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(8), 64, 4, now::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            counter.increment("10.0.0." + i);
+        }
+
+        assertThat(counter.size()).isLessThanOrEqualTo(64);
+        assertThat(counter.evictionCount()).isEqualTo(10_000 - counter.size());
+        assertThat(counter.count("10.0.0.9999")).isEqualTo(1);
+    }
+
+    @Test
+    void entriesAtLeast_閾値以上のキーのみ返す() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(8), 100, 4, now::get);
+        for (int i = 0; i < 5; i++) {
+            counter.increment("user01");
+        }
+        counter.increment("user02");
+
+        assertThat(counter.entriesAtLeast(5, 10)).containsExactly(entry("user01", 5));
+    }
+
+    private void advanceMinutes(long minutes) {
+        now.addAndGet(TimeUnit.MINUTES.toNanos(minutes));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.sample.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.sample.cart.CartChangedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * CartPurgeJob の単体テスト。
+ */
+class CartPurgeJobTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private CartPurgeJob job(Duration maxRunTime) {
+        return new CartPurgeJob(jdbcTemplate, mock(PlatformTransactionManager.class), eventPublisher, meterRegistry,
+            Duration.ofHours(1), 2, Duration.ZERO, maxRunTime, Duration.ofDays(90));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenChunks(List<String[]> first, List<String[]> second) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Timestamp.class), anyString(), anyString(), anyInt()))
+            .thenReturn(first, second, List.of());
+    }
+
+    @Test
+    void run_チャンクごとに削除し最後まで処理する() {
+        givenChunks(
+            List.of(new String[] { "user01", "P001" }, new String[] { "user01", "P002" }),
+            List.<String[]>of(new String[] { "user02", "P001" }));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1, 0 }, new int[] { 1 });
+
+        long deleted = job(Duration.ofMinutes(5)).run();
+
+        // 取得後に追加し直された行（件数0）は数えない
+        assertThat(deleted).isEqualTo(2);
+        assertThat(meterRegistry.counter("cart.purge.rows").count()).isEqualTo(2);
+        assertThat(meterRegistry.timer("cart.purge.run", "completed", "true").count()).isEqualTo(1);
+        verify(eventPublisher).publishEvent(new CartChangedEvent("user01"));
+        verify(eventPublisher).publishEvent(new CartChangedEvent("user02"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_最大実行時間を超えたら中断し次回は続きから再開する() {
+        givenChunks(
+            List.<String[]>of(new String[] { "user01", "P001" }),
+            List.<String[]>of(new String[] { "user02", "P001" }));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1 });
+        CartPurgeJob job = job(Duration.ZERO);
+
+        assertThat(job.run()).isEqualTo(1);
+        assertThat(job.run()).isEqualTo(1);
+
+        assertThat(meterRegistry.timer("cart.purge.run", "completed", "false").count()).isEqualTo(2);
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class), any(Timestamp.class), eq("user01"), eq("P001"), anyInt());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.sample.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * SingleFlight の単体テスト。
+ * <p>
+ * 待機時間の上限と、上限を超えたロードの置き換えを検証する。
+ */
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+
+    @Test
+    void execute_待機時間の上限を超えた場合はタイムアウト例外とする() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+            flights.execute("K", Duration.ofSeconds(10), () -> {
+                await(release);
+                return "leader";
+            }));
+        waitUntilInFlight();
+
+        assertThatThrownBy(() -> flights.execute("K", Duration.ofMillis(50), () -> "follower"))
+            .isInstanceOf(SingleFlightTimeoutException.class);
+
+        release.countDown();
+        assertThat(leader.get(10, TimeUnit.SECONDS)).isEqualTo("leader");
+        assertThat(flights.inFlightCount()).isZero();
+    }
+
+    @Test
+    void execute_上限を超えて実行中のロードには合流せず新たにロードする() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> stuck = CompletableFuture.supplyAsync(() ->
+            flights.execute("K", Duration.ofMillis(10), () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "stuck";
+            }));
+        waitUntilInFlight();
+        Thread.sleep(50);
+
+        assertThat(flights.execute("K", Duration.ofMillis(10), () -> {
+            loads.incrementAndGet();
+            return "fresh";
+        })).isEqualTo("fresh");
+
+        release.countDown();
+        assertThat(stuck.get(10, TimeUnit.SECONDS)).isEqualTo("stuck");
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(flights.coalescedCount()).isZero();
+    }
+
+    @Test
+    void execute_ロード完了後は次の呼び出しで再ロードする() {
+        AtomicInteger loads = new AtomicInteger();
+
+        flights.execute("K", Duration.ofSeconds(1), () -> "v" + loads.incrementAndGet());
+        assertThat(flights.execute("K", Duration.ofSeconds(1), () -> "v" + loads.incrementAndGet())).isEqualTo("v2");
+    }
+
+    private void waitUntilInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (flights.inFlightCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.sample.cart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.sample.db.jpa.cart.CartRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * WriteBehindCartWriter / CartJournal の単体テスト。
+ */
+class WriteBehindCartWriterTest {
+
+    private static final int MAX_BUFFERED = 10;
+    private static final int MAX_ATTEMPTS = 3;
+
+    @TempDir
+    Path journalDir;
+
+    private CartRepository cartRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cartRepository = mock(CartRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void flushAll_同じユーザ商品への追加を1行にまとめて反映する() throws Exception {
+        WriteBehindCartWriter writer = newWriter();
+        writer.add("user01", Map.of("P001", 1));
+        writer.add("user01", Map.of("P001", 2, "P002", 1));
+        writer.add("user02", Map.of("P001", 1));
+
+        assertThat(writer.flushAll()).isEqualTo(3);
+
+        verify(cartRepository).upsertIncrement(eq("user01"), eq(Map.of("P001", 3, "P002", 1)), any());
+        verify(cartRepository).upsertIncrement(eq("user02"), eq(Map.of("P001", 1)), any());
+        assertThat(writer.depth()).isZero();
+        assertThat(meterRegistry.get("cart.buffer.coalescing.ratio").gauge().value()).isEqualTo(4.0 / 3);
+        // 反映済みのセグメントは削除され、書き込み中のセグメントのみ残る
+        assertThat(Files.list(journalDir).count()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_指定ユーザのみ反映し再起動時は未反映の追加だけを復元する() throws Exception {
+        WriteBehindCartWriter writer = newWriter();
+        writer.add("user01", Map.of("P001", 1));
+        writer.add("user02", Map.of("P001", 2));
+        writer.add("user01", Map.of("P002", 1));
+
+        writer.flush("user01");
+
+        verify(cartRepository).upsertIncrement(eq("user01"), eq(Map.of("P001", 1, "P002", 1)), any());
+        verify(cartRepository, never()).upsertIncrement(eq("user02"), anyMap(), any());
+
+        // 異常終了を想定し、反映・クローズせずに同じジャーナルから起動する
+        WriteBehindCartWriter restarted = newWriter();
+        assertThat(restarted.depth()).isEqualTo(1);
+        restarted.flushAll();
+        verify(cartRepository).upsertIncrement(eq("user02"), eq(Map.of("P001", 2)), any());
+    }
+
+    @Test
+    void flushAll_反映に失敗したユーザの追加のみ保持し直して次回反映する() throws Exception {
+        WriteBehindCartWriter writer = newWriter();
+        when(cartRepository.upsertIncrement(eq("user01"), anyMap(), any()))
+            .thenThrow(new DataAccessResourceFailureException("DB停止"))
+            .thenReturn(Map.of());
+        writer.add("user01", Map.of("P001", 1));
+        writer.add("user02", Map.of("P001", 1));
+
+        // user01 の失敗は user02 の反映を妨げない
+        assertThat(writer.flushAll()).isEqualTo(1);
+        verify(cartRepository).upsertIncrement(eq("user02"), eq(Map.of("P001", 1)), any());
+        writer.add("user01", Map.of("P001", 1));
+        assertThat(writer.depth()).isEqualTo(1);
+        // 保持し直した追加は再起動時にも復元される
+        assertThat(newWriter().depth()).isEqualTo(1);
+
+        writer.flushAll();
+        verify(cartRepository).upsertIncrement(eq("user01"), eq(Map.of("P001", 1)), any());
+        verify(cartRepository).upsertIncrement(eq("user01"), eq(Map.of("P001", 2)), any());
+        assertThat(newWriter().depth()).isZero();
+    }
+
+    @Test
+    void flushAll_反映の失敗が続いた追加は破棄して記録する() throws Exception {
+        WriteBehindCartWriter writer = newWriter();
+        when(cartRepository.upsertIncrement(eq("user01"), anyMap(), any()))
+            .thenThrow(new DataIntegrityViolationException("不正な行"));
+        writer.add("user01", Map.of("P999", 1));
+
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            writer.flushAll();
+        }
+
+        assertThat(writer.depth()).isZero();
+        assertThat(meterRegistry.get("cart.buffer.dropped").counter().count()).isEqualTo(1);
+        assertThat(Files.readString(journalDir.resolve("cart-dead-letter.log"))).contains("\tuser01\tP999\t1\n");
+        assertThat(newWriter().depth()).isZero();
+    }
+
+    @Test
+    void add_未反映の行数が上限に達した場合は受け付けたスレッドで反映する() throws Exception {
+        WriteBehindCartWriter writer = newWriter();
+        for (int i = 0; i < MAX_BUFFERED; i++) {
+            writer.add("user" + i, Map.of("P001", 1));
+        }
+        assertThat(writer.depth()).isEqualTo(MAX_BUFFERED);
+
+        writer.add("user99", Map.of("P001", 1));
+
+        verify(cartRepository, times(MAX_BUFFERED)).upsertIncrement(anyString(), anyMap(), any());
+        assertThat(writer.depth()).isEqualTo(1);
+    }
+
+    @Test
+    void add_反映後も上限を超えている場合は直接反映する() throws Exception {
+        WriteBehindCartWriter writer = newWriter();
+        when(cartRepository.upsertIncrement(anyString(), anyMap(), any()))
+            .thenThrow(new DataAccessResourceFailureException("DB停止"));
+        for (int i = 0; i < MAX_BUFFERED; i++) {
+            writer.add("user" + i, Map.of("P001", 1));
+        }
+
+        // 直接反映も失敗するため、追加は受け付けずに例外を返す（バッファは増えない）
+        assertThatThrownBy(() -> writer.add("user99", Map.of("P001", 1)))
+            .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(writer.depth()).isEqualTo(MAX_BUFFERED);
+        assertThat(meterRegistry.get("cart.buffer.bypassed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void flushAll_反映時に新たにカートに入った商品のみをイベントで通知する() throws Exception {
+        WriteBehindCartWriter writer = newWriter();
+        // P001 は既にカートにあり加算、P002 は新規
+        when(cartRepository.upsertIncrement(eq("user01"), anyMap(), any())).thenReturn(Map.of("P001", 3, "P002", 1));
+        writer.add("user01", Map.of("P001", 1, "P002", 1));
+
+        writer.flushAll();
+
+        assertThat(events).containsExactly(
+            new CartChangedEvent("user01"),
+            new CartChangedEvent("user01", Set.of("P002")));
+    }
+
+    @Test
+    void recover_書き込み途中の追加は復元しない() throws Exception {
+        Files.writeString(journalDir.resolve("cart-journal-000000000001.log"),
+            "A\t1\tuser01\tP001\t1\nC\t1\nA\t2\tuser01\tP002\t1\nA\t2\tuser01\tP0", StandardCharsets.UTF_8);
+
+        CartJournal journal = new CartJournal(journalDir);
+        List<CartJournal.Entry> entries = journal.recover();
+        journal.close();
+
+        assertThat(entries).containsExactly(new CartJournal.Entry(1, "user01", "P001", 1));
+        assertThat(journal.lastSeq()).isEqualTo(2);
+    }
+
+    private WriteBehindCartWriter newWriter() throws Exception {
+        WriteBehindCartWriter writer = new WriteBehindCartWriter(cartRepository, events::add,
+            mock(PlatformTransactionManager.class), meterRegistry, Duration.ofHours(1), MAX_BUFFERED, MAX_ATTEMPTS,
+            journalDir);
+        writer.registerGauges();
+        return writer;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.sample.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * SecurityConfig の認可ルールのテスト。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void actuator_一般ユーザはログイン制限状況を参照できない() throws Exception {
+        mockMvc.perform(get("/actuator/loginthrottle").session(sessionOf("ROLE_USER")))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void actuator_管理者はログイン制限状況を参照できる() throws Exception {
+        mockMvc.perform(get("/actuator/loginthrottle").session(sessionOf("ROLE_ADMIN")))
+            .andExpect(status().isOk());
+    }
+
+    private static MockHttpSession sessionOf(String role) {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+            new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated("user01", null,
+                List.of(new SimpleGrantedAuthority(role)))));
+        return session;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.sample.db.jpa.cart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * {@link CartRepositoryImpl#upsertIncrement} の同時実行テスト。
+ * <p>
+ * 実DBが必要なため、環境変数 SAMPLE_TEST_DB_URL（SAMPLE_TEST_DB_USER / SAMPLE_TEST_DB_PASSWORD）
+ * を指定した場合のみ実行する。テスト用ユーザのカート行のみ作成・削除する。
+ */
+@EnabledIfEnvironmentVariable(named = "SAMPLE_TEST_DB_URL", matches = ".+")
+class CartRepositoryUpsertStressTest {
+
+    private static final String USER_ID = "stress-test-user";
+    private static final List<String> PRODUCT_IDS = List.of("STRESS-P1", "STRESS-P2", "STRESS-P3");
+    private static final int THREADS = 16;
+    private static final int CALLS_PER_THREAD = 200;
+
+    private JdbcTemplate jdbcTemplate;
+    private CartRepositoryImpl cartRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            System.getenv("SAMPLE_TEST_DB_URL"),
+            System.getenv("SAMPLE_TEST_DB_USER"),
+            System.getenv("SAMPLE_TEST_DB_PASSWORD"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        cartRepository = new CartRepositoryImpl(jdbcTemplate);
+        deleteTestRows();
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteTestRows();
+    }
+
+    @Test
+    void upsertIncrement_同じ商品を並行して追加しても加算が失われない() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, Integer>>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    Map<String, Integer> added = new LinkedHashMap<>();
+                    for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                        // 商品の組み合わせと順序を変えて、行ロックの取得順が異なる場合も確認する
+                        List<String> ids = new ArrayList<>(PRODUCT_IDS);
+                        Collections.shuffle(ids, ThreadLocalRandom.current());
+                        Map<String, Integer> quantities = new LinkedHashMap<>();
+                        for (String id : ids.subList(0, 1 + ThreadLocalRandom.current().nextInt(ids.size()))) {
+                            quantities.put(id, 1 + ThreadLocalRandom.current().nextInt(3));
+                        }
+                        Map<String, Integer> result = cartRepository.upsertIncrement(USER_ID, quantities, LocalDateTime.now());
+                        assertThat(result).containsOnlyKeys(quantities.keySet());
+                        quantities.forEach((id, q) -> added.merge(id, q, Integer::sum));
+                    }
+                    return added;
+                }));
+            }
+            start.countDown();
+
+            Map<String, Integer> expected = new LinkedHashMap<>();
+            for (Future<Map<String, Integer>> future : futures) {
+                future.get().forEach((id, q) -> expected.merge(id, q, Integer::sum));
+            }
+            Map<String, Integer> actual = new LinkedHashMap<>();
+            jdbcTemplate.query("SELECT PRODUCT_ID, QUANTITY FROM SAMPLE.TT_CART WHERE USER_ID = ? AND DEL_FLG = FALSE",
+                rs -> {
+                    actual.put(rs.getString(1), rs.getInt(2));
+                },
+                USER_ID);
+            assertThat(actual).isEqualTo(expected);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void upsertIncrement_論理削除済みの行は追加した数量で復活する() {
+        cartRepository.upsertIncrement(USER_ID, Map.of("STRESS-P1", 5), LocalDateTime.now());
+        jdbcTemplate.update("UPDATE SAMPLE.TT_CART SET DEL_FLG = TRUE WHERE USER_ID = ?", USER_ID);
+
+        Map<String, Integer> result = cartRepository.upsertIncrement(USER_ID, Map.of("STRESS-P1", 2), LocalDateTime.now());
+
+        assertThat(result).isEqualTo(Map.of("STRESS-P1", 2));
+    }
+
+    private void deleteTestRows() {
+        jdbcTemplate.update("DELETE FROM SAMPLE.TT_CART WHERE USER_ID = ?", USER_ID);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.sample.db.jpa.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link OrderRepositoryImpl} による注文確定の同時実行テスト。
+ * <p>
+ * 多数のユーザが同じ商品を含むカートを同時に確定し、在庫数が負にならないこと、
+ * 確定した注文の数量と在庫の減少量が一致すること、デッドロックが発生しないことを確認する。
+ * <p>
+ * 実DBが必要なため、環境変数 SAMPLE_TEST_DB_URL（SAMPLE_TEST_DB_USER / SAMPLE_TEST_DB_PASSWORD）
+ * を指定した場合のみ実行する。テスト用の商品・ユーザの行のみ作成・削除する。
+ */
+@EnabledIfEnvironmentVariable(named = "SAMPLE_TEST_DB_URL", matches = ".+")
+class OrderRepositoryCheckoutStressTest {
+
+    private static final String USER_PREFIX = "stress-order-user-";
+    private static final List<String> PRODUCT_IDS = List.of("STRESS-O1", "STRESS-O2", "STRESS-O3");
+    private static final int STOCK = 100;
+    private static final int USERS = 64;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transaction;
+    private OrderRepositoryImpl orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            System.getenv("SAMPLE_TEST_DB_URL"),
+            System.getenv("SAMPLE_TEST_DB_USER"),
+            System.getenv("SAMPLE_TEST_DB_PASSWORD"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        orderRepository = new OrderRepositoryImpl(jdbcTemplate);
+        deleteTestRows();
+        for (String productId : PRODUCT_IDS) {
+            jdbcTemplate.update("INSERT INTO SAMPLE.TM_PRODUCT (PRODUCT_ID, PRODUCT_NAME, COMPANY_ID, PRICE, STOCK_QUANTITY) "
+                + "VALUES (?, ?, 'STRESS', 10.00, ?)", productId, productId, STOCK);
+        }
+        for (int u = 0; u < USERS; u++) {
+            // ユーザごとに商品の組み合わせを変える（ロックの取得順が異なる場合も確認する）
+            for (int p = 0; p < PRODUCT_IDS.size(); p++) {
+                if ((u + p) % 3 != 0) {
+                    jdbcTemplate.update("INSERT INTO SAMPLE.TT_CART (USER_ID, PRODUCT_ID, QUANTITY) VALUES (?, ?, ?)",
+                        USER_PREFIX + u, PRODUCT_IDS.get(p), 1 + (u + p) % 4);
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteTestRows();
+    }
+
+    @Test
+    void checkout_同じ商品を同時に確定しても在庫を超えて注文しない() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        try {
+            for (int u = 0; u < USERS; u++) {
+                String userId = USER_PREFIX + u;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return transaction.execute(status -> {
+                        List<CheckoutLineView> lines = orderRepository.lockCheckoutLines(userId);
+                        if (lines.stream().anyMatch(l -> !l.inStock())) {
+                            status.setRollbackOnly();
+                            return false;
+                        }
+                        LocalDateTime now = LocalDateTime.now();
+                        assertThat(orderRepository.decrementStock(userId, now)).isEqualTo(lines.size());
+                        assertThat(orderRepository.insertOrder(UUID.randomUUID().toString(), userId, now))
+                            .isEqualTo(lines.size());
+                        orderRepository.deleteCart(userId);
+                        return true;
+                    });
+                }));
+            }
+            start.countDown();
+            int ordered = 0;
+            for (Future<Boolean> future : futures) {
+                ordered += future.get() ? 1 : 0;
+            }
+
+            assertThat(ordered).isPositive();
+            for (String productId : PRODUCT_IDS) {
+                int stock = jdbcTemplate.queryForObject(
+                    "SELECT STOCK_QUANTITY FROM SAMPLE.TM_PRODUCT WHERE PRODUCT_ID = ?", Integer.class, productId);
+                int orderedQuantity = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(QUANTITY), 0) FROM SAMPLE.TT_ORDER_DETAIL WHERE PRODUCT_ID = ?",
+                    Integer.class, productId);
+                assertThat(stock).isGreaterThanOrEqualTo(0);
+                assertThat(stock + orderedQuantity).isEqualTo(STOCK);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void deleteTestRows() {
+        jdbcTemplate.update("DELETE FROM SAMPLE.TT_ORDER_DETAIL WHERE ORDER_ID IN "
+            + "(SELECT ORDER_ID FROM SAMPLE.TT_ORDER WHERE USER_ID LIKE ?)", USER_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM SAMPLE.TT_ORDER WHERE USER_ID LIKE ?", USER_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM SAMPLE.TT_CART WHERE USER_ID LIKE ?", USER_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM SAMPLE.TM_PRODUCT WHERE COMPANY_ID = 'STRESS'");
+    }
+}
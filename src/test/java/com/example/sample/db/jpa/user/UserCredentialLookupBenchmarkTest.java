@@ -0,0 +1,155 @@
+package com.example.sample.db.jpa.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sun.management.ThreadMXBean;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ログイン時の認証情報の検索方法の比較（JPA エンティティ / MyBatis / JDBC）。
+ * <p>
+ * 同じユーザを各方法で繰り返し検索し、結果が一致することを確認したうえで、
+ * 1回あたりの所要時間とヒープ割り当て量を出力する。
+ * <ul>
+ * <li>JPA: 読み取り専用トランザクション内で {@link UserEntity} を検索（変更前の LoginService と同じ）</li>
+ * <li>MyBatis: 5列を SELECT し、結果マッピング用のクラスを経由して変換</li>
+ * <li>JDBC: {@link UserRepositoryCustom#findCredentialByUserId}</li>
+ * </ul>
+ * 実DBが必要なため、環境変数 SAMPLE_TEST_DB_URL（SAMPLE_TEST_DB_USER / SAMPLE_TEST_DB_PASSWORD）
+ * を指定した場合のみ実行する。テスト用ユーザの行のみ作成・削除する。
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "SAMPLE_TEST_DB_URL", matches = ".+")
+class UserCredentialLookupBenchmarkTest {
+
+    private static final String USER_ID = "bench-credential-user";
+    private static final int WARMUP = 5_000;
+    private static final int ITERATIONS = 20_000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void dataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("SAMPLE_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("SAMPLE_TEST_DB_USER"));
+        registry.add("spring.datasource.password", () -> System.getenv("SAMPLE_TEST_DB_PASSWORD"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        deleteTestRow();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO SAMPLE.TM_USER (USER_ID, PASSWORD, USER_NAME, ROLE, ACCOUNT_LOCKED, DEL_FLG, "
+            + "CREATED_AT, UPDATED_AT) VALUES (?, ?, ?, ?, FALSE, FALSE, ?, ?)",
+            USER_ID, "{noop}bench", "ベンチマーク", "ROLE_USER", now, now);
+        if (!sqlSessionFactory.getConfiguration().hasMapper(CredentialMapper.class)) {
+            sqlSessionFactory.getConfiguration().addMapper(CredentialMapper.class);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteTestRow();
+    }
+
+    @Test
+    void 認証情報の検索方法ごとの所要時間と割り当て量() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        CredentialMapper mapper = new SqlSessionTemplate(sqlSessionFactory).getMapper(CredentialMapper.class);
+
+        Function<String, Optional<UserCredentialView>> jpa = userId -> readOnly.execute(
+            status -> userRepository.findByUserId(userId).map(e -> new UserCredentialView(e.getUserId(),
+                e.getPassword(), e.getRole(), Boolean.TRUE.equals(e.getAccountLocked()),
+                Boolean.TRUE.equals(e.getDelFlg()))));
+        Function<String, Optional<UserCredentialView>> myBatis = userId -> Optional.ofNullable(mapper.find(userId))
+            .map(CredentialRow::toView);
+        Function<String, Optional<UserCredentialView>> jdbc = userRepository::findCredentialByUserId;
+
+        UserCredentialView expected = new UserCredentialView(USER_ID, "{noop}bench", "ROLE_USER", false, false);
+        for (Function<String, Optional<UserCredentialView>> lookup : List.of(jpa, myBatis, jdbc)) {
+            assertThat(lookup.apply(USER_ID)).contains(expected);
+        }
+        measure("JPA", jpa);
+        measure("MyBatis", myBatis);
+        measure("JDBC", jdbc);
+    }
+
+    private static void measure(String name, Function<String, Optional<UserCredentialView>> lookup) {
+        ThreadMXBean mx = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            lookup.apply(USER_ID);
+        }
+        long allocatedStart = mx.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            lookup.apply(USER_ID);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = mx.getCurrentThreadAllocatedBytes() - allocatedStart;
+        log.info("{}: {}回, 1回あたり {}µs, 割り当て {}バイト", name, ITERATIONS, elapsed / ITERATIONS / 1000,
+            allocated / ITERATIONS);
+    }
+
+    private void deleteTestRow() {
+        jdbcTemplate.update("DELETE FROM SAMPLE.TM_USER WHERE USER_ID = ?", USER_ID);
+    }
+
+    /**
+     * 比較用の MyBatis Mapper（削除前の AccountMapper から認証に使用する列のみに絞ったもの）。
+     */
+    interface CredentialMapper {
+        @Select("SELECT USER_ID AS userId, PASSWORD AS password, ROLE AS role, ACCOUNT_LOCKED AS accountLocked, "
+            + "DEL_FLG AS delFlg FROM SAMPLE.TM_USER WHERE USER_ID = #{userId}")
+        CredentialRow find(String userId);
+    }
+
+    /**
+     * MyBatis の結果マッピング用クラス。
+     */
+    @Data
+    public static class CredentialRow {
+        private String userId;
+        private String password;
+        private String role;
+        private Boolean accountLocked;
+        private Boolean delFlg;
+
+        UserCredentialView toView() {
+            return new UserCredentialView(userId, password, role, Boolean.TRUE.equals(accountLocked),
+                Boolean.TRUE.equals(delFlg));
+        }
+    }
+}
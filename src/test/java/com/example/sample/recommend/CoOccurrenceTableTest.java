@@ -0,0 +1,92 @@
+package com.example.sample.recommend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.sample.db.jpa.cart.CartId;
+
+/**
+ * CoOccurrenceTable の単体テスト。
+ */
+class CoOccurrenceTableTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void build_同じカートに含まれる回数の多い順に返す() {
+        List<CartId> rows = List.of(
+            new CartId("u1", "P1"), new CartId("u1", "P2"), new CartId("u1", "P3"),
+            new CartId("u2", "P1"), new CartId("u2", "P2"),
+            new CartId("u3", "P1"), new CartId("u3", "P3"), new CartId("u3", "P2"),
+            new CartId("u4", "P4"));
+
+        CoOccurrenceTable table = CoOccurrenceTable.build(rows.iterator(), 10, 100, pool);
+
+        assertThat(table.alsoAdded("P1")).containsExactly("P2", "P3");
+        assertThat(table.alsoAdded("P3")).containsExactly("P1", "P2");
+        // 1商品のみのカートは数えない
+        assertThat(table.alsoAdded("P4")).isEmpty();
+        assertThat(table.alsoAdded("P9")).isEmpty();
+    }
+
+    @Test
+    void build_並列に集計しても商品ごとの結果は同じ() {
+        List<CartId> rows = new ArrayList<>();
+        for (int u = 0; u < 2000; u++) {
+            // ユーザ u は商品 u % 1000 と (u + 1) % 1000、(u * 7) % 1000 を追加する
+            for (int p : new TreeSet<>(List.of(u % 1000, (u + 1) % 1000, (u * 7) % 1000))) {
+                rows.add(new CartId(String.format("u%05d", u), "P" + p));
+            }
+        }
+
+        CoOccurrenceTable parallel = CoOccurrenceTable.build(rows.iterator(), 5, 100, pool);
+        CoOccurrenceTable serial = CoOccurrenceTable.build(rows.iterator(), 5, 100, new ForkJoinPool(1));
+
+        assertThat(parallel.size()).isEqualTo(1000);
+        for (int p = 0; p < 1000; p++) {
+            assertThat(parallel.alsoAdded("P" + p)).isEqualTo(serial.alsoAdded("P" + p));
+        }
+    }
+
+    @Test
+    void record_追加した商品とカート内の商品の組を数える() {
+        CoOccurrenceTable table = new CoOccurrenceTable(2);
+
+        table.record(Set.of("P1"), List.of("P2"));
+        table.record(Set.of("P3", "P1"), List.of("P1", "P2", "P3"));
+
+        assertThat(table.alsoAdded("P1")).containsExactly("P2", "P3");
+        assertThat(table.alsoAdded("P2")).containsExactly("P1", "P3");
+        assertThat(table.alsoAdded("P3")).containsExactly("P1", "P2");
+
+        table.removeProduct("P2");
+        assertThat(table.alsoAdded("P2")).isEmpty();
+        assertThat(table.alsoAdded("P1")).containsExactly("P3");
+    }
+
+    @Test
+    void record_保持件数を超えても回数の多い商品を残す() {
+        CoOccurrenceTable table = new CoOccurrenceTable(2);
+        for (int i = 0; i < 50; i++) {
+            table.record(Set.of("P1"), List.of("HOT"));
+        }
+        for (int i = 0; i < 100; i++) {
+            table.record(Set.of("P1"), List.of("COLD" + i));
+        }
+
+        assertThat(table.alsoAdded("P1")).hasSize(2).first().isEqualTo("HOT");
+    }
+}
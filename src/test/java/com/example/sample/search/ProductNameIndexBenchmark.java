@@ -0,0 +1,89 @@
+package com.example.sample.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 商品名索引の性能計測ツール（テスト用）。
+ * <p>
+ * 合成した商品名（既定100万件）で {@link ProductNameIndex} を構築し、
+ * 同じ検索語に対する索引検索と全件走査（LIKE '%検索語%' の全表走査に相当）の
+ * 平均応答時間・構築時間・ヒープ使用量を出力する。
+ * <p>
+ * 実行例：
+ * <pre>
+ * java com.example.sample.search.ProductNameIndexBenchmark 1000000
+ * </pre>
+ */
+@Slf4j
+public class ProductNameIndexBenchmark {
+
+    private static final String[] WORDS = {
+        "ノート", "パソコン", "ボールペン", "マウス", "キーボード", "モニター", "ケーブル", "プリンター",
+        "用紙", "トナー", "ファイル", "クリップ", "ホッチキス", "デスク", "チェア", "ライト",
+        "黒", "赤", "青", "A4", "B5", "USB", "ワイヤレス", "業務用"
+    };
+    private static final String[] QUERIES = {
+        "ノ", "パソ", "ボールペン", "ワイヤレスマウス", "業務用 A4", "USBケーブル 赤", "存在しない商品"
+    };
+    private static final int ITERATIONS = 20;
+
+    /**
+     * メインメソッド。
+     *
+     * @param args コマンドライン引数（args[0]に商品件数、省略時は1000000）
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>(count);
+        List<String> sellers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(WORDS[random.nextInt(WORDS.length)] + WORDS[random.nextInt(WORDS.length)]
+                + " " + WORDS[random.nextInt(WORDS.length)] + " " + i);
+            sellers.add("SC" + (i % 100));
+        }
+        Set<String> allowed = Set.of("SC1", "SC2", "SC3", "SC4", "SC5");
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        ProductNameIndex index = new ProductNameIndex();
+        for (int i = 0; i < count; i++) {
+            index.put(String.format("P%08d", i), names.get(i), sellers.get(i));
+        }
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        log.info("商品数={}, n-gram数={}, 構築時間={}ms, ヒープ増分(概算)={}MB",
+            count, index.gramCount(), buildMillis, (heapAfter - heapBefore) / (1024 * 1024));
+
+        for (String query : QUERIES) {
+            int indexHits = 0;
+            long indexNanos = 0;
+            int scanHits = 0;
+            long scanNanos = 0;
+            for (int n = 0; n < ITERATIONS; n++) {
+                long t0 = System.nanoTime();
+                indexHits = index.search(query, allowed).size();
+                indexNanos += System.nanoTime() - t0;
+
+                long t1 = System.nanoTime();
+                scanHits = 0;
+                for (int i = 0; i < count; i++) {
+                    if (allowed.contains(sellers.get(i)) && names.get(i).contains(query)) {
+                        scanHits++;
+                    }
+                }
+                scanNanos += System.nanoTime() - t1;
+            }
+            log.info("検索語='{}': 索引={}件 {}us, 全件走査={}件 {}us",
+                query, indexHits, indexNanos / ITERATIONS / 1000, scanHits, scanNanos / ITERATIONS / 1000);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.sample.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ProductNameIndex の単体テスト。
+ * <p>
+ * 索引の検索結果が商品名の部分一致（LIKE '%検索語%'）と一致することを検証する。
+ */
+class ProductNameIndexTest {
+
+    private static final Set<String> ALL_SELLERS = Set.of("SC001", "SC002");
+
+    private ProductNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductNameIndex();
+        index.put("P001", "ノートパソコン", "SC001");
+        index.put("P002", "ノート（A4）", "SC001");
+        index.put("P003", "ボールペン 黒", "SC002");
+        index.put("P004", "ノートパソコン用マウス", "SC002");
+        index.put("P005", "ああああ", "SC001");
+    }
+
+    @Test
+    void search_部分一致の結果が文字列比較と一致する() {
+        for (String query : List.of("ノ", "ノー", "ノート", "パソコン", "ソコン用", "ペン 黒", "ああ", "あああああ", "存在しない")) {
+            assertThat(index.search(query, ALL_SELLERS))
+                .as(query)
+                .containsExactlyElementsOf(expected(query));
+        }
+    }
+
+    @Test
+    void search_前方一致は検索語で始まる商品のみ返す() {
+        assertThat(index.search("ノートパソコン", true, ALL_SELLERS)).containsExactly("P001", "P004");
+        assertThat(index.search("パソコン", true, ALL_SELLERS)).isEmpty();
+        assertThat(index.search("ノ", true, ALL_SELLERS)).containsExactly("P001", "P002", "P004");
+    }
+
+    @Test
+    void search_購入可能な販売会社の商品のみ返す() {
+        assertThat(index.search("ノートパソコン", Set.of("SC001"))).containsExactly("P001");
+    }
+
+    @Test
+    void put_商品名変更後は旧商品名で検索されない() {
+        index.put("P001", "デスクトップパソコン", "SC001");
+
+        assertThat(index.search("ノートパソコン", ALL_SELLERS)).containsExactly("P004");
+        assertThat(index.search("デスクトップ", ALL_SELLERS)).containsExactly("P001");
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    void remove_削除した商品は検索されない() {
+        index.remove("P004");
+
+        assertThat(index.search("パソコン", ALL_SELLERS)).containsExactly("P001");
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void put_更新を繰り返しても再構築後に結果が変わらない() {
+        for (int i = 0; i < 5000; i++) {
+            index.put("P003", "ボールペン 黒 " + i, "SC002");
+        }
+
+        assertThat(index.search("ボールペン 黒 4999", ALL_SELLERS)).containsExactly("P003");
+        assertThat(index.search("ボールペン 黒 4998", ALL_SELLERS)).isEmpty();
+        assertThat(index.search("パソコン", ALL_SELLERS)).containsExactly("P001", "P004");
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    void search_ページ指定の結果が全件を商品ID順に並べた結果と一致する() {
+        ProductNameIndex large = new ProductNameIndex();
+        for (int i = 0; i < 3000; i++) {
+            // 商品ID順と登録順が異なるよう逆順に登録する
+            int n = 2999 - i;
+            String name = n % 100 == 0 ? "限定ノート " + n : "ノート " + n;
+            large.put(String.format("P%05d", n), name, n % 3 == 0 ? "SC002" : "SC001");
+        }
+        // 一致が多い検索語（商品ID順に走査）と少ない検索語（ポスティングリストを走査）
+        for (String query : List.of("ノ", "ノート", "限定ノ")) {
+            List<String> all = large.search(query, Set.of("SC001")).stream().sorted().toList();
+            for (String cursor : List.of("P00000", "P00150", "P01500", "P02990")) {
+                List<String> after = all.stream().filter(id -> id.compareTo(cursor) > 0).limit(21).toList();
+                List<String> before = all.stream().filter(id -> id.compareTo(cursor) < 0)
+                    .sorted(Comparator.reverseOrder()).limit(21).toList();
+                assertThat(large.search(query, false, Set.of("SC001"), KeysetPageRequest.after(cursor, 20)))
+                    .as(query + " after " + cursor).containsExactlyElementsOf(after);
+                assertThat(large.search(query, false, Set.of("SC001"), KeysetPageRequest.before(cursor, 20)))
+                    .as(query + " before " + cursor).containsExactlyElementsOf(before);
+            }
+            assertThat(large.search(query, false, Set.of("SC001"), KeysetPageRequest.first(20)))
+                .containsExactlyElementsOf(all.stream().limit(21).toList());
+        }
+    }
+
+    @Test
+    void search_一致が多い検索語の深いページでも候補全件を確認しない() {
+        ProductNameIndex large = new ProductNameIndex();
+        for (int i = 0; i < 100_000; i++) {
+            large.put(String.format("P%06d", i), "ノート " + i, "SC001");
+        }
+
+        long before = large.examinedCount();
+        List<String> page = large.search("ノート", false, Set.of("SC001"), KeysetPageRequest.after("P090000", 20));
+
+        assertThat(page).hasSize(21).startsWith("P090001").endsWith("P090021");
+        assertThat(large.examinedCount() - before).isEqualTo(21);
+    }
+
+    private static List<String> expected(String query) {
+        return List.of(
+                new String[][] {
+                    {"P001", "ノートパソコン"}, {"P002", "ノート（A4）"}, {"P003", "ボールペン 黒"},
+                    {"P004", "ノートパソコン用マウス"}, {"P005", "ああああ"}})
+            .stream()
+            .filter(p -> p[1].contains(query))
+            .map(p -> p[0])
+            .toList();
+    }
+}
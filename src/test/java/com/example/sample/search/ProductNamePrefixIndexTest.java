@@ -0,0 +1,80 @@
+package com.example.sample.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sample.db.jpa.product.ProductNameView;
+
+/**
+ * ProductNamePrefixIndex の単体テスト。
+ */
+class ProductNamePrefixIndexTest {
+
+    private static final Set<String> ALL_SELLERS = Set.of("SC001", "SC002");
+    private static final int MAX_EXAMINED = 100;
+
+    private final ProductNamePrefixIndex index = ProductNamePrefixIndex.of(List.of(
+        new ProductNameView("P001", "ノートパソコン", "SC001"),
+        new ProductNameView("P002", "ノート（A4）", "SC001"),
+        new ProductNameView("P003", "ノートパソコン", "SC002"),
+        new ProductNameView("P004", "ボールペン 黒", "SC002"),
+        new ProductNameView("P005", "ノートパソコン用マウス", "SC003"),
+        new ProductNameView("P006", "USBケーブル", "SC001")));
+
+    @Test
+    void suggest_正規化した入力で始まる商品名を重複なく返す() {
+        assertThat(index.suggest("ノート", ALL_SELLERS::contains, 10, MAX_EXAMINED))
+            .containsExactly("ノート（A4）", "ノートパソコン");
+        assertThat(index.suggest("usb", ALL_SELLERS::contains, 10, MAX_EXAMINED)).containsExactly("USBケーブル");
+        assertThat(index.suggest("パソコン", ALL_SELLERS::contains, 10, MAX_EXAMINED)).isEmpty();
+    }
+
+    @Test
+    void suggest_購入可能な販売会社の商品のみ返す() {
+        assertThat(index.suggest("ノートパソコン", Set.of("SC003")::contains, 10, MAX_EXAMINED))
+            .containsExactly("ノートパソコン用マウス");
+        assertThat(index.suggest("ボール", Set.of("SC001")::contains, 10, MAX_EXAMINED)).isEmpty();
+    }
+
+    @Test
+    void withChanges_変更を反映した新しい索引を返し元の索引は変わらない() {
+        ProductNamePrefixIndex changed = index.withChanges(
+            List.of(new ProductNameView("P001", "デスクトップパソコン", "SC001"),
+                new ProductNameView("P007", "ノート（B5）", "SC002")),
+            Set.of("P002"));
+
+        assertThat(changed.suggest("ノート", ALL_SELLERS::contains, 10, MAX_EXAMINED))
+            .containsExactly("ノート（B5）", "ノートパソコン");
+        assertThat(changed.suggest("デスク", ALL_SELLERS::contains, 10, MAX_EXAMINED)).containsExactly("デスクトップパソコン");
+        assertThat(changed.size()).isEqualTo(6);
+        assertThat(index.suggest("ノート", ALL_SELLERS::contains, 10, MAX_EXAMINED))
+            .containsExactly("ノート（A4）", "ノートパソコン");
+    }
+
+    @Test
+    void suggest_最大件数まで返す() {
+        assertThat(index.suggest("ノ", Set.of("SC001", "SC002", "SC003")::contains, 2, MAX_EXAMINED)).hasSize(2);
+        assertThat(ProductNamePrefixIndex.EMPTY.suggest("ノ", ALL_SELLERS::contains, 10, MAX_EXAMINED)).isEmpty();
+    }
+
+    @Test
+    void suggest_確認する商品数の上限までで打ち切る() {
+        List<ProductNameView> products = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            products.add(new ProductNameView(String.format("P%04d", i), String.format("ノート %04d", i), "SC002"));
+        }
+        products.add(new ProductNameView("P9999", "ノート 9999", "SC001"));
+        ProductNamePrefixIndex large = ProductNamePrefixIndex.of(products);
+        Set<String> sc001 = Set.of("SC001");
+
+        // SC001 の商品は前方一致の範囲の末尾のため、上限までに見つからない
+        assertThat(large.suggest("ノート", sc001::contains, 10, 100)).isEmpty();
+        assertThat(large.suggest("ノート", sc001::contains, 10, 1001)).containsExactly("ノート 9999");
+        assertThat(large.suggest("ノート 9", sc001::contains, 10, 100)).containsExactly("ノート 9999");
+    }
+}
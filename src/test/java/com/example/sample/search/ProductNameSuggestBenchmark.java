@@ -0,0 +1,111 @@
+package com.example.sample.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.example.sample.db.jpa.product.ProductNameView;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 商品名入力候補の性能計測ツール（テスト用）。
+ * <p>
+ * 合成した商品名（既定100万件）で {@link ProductNamePrefixIndex} を作成し、
+ * 100スレッドが1文字ずつ入力を伸ばしながら候補を取得した場合の応答時間の分布を出力する。
+ * 計測中も1秒ごとに商品100件の変更を反映した索引を作成して差し替え、更新時の影響も含める。
+ * <p>
+ * 実行例：
+ * <pre>
+ * java com.example.sample.search.ProductNameSuggestBenchmark 1000000
+ * </pre>
+ */
+@Slf4j
+public class ProductNameSuggestBenchmark {
+
+    private static final String[] WORDS = {
+        "ノート", "パソコン", "ボールペン", "マウス", "キーボード", "モニター", "ケーブル", "プリンター",
+        "用紙", "トナー", "ファイル", "クリップ", "ホッチキス", "デスク", "チェア", "ライト",
+        "黒", "赤", "青", "A4", "B5", "USB", "ワイヤレス", "業務用"
+    };
+    private static final int THREADS = 100;
+    private static final int TYPINGS_PER_THREAD = 200;
+
+    private static volatile ProductNamePrefixIndex index;
+
+    /**
+     * メインメソッド。
+     *
+     * @param args コマンドライン引数（args[0]に商品件数、省略時は1000000）
+     */
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        List<ProductNameView> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(new ProductNameView(String.format("P%08d", i),
+                WORDS[random.nextInt(WORDS.length)] + WORDS[random.nextInt(WORDS.length)] + " " + i,
+                "SC" + (i % 100)));
+        }
+        long start = System.nanoTime();
+        index = ProductNamePrefixIndex.of(products);
+        log.info("商品数={}, 作成時間={}ms", count, (System.nanoTime() - start) / 1_000_000);
+
+        // 計測中の索引の差し替え（コピーオンライト）
+        Thread rebuilder = new Thread(() -> {
+            Random r = new Random(7);
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.sleep(1000);
+                    List<ProductNameView> changes = new ArrayList<>();
+                    for (int i = 0; i < 100; i++) {
+                        ProductNameView p = products.get(r.nextInt(count));
+                        changes.add(new ProductNameView(p.productId(), WORDS[r.nextInt(WORDS.length)] + p.productName(),
+                            p.companyId()));
+                    }
+                    long t0 = System.nanoTime();
+                    index = index.withChanges(changes, Set.of());
+                    log.info("索引差し替え: {}ms", (System.nanoTime() - t0) / 1_000_000);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        rebuilder.setDaemon(true);
+        rebuilder.start();
+
+        Set<String> allowed = Set.of("SC1", "SC2", "SC3", "SC4", "SC5");
+        long[][] latencies = new long[THREADS][];
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                Random r = new Random(thread);
+                long[] samples = new long[TYPINGS_PER_THREAD * 6];
+                int n = 0;
+                for (int k = 0; k < TYPINGS_PER_THREAD; k++) {
+                    // 1文字ずつ入力を伸ばす
+                    String word = WORDS[r.nextInt(WORDS.length)] + WORDS[r.nextInt(WORDS.length)];
+                    for (int len = 1; len <= Math.min(6, word.length()); len++) {
+                        long t0 = System.nanoTime();
+                        index.suggest(word.substring(0, len).toLowerCase(), allowed::contains, 10, 2000);
+                        samples[n++] = System.nanoTime() - t0;
+                    }
+                }
+                latencies[thread] = Arrays.copyOf(samples, n);
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        rebuilder.interrupt();
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        log.info("候補取得 {}回: p50={}us, p99={}us, max={}us", all.length,
+            all[all.length / 2] / 1000, all[(int) (all.length * 0.99)] / 1000, all[all.length - 1] / 1000);
+    }
+}
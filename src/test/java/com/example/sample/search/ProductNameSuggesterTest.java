@@ -0,0 +1,68 @@
+package com.example.sample.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.sample.db.jpa.product.ProductChangedEvent;
+import com.example.sample.db.jpa.product.ProductNameView;
+import com.example.sample.db.jpa.product.ProductRepository;
+
+/**
+ * ProductNameSuggester の単体テスト（起動時の読み込み）。
+ */
+class ProductNameSuggesterTest {
+
+    private ProductRepository productRepository;
+    private ProductNameSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        suggester = new ProductNameSuggester(productRepository, mock(PlatformTransactionManager.class),
+            Duration.ofMillis(10), 2000, Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        suggester.shutdown();
+    }
+
+    @Test
+    void onApplicationReady_読み込みに失敗した場合は再試行し読み込み中の変更も反映する() throws Exception {
+        when(productRepository.streamAllProductNames())
+            .thenThrow(new DataAccessResourceFailureException("接続できません"))
+            .thenAnswer(inv -> Stream.of(new ProductNameView("P001", "ノートパソコン", "SC001")));
+
+        suggester.onApplicationReady();
+        suggester.onProductChanged(new ProductChangedEvent("P002", "ノート", "SC001", 10, false));
+        awaitLoaded();
+
+        verify(productRepository, atLeast(2)).streamAllProductNames();
+        // 変更の反映は読み込み完了後に executor で行う
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (suggester.suggest("ノート", c -> true, 10).size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(suggester.suggest("ノート", c -> true, 10)).containsExactlyInAnyOrder("ノートパソコン", "ノート");
+    }
+
+    private void awaitLoaded() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!suggester.isLoaded() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(suggester.isLoaded()).isTrue();
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.sample.service;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.sample.db.jpa.cart.CartRepositoryImpl;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * カート追加の性能計測ツール（テスト用）。
+ * <p>
+ * DB までの往復時間（既定 0.5ms）を模擬する JDBC ドライバ上で、選択した商品数ごとに
+ * 従来の方式（商品ごとに SELECT と INSERT/UPDATE）と一括方式（INSERT ... ON CONFLICT
+ * による登録と加算を1文）の往復回数と所要時間を出力する。
+ * 選択した商品の半数が既にカートに存在するものとする。
+ * <p>
+ * 実行例：
+ * <pre>
+ * java com.example.sample.service.CartAddBenchmark 500
+ * </pre>
+ */
+@Slf4j
+public class CartAddBenchmark {
+
+    private static final int[] PRODUCT_COUNTS = { 1, 10, 50, 200 };
+    private static final int ITERATIONS = 5;
+
+    /**
+     * メインメソッド。
+     *
+     * @param args コマンドライン引数（args[0]に往復時間(マイクロ秒)、省略時は500）
+     */
+    public static void main(String[] args) {
+        long rttMicros = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        AtomicInteger roundTrips = new AtomicInteger();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource(rttMicros, roundTrips));
+        CartRepositoryImpl cartRepository = new CartRepositoryImpl(jdbcTemplate);
+
+        for (int count : PRODUCT_COUNTS) {
+            List<String> productIds = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                productIds.add(String.format("P%08d", i));
+            }
+            long loopNanos = 0;
+            long batchNanos = 0;
+            int loopTrips = 0;
+            int batchTrips = 0;
+            for (int n = 0; n < ITERATIONS; n++) {
+                roundTrips.set(0);
+                long t0 = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    jdbcTemplate.queryForList("SELECT QUANTITY FROM SAMPLE.TT_CART WHERE USER_ID = ? AND PRODUCT_ID = ?",
+                        "user01", productIds.get(i));
+                    jdbcTemplate.update(i % 2 == 0
+                        ? "UPDATE SAMPLE.TT_CART SET QUANTITY = ? WHERE USER_ID = ? AND PRODUCT_ID = ?"
+                        : "INSERT INTO SAMPLE.TT_CART (QUANTITY, USER_ID, PRODUCT_ID) VALUES (?, ?, ?)",
+                        1, "user01", productIds.get(i));
+                }
+                loopNanos += System.nanoTime() - t0;
+                loopTrips = roundTrips.get();
+
+                roundTrips.set(0);
+                long t1 = System.nanoTime();
+                Map<String, Integer> quantities = new LinkedHashMap<>();
+                productIds.forEach(id -> quantities.put(id, 1));
+                cartRepository.upsertIncrement("user01", quantities, LocalDateTime.now());
+                batchNanos += System.nanoTime() - t1;
+                batchTrips = roundTrips.get();
+            }
+            log.info("商品数={}: 従来 往復{}回 {}ms / 一括 往復{}回 {}ms", count,
+                loopTrips, TimeUnit.NANOSECONDS.toMicros(loopNanos / ITERATIONS) / 1000.0,
+                batchTrips, TimeUnit.NANOSECONDS.toMicros(batchNanos / ITERATIONS) / 1000.0);
+        }
+    }
+
+    /**
+     * 文の実行ごとに往復時間だけ待ち、往復回数を数える DataSource を作成する。
+     */
+    private static DataSource dataSource(long rttMicros, AtomicInteger roundTrips) {
+        Runnable roundTrip = () -> {
+            roundTrips.incrementAndGet();
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(rttMicros));
+        };
+        DatabaseMetaData metaData = proxy(DatabaseMetaData.class, (method, a) ->
+            switch (method) {
+                case "supportsBatchUpdates" -> true;
+                case "getDatabaseProductName" -> "PostgreSQL";
+                default -> null;
+            });
+        ResultSet emptyResult = proxy(ResultSet.class, (method, a) -> null);
+        Connection[] connection = new Connection[1];
+        connection[0] = proxy(Connection.class, (method, a) -> switch (method) {
+            case "getMetaData" -> metaData;
+            case "prepareStatement" -> {
+                int[] batched = new int[1];
+                yield proxy(PreparedStatement.class, (m, b) -> switch (m) {
+                    case "getConnection" -> connection[0];
+                    case "executeQuery" -> {
+                        roundTrip.run();
+                        yield emptyResult;
+                    }
+                    case "executeUpdate" -> {
+                        roundTrip.run();
+                        yield 1;
+                    }
+                    case "addBatch" -> {
+                        batched[0]++;
+                        yield null;
+                    }
+                    case "executeBatch" -> {
+                        roundTrip.run();
+                        int[] counts = new int[batched[0]];
+                        Arrays.fill(counts, 1);
+                        batched[0] = 0;
+                        yield counts;
+                    }
+                    default -> null;
+                });
+            }
+            default -> null;
+        });
+        return proxy(DataSource.class, (method, a) -> method.equals("getConnection") ? connection[0] : null);
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    /**
+     * メソッド名で応答するプロキシを作成する（未定義のメソッドは戻り値の型の既定値を返す）。
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (p, method, args) -> {
+            Object result = handler.invoke(method.getName(), args);
+            if (result != null || !method.getReturnType().isPrimitive()) {
+                return result;
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == void.class) {
+                return null;
+            }
+            return returnType == long.class ? 0L : returnType == double.class ? 0.0 : 0;
+        });
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.sample.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.context.MessageSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.sample.auth.CompanyProductAuthMatrix;
+import com.example.sample.cache.CompanyProductAuthCache;
+import com.example.sample.cart.CartWriter;
+import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.db.jpa.usercompanyproductauth.UserCompanyProductAuthRepository;
+import com.example.sample.service.VA0101CartImportService.CartImportResultDto;
+import com.example.sample.stock.StockReservationEngine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * カート一括取込の性能計測ツール（テスト用）。
+ * <p>
+ * 指定行数の CSV をメモリに持たずに生成しながら {@link VA0101CartImportService} に読み込ませ、
+ * 所要時間・DB 往復回数・計測中のヒープ使用量の最大値を出力する。
+ * DB（購入可能な商品IDの取得、カートへの追加）は1回あたりの往復時間（既定 2ms）を待つモックで模擬する
+ * （呼び出しを記録しない stubOnly のモックとし、ヒープ使用量に含めない）。
+ * 10行に1行は購入できない商品とする。
+ * <p>
+ * 実行例：
+ * <pre>
+ * java com.example.sample.service.CartImportBenchmark 100000 2000
+ * </pre>
+ */
+@Slf4j
+public class CartImportBenchmark {
+
+    /**
+     * メインメソッド。
+     *
+     * @param args コマンドライン引数（行数、往復時間(マイクロ秒)。省略時は100000, 2000）
+     */
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long rttMicros = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        AtomicInteger roundTrips = new AtomicInteger();
+
+        ProductRepository productRepository = mock(ProductRepository.class, withSettings().stubOnly());
+        when(productRepository.findAvailableProductIds(anyCollection(), anyCollection())).thenAnswer(inv -> {
+            roundTrip(rttMicros, roundTrips);
+            List<String> available = new ArrayList<>();
+            for (String id : (Collection<String>) inv.getArgument(0)) {
+                if (!id.endsWith("9")) {
+                    available.add(id);
+                }
+            }
+            return available;
+        });
+        CartWriter cartWriter = mock(CartWriter.class, withSettings().stubOnly());
+        doAnswer(inv -> {
+            roundTrip(rttMicros, roundTrips);
+            return null;
+        }).when(cartWriter).add(anyString(), anyMap());
+        StockReservationEngine reservationEngine = mock(StockReservationEngine.class, withSettings().stubOnly());
+        when(reservationEngine.reserve(anyString(), anyMap())).thenReturn(true);
+        when(reservationEngine.isLoaded()).thenReturn(true);
+        UserCompanyProductAuthRepository authRepository = mock(UserCompanyProductAuthRepository.class, withSettings().stubOnly());
+        when(authRepository.findSalesCompanyIds("C001")).thenReturn(List.of("S001"));
+        CompanyProductAuthCache authCache =
+            new CompanyProductAuthCache(authRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(30));
+        MessageSource messageSource = mock(MessageSource.class, withSettings().stubOnly());
+        when(messageSource.getMessage(anyString(), any(), any())).thenReturn("rejected");
+        // 購入承認表は構築しない（チャンクごとに購入可能な商品IDを検索する）
+        CompanyProductAuthMatrix authMatrix = new CompanyProductAuthMatrix(authRepository, productRepository, authCache,
+            mock(PlatformTransactionManager.class, withSettings().stubOnly()), Duration.ofMinutes(30));
+        VA0101CartImportService service = new VA0101CartImportService(reservationEngine, cartWriter, authMatrix,
+            messageSource, 1000, 100);
+
+        for (int round = 0; round < 3; round++) {
+            roundTrips.set(0);
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            long baseline = runtime.totalMemory() - runtime.freeMemory();
+            long[] peak = { baseline };
+            long start = System.nanoTime();
+            CartImportResultDto result;
+            try (InputStream in = new CsvInputStream(lines, () -> peak[0] = Math.max(peak[0],
+                    runtime.totalMemory() - runtime.freeMemory()))) {
+                result = service.importCsv("user01", "C001", in);
+            }
+            long elapsed = System.nanoTime() - start;
+            log.info("行数={}: {}ms, 受付={}, 不可={}, DB往復={}回, ヒープ増分(最大)={}KB",
+                lines, TimeUnit.NANOSECONDS.toMillis(elapsed), result.getAcceptedLines(), result.getRejectedLines(),
+                roundTrips.get(), (peak[0] - baseline) / 1024);
+        }
+    }
+
+    private static void roundTrip(long rttMicros, AtomicInteger roundTrips) {
+        roundTrips.incrementAndGet();
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(rttMicros));
+    }
+
+    /**
+     * 「商品ID,数量」の行を読み出し時に1行ずつ生成する入力ストリーム。
+     */
+    private static class CsvInputStream extends InputStream {
+
+        private final int lines;
+        private final Runnable onLine;
+        private int line = -1;
+        private byte[] current = "商品ID,数量\n".getBytes(StandardCharsets.UTF_8);
+        private int pos;
+
+        CsvInputStream(int lines, Runnable onLine) {
+            this.lines = lines;
+            this.onLine = onLine;
+        }
+
+        @Override
+        public int read() {
+            if (pos == current.length) {
+                if (++line >= lines) {
+                    return -1;
+                }
+                if (line % 1000 == 0) {
+                    onLine.run();
+                }
+                current = String.format("P%08d,%d%n", line, 1 + line % 5).getBytes(StandardCharsets.UTF_8);
+                pos = 0;
+            }
+            return current[pos++] & 0xff;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.sample.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.sample.cache.CartItemCountCache;
+import com.example.sample.cart.CartChangedEvent;
+import com.example.sample.cart.CartWriter;
+import com.example.sample.db.jpa.cart.CartLineView;
+import com.example.sample.db.jpa.cart.CartRepository;
+import com.example.sample.db.jpa.product.ProductChangedEvent;
+import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.service.CartSummaryService.CartLineDto;
+import com.example.sample.service.CartSummaryService.CartSummaryDto;
+import com.example.sample.stock.ProductStockTable;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * CartSummaryService の単体テスト。
+ */
+class CartSummaryServiceTest {
+
+    private CartRepository cartRepository;
+    private CartWriter cartWriter;
+    private CartItemCountCache countCache;
+    private ProductStockTable stockTable;
+    private CartSummaryService service;
+
+    @BeforeEach
+    void setUp() {
+        cartRepository = mock(CartRepository.class);
+        cartWriter = mock(CartWriter.class);
+        countCache = new CartItemCountCache(cartRepository, cartWriter, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        stockTable = new ProductStockTable(mock(ProductRepository.class), mock(PlatformTransactionManager.class),
+            Duration.ofSeconds(5), Duration.ofSeconds(10));
+        service = new CartSummaryService(cartRepository, cartWriter, countCache, stockTable);
+    }
+
+    @Test
+    void getSummary_1クエリの明細から最小通貨単位で合計する() {
+        when(cartRepository.findLinesByUserId("user01")).thenReturn(List.of(
+            new CartLineView("P001", "ノートパソコン", new BigDecimal("1234.50"), 2, 10),
+            new CartLineView("P002", "マウス", new BigDecimal("0.10"), 3, 20)));
+
+        CartSummaryDto summary = service.getSummary("user01");
+
+        assertThat(summary.getLines()).containsExactly(
+            new CartLineDto("P001", "ノートパソコン", 2, 123450, 246900, 10, true),
+            new CartLineDto("P002", "マウス", 3, 10, 30, 20, true));
+        assertThat(summary.getItemCount()).isEqualTo(5);
+        assertThat(summary.getTotalPriceMinor()).isEqualTo(246930);
+        assertThat(summary.getTotalPrice()).isEqualByComparingTo("2469.30");
+        // 未反映の追加を反映してから集計する
+        InOrder order = inOrder(cartWriter, cartRepository);
+        order.verify(cartWriter).flush("user01");
+        order.verify(cartRepository).findLinesByUserId("user01");
+    }
+
+    @Test
+    void getSummary_在庫表の在庫数で購入可否を判定する() {
+        when(cartRepository.findLinesByUserId("user01")).thenReturn(List.of(
+            new CartLineView("P001", "ノートパソコン", new BigDecimal("1234.50"), 2, 10),
+            new CartLineView("P002", "マウス", new BigDecimal("0.10"), 3, 20),
+            new CartLineView("P003", "キーボード", new BigDecimal("50.00"), 1, null)));
+        // TM_PRODUCT の値より在庫表の値を優先する
+        stockTable.onProductChanged(new ProductChangedEvent("P001", "ノートパソコン", "SC001", 1, false));
+
+        CartSummaryDto summary = service.getSummary("user01");
+
+        assertThat(summary.getLines()).extracting(CartLineDto::getStockQuantity, CartLineDto::isAvailable)
+            .containsExactly(tuple(1, false), tuple(20, true), tuple(null, false));
+    }
+
+    @Test
+    void getItemCount_カート変更までキャッシュから返す() {
+        when(cartRepository.sumQuantityByUserId("user01")).thenReturn(3L, 4L);
+
+        assertThat(service.getItemCount("user01")).isEqualTo(3);
+        assertThat(service.getItemCount("user01")).isEqualTo(3);
+        verify(cartRepository, times(1)).sumQuantityByUserId("user01");
+
+        countCache.onCartChanged(new CartChangedEvent("user01"));
+
+        assertThat(service.getItemCount("user01")).isEqualTo(4);
+        verify(cartRepository, times(2)).sumQuantityByUserId("user01");
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.sample.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.MessageSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.example.sample.cart.CartChangedEvent;
+import com.example.sample.cart.CartWriter;
+import com.example.sample.db.jpa.order.CheckoutLineView;
+import com.example.sample.db.jpa.order.OrderRepository;
+import com.example.sample.exception.ServiceException;
+import com.example.sample.service.CheckoutService.CheckoutResultDto;
+import com.example.sample.service.CheckoutService.ShortageDto;
+import com.example.sample.stock.ProductStockTable;
+import com.example.sample.stock.StockReservationEngine;
+
+/**
+ * CheckoutService の単体テスト。
+ */
+class CheckoutServiceTest {
+
+    private OrderRepository orderRepository;
+    private CartWriter cartWriter;
+    private ProductStockTable stockTable;
+    private StockReservationEngine reservationEngine;
+    private ApplicationEventPublisher eventPublisher;
+    private CheckoutService service;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        cartWriter = mock(CartWriter.class);
+        stockTable = mock(ProductStockTable.class);
+        reservationEngine = mock(StockReservationEngine.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        MessageSource messageSource = mock(MessageSource.class);
+        when(messageSource.getMessage(anyString(), any(), any())).thenAnswer(inv -> inv.getArgument(0));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        service = new CheckoutService(orderRepository, cartWriter, stockTable, reservationEngine, eventPublisher,
+            messageSource, transactionManager);
+    }
+
+    @Test
+    void checkout_在庫を減らし注文を登録してカートを削除する() {
+        when(orderRepository.lockCheckoutLines("user01")).thenReturn(List.of(
+            new CheckoutLineView("P001", 2, "ノートパソコン", new BigDecimal("1000.50"), 5),
+            new CheckoutLineView("P002", 1, "マウス", new BigDecimal("20.00"), 1)));
+        when(orderRepository.decrementStock(eq("user01"), any())).thenReturn(2);
+
+        CheckoutResultDto result = service.checkout("user01");
+
+        assertThat(result.isOrdered()).isTrue();
+        assertThat(result.getItemCount()).isEqualTo(3);
+        assertThat(result.getTotalPrice()).isEqualByComparingTo("2021.00");
+        assertThat(result.getShortages()).isEmpty();
+        InOrder order = inOrder(cartWriter, orderRepository, stockTable, reservationEngine, eventPublisher);
+        order.verify(cartWriter).flush("user01");
+        order.verify(orderRepository).lockCheckoutLines("user01");
+        order.verify(orderRepository).decrementStock(eq("user01"), any());
+        order.verify(orderRepository).insertOrder(eq(result.getOrderId()), eq("user01"), any());
+        order.verify(orderRepository).deleteCart("user01");
+        order.verify(stockTable).addStock("P001", -2);
+        order.verify(reservationEngine).release("user01", "P001");
+        order.verify(eventPublisher).publishEvent(new CartChangedEvent("user01"));
+    }
+
+    @Test
+    void checkout_在庫が不足する明細がある場合は何も更新せず不足する明細を返す() {
+        when(orderRepository.lockCheckoutLines("user01")).thenReturn(List.of(
+            new CheckoutLineView("P001", 2, "ノートパソコン", new BigDecimal("1000.50"), 1),
+            new CheckoutLineView("P002", 1, "マウス", new BigDecimal("20.00"), 1),
+            new CheckoutLineView("P003", 1, null, null, null)));
+
+        CheckoutResultDto result = service.checkout("user01");
+
+        assertThat(result.isOrdered()).isFalse();
+        assertThat(result.getShortages()).containsExactly(
+            new ShortageDto("P001", "ノートパソコン", 2, 1),
+            new ShortageDto("P003", null, 1, 0));
+        verify(orderRepository, never()).decrementStock(anyString(), any());
+        verify(orderRepository, never()).insertOrder(anyString(), anyString(), any());
+        verify(orderRepository, never()).deleteCart(anyString());
+        verify(reservationEngine, never()).release(anyString(), anyString());
+    }
+
+    @Test
+    void checkout_カートが空の場合はエラー() {
+        when(orderRepository.lockCheckoutLines("user01")).thenReturn(List.of());
+
+        assertThatThrownBy(() -> service.checkout("user01"))
+            .isInstanceOf(ServiceException.class)
+            .hasMessage("E_VA0101_004");
+    }
+}
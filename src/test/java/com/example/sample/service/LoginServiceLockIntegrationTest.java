@@ -0,0 +1,87 @@
+package com.example.sample.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sample.db.jpa.user.UserEntity;
+import com.example.sample.db.jpa.user.UserRepository;
+
+/**
+ * アカウントのロックが認証情報キャッシュに反映されることの確認（JPA の更新 → UserEntityListener →
+ * コミット後の UserCredentialCache の破棄）。
+ * <p>
+ * 実DBが必要なため、環境変数 SAMPLE_TEST_DB_URL（SAMPLE_TEST_DB_USER / SAMPLE_TEST_DB_PASSWORD）
+ * を指定した場合のみ実行する。テスト用ユーザの行のみ作成・削除する。
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "SAMPLE_TEST_DB_URL", matches = ".+")
+class LoginServiceLockIntegrationTest {
+
+    private static final String USER_ID = "test-lock-user";
+
+    @Autowired
+    private LoginService loginService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void dataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("SAMPLE_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("SAMPLE_TEST_DB_USER"));
+        registry.add("spring.datasource.password", () -> System.getenv("SAMPLE_TEST_DB_PASSWORD"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        deleteTestRow();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO SAMPLE.TM_USER (USER_ID, PASSWORD, USER_NAME, ROLE, ACCOUNT_LOCKED, DEL_FLG, "
+            + "CREATED_AT, UPDATED_AT) VALUES (?, ?, ?, ?, FALSE, FALSE, ?, ?)",
+            USER_ID, "{noop}test", "ロック確認", "ROLE_USER", now, now);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteTestRow();
+    }
+
+    @Test
+    void loadUserByUsername_リポジトリでロックをコミットした直後の認証試行を拒否する() {
+        // 認証情報をキャッシュに載せる
+        assertThat(loginService.loadUserByUsername(USER_ID).getUsername()).isEqualTo(USER_ID);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            UserEntity user = userRepository.findByUserId(USER_ID).orElseThrow();
+            user.setAccountLocked(true);
+            user.setUpdatedAt(LocalDateTime.now());
+        });
+
+        assertThatThrownBy(() -> loginService.loadUserByUsername(USER_ID))
+            .isInstanceOf(UsernameNotFoundException.class)
+            .hasMessageContaining("ロック");
+    }
+
+    private void deleteTestRow() {
+        jdbcTemplate.update("DELETE FROM SAMPLE.TM_USER WHERE USER_ID = ?", USER_ID);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.sample.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.example.sample.cache.UserCredentialCache;
+import com.example.sample.db.jpa.user.UserChangedEvent;
+import com.example.sample.db.jpa.user.UserCredentialView;
+import com.example.sample.db.jpa.user.UserEntity;
+import com.example.sample.db.jpa.user.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * LoginService の単体テスト。
+ */
+class LoginServiceTest {
+
+    private UserRepository userRepository;
+    private UserCredentialCache credentialCache;
+    private SimpleMeterRegistry meterRegistry;
+    private LoginService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        credentialCache = new UserCredentialCache(userRepository, meterRegistry, 100, Duration.ofMinutes(5));
+        service = new LoginService(credentialCache, new PasswordUpgradeService(userRepository));
+    }
+
+    @Test
+    void loadUserByUsername_2回目以降はDBを検索しない() {
+        when(userRepository.findCredentialByUserId("user01")).thenReturn(Optional.of(credential(false)));
+
+        for (int i = 0; i < 3; i++) {
+            UserDetails details = service.loadUserByUsername("user01");
+            assertThat(details.getPassword()).isEqualTo("{hash}");
+            assertThat(details.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        }
+
+        verify(userRepository, times(1)).findCredentialByUserId("user01");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", UserCredentialCache.CACHE_NAME).tag("result", "hit")
+            .functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void loadUserByUsername_ロックされたアカウントは次の認証試行で拒否する() {
+        when(userRepository.findCredentialByUserId("user01")).thenReturn(Optional.of(credential(false)));
+        service.loadUserByUsername("user01");
+
+        // ロック（コミット後にユーザ変更イベントを受ける）
+        when(userRepository.findCredentialByUserId("user01")).thenReturn(Optional.of(credential(true)));
+        credentialCache.onUserChanged(new UserChangedEvent("user01"));
+
+        assertThatThrownBy(() -> service.loadUserByUsername("user01"))
+            .isInstanceOf(UsernameNotFoundException.class)
+            .hasMessageContaining("ロック");
+    }
+
+    @Test
+    void loadUserByUsername_ロック前に読み込んだ値はロック後に登録しない() {
+        // DB 検索中にロックがコミットされた場合
+        when(userRepository.findCredentialByUserId("user01")).thenAnswer(inv -> {
+            credentialCache.onUserChanged(new UserChangedEvent("user01"));
+            return Optional.of(credential(false));
+        });
+        service.loadUserByUsername("user01");
+
+        when(userRepository.findCredentialByUserId("user01")).thenReturn(Optional.of(credential(true)));
+        assertThatThrownBy(() -> service.loadUserByUsername("user01"))
+            .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void loadUserByUsername_存在しないユーザは保持しない() {
+        when(userRepository.findCredentialByUserId("user99")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.loadUserByUsername("user99")).isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> service.loadUserByUsername("user99")).isInstanceOf(UsernameNotFoundException.class);
+
+        verify(userRepository, times(2)).findCredentialByUserId("user99");
+        assertThat(meterRegistry.find("cache.size").tag("cache", UserCredentialCache.CACHE_NAME).gauge().value())
+            .isZero();
+    }
+
+    @Test
+    void updatePassword_照合に使用したハッシュのままの場合のみ置き換える() {
+        UserEntity entity = user();
+        when(userRepository.findCredentialByUserId("user01")).thenReturn(Optional.of(credential(false)));
+        when(userRepository.findByUserId("user01")).thenReturn(Optional.of(entity));
+        UserDetails details = service.loadUserByUsername("user01");
+
+        UserDetails upgraded = service.updatePassword(details, "{new}");
+        assertThat(upgraded.getPassword()).isEqualTo("{new}");
+        assertThat(entity.getPassword()).isEqualTo("{new}");
+
+        // 照合後にパスワードが変更された場合は上書きしない
+        entity.setPassword("{changed}");
+        service.updatePassword(details, "{new2}");
+        assertThat(entity.getPassword()).isEqualTo("{changed}");
+    }
+
+    private static UserCredentialView credential(boolean locked) {
+        return new UserCredentialView("user01", "{hash}", "ROLE_USER", locked, false);
+    }
+
+    private static UserEntity user() {
+        LocalDateTime now = LocalDateTime.now();
+        return new UserEntity("user01", "{hash}", "ユーザ01", "ROLE_USER", false, false, now, now);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.sample.service;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.example.sample.db.jpa.product.ProductEntity;
+import com.example.sample.db.jpa.product.ProductSummaryView;
+import com.example.sample.service.VA0101Service.ProductSearchResultDto;
+import com.example.sample.util.ProductNameNormalizer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 商品検索結果の生成コスト計測ツール（テスト用）。
+ * <p>
+ * 1ページ分の検索結果について、以下の2経路のヒープ割り当て量と処理時間を比較する。
+ * <ul>
+ * <li>従来: ProductEntity（商品説明・登録/更新日時を含む）を生成し DTO に詰め替える</li>
+ * <li>射影: 表示列のみの ProductSummaryView から DTO を生成する</li>
+ * </ul>
+ * DBを使用しないため、JDBC から受け取る値（商品説明の文字列、日時）の生成までを計測対象とする。
+ * Hibernate の永続化コンテキスト（スナップショット、EntityEntry）と TEXT 列の転送量は含まないため、
+ * 実際の差はこれより大きくなる。
+ * <p>
+ * 実行例：
+ * <pre>
+ * java com.example.sample.service.ProductProjectionBenchmark 50 2000
+ * </pre>
+ */
+@Slf4j
+public class ProductProjectionBenchmark {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 20_000;
+
+    /**
+     * メインメソッド。
+     *
+     * @param args コマンドライン引数（args[0]に1ページの件数、args[1]に商品説明の文字数）
+     */
+    public static void main(String[] args) {
+        int pageSize = args.length > 0 ? Integer.parseInt(args[0]) : VA0101Service.PAGE_SIZE;
+        int descriptionLength = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        char[] description = new char[descriptionLength];
+        Arrays.fill(description, '説');
+
+        Supplier<List<ProductSearchResultDto>> entityPath = () -> {
+            List<ProductSearchResultDto> result = new ArrayList<>(pageSize);
+            for (int i = 0; i < pageSize; i++) {
+                ProductEntity p = new ProductEntity(
+                    "P" + i, "商品" + i, ProductNameNormalizer.normalize("商品" + i), "SC001", new BigDecimal("1000.00"), 10,
+                    new String(description), false, LocalDateTime.now(), LocalDateTime.now());
+                result.add(new ProductSearchResultDto(
+                    p.getProductId(), p.getProductName(), p.getCompanyId(), p.getPrice(), p.getStockQuantity()));
+            }
+            return result;
+        };
+        Supplier<List<ProductSearchResultDto>> projectionPath = () -> {
+            List<ProductSearchResultDto> result = new ArrayList<>(pageSize);
+            for (int i = 0; i < pageSize; i++) {
+                ProductSummaryView p = new ProductSummaryView(
+                    "P" + i, "商品" + i, "SC001", new BigDecimal("1000.00"), 10);
+                result.add(new ProductSearchResultDto(
+                    p.productId(), p.productName(), p.companyId(), p.price(), p.stockQuantity()));
+            }
+            return result;
+        };
+
+        measure("従来（エンティティ）", entityPath, pageSize);
+        measure("射影（ビュー）", projectionPath, pageSize);
+    }
+
+    private static void measure(String label, Supplier<List<ProductSearchResultDto>> path, int pageSize) {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += path.get().size();
+        }
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += path.get().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        log.info("{}: 1ページ({}件)あたり 割り当て={}KB, 時間={}us (checksum={})",
+            label, pageSize, allocated / ITERATIONS / 1024, elapsed / ITERATIONS / 1000, sink);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.sample.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.MessageSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.sample.auth.CompanyProductAuthMatrix;
+import com.example.sample.cache.CompanyProductAuthCache;
+import com.example.sample.cart.CartWriter;
+import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.db.jpa.usercompanyproductauth.UserCompanyProductAuthRepository;
+import com.example.sample.service.VA0101CartImportService.CartImportResultDto;
+import com.example.sample.service.VA0101CartImportService.RejectedLineDto;
+import com.example.sample.stock.StockReservationEngine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * VA0101CartImportService の単体テスト。
+ */
+class VA0101CartImportServiceTest {
+
+    private ProductRepository productRepository;
+    private StockReservationEngine reservationEngine;
+    private CartWriter cartWriter;
+    private VA0101CartImportService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        reservationEngine = mock(StockReservationEngine.class);
+        cartWriter = mock(CartWriter.class);
+        UserCompanyProductAuthRepository authRepository = mock(UserCompanyProductAuthRepository.class);
+        when(authRepository.findSalesCompanyIds("C001")).thenReturn(List.of("S001"));
+        CompanyProductAuthCache authCache =
+            new CompanyProductAuthCache(authRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(30));
+        MessageSource messageSource = mock(MessageSource.class);
+        when(messageSource.getMessage(anyString(), any(), any())).thenAnswer(inv -> inv.getArgument(0));
+        // P9 以外は購入可能
+        when(productRepository.findAvailableProductIds(anyCollection(), anyCollection())).thenAnswer(inv ->
+            ((Collection<String>) inv.getArgument(0)).stream().filter(id -> !id.equals("P9")).toList());
+        when(reservationEngine.reserve(anyString(), anyMap())).thenReturn(true);
+        when(reservationEngine.isLoaded()).thenReturn(true);
+        // 購入承認表の構築前（DB 検索で判定する）
+        CompanyProductAuthMatrix authMatrix = new CompanyProductAuthMatrix(authRepository, productRepository, authCache,
+            mock(PlatformTransactionManager.class), Duration.ofMinutes(30));
+        service = new VA0101CartImportService(reservationEngine, cartWriter, authMatrix, messageSource, 2, 100);
+    }
+
+    private CartImportResultDto importCsv(String csv) throws Exception {
+        return service.importCsv("user01", "C001", new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void importCsv_チャンクごとに検証し商品ごとに合算して追加する() throws Exception {
+        CartImportResultDto result = importCsv("\uFEFF商品ID,数量\nP1,2\n\"P2\",1\nP1,3\n\nP3\n");
+
+        assertThat(result.getAcceptedLines()).isEqualTo(4);
+        assertThat(result.getRejectedLines()).isZero();
+        assertThat(result.getAcceptedQuantity()).isEqualTo(7);
+        verify(productRepository, times(2)).findAvailableProductIds(anyCollection(), eq(Set.of("S001")));
+        verify(cartWriter).add("user01", Map.of("P1", 2, "P2", 1));
+        verify(cartWriter).add("user01", Map.of("P1", 3, "P3", 1));
+    }
+
+    @Test
+    void importCsv_不正な行と購入できない商品と在庫不足の行を理由とともに返す() throws Exception {
+        when(reservationEngine.reserve("user01", Map.of("P4", 5))).thenReturn(false);
+
+        CartImportResultDto result = importCsv("P1,1\nP2,0\nP3,abc\n,1\nP9,1\nP4,5\nP5,1,x\nP6,10000\n");
+
+        assertThat(result.getAcceptedLines()).isEqualTo(1);
+        assertThat(result.getRejectedLines()).isEqualTo(7);
+        assertThat(result.getRejected()).containsExactly(
+            new RejectedLineDto(2, "P2", "W_VA0101_002"),
+            new RejectedLineDto(3, "P3", "W_VA0101_002"),
+            new RejectedLineDto(4, null, "W_VA0101_001"),
+            new RejectedLineDto(5, "P9", "W_VA0101_003"),
+            new RejectedLineDto(7, "P5", "W_VA0101_001"),
+            new RejectedLineDto(8, "P6", "W_VA0101_002"),
+            new RejectedLineDto(6, "P4", "E_VA0101_002"));
+        verify(cartWriter).add("user01", Map.of("P1", 1));
+    }
+}
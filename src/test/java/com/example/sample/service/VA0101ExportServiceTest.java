@@ -0,0 +1,165 @@
+package com.example.sample.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.sample.cache.CompanyProductAuthCache;
+import com.example.sample.db.jpa.product.ProductEntity;
+import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.db.jpa.usercompanyproductauth.UserCompanyProductAuthRepository;
+import com.example.sample.export.ProductExportFormat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * VA0101ExportService の単体テスト。
+ * <p>
+ * 100万件の商品を生成しながら出力し、出力件数とヒープ使用量が増え続けないことを検証する。
+ */
+class VA0101ExportServiceTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int SAMPLE_INTERVAL = 100_000;
+    /** 100万件を保持した場合は数百MBとなるため、これを超えて増えたら行を溜めているとみなす */
+    private static final long MAX_HEAP_GROWTH = 32L * 1024 * 1024;
+
+    private ProductRepository productRepository;
+    private AtomicLong detached;
+    private VA0101ExportService service;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        UserCompanyProductAuthRepository authRepository = mock(UserCompanyProductAuthRepository.class);
+        when(authRepository.findSalesCompanyIds("C001")).thenReturn(List.of("SC001"));
+        CompanyProductAuthCache authCache =
+            new CompanyProductAuthCache(authRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(30));
+
+        // 呼び出し履歴を記録しないモック（100万回分の記録でヒープを消費しないように）
+        EntityManager entityManager = mock(EntityManager.class, withSettings().stubOnly());
+        detached = new AtomicLong();
+        doAnswer(invocation -> detached.incrementAndGet()).when(entityManager).detach(any());
+
+        service = new VA0101ExportService(productRepository, authCache, entityManager);
+    }
+
+    @Test
+    void exportProducts_100万件をヒープを増やさずに出力する() throws Exception {
+        long[] baseline = new long[1];
+        long[] maxGrowth = new long[1];
+        Stream<ProductEntity> products = IntStream.range(0, ROWS).mapToObj(i -> {
+            if (i % SAMPLE_INTERVAL == 0) {
+                long used = usedHeapAfterGc();
+                if (i == 0) {
+                    baseline[0] = used;
+                } else {
+                    maxGrowth[0] = Math.max(maxGrowth[0], used - baseline[0]);
+                }
+            }
+            return product(i);
+        });
+        when(productRepository.streamBySalesCompanyIds(any(), any())).thenReturn(products);
+        CountingOutputStream out = new CountingOutputStream();
+
+        long count = service.exportProducts("C001", null, false, ProductExportFormat.CSV, out);
+
+        assertThat(count).isEqualTo(ROWS);
+        assertThat(out.lines).isEqualTo(ROWS + 1L);
+        assertThat(detached.get()).isEqualTo(ROWS);
+        assertThat(maxGrowth[0]).isLessThan(MAX_HEAP_GROWTH);
+    }
+
+    @Test
+    void exportProducts_CSVは特殊文字をクォートする() throws Exception {
+        ProductEntity product = product(1);
+        product.setProductName("ノート, \"A4\"");
+        when(productRepository.streamBySalesCompanyIds(any(), any())).thenReturn(Stream.of(product));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.exportProducts("C001", "", false, ProductExportFormat.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+            "\uFEFF商品ID,商品名,販売会社ID,価格,在庫数,説明\r\n"
+            + "P0000001,\"ノート, \"\"A4\"\"\",SC001,1000.00,10,\r\n");
+    }
+
+    @Test
+    void exportProducts_JSON配列で出力する() throws Exception {
+        when(productRepository.streamBySalesCompanyIds(any(), any())).thenReturn(Stream.of(product(1), product(2)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.exportProducts("C001", null, false, ProductExportFormat.JSON, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+            "[{\"productId\":\"P0000001\",\"productName\":\"商品1\",\"companyId\":\"SC001\","
+            + "\"price\":1000.00,\"stockQuantity\":10,\"description\":null},"
+            + "{\"productId\":\"P0000002\",\"productName\":\"商品2\",\"companyId\":\"SC001\","
+            + "\"price\":1000.00,\"stockQuantity\":10,\"description\":null}]");
+    }
+
+    @Test
+    void exportProducts_購入可能な販売会社がなければヘッダのみ出力する() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(service.exportProducts("C999", null, false, ProductExportFormat.JSON, out)).isZero();
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    private static ProductEntity product(int i) {
+        ProductEntity product = new ProductEntity();
+        product.setProductId(String.format("P%07d", i));
+        product.setProductName("商品" + i);
+        product.setCompanyId("SC001");
+        product.setPrice(new BigDecimal("1000.00"));
+        product.setStockQuantity(10);
+        return product;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * 書き込まれたバイトを保持せず、改行数だけを数える出力ストリーム。
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.sample.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.MessageSource;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.sample.auth.CompanyProductAuthMatrix;
+import com.example.sample.cache.CompanyProductAuthCache;
+import com.example.sample.cache.ProductSearchResultCache;
+import com.example.sample.cart.CartWriter;
+import com.example.sample.db.jpa.product.ProductChangedEvent;
+import com.example.sample.db.jpa.product.ProductRepository;
+import com.example.sample.db.jpa.product.ProductSummaryView;
+import com.example.sample.db.jpa.usercompany.UserCompanyRepository;
+import com.example.sample.db.jpa.usercompanyproductauth.CompanyProductAuthChangedEvent;
+import com.example.sample.db.jpa.usercompanyproductauth.UserCompanyProductAuthRepository;
+import com.example.sample.exception.ServiceException;
+import com.example.sample.recommend.AlsoAddedRecommender;
+import com.example.sample.search.JpqlProductSearchEngine;
+import com.example.sample.search.KeysetPageRequest;
+import com.example.sample.search.ProductNameSuggester;
+import com.example.sample.stock.ProductStockTable;
+import com.example.sample.stock.StockReservationEngine;
+import com.example.sample.service.VA0101Service.ProductSearchPageDto;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * VA0101Service の単体テスト。
+ * <p>
+ * リポジトリをモック化し、検索1回あたりに発行されるクエリ数とページングを検証する。
+ */
+class VA0101ServiceTest {
+
+    private static final KeysetPageRequest FIRST = KeysetPageRequest.first(2);
+
+    private ProductRepository productRepository;
+    private CartWriter cartWriter;
+    private UserCompanyProductAuthRepository authRepository;
+    private CompanyProductAuthCache authCache;
+    private CompanyProductAuthMatrix authMatrix;
+    private ProductSearchResultCache resultCache;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductStockTable stockTable;
+    private StockReservationEngine reservationEngine;
+    private VA0101Service service;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        cartWriter = mock(CartWriter.class);
+        authRepository = mock(UserCompanyProductAuthRepository.class);
+        authCache = new CompanyProductAuthCache(authRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(30));
+        meterRegistry = new SimpleMeterRegistry();
+        resultCache = new ProductSearchResultCache(meterRegistry, 100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        stockTable = new ProductStockTable(productRepository, mock(PlatformTransactionManager.class),
+            Duration.ofSeconds(5), Duration.ofSeconds(10));
+        reservationEngine = mock(StockReservationEngine.class);
+        when(reservationEngine.reserve(any(), any())).thenReturn(true);
+        authMatrix = mock(CompanyProductAuthMatrix.class);
+        when(authMatrix.filterAuthorized(any(), any()))
+            .thenAnswer(inv -> new HashSet<>(inv.<Collection<String>>getArgument(1)));
+        service = new VA0101Service(new JpqlProductSearchEngine(productRepository), mock(ProductNameSuggester.class),
+            stockTable, reservationEngine, productRepository, cartWriter, mock(UserCompanyRepository.class), authCache,
+            authMatrix, resultCache, mock(AlsoAddedRecommender.class), mock(MessageSource.class));
+
+        when(authRepository.findSalesCompanyIds("C001")).thenReturn(List.of("SC001", "SC002"));
+        when(productRepository.findPageAfterBySalesCompanyIds(any(), any(), any(), any()))
+            .thenReturn(List.of(product("P001", "SC001")));
+    }
+
+    @Test
+    void suggestProductNames_購入承認表の構築前はDBにアクセスせず候補なしを返す() {
+        assertThat(service.suggestProductNames("C001", "ノート")).isEmpty();
+        assertThat(service.suggestProductNames(null, "ノート")).isEmpty();
+
+        verifyNoInteractions(authRepository, productRepository);
+    }
+
+    @Test
+    void searchProducts_同じ検索の繰り返しはキャッシュから返す() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.searchProducts("C001", " ノート ", false, FIRST).getProducts()).hasSize(1);
+        }
+
+        verify(authRepository, times(1)).findSalesCompanyIds("C001");
+        verify(productRepository, times(1)).findPageAfterBySalesCompanyIds(any(), any(), any(), any());
+    }
+
+    @Test
+    void searchProducts_商品名は正規化した検索キーで検索する() {
+        service.searchProducts("C001", "ﾉｰﾄ", false, FIRST);
+        service.searchProducts("C001", "のーと", false, FIRST);
+        service.searchProducts("C001", " ＰＣ_1 ", true, FIRST);
+
+        // 半角カナ・ひらがなは同じ検索キーとなりキャッシュを共有する
+        verify(productRepository, times(1)).findPageAfterBySalesCompanyIds(any(), eq("%ノート%"), eq(null), any());
+        // 前方一致は末尾のみワイルドカード、検索語中の LIKE ワイルドカードはエスケープする
+        verify(productRepository, times(1)).findPageAfterBySalesCompanyIds(any(), eq("pc!_1%"), eq(null), any());
+    }
+
+    @Test
+    void searchProducts_同時に同じ検索をしても商品検索SQLは1回のみ実行する() throws Exception {
+        int parallelism = 50;
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findPageAfterBySalesCompanyIds(any(), any(), any(), any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return List.of(product("P001", "SC001"));
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<ProductSearchPageDto>> results = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                results.add(pool.submit(() -> service.searchProducts("C001", "ノート", false, FIRST)));
+            }
+            // 先頭の1件が検索中の間に、残り全てが合流するまで待ってから検索を完了させる
+            FunctionCounter coalesced = meterRegistry.get("cache.load.coalesced").functionCounter();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (coalesced.count() < parallelism - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            ProductSearchPageDto first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<ProductSearchPageDto> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isSameAs(first);
+            }
+            assertThat(coalesced.count()).isEqualTo(parallelism - 1);
+            verify(productRepository, times(1)).findPageAfterBySalesCompanyIds(any(), any(), any(), any());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void searchProducts_同時に実行中の検索が失敗した場合は全員に同じ例外を返す() throws Exception {
+        int parallelism = 10;
+        CountDownLatch release = new CountDownLatch(1);
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("DB停止");
+        when(productRepository.findPageAfterBySalesCompanyIds(any(), any(), any(), any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            throw failure;
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<ProductSearchPageDto>> results = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                results.add(pool.submit(() -> service.searchProducts("C001", "ノート", false, FIRST)));
+            }
+            FunctionCounter coalesced = meterRegistry.get("cache.load.coalesced").functionCounter();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (coalesced.count() < parallelism - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            for (Future<ProductSearchPageDto> result : results) {
+                assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS)).hasCause(failure);
+            }
+            verify(productRepository, times(1)).findPageAfterBySalesCompanyIds(any(), any(), any(), any());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void searchProducts_検索対象の販売会社の商品が変更されたら再検索する() {
+        service.searchProducts("C001", "ノート", false, FIRST);
+        resultCache.onProductChanged(new ProductChangedEvent("P009", "ノート", "SC003", 10, false));
+        service.searchProducts("C001", "ノート", false, FIRST);
+        resultCache.onProductChanged(new ProductChangedEvent("P002", "ノート", "SC002", 10, false));
+        service.searchProducts("C001", "ノート", false, FIRST);
+
+        // SC003 は C001 の検索対象外のため破棄されない
+        verify(productRepository, times(2)).findPageAfterBySalesCompanyIds(any(), any(), any(), any());
+    }
+
+    @Test
+    void searchProducts_承認マスタ変更後は再取得する() {
+        service.searchProducts("C001", null, false, FIRST);
+        authCache.onCompanyProductAuthChanged(new CompanyProductAuthChangedEvent("C001", "SC003"));
+        resultCache.onCompanyProductAuthChanged(new CompanyProductAuthChangedEvent("C001", "SC003"));
+        service.searchProducts("C001", null, false, FIRST);
+
+        verify(authRepository, times(2)).findSalesCompanyIds("C001");
+        verify(productRepository, times(2)).findPageAfterBySalesCompanyIds(any(), any(), any(), any());
+    }
+
+    @Test
+    void searchProducts_購入可能な販売会社がなければ商品検索しない() {
+        when(authRepository.findSalesCompanyIds("C999")).thenReturn(List.of());
+
+        assertThat(service.searchProducts("C999", "ペン", false, FIRST).getProducts()).isEmpty();
+
+        verify(productRepository, never()).findPageAfterBySalesCompanyIds(any(), any(), any(), any());
+    }
+
+    @Test
+    void searchProducts_1件多く取得できた場合は次ページのカーソルを返す() {
+        when(productRepository.findPageAfterBySalesCompanyIds(any(), any(), eq(null), eq(Limit.of(3))))
+            .thenReturn(List.of(product("P001", "SC001"), product("P002", "SC001"), product("P003", "SC002")));
+
+        ProductSearchPageDto page = service.searchProducts("C001", null, false, FIRST);
+
+        assertThat(page.getProducts()).extracting("productId").containsExactly("P001", "P002");
+        assertThat(page.getNextCursor()).isEqualTo("P002");
+        assertThat(page.getPrevCursor()).isNull();
+    }
+
+    @Test
+    void searchProducts_前ページは商品ID昇順に並べ直して返す() {
+        when(productRepository.findPageBeforeBySalesCompanyIds(any(), any(), eq("P005"), eq(Limit.of(3))))
+            .thenReturn(List.of(product("P004", "SC001"), product("P003", "SC001")));
+
+        ProductSearchPageDto page = service.searchProducts("C001", null, false, KeysetPageRequest.before("P005", 2));
+
+        assertThat(page.getProducts()).extracting("productId").containsExactly("P003", "P004");
+        assertThat(page.getNextCursor()).isEqualTo("P004");
+        assertThat(page.getPrevCursor()).isNull();
+    }
+
+    @Test
+    void searchProducts_在庫数は在庫表の最新値を表示する() {
+        ProductSearchPageDto cached = service.searchProducts("C001", "ノート", false, FIRST);
+        assertThat(cached.getProducts().get(0).getStockQuantity()).isEqualTo(10);
+
+        // キャッシュ済みの検索結果にも反映する（商品変更イベントによるキャッシュ破棄を待たない）
+        stockTable.onProductChanged(new ProductChangedEvent("P001", "ノートパソコン", "SC001", 7, false));
+        ProductSearchPageDto current = service.searchProducts("C001", "ノート", false, FIRST);
+        assertThat(current.getProducts().get(0).getStockQuantity()).isEqualTo(7);
+        verify(productRepository, times(1)).findPageAfterBySalesCompanyIds(any(), any(), any(), any());
+        // キャッシュで共有する検索結果は書き換えない
+        assertThat(cached.getProducts().get(0).getStockQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void getProductDescription_購入可能な販売会社に絞って商品説明のみ取得する() {
+        when(productRepository.findDescription(eq("P001"), any())).thenReturn(Optional.of("説明"));
+
+        assertThat(service.getProductDescription("C001", "P001")).isEqualTo("説明");
+        assertThat(service.getProductDescription("C999", "P001")).isNull();
+
+        verify(productRepository, times(1)).findDescription(eq("P001"), eq(Set.of("SC001", "SC002")));
+    }
+
+    @Test
+    void addToCart_同じ商品の指定をまとめて1回で追加する() {
+        service.addToCart("user01", "C001", new String[] { "P001", "P002", "P003", "P001" });
+
+        // 同じ商品を複数指定した場合は指定回数分を加算する
+        verify(cartWriter, times(1)).add(eq("user01"), eq(Map.of("P001", 2, "P002", 1, "P003", 1)));
+    }
+
+    @Test
+    void addToCart_在庫を引き当てられない場合はカートに追加しない() {
+        when(reservationEngine.reserve(eq("user01"), any())).thenReturn(false);
+
+        assertThatThrownBy(() -> service.addToCart("user01", "C001", new String[] { "P001" }))
+            .isInstanceOf(ServiceException.class);
+
+        verify(reservationEngine).reserve(eq("user01"), eq(Map.of("P001", 1)));
+        verify(cartWriter, never()).add(any(), any());
+    }
+
+    @Test
+    void addToCart_購入できない商品を含む場合は在庫を引き当てずに追加しない() {
+        doReturn(Set.of("P001")).when(authMatrix).filterAuthorized(eq("C001"), any());
+
+        assertThatThrownBy(() -> service.addToCart("user01", "C001", new String[] { "P001", "P002" }))
+            .isInstanceOf(ServiceException.class)
+            .extracting("errorCode").isEqualTo("E_VA0101_005");
+
+        verify(reservationEngine, never()).reserve(any(), any());
+        verify(cartWriter, never()).add(any(), any());
+    }
+
+    private static ProductSummaryView product(String productId, String companyId) {
+        return new ProductSummaryView(productId, "ノートパソコン", companyId, new BigDecimal("1000.00"), 10);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.sample.stock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 在庫引当の負荷・整合性確認ツール（テスト用）。
+ * <p>
+ * 多数のスレッドが同じ1商品に対して引当・取消・解除を繰り返し、同時に期限切れの解除も実行する。
+ * 1秒あたりの操作回数と、以下の不変条件の違反件数を出力する。
+ * <ul>
+ * <li>実行中: 引当済み数量の合計 ≦ 在庫数（監視スレッドで常時確認）</li>
+ * <li>終了後: 引当済み数量の合計 ＝ ユーザごとの予約数量の和</li>
+ * </ul>
+ * <p>
+ * 実行例：
+ * <pre>
+ * java com.example.sample.stock.StockReservationBenchmark 2000 500
+ * </pre>
+ */
+@Slf4j
+public class StockReservationBenchmark {
+
+    private static final String HOT_PRODUCT = "HOT";
+    private static final long DURATION_MILLIS = 5000;
+    private static final long TTL_MILLIS = 50;
+
+    /**
+     * メインメソッド。
+     *
+     * @param args コマンドライン引数（スレッド数、在庫数。省略時は2000, 500）
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int stock = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        StockReservations reservations = new StockReservations();
+        LongAdder reserved = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder released = new LongAdder();
+        LongAdder violations = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String userId = "user" + t;
+            Thread worker = new Thread(() -> {
+                awaitQuietly(start);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    int quantity = 1 + random.nextInt(3);
+                    long expiresAt = System.currentTimeMillis() + TTL_MILLIS;
+                    if (!reservations.reserve(userId, HOT_PRODUCT, quantity, stock, expiresAt)) {
+                        rejected.increment();
+                        Thread.yield();
+                        continue;
+                    }
+                    reserved.increment();
+                    int action = random.nextInt(3);
+                    if (action == 0) {
+                        reservations.unreserve(userId, HOT_PRODUCT, quantity);
+                        released.increment();
+                    } else if (action == 1) {
+                        reservations.release(userId, HOT_PRODUCT);
+                        released.increment();
+                    }
+                    // 残りは期限切れで解除される
+                }
+            }, "reserve-" + t);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        Thread monitor = new Thread(() -> {
+            while (running.get()) {
+                if (reservations.reserved(HOT_PRODUCT) > stock) {
+                    violations.increment();
+                }
+                reservations.expire(System.currentTimeMillis());
+                Thread.onSpinWait();
+            }
+        }, "reserve-monitor");
+        monitor.setDaemon(true);
+        monitor.start();
+
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(DURATION_MILLIS);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        monitor.join();
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        int sum = 0;
+        for (int t = 0; t < threads; t++) {
+            StockReservations.Reservation r = reservations.get("user" + t, HOT_PRODUCT);
+            sum += r == null ? 0 : r.quantity();
+        }
+        int total = reservations.reserved(HOT_PRODUCT);
+        if (total != sum || total > stock) {
+            violations.increment();
+        }
+        long ops = reserved.sum() + rejected.sum() + released.sum();
+        log.info("スレッド数={}, 在庫数={}: 引当 {}/s, 在庫不足 {}/s, 取消・解除 {}/s, 合計 {} ops/s",
+            threads, stock, (long) (reserved.sum() / seconds), (long) (rejected.sum() / seconds),
+            (long) (released.sum() / seconds), (long) (ops / seconds));
+        log.info("終了時: 引当済み合計={}, 予約の和={}, 不変条件違反={}", total, sum, violations.sum());
+        if (violations.sum() > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.sample.stock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.sample.db.jpa.product.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * StockReservationEngine の単体テスト（DB の予約の読み込み）。
+ */
+class StockReservationEngineTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private StockReservationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        ProductStockTable productStockTable = mock(ProductStockTable.class);
+        when(productStockTable.getStock(anyString())).thenReturn(5);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        engine = new StockReservationEngine(productStockTable, mock(ProductRepository.class), jdbcTemplate,
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), Duration.ofMinutes(30),
+            Duration.ofSeconds(1));
+    }
+
+    @Test
+    void reserve_DBの予約の読み込み前は引当を受け付けない() {
+        assertThatThrownBy(() -> engine.reserve("user01", Map.of("P001", 1)))
+            .isInstanceOf(StockReservationUnavailableException.class);
+    }
+
+    @Test
+    void reserve_読み込んだ予約を含めて在庫数を超えない() {
+        whenLoad().thenAnswer(inv -> List.of(savedReservation(inv.getArgument(1), "user01", "P001", 4)));
+
+        engine.afterSingletonsInstantiated();
+
+        assertThat(engine.isLoaded()).isTrue();
+        assertThat(engine.reserve("user02", Map.of("P001", 2))).isFalse();
+        assertThat(engine.reserve("user02", Map.of("P001", 1))).isTrue();
+        assertThat(engine.getAvailable("P001")).isZero();
+    }
+
+    @Test
+    void loadQuietly_読み込みに失敗した場合は再試行するまで引当を受け付けない() {
+        whenLoad().thenThrow(new DataAccessResourceFailureException("DB停止"))
+            .thenAnswer(inv -> List.of(savedReservation(inv.getArgument(1), "user01", "P001", 4)));
+
+        engine.afterSingletonsInstantiated();
+        assertThat(engine.isLoaded()).isFalse();
+        assertThatThrownBy(() -> engine.reserve("user01", Map.of("P001", 1)))
+            .isInstanceOf(StockReservationUnavailableException.class);
+
+        engine.loadQuietly();
+        assertThat(engine.isLoaded()).isTrue();
+        assertThat(engine.getAvailable("P001")).isEqualTo(1);
+    }
+
+    private OngoingStubbing<List<Object>> whenLoad() {
+        return when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Timestamp.class)));
+    }
+
+    /**
+     * 読み込みの RowMapper で1行を変換する。
+     */
+    private static Object savedReservation(RowMapper<?> rowMapper, String userId, String productId, int quantity)
+            throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn(userId);
+        when(rs.getString(2)).thenReturn(productId);
+        when(rs.getInt(3)).thenReturn(quantity);
+        when(rs.getTimestamp(4)).thenReturn(new Timestamp(Long.MAX_VALUE / 2));
+        return rowMapper.mapRow(rs, 0);
+    }
+}
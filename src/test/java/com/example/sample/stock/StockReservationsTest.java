@@ -0,0 +1,119 @@
+package com.example.sample.stock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sample.db.jpa.cart.CartId;
+
+/**
+ * StockReservations の単体テスト。
+ */
+class StockReservationsTest {
+
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private final StockReservations reservations = new StockReservations();
+
+    @Test
+    void reserve_在庫数を超える引当は失敗する() {
+        assertThat(reservations.reserve("user01", "P001", 3, 5, NO_EXPIRY)).isTrue();
+        assertThat(reservations.reserve("user02", "P001", 3, 5, NO_EXPIRY)).isFalse();
+        assertThat(reservations.reserve("user02", "P001", 2, 5, NO_EXPIRY)).isTrue();
+        assertThat(reservations.reserve("user01", "P001", 2, 5, NO_EXPIRY)).isFalse();
+
+        assertThat(reservations.reserved("P001")).isEqualTo(5);
+        assertThat(reservations.get("user01", "P001").quantity()).isEqualTo(3);
+    }
+
+    @Test
+    void restore_既にある予約は二重に数えない() {
+        assertThat(reservations.restore("user01", "P001", 2, NO_EXPIRY)).isTrue();
+        assertThat(reservations.reserve("user02", "P001", 1, 5, NO_EXPIRY)).isTrue();
+
+        assertThat(reservations.restore("user02", "P001", 1, NO_EXPIRY)).isFalse();
+
+        assertThat(reservations.reserved("P001")).isEqualTo(3);
+        assertThat(reservations.get("user02", "P001").quantity()).isEqualTo(1);
+        // 読み込んだ予約は DB に反映済みのため変更として記録しない
+        assertThat(reservations.drainDirty()).containsOnlyKeys(new CartId("user02", "P001"));
+    }
+
+    @Test
+    void reserve_同じ商品への同時引当でも在庫数を超えない() throws Exception {
+        int stock = 1000;
+        int threads = 16;
+        int attemptsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                String userId = "user" + t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int succeeded = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (reservations.reserve(userId, "HOT", 1, stock, NO_EXPIRY)) {
+                            succeeded++;
+                        }
+                        assertThat(reservations.reserved("HOT")).isLessThanOrEqualTo(stock);
+                    }
+                    return succeeded;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get();
+            }
+
+            assertThat(total).isEqualTo(stock);
+            assertThat(reservations.reserved("HOT")).isEqualTo(stock);
+            int sum = 0;
+            for (int t = 0; t < threads; t++) {
+                StockReservations.Reservation r = reservations.get("user" + t, "HOT");
+                sum += r == null ? 0 : r.quantity();
+            }
+            assertThat(sum).isEqualTo(stock);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void unreserve_release_expire_解除した数量を引当済みから減らす() {
+        reservations.reserve("user01", "P001", 3, 10, 1_000);
+        reservations.reserve("user02", "P001", 2, 10, 5_000);
+        reservations.reserve("user03", "P001", 1, 10, NO_EXPIRY);
+
+        assertThat(reservations.unreserve("user01", "P001", 1)).isEqualTo(1);
+        assertThat(reservations.release("user03", "P001")).isEqualTo(1);
+        assertThat(reservations.expire(2_000)).isEqualTo(1);
+
+        assertThat(reservations.reserved("P001")).isEqualTo(2);
+        assertThat(reservations.get("user01", "P001")).isNull();
+        assertThat(reservations.size()).isEqualTo(1);
+    }
+
+    @Test
+    void drainDirty_変更された予約と解除された予約を1回だけ返す() {
+        reservations.reserve("user01", "P001", 1, 10, NO_EXPIRY);
+        reservations.reserve("user02", "P001", 1, 10, NO_EXPIRY);
+        reservations.release("user02", "P001");
+
+        var changes = reservations.drainDirty();
+
+        assertThat(changes).hasSize(2);
+        assertThat(changes.get(new CartId("user01", "P001")).quantity()).isEqualTo(1);
+        assertThat(changes).containsEntry(new CartId("user02", "P001"), null);
+        assertThat(reservations.drainDirty()).isEmpty();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.sample.stock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 在庫表の性能計測ツール（テスト用）。
+ * <p>
+ * 参照スレッドと更新スレッドを同時に実行し、{@link StockTable} と
+ * ConcurrentHashMap&lt;String, Integer&gt;（在庫数を Integer で保持する場合）の
+ * 1秒あたりの参照・更新回数を出力する。
+ * <p>
+ * 実行例：
+ * <pre>
+ * java com.example.sample.stock.StockTableBenchmark 100000 8 2
+ * </pre>
+ */
+@Slf4j
+public class StockTableBenchmark {
+
+    private static final long DURATION_MILLIS = 3000;
+
+    /**
+     * メインメソッド。
+     *
+     * @param args コマンドライン引数（商品件数、参照スレッド数、更新スレッド数。省略時は100000, 8, 2）
+     */
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int writers = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        String[] productIds = new String[count];
+        StockTable table = new StockTable();
+        Map<String, Integer> map = new ConcurrentHashMap<>();
+        for (int i = 0; i < count; i++) {
+            productIds[i] = String.format("P%08d", i);
+            table.set(productIds[i], 1000);
+            map.put(productIds[i], 1000);
+        }
+
+        for (int round = 0; round < 2; round++) {
+            run("StockTable", readers, writers, productIds,
+                id -> table.get(id),
+                id -> table.addAndGet(id, ThreadLocalRandom.current().nextBoolean() ? 1 : -1));
+            run("ConcurrentHashMap", readers, writers, productIds,
+                id -> map.get(id),
+                id -> map.merge(id, ThreadLocalRandom.current().nextBoolean() ? 1 : -1, Integer::sum));
+        }
+    }
+
+    private static void run(String name, int readers, int writers, String[] productIds,
+            ToIntFunction<String> read, Consumer<String> write)
+            throws InterruptedException {
+        LongAdder reads = new LongAdder();
+        LongAdder writes = new LongAdder();
+        long[] sink = new long[readers];
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        ExecutorService pool = Executors.newFixedThreadPool(readers + writers);
+        for (int t = 0; t < readers; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long n = 0;
+                long sum = 0;
+                while ((n & 0xFFF) != 0 || System.currentTimeMillis() < deadline) {
+                    sum += read.applyAsInt(productIds[random.nextInt(productIds.length)]);
+                    n++;
+                }
+                reads.add(n);
+                sink[thread] = sum;
+            });
+        }
+        for (int t = 0; t < writers; t++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long n = 0;
+                while ((n & 0xFFF) != 0 || System.currentTimeMillis() < deadline) {
+                    write.accept(productIds[random.nextInt(productIds.length)]);
+                    n++;
+                }
+                writes.add(n);
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        log.info("{}: 参照={}万回/秒, 更新={}万回/秒", name,
+            reads.sum() * 1000 / DURATION_MILLIS / 10_000, writes.sum() * 1000 / DURATION_MILLIS / 10_000);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.sample.stock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * StockTable の単体テスト。
+ */
+class StockTableTest {
+
+    private final StockTable table = new StockTable();
+
+    @Test
+    void get_未登録の商品はUNKNOWNを返す() {
+        assertThat(table.get("P001")).isEqualTo(StockTable.UNKNOWN);
+        assertThat(table.addAndGet("P001", 1)).isEqualTo(StockTable.UNKNOWN);
+        assertThat(table.size()).isZero();
+    }
+
+    @Test
+    void set_チャンクを超えて登録しても既存の値を保持する() {
+        for (int i = 0; i < 10_000; i++) {
+            table.set("P" + i, i);
+        }
+        table.set("P0", 5);
+
+        assertThat(table.get("P0")).isEqualTo(5);
+        assertThat(table.get("P9999")).isEqualTo(9999);
+        assertThat(table.size()).isEqualTo(10_000);
+    }
+
+    @Test
+    void addAndGet_並行して加減算しても値を失わない() throws Exception {
+        table.set("P001", 0);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int sign = t % 2 == 0 ? 1 : -1;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        table.addAndGet("P001", sign * 2);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(table.get("P001")).isZero();
+    }
+
+    @Test
+    void compareAndSet_期待値と一致する場合のみ更新する() {
+        table.set("P001", 10);
+
+        assertThat(table.compareAndSet("P001", 9, 8)).isFalse();
+        assertThat(table.compareAndSet("P001", 10, 8)).isTrue();
+        assertThat(table.get("P001")).isEqualTo(8);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.sample.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ProductNameNormalizer の単体テスト。
+ * <p>
+ * 表記ゆれのある商品名が同じ検索キーに正規化されることを検証する。
+ */
+class ProductNameNormalizerTest {
+
+    @Test
+    void normalize_全角半角とかなの違いを吸収する() {
+        assertThat(ProductNameNormalizer.normalize("ﾉｰﾄﾊﾟｿｺﾝ")).isEqualTo("ノートパソコン");
+        assertThat(ProductNameNormalizer.normalize("のーとぱそこん")).isEqualTo("ノートパソコン");
+        assertThat(ProductNameNormalizer.normalize("ＵＳＢケーブル　１ｍ")).isEqualTo("usbケーブル 1m");
+        assertThat(ProductNameNormalizer.normalize("ｶﾞｲﾄﾞﾌﾞｯｸ")).isEqualTo(ProductNameNormalizer.normalize("がいどぶっく"));
+    }
+
+    @Test
+    void normalize_漢字と記号はそのまま残す() {
+        assertThat(ProductNameNormalizer.normalize("ボールペン（黒）")).isEqualTo("ボールペン(黒)");
+        assertThat(ProductNameNormalizer.normalize("100%_OFF")).isEqualTo("100%_off");
+        assertThat(ProductNameNormalizer.normalize(null)).isNull();
+    }
+}